@@ -0,0 +1,131 @@
+package com.skypro.simplebanking.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+public class BankingClient {
+  private static final String ADMIN_HEADER = "X-SECURITY-ADMIN-KEY";
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final String baseUrl;
+  private final String adminToken;
+
+  public BankingClient(String baseUrl, String adminToken) {
+    this.httpClient =
+        HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    this.baseUrl = baseUrl;
+    this.adminToken = adminToken;
+  }
+
+  public CompletableFuture<SeededUser> createUser(String username, String password) {
+    ObjectNode body = objectMapper.createObjectNode();
+    body.put("username", username);
+    body.put("password", password);
+    HttpRequest request =
+        json("/user/", body).header(ADMIN_HEADER, adminToken).build();
+    return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(
+            response -> {
+              if (response.statusCode() != 200) {
+                throw new IllegalStateException(
+                    "Cannot create " + username + ": HTTP " + response.statusCode());
+              }
+              return toSeededUser(response.body(), password);
+            });
+  }
+
+  /** Deposits to the user's account in the currency, opened by the deposit if need be. */
+  public CompletableFuture<Long> depositToCurrency(SeededUser user, String currency, long amount) {
+    HttpRequest request = balanceChange(user, "/account/deposit/currency/" + currency, amount);
+    return httpClient
+        .sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .thenApply(
+            response -> {
+              if (response.statusCode() != 200) {
+                throw new IllegalStateException(
+                    "Cannot fund " + currency + " account: HTTP " + response.statusCode());
+              }
+              return accountId(response.body());
+            });
+  }
+
+  public HttpRequest deposit(SeededUser user, long accountId, long amount) {
+    return balanceChange(user, "/account/deposit/" + accountId, amount);
+  }
+
+  public HttpRequest withdraw(SeededUser user, long accountId, long amount) {
+    return balanceChange(user, "/account/withdraw/" + accountId, amount);
+  }
+
+  public HttpRequest transfer(
+      SeededUser user, long fromAccountId, long toUserId, long toAccountId, long amount) {
+    ObjectNode body = objectMapper.createObjectNode();
+    body.put("fromAccountId", fromAccountId);
+    body.put("toUserId", toUserId);
+    body.put("toAccountId", toAccountId);
+    body.put("amount", amount);
+    return json("/transfer", body).header("Authorization", user.getAuthorization()).build();
+  }
+
+  public HttpRequest balance(SeededUser user, long accountId) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + "/account/" + accountId))
+        .timeout(TIMEOUT)
+        .header("Authorization", user.getAuthorization())
+        .GET()
+        .build();
+  }
+
+  public CompletableFuture<HttpResponse<Void>> send(HttpRequest request) {
+    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding());
+  }
+
+  private HttpRequest balanceChange(SeededUser user, String path, long amount) {
+    ObjectNode body = objectMapper.createObjectNode();
+    body.put("amount", amount);
+    return json(path, body).header("Authorization", user.getAuthorization()).build();
+  }
+
+  private HttpRequest.Builder json(String path, JsonNode body) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path))
+        .timeout(TIMEOUT)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+  }
+
+  private long accountId(String body) {
+    try {
+      return objectMapper.readTree(body).get("id").asLong();
+    } catch (IOException e) {
+      throw new IllegalStateException("Unexpected account payload " + body, e);
+    }
+  }
+
+  private SeededUser toSeededUser(String body, String password) {
+    try {
+      JsonNode user = objectMapper.readTree(body);
+      Map<String, Long> accounts = new LinkedHashMap<>();
+      for (JsonNode account : user.path("accounts")) {
+        accounts.put(account.get("currency").asText(), account.get("id").asLong());
+      }
+      return new SeededUser(user.get("id").asLong(), user.get("username").asText(), password, accounts);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unexpected user payload " + body, e);
+    }
+  }
+}
@@ -0,0 +1,57 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.io.PrintStream;
+import java.util.Map;
+import org.HdrHistogram.Histogram;
+
+public class LatencyReport {
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final Map<Operation, OperationStats> stats;
+  private final long dropped;
+  private final int durationSeconds;
+
+  public LatencyReport(Map<Operation, OperationStats> stats, long dropped, int durationSeconds) {
+    this.stats = stats;
+    this.dropped = dropped;
+    this.durationSeconds = durationSeconds;
+  }
+
+  public void print(PrintStream out) {
+    out.printf(
+        "%-9s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n",
+        "operation", "ok", "rejected", "failed", "ops/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms",
+        "max ms");
+    Histogram total = new Histogram(3);
+    long completed = 0;
+    for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+      OperationStats operation = entry.getValue();
+      Histogram latencies = operation.getLatencies().copy();
+      total.add(latencies);
+      completed += latencies.getTotalCount();
+      printRow(out, entry.getKey().name(), operation, latencies);
+    }
+    out.printf(
+        "total     %9d requests, %.1f ops/s, p99 %.2f ms, p99.9 %.2f ms, %d dropped at the in-flight cap%n",
+        completed,
+        (double) completed / durationSeconds,
+        total.getValueAtPercentile(99) / NANOS_PER_MILLI,
+        total.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+        dropped);
+  }
+
+  private void printRow(PrintStream out, String name, OperationStats operation, Histogram latencies) {
+    out.printf(
+        "%-9s %9d %9d %9d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+        name,
+        operation.getSucceeded(),
+        operation.getRejected(),
+        operation.getFailed(),
+        (double) latencies.getTotalCount() / durationSeconds,
+        latencies.getValueAtPercentile(50) / NANOS_PER_MILLI,
+        latencies.getValueAtPercentile(90) / NANOS_PER_MILLI,
+        latencies.getValueAtPercentile(99) / NANOS_PER_MILLI,
+        latencies.getValueAtPercentile(99.9) / NANOS_PER_MILLI,
+        latencies.getMaxValue() / NANOS_PER_MILLI);
+  }
+}
@@ -0,0 +1,32 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.util.List;
+
+/**
+ * Seeds users through the admin API and then drives a mixed deposit, withdraw, transfer and
+ * balance-read workload against a running simple-banking instance.
+ *
+ * <p>Start Postgres with {@code docker compose up -d} and the application with {@code mvn
+ * spring-boot:run} in the repository root, then run for example:
+ *
+ * <pre>
+ * mvn -f load-generator/pom.xml compile exec:java \
+ *     -Dexec.args="--profile=load-generator/profiles/hot-merchant.properties --rate=500"
+ * </pre>
+ */
+public class LoadGenerator {
+
+  public static void main(String[] args) throws Exception {
+    LoadProfile profile = LoadProfile.fromArgs(args);
+    BankingClient client = new BankingClient(profile.getBaseUrl(), profile.getAdminToken());
+
+    System.out.println("Profile: " + profile);
+    long seedStart = System.nanoTime();
+    List<SeededUser> users = new UserSeeder(client, profile).seed();
+    System.out.printf(
+        "Seeded %d users in %.1f s%n", users.size(), (System.nanoTime() - seedStart) / 1e9);
+
+    LatencyReport report = new OpenModelDriver(client, profile, users).run();
+    report.print(System.out);
+  }
+}
@@ -0,0 +1,145 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+public class LoadProfile {
+  private final String baseUrl;
+  private final String adminToken;
+  private final int users;
+  private final long initialBalance;
+  private final double ratePerSecond;
+  private final int durationSeconds;
+  private final int warmupSeconds;
+  private final long seed;
+  private final double hotAccountSkew;
+  private final int depositWeight;
+  private final int withdrawWeight;
+  private final int transferWeight;
+  private final int balanceWeight;
+  private final long maxAmount;
+  private final int maxInFlight;
+
+  private LoadProfile(Properties properties) {
+    this.baseUrl = properties.getProperty("base-url", "http://localhost:8080");
+    this.adminToken = properties.getProperty("admin-token", "SUPER_SECRET_KEY_FROM_ADMIN");
+    this.users = Integer.parseInt(properties.getProperty("users", "100"));
+    this.initialBalance = Long.parseLong(properties.getProperty("initial-balance", "1000000"));
+    this.ratePerSecond = Double.parseDouble(properties.getProperty("rate", "200"));
+    this.durationSeconds = Integer.parseInt(properties.getProperty("duration", "60"));
+    this.warmupSeconds = Integer.parseInt(properties.getProperty("warmup", "10"));
+    this.seed = Long.parseLong(properties.getProperty("seed", "42"));
+    this.hotAccountSkew = Double.parseDouble(properties.getProperty("skew", "1.0"));
+    this.depositWeight = Integer.parseInt(properties.getProperty("mix.deposit", "30"));
+    this.withdrawWeight = Integer.parseInt(properties.getProperty("mix.withdraw", "20"));
+    this.transferWeight = Integer.parseInt(properties.getProperty("mix.transfer", "20"));
+    this.balanceWeight = Integer.parseInt(properties.getProperty("mix.balance", "30"));
+    this.maxAmount = Long.parseLong(properties.getProperty("max-amount", "1000"));
+    this.maxInFlight = Integer.parseInt(properties.getProperty("max-in-flight", "2000"));
+    if (users < 2) {
+      throw new IllegalArgumentException("At least two users are needed to drive transfers");
+    }
+    if (depositWeight + withdrawWeight + transferWeight + balanceWeight <= 0) {
+      throw new IllegalArgumentException("Operation mix should have a positive total weight");
+    }
+  }
+
+  /**
+   * Builds a profile from an optional {@code --profile=<file>} properties file, overridden by
+   * {@code --key=value} arguments.
+   */
+  public static LoadProfile fromArgs(String[] args) throws IOException {
+    Properties properties = new Properties();
+    Properties overrides = new Properties();
+    for (String arg : args) {
+      if (!arg.startsWith("--") || !arg.contains("=")) {
+        throw new IllegalArgumentException("Unexpected argument " + arg);
+      }
+      String key = arg.substring(2, arg.indexOf('='));
+      String value = arg.substring(arg.indexOf('=') + 1);
+      if (key.equals("profile")) {
+        try (Reader reader = Files.newBufferedReader(Path.of(value))) {
+          properties.load(reader);
+        }
+      } else {
+        overrides.setProperty(key, value);
+      }
+    }
+    properties.putAll(overrides);
+    return new LoadProfile(properties);
+  }
+
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  public String getAdminToken() {
+    return adminToken;
+  }
+
+  public int getUsers() {
+    return users;
+  }
+
+  public long getInitialBalance() {
+    return initialBalance;
+  }
+
+  public double getRatePerSecond() {
+    return ratePerSecond;
+  }
+
+  public int getDurationSeconds() {
+    return durationSeconds;
+  }
+
+  public int getWarmupSeconds() {
+    return warmupSeconds;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  public double getHotAccountSkew() {
+    return hotAccountSkew;
+  }
+
+  public int getDepositWeight() {
+    return depositWeight;
+  }
+
+  public int getWithdrawWeight() {
+    return withdrawWeight;
+  }
+
+  public int getTransferWeight() {
+    return transferWeight;
+  }
+
+  public int getBalanceWeight() {
+    return balanceWeight;
+  }
+
+  public long getMaxAmount() {
+    return maxAmount;
+  }
+
+  public int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  @Override
+  public String toString() {
+    return "users=" + users
+        + ", rate=" + ratePerSecond + "/s"
+        + ", duration=" + durationSeconds + "s"
+        + ", warmup=" + warmupSeconds + "s"
+        + ", seed=" + seed
+        + ", skew=" + hotAccountSkew
+        + ", mix=" + depositWeight + "/" + withdrawWeight + "/" + transferWeight + "/" + balanceWeight;
+  }
+}
@@ -0,0 +1,154 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Drives traffic with an open workload model: arrivals follow a Poisson process at the configured
+ * rate regardless of how quickly the server answers, and latency is measured from the intended
+ * arrival time so that a stalled server is not hidden by coordinated omission.
+ *
+ * <p>All choices (arrival gaps, operations, users, currencies and amounts) come from one seeded
+ * {@link Random} on the scheduling thread, so two runs with the same profile and seed issue the
+ * same request sequence.
+ */
+public class OpenModelDriver {
+  private final BankingClient client;
+  private final LoadProfile profile;
+  private final List<SeededUser> users;
+  private final Random random;
+  private final ZipfSampler hotUsers;
+  private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder dropped = new LongAdder();
+
+  public OpenModelDriver(BankingClient client, LoadProfile profile, List<SeededUser> users) {
+    this.client = client;
+    this.profile = profile;
+    this.users = users;
+    this.random = new Random(profile.getSeed());
+    this.hotUsers = new ZipfSampler(users.size(), profile.getHotAccountSkew());
+    for (Operation operation : Operation.values()) {
+      stats.put(operation, new OperationStats());
+    }
+  }
+
+  public LatencyReport run() {
+    long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / profile.getRatePerSecond());
+    long start = System.nanoTime();
+    long measureFrom = start + TimeUnit.SECONDS.toNanos(profile.getWarmupSeconds());
+    long end = measureFrom + TimeUnit.SECONDS.toNanos(profile.getDurationSeconds());
+    long intended = start;
+    while (true) {
+      intended += (long) (-Math.log(1.0 - random.nextDouble()) * intervalNanos);
+      if (intended >= end) {
+        break;
+      }
+      Operation operation = nextOperation();
+      HttpRequest request = nextRequest(operation);
+      long wait = intended - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      issue(operation, request, intended, intended >= measureFrom);
+    }
+    awaitInFlight();
+    return new LatencyReport(stats, dropped.sum(), profile.getDurationSeconds());
+  }
+
+  private void issue(Operation operation, HttpRequest request, long intended, boolean measured) {
+    if (inFlight.incrementAndGet() > profile.getMaxInFlight()) {
+      inFlight.decrementAndGet();
+      if (measured) {
+        dropped.increment();
+      }
+      return;
+    }
+    client
+        .send(request)
+        .whenComplete(
+            (response, error) -> {
+              inFlight.decrementAndGet();
+              if (measured) {
+                stats
+                    .get(operation)
+                    .record(System.nanoTime() - intended, error == null ? response.statusCode() : -1);
+              }
+            });
+  }
+
+  private Operation nextOperation() {
+    int total =
+        profile.getDepositWeight()
+            + profile.getWithdrawWeight()
+            + profile.getTransferWeight()
+            + profile.getBalanceWeight();
+    int pick = random.nextInt(total);
+    if ((pick -= profile.getDepositWeight()) < 0) {
+      return Operation.DEPOSIT;
+    }
+    if ((pick -= profile.getWithdrawWeight()) < 0) {
+      return Operation.WITHDRAW;
+    }
+    if (pick - profile.getTransferWeight() < 0) {
+      return Operation.TRANSFER;
+    }
+    return Operation.BALANCE;
+  }
+
+  private HttpRequest nextRequest(Operation operation) {
+    long amount = 1 + (long) (random.nextDouble() * profile.getMaxAmount());
+    switch (operation) {
+      case DEPOSIT: {
+        SeededUser user = users.get(hotUsers.sample(random));
+        return client.deposit(user, randomAccount(user), amount);
+      }
+      case WITHDRAW: {
+        SeededUser user = users.get(hotUsers.sample(random));
+        return client.withdraw(user, randomAccount(user), amount);
+      }
+      case TRANSFER: {
+        SeededUser from = users.get(random.nextInt(users.size()));
+        SeededUser to = users.get(hotUsers.sample(random));
+        if (to == from) {
+          to = users.get((users.indexOf(from) + 1) % users.size());
+        }
+        String currency = randomCurrency(from);
+        Long toAccount = to.getAccountsByCurrency().get(currency);
+        if (toAccount == null) {
+          return client.balance(from, from.getAccountsByCurrency().get(currency));
+        }
+        return client.transfer(
+            from, from.getAccountsByCurrency().get(currency), to.getId(), toAccount, amount);
+      }
+      default: {
+        SeededUser user = users.get(hotUsers.sample(random));
+        return client.balance(user, randomAccount(user));
+      }
+    }
+  }
+
+  private long randomAccount(SeededUser user) {
+    return user.getAccountsByCurrency().get(randomCurrency(user));
+  }
+
+  private String randomCurrency(SeededUser user) {
+    List<String> currencies = new ArrayList<>(user.getAccountsByCurrency().keySet());
+    return currencies.get(random.nextInt(currencies.size()));
+  }
+
+  private void awaitInFlight() {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+    while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+      LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+    }
+  }
+}
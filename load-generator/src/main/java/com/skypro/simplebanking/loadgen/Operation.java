@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.loadgen;
+
+public enum Operation {
+  DEPOSIT,
+  WITHDRAW,
+  TRANSFER,
+  BALANCE
+}
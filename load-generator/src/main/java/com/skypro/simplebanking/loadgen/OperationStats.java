@@ -0,0 +1,47 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+public class OperationStats {
+  private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+  private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_NANOS, 3);
+  private final LongAdder succeeded = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+  private final LongAdder failed = new LongAdder();
+
+  /**
+   * Records a completed request; a status of {@code -1} marks a transport failure. Client errors
+   * are business rejections (insufficient funds, wrong currency) and are counted separately from
+   * server and transport failures.
+   */
+  public void record(long latencyNanos, int status) {
+    latencies.recordValue(Math.min(latencyNanos, MAX_LATENCY_NANOS));
+    if (status >= 200 && status < 300) {
+      succeeded.increment();
+    } else if (status >= 400 && status < 500) {
+      rejected.increment();
+    } else {
+      failed.increment();
+    }
+  }
+
+  public Histogram getLatencies() {
+    return latencies;
+  }
+
+  public long getSucceeded() {
+    return succeeded.sum();
+  }
+
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  public long getFailed() {
+    return failed.sum();
+  }
+}
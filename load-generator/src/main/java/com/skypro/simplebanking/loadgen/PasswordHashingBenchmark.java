@@ -0,0 +1,92 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.HdrHistogram.Histogram;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Login throughput the server can sustain per bcrypt cost: password checks per second and their
+ * latency with as many hashing threads as {@code app.password-hashing.threads} would give. Use it
+ * to pick {@code app.password-hashing.bcrypt-strength} for the hardware at hand.
+ *
+ * <pre>
+ * mvn -f load-generator/pom.xml compile exec:java \
+ *     -Dexec.mainClass=com.skypro.simplebanking.loadgen.PasswordHashingBenchmark \
+ *     -Dexec.args="--costs=8,10,12 --threads=4 --seconds=10"
+ * </pre>
+ */
+public class PasswordHashingBenchmark {
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+  private static final String PASSWORD = "correct horse battery staple";
+
+  public static void main(String[] args) throws Exception {
+    String costs = "8,10,12";
+    int threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    int seconds = 10;
+    for (String arg : args) {
+      if (arg.startsWith("--costs=")) {
+        costs = arg.substring("--costs=".length());
+      } else if (arg.startsWith("--threads=")) {
+        threads = Integer.parseInt(arg.substring("--threads=".length()));
+      } else if (arg.startsWith("--seconds=")) {
+        seconds = Integer.parseInt(arg.substring("--seconds=".length()));
+      } else {
+        throw new IllegalArgumentException("Unknown argument " + arg);
+      }
+    }
+
+    System.out.printf(
+        "%4s %7s %12s %9s %9s %9s%n", "cost", "threads", "logins/s", "p50 ms", "p99 ms", "max ms");
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      for (String cost : costs.split(",")) {
+        run(Integer.parseInt(cost.trim()), threads, seconds, executor);
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  private static void run(int cost, int threads, int seconds, ExecutorService executor)
+      throws Exception {
+    BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(cost);
+    String hash = encoder.encode(PASSWORD);
+    encoder.matches(PASSWORD, hash);
+    long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+    List<Future<Histogram>> workers = new ArrayList<>(threads);
+    for (int i = 0; i < threads; i++) {
+      Callable<Histogram> worker =
+          () -> {
+            Histogram latencies = new Histogram(3);
+            long start = System.nanoTime();
+            while (start < deadline) {
+              if (!encoder.matches(PASSWORD, hash)) {
+                throw new IllegalStateException("Password check failed");
+              }
+              long end = System.nanoTime();
+              latencies.recordValue(end - start);
+              start = end;
+            }
+            return latencies;
+          };
+      workers.add(executor.submit(worker));
+    }
+    Histogram total = new Histogram(3);
+    for (Future<Histogram> worker : workers) {
+      total.add(worker.get());
+    }
+    System.out.printf(
+        "%4d %7d %12.1f %9.2f %9.2f %9.2f%n",
+        cost,
+        threads,
+        (double) total.getTotalCount() / seconds,
+        total.getValueAtPercentile(50) / NANOS_PER_MILLI,
+        total.getValueAtPercentile(99) / NANOS_PER_MILLI,
+        total.getMaxValue() / NANOS_PER_MILLI);
+  }
+}
@@ -0,0 +1,38 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+public class SeededUser {
+  private final long id;
+  private final String username;
+  private final String authorization;
+  private final Map<String, Long> accountsByCurrency;
+
+  public SeededUser(long id, String username, String password, Map<String, Long> accountsByCurrency) {
+    this.id = id;
+    this.username = username;
+    this.authorization =
+        "Basic "
+            + Base64.getEncoder()
+                .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    this.accountsByCurrency = accountsByCurrency;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getAuthorization() {
+    return authorization;
+  }
+
+  public Map<String, Long> getAccountsByCurrency() {
+    return accountsByCurrency;
+  }
+}
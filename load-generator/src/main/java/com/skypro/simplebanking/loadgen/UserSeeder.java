@@ -0,0 +1,60 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Creates the users a run operates on through {@code POST /user/} and opens an account in each of
+ * {@link #CURRENCIES} with a deposit, so that withdrawals and transfers are not dominated by
+ * insufficient-funds rejections. Users are created without accounts.
+ */
+public class UserSeeder {
+  private static final int PARALLELISM = 16;
+  private static final List<String> CURRENCIES = List.of("USD", "EUR", "RUB");
+
+  private final BankingClient client;
+  private final LoadProfile profile;
+
+  public UserSeeder(BankingClient client, LoadProfile profile) {
+    this.client = client;
+    this.profile = profile;
+  }
+
+  public List<SeededUser> seed() {
+    String prefix = "load-" + profile.getSeed() + "-" + System.currentTimeMillis() + "-";
+    Semaphore permits = new Semaphore(PARALLELISM);
+    List<CompletableFuture<SeededUser>> futures = new ArrayList<>(profile.getUsers());
+    for (int i = 0; i < profile.getUsers(); i++) {
+      permits.acquireUninterruptibly();
+      futures.add(
+          client
+              .createUser(prefix + i, "password-" + i)
+              .thenCompose(this::fund)
+              .whenComplete((user, error) -> permits.release()));
+    }
+    List<SeededUser> users = new ArrayList<>(futures.size());
+    for (CompletableFuture<SeededUser> future : futures) {
+      users.add(future.join());
+    }
+    return users;
+  }
+
+  /** A zero initial balance still opens the accounts. */
+  private CompletableFuture<SeededUser> fund(SeededUser user) {
+    long amount = Math.max(profile.getInitialBalance(), 0);
+    List<CompletableFuture<Long>> deposits = new ArrayList<>(CURRENCIES.size());
+    for (String currency : CURRENCIES) {
+      deposits.add(client.depositToCurrency(user, currency, amount));
+    }
+    return CompletableFuture.allOf(deposits.toArray(CompletableFuture[]::new))
+        .thenApply(
+            v -> {
+              for (int i = 0; i < CURRENCIES.size(); i++) {
+                user.getAccountsByCurrency().put(CURRENCIES.get(i), deposits.get(i).join());
+              }
+              return user;
+            });
+  }
+}
@@ -0,0 +1,30 @@
+package com.skypro.simplebanking.loadgen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Samples ranks {@code 0..n-1} with probability proportional to {@code 1 / (rank + 1)^skew}, so a
+ * skew of {@code 0} is uniform and larger values concentrate traffic on the lowest ranks.
+ */
+public class ZipfSampler {
+  private final double[] cumulative;
+
+  public ZipfSampler(int n, double skew) {
+    cumulative = new double[n];
+    double total = 0;
+    for (int rank = 0; rank < n; rank++) {
+      total += 1.0 / Math.pow(rank + 1, skew);
+      cumulative[rank] = total;
+    }
+    for (int rank = 0; rank < n; rank++) {
+      cumulative[rank] /= total;
+    }
+  }
+
+  public int sample(Random random) {
+    int index = Arrays.binarySearch(cumulative, random.nextDouble());
+    int rank = index >= 0 ? index : -index - 1;
+    return Math.min(rank, cumulative.length - 1);
+  }
+}
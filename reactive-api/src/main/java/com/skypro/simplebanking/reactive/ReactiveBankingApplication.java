@@ -0,0 +1,25 @@
+package com.skypro.simplebanking.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * The {@code /user}, {@code /account} and {@code /transfer} API of simple-banking on WebFlux and
+ * R2DBC, against the schema the servlet application creates. It covers a single database:
+ * sharding, deposit coalescing, the audit trail and the admin endpoints stay servlet-only.
+ *
+ * <p>To compare the two stacks, start the servlet application on 8080 and this one on 8081 against
+ * the same Postgres, then drive each with the same profile:
+ *
+ * <pre>
+ * mvn -f load-generator/pom.xml compile exec:java \
+ *     -Dexec.args="--profile=load-generator/profiles/hot-merchant.properties --base-url=http://localhost:8081"
+ * </pre>
+ */
+@SpringBootApplication
+public class ReactiveBankingApplication {
+
+  public static void main(String[] args) {
+    SpringApplication.run(ReactiveBankingApplication.class, args);
+  }
+}
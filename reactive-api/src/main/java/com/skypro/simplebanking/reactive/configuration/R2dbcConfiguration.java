@@ -0,0 +1,72 @@
+package com.skypro.simplebanking.reactive.configuration;
+
+import com.skypro.simplebanking.reactive.entity.AccountCurrency;
+import com.skypro.simplebanking.reactive.entity.AccountMovementType;
+import com.skypro.simplebanking.reactive.service.CurrencyCatalog;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
+import org.springframework.data.r2dbc.dialect.PostgresDialect;
+
+@Configuration
+public class R2dbcConfiguration {
+
+  /**
+   * Hibernate stores {@link AccountCurrency} by id and {@link AccountMovementType} by name. Ids are
+   * read through the catalog, which is looked up on first use since it queries the database.
+   */
+  @Bean
+  public R2dbcCustomConversions r2dbcCustomConversions(
+      ObjectProvider<CurrencyCatalog> currencyCatalog) {
+    return R2dbcCustomConversions.of(
+        PostgresDialect.INSTANCE,
+        List.of(
+            new CurrencyToId(),
+            new IdToCurrency(currencyCatalog),
+            new MovementTypeToName(),
+            new NameToMovementType()));
+  }
+
+  @WritingConverter
+  private static class CurrencyToId implements Converter<AccountCurrency, Integer> {
+    @Override
+    public Integer convert(AccountCurrency currency) {
+      return currency.getId();
+    }
+  }
+
+  @ReadingConverter
+  private static class IdToCurrency implements Converter<Integer, AccountCurrency> {
+    private final ObjectProvider<CurrencyCatalog> currencyCatalog;
+
+    private IdToCurrency(ObjectProvider<CurrencyCatalog> currencyCatalog) {
+      this.currencyCatalog = currencyCatalog;
+    }
+
+    @Override
+    public AccountCurrency convert(Integer id) {
+      return currencyCatalog.getObject().byId(id);
+    }
+  }
+
+  @WritingConverter
+  private static class MovementTypeToName implements Converter<AccountMovementType, String> {
+    @Override
+    public String convert(AccountMovementType type) {
+      return type.name();
+    }
+  }
+
+  @ReadingConverter
+  private static class NameToMovementType implements Converter<String, AccountMovementType> {
+    @Override
+    public AccountMovementType convert(String name) {
+      return AccountMovementType.valueOf(name);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+package com.skypro.simplebanking.reactive.configuration;
+
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+
+/**
+ * The servlet side's rules on WebFlux. Password checks run on Reactor's bounded elastic scheduler
+ * (the default of the reactive authentication manager), never on an event loop thread.
+ */
+@Configuration
+@EnableWebFluxSecurity
+public class SecurityConfiguration {
+
+  @Bean
+  public PasswordEncoder passwordEncoder(
+      @Value("${app.password-hashing.bcrypt-strength}") int bcryptStrength) {
+    BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(bcryptStrength);
+    DelegatingPasswordEncoder delegatingPasswordEncoder =
+        new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+    delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+    return delegatingPasswordEncoder;
+  }
+
+  @Bean
+  public SecurityWebFilterChain securityWebFilterChain(
+      ServerHttpSecurity http, @Value("${app.security.admin-token}") String adminToken) {
+    return http.csrf()
+        .disable()
+        .logout()
+        .disable()
+        .formLogin()
+        .disable()
+        .requestCache()
+        .disable()
+        .httpBasic()
+        .and()
+        .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+        .authorizeExchange()
+        .pathMatchers(HttpMethod.POST, "/user", "/user/")
+        .hasRole("ADMIN")
+        .pathMatchers("/user/*")
+        .hasRole("USER")
+        .pathMatchers("/account/**")
+        .hasRole("USER")
+        .pathMatchers("/transfer/**")
+        .hasRole("USER")
+        .anyExchange()
+        .authenticated()
+        .and()
+        .addFilterBefore(
+            new AdminSecurityWebFilter(adminToken),
+            SecurityWebFiltersOrder.ANONYMOUS_AUTHENTICATION)
+        .build();
+  }
+}
@@ -0,0 +1,79 @@
+package com.skypro.simplebanking.reactive.controller;
+
+import com.skypro.simplebanking.reactive.dto.AccountDTO;
+import com.skypro.simplebanking.reactive.dto.BalanceChangeRequest;
+import com.skypro.simplebanking.reactive.dto.BalanceOperationRequest;
+import com.skypro.simplebanking.reactive.dto.BankingUserDetails;
+import com.skypro.simplebanking.reactive.service.AccountService;
+import com.skypro.simplebanking.reactive.service.CurrencyCatalog;
+import java.util.List;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/account")
+public class AccountController {
+  private final AccountService accountService;
+  private final CurrencyCatalog currencyCatalog;
+
+  public AccountController(AccountService accountService, CurrencyCatalog currencyCatalog) {
+    this.accountService = accountService;
+    this.currencyCatalog = currencyCatalog;
+  }
+
+  @GetMapping("/{id}")
+  public Mono<AccountDTO> getUserAccount(
+      Authentication authentication, @PathVariable("id") long accountId) {
+    return accountService.getAccount(userId(authentication), accountId);
+  }
+
+  @PostMapping("/deposit/{id}")
+  public Mono<AccountDTO> depositToAccount(
+      Authentication authentication,
+      @PathVariable("id") long accountId,
+      @RequestBody BalanceChangeRequest balanceChangeRequest) {
+    return accountService.depositToAccount(
+        userId(authentication), accountId, balanceChangeRequest.getAmount());
+  }
+
+  @PostMapping("/open/{currency}")
+  public Mono<AccountDTO> openAccount(
+      Authentication authentication, @PathVariable("currency") String currency) {
+    return currencyCatalog
+        .byCode(currency)
+        .flatMap(found -> accountService.openAccount(userId(authentication), found));
+  }
+
+  @PostMapping("/deposit/currency/{currency}")
+  public Mono<AccountDTO> depositToCurrency(
+      Authentication authentication,
+      @PathVariable("currency") String currency,
+      @RequestBody BalanceChangeRequest balanceChangeRequest) {
+    return currencyCatalog
+        .byCode(currency)
+        .flatMap(
+            found ->
+                accountService.depositToCurrency(
+                    userId(authentication), found, balanceChangeRequest.getAmount()));
+  }
+
+  @PostMapping("/withdraw/{id}")
+  public Mono<AccountDTO> withdrawFromAccount(
+      Authentication authentication,
+      @PathVariable("id") long accountId,
+      @RequestBody BalanceChangeRequest balanceChangeRequest) {
+    return accountService.withdrawFromAccount(
+        userId(authentication), accountId, balanceChangeRequest.getAmount());
+  }
+
+  @PostMapping("/batch")
+  public Mono<List<AccountDTO>> applyBatch(
+      Authentication authentication, @RequestBody List<BalanceOperationRequest> operations) {
+    return accountService.applyBatch(userId(authentication), operations);
+  }
+
+  private static long userId(Authentication authentication) {
+    return ((BankingUserDetails) authentication.getPrincipal()).getId();
+  }
+}
@@ -0,0 +1,36 @@
+package com.skypro.simplebanking.reactive.controller;
+
+import com.skypro.simplebanking.reactive.dto.BankingUserDetails;
+import com.skypro.simplebanking.reactive.dto.TransferRequest;
+import com.skypro.simplebanking.reactive.service.TransferService;
+import java.util.List;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/transfer")
+public class TransferController {
+  private final TransferService transferService;
+
+  public TransferController(TransferService transferService) {
+    this.transferService = transferService;
+  }
+
+  @PostMapping
+  public Mono<Void> transfer(
+      Authentication authentication, @RequestBody TransferRequest transferRequest) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    return transferService.transfer(bankingUserDetails.getId(), transferRequest);
+  }
+
+  @PostMapping("/batch")
+  public Mono<Void> transferBatch(
+      Authentication authentication, @RequestBody List<TransferRequest> transferRequests) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    return transferService.transferBatch(bankingUserDetails.getId(), transferRequests);
+  }
+}
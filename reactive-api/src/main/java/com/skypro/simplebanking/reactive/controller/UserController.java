@@ -0,0 +1,38 @@
+package com.skypro.simplebanking.reactive.controller;
+
+import com.skypro.simplebanking.reactive.dto.BankingUserDetails;
+import com.skypro.simplebanking.reactive.dto.CreateUserRequest;
+import com.skypro.simplebanking.reactive.dto.ListUserDTO;
+import com.skypro.simplebanking.reactive.dto.UserDTO;
+import com.skypro.simplebanking.reactive.service.UserService;
+import java.util.List;
+import javax.validation.Valid;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/user")
+public class UserController {
+  private final UserService userService;
+
+  public UserController(UserService userService) {
+    this.userService = userService;
+  }
+
+  @PostMapping
+  public Mono<UserDTO> createUser(@RequestBody @Valid CreateUserRequest userRequest) {
+    return userService.createUser(userRequest.getUsername(), userRequest.getPassword());
+  }
+
+  @GetMapping("/list")
+  public Mono<List<ListUserDTO>> getAllUsers() {
+    return userService.listUsers();
+  }
+
+  @GetMapping("/me")
+  public Mono<UserDTO> getMyProfile(Authentication authentication) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    return userService.getUser(bankingUserDetails.getId());
+  }
+}
@@ -0,0 +1,15 @@
+package com.skypro.simplebanking.reactive.dto;
+
+import org.hibernate.validator.constraints.Range;
+
+public class BalanceChangeRequest {
+  private long amount;
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(long amount) {
+    this.amount = amount;
+  }
+}
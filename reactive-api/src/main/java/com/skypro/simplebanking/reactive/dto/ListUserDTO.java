@@ -0,0 +1,38 @@
+package com.skypro.simplebanking.reactive.dto;
+
+import com.skypro.simplebanking.reactive.entity.Account;
+import com.skypro.simplebanking.reactive.entity.User;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class ListUserDTO {
+  private final long id;
+  private final String username;
+
+  private final List<ListAccountDTO> accounts;
+
+  public ListUserDTO(long id, String username, List<ListAccountDTO> accounts) {
+    this.id = id;
+    this.username = username;
+    this.accounts = accounts;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public List<ListAccountDTO> getAccounts() {
+    return accounts;
+  }
+
+  public static ListUserDTO from(User user, List<Account> accounts) {
+    return new ListUserDTO(
+        user.getId(),
+        user.getUsername(),
+        accounts.stream().map(ListAccountDTO::from).collect(Collectors.toList()));
+  }
+}
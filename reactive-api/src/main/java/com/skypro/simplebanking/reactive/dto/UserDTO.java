@@ -0,0 +1,27 @@
+package com.skypro.simplebanking.reactive.dto;
+
+import java.util.List;
+
+public class UserDTO {
+  private final long id;
+  private final String username;
+  private final List<AccountDTO> accounts;
+
+  public UserDTO(long id, String username, List<AccountDTO> accounts) {
+    this.id = id;
+    this.username = username;
+    this.accounts = accounts;
+  }
+
+  public long getId() {
+    return id;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public List<AccountDTO> getAccounts() {
+    return accounts;
+  }
+}
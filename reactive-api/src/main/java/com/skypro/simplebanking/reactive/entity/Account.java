@@ -0,0 +1,58 @@
+package com.skypro.simplebanking.reactive.entity;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** A row of {@code accounts}; the currency is stored as its id, as the servlet side does. */
+@Table("accounts")
+public class Account {
+  @Id private Long id;
+  private Long userId;
+  private AccountCurrency accountCurrency;
+  private Long amount;
+  private Integer stripeCount;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  public AccountCurrency getAccountCurrency() {
+    return accountCurrency;
+  }
+
+  public void setAccountCurrency(AccountCurrency accountCurrency) {
+    this.accountCurrency = accountCurrency;
+  }
+
+  public Long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(Long amount) {
+    this.amount = amount;
+  }
+
+  public Integer getStripeCount() {
+    return stripeCount;
+  }
+
+  public void setStripeCount(Integer stripeCount) {
+    this.stripeCount = stripeCount;
+  }
+
+  public boolean isStriped() {
+    return stripeCount != null && stripeCount > 0;
+  }
+}
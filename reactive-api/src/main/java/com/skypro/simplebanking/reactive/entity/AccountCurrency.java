@@ -0,0 +1,48 @@
+package com.skypro.simplebanking.reactive.entity;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.List;
+
+/**
+ * A currency accounts can be held in: the id stored in {@code account_currency} and the code
+ * clients see. Which currencies exist is kept in {@code currencies} on the servlet side and read
+ * through {@code CurrencyCatalog}; the three below keep the ids the old enum's ordinals gave them.
+ */
+public final class AccountCurrency {
+  public static final AccountCurrency USD = new AccountCurrency(0, "USD");
+  public static final AccountCurrency EUR = new AccountCurrency(1, "EUR");
+  public static final AccountCurrency RUB = new AccountCurrency(2, "RUB");
+  public static final List<AccountCurrency> BUILT_IN = List.of(USD, EUR, RUB);
+
+  private final int id;
+  private final String code;
+
+  public AccountCurrency(int id, String code) {
+    this.id = id;
+    this.code = code;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  @JsonValue
+  public String getCode() {
+    return code;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof AccountCurrency && ((AccountCurrency) other).id == id;
+  }
+
+  @Override
+  public int hashCode() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return code;
+  }
+}
@@ -0,0 +1,35 @@
+package com.skypro.simplebanking.reactive.entity;
+
+import java.time.Instant;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/** A row of the {@code account_movements} ledger that reconciliation checks balances against. */
+@Table("account_movements")
+public class AccountMovement {
+  @Id private Long id;
+  private Long accountId;
+  private long amount;
+  private AccountMovementType type;
+  private Instant createdAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public AccountMovementType getType() {
+    return type;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+}
@@ -0,0 +1,10 @@
+package com.skypro.simplebanking.reactive.entity;
+
+public enum AccountMovementType {
+  OPENING,
+  DEPOSIT,
+  WITHDRAWAL,
+  TRANSFER_IN,
+  TRANSFER_OUT,
+  REVERSAL
+}
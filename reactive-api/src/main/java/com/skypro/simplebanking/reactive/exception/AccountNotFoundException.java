@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.reactive.exception;
+
+/** A business rejection: stackless, so rejecting a request costs no stack walk. */
+public class AccountNotFoundException extends RuntimeException {
+  public AccountNotFoundException() {
+    super(null, null, false, false);
+  }
+}
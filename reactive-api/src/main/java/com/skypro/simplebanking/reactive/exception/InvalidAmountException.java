@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.reactive.exception;
+
+/** A business rejection: stackless, so rejecting a request costs no stack walk. */
+public class InvalidAmountException extends RuntimeException {
+  public InvalidAmountException() {
+    super(null, null, false, false);
+  }
+}
@@ -0,0 +1,20 @@
+package com.skypro.simplebanking.reactive.repository;
+
+import com.skypro.simplebanking.reactive.entity.AccountMovement;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface AccountMovementRepository extends ReactiveCrudRepository<AccountMovement, Long> {
+  @Modifying
+  @Query(
+      "INSERT INTO account_movements (id, account_id, amount, type, created_at)"
+          + " VALUES (nextval('account_movement_sequence'), :accountId, :amount, :type, now())")
+  Mono<Integer> record(long accountId, long amount, String type);
+
+  Flux<AccountMovement> findAllByAccountIdOrderById(long accountId);
+}
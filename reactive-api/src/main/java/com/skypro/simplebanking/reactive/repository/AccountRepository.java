@@ -0,0 +1,75 @@
+package com.skypro.simplebanking.reactive.repository;
+
+import com.skypro.simplebanking.reactive.entity.Account;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Balance changes are single conditional updates that return the changed row, so a deposit or
+ * withdrawal is one round trip and never reads a balance it then overwrites. Each bumps {@code
+ * version} like the servlet side does, so its entity tags and optimistic locks see the change.
+ */
+@Repository
+public interface AccountRepository extends ReactiveCrudRepository<Account, Long> {
+  Mono<Account> findByUserIdAndId(long userId, long id);
+
+  Flux<Account> findAllByUserIdOrderById(long userId);
+
+  Flux<Account> findAllByOrderById();
+
+  @Query("SELECT * FROM accounts WHERE user_id = :userId AND account_currency = :currency")
+  Mono<Account> findByUserIdAndCurrency(long userId, int currency);
+
+  /** Empty when the user has an account in the currency already, also one opened concurrently. */
+  @Query(
+      "INSERT INTO accounts (id, user_id, account_currency, amount, version)"
+          + " VALUES (nextval('account_sequence'), :userId, :currency, 0, 0)"
+          + " ON CONFLICT (user_id, account_currency) DO NOTHING RETURNING *")
+  Mono<Account> insertIfAbsent(long userId, int currency);
+
+  @Query(
+      "UPDATE accounts SET amount = amount + :amount, version = version + 1"
+          + " WHERE user_id = :userId AND id = :accountId RETURNING *")
+  Mono<Account> deposit(long userId, long accountId, long amount);
+
+  @Query(
+      "UPDATE accounts SET amount = amount - :amount, version = version + 1"
+          + " WHERE user_id = :userId AND id = :accountId AND amount >= :amount RETURNING *")
+  Mono<Account> withdraw(long userId, long accountId, long amount);
+
+  @Query("SELECT * FROM accounts WHERE user_id = :userId AND id = :accountId FOR UPDATE")
+  Mono<Account> findByUserIdAndIdForUpdate(long userId, long accountId);
+
+  /**
+   * Both accounts of a transfer, locked in id order so that transfers in opposite directions wait
+   * for each other instead of deadlocking.
+   */
+  @Query(
+      "SELECT * FROM accounts WHERE (user_id = :sourceUser AND id = :sourceAccount)"
+          + " OR (user_id = :destinationUser AND id = :destinationAccount) ORDER BY id FOR UPDATE")
+  Flux<Account> lockForTransfer(
+      long sourceUser, long sourceAccount, long destinationUser, long destinationAccount);
+
+  @Modifying
+  @Query(
+      "UPDATE accounts SET amount = :amount, version = version + 1"
+          + " WHERE user_id = :userId AND id = :accountId")
+  Mono<Integer> setAmount(long userId, long accountId, long amount);
+
+  @Query(
+      "SELECT a.amount + COALESCE((SELECT SUM(s.amount) FROM account_stripes s"
+          + " WHERE s.account_id = a.id), 0) FROM accounts a"
+          + " WHERE a.user_id = :userId AND a.id = :accountId")
+  Mono<Long> balanceOf(long userId, long accountId);
+
+  @Query("SELECT amount FROM account_stripes WHERE account_id = :accountId ORDER BY stripe FOR UPDATE")
+  Flux<Long> lockStripeAmounts(long accountId);
+
+  @Modifying
+  @Query("UPDATE account_stripes SET amount = 0 WHERE account_id = :accountId")
+  Mono<Integer> drainStripes(long accountId);
+}
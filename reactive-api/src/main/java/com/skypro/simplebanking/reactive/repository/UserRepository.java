@@ -0,0 +1,30 @@
+package com.skypro.simplebanking.reactive.repository;
+
+import com.skypro.simplebanking.reactive.entity.User;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ids come from the sequences the servlet side's Hibernate generators use. Each insert takes one
+ * {@code nextval} as its id; Hibernate's pooled optimizer only hands out ids at or below the values
+ * it fetched itself, so the two never collide.
+ */
+@Repository
+public interface UserRepository extends ReactiveCrudRepository<User, Long> {
+  Mono<User> findByUsername(String username);
+
+  Flux<User> findAllByOrderById();
+
+  @Query(
+      "INSERT INTO users (id, username, password)"
+          + " VALUES (nextval('user_sequence'), :username, :password) RETURNING *")
+  Mono<User> insert(String username, String password);
+
+  @Modifying
+  @Query("UPDATE users SET password = :password WHERE username = :username")
+  Mono<Integer> updatePassword(String username, String password);
+}
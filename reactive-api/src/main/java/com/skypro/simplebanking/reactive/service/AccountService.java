@@ -0,0 +1,191 @@
+package com.skypro.simplebanking.reactive.service;
+
+import com.skypro.simplebanking.reactive.dto.AccountDTO;
+import com.skypro.simplebanking.reactive.dto.BalanceOperationRequest;
+import com.skypro.simplebanking.reactive.entity.Account;
+import com.skypro.simplebanking.reactive.entity.AccountCurrency;
+import com.skypro.simplebanking.reactive.entity.AccountMovementType;
+import com.skypro.simplebanking.reactive.exception.AccountNotFoundException;
+import com.skypro.simplebanking.reactive.exception.InsufficientFundsException;
+import com.skypro.simplebanking.reactive.exception.InvalidAmountException;
+import com.skypro.simplebanking.reactive.exception.WrongCurrencyException;
+import com.skypro.simplebanking.reactive.repository.AccountMovementRepository;
+import com.skypro.simplebanking.reactive.repository.AccountRepository;
+import java.util.List;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Same rules and ledger entries as the servlet side. Deposits to a striped account go to the
+ * account row, which is part of the balance as well; a withdrawal the row cannot cover folds the
+ * stripes into the row first, as the servlet side's sweep does.
+ */
+@Service
+public class AccountService {
+  private final AccountRepository accountRepository;
+  private final AccountMovementRepository accountMovementRepository;
+
+  public AccountService(
+      AccountRepository accountRepository, AccountMovementRepository accountMovementRepository) {
+    this.accountRepository = accountRepository;
+    this.accountMovementRepository = accountMovementRepository;
+  }
+
+  /** Opens the user's account in the currency at zero unless it has one; returns the account. */
+  @Transactional
+  public Mono<AccountDTO> openAccount(long userId, AccountCurrency currency) {
+    return accountRepository
+        .insertIfAbsent(userId, currency.getId())
+        .switchIfEmpty(
+            Mono.defer(() -> accountRepository.findByUserIdAndCurrency(userId, currency.getId())))
+        .switchIfEmpty(Mono.error(AccountNotFoundException::new))
+        .flatMap(this::toAccountDTO);
+  }
+
+  /** Deposits to the user's account in the currency, opening it first if need be. */
+  @Transactional
+  public Mono<AccountDTO> depositToCurrency(long userId, AccountCurrency currency, long amount) {
+    if (amount < 0) {
+      return Mono.error(new InvalidAmountException());
+    }
+    return openAccount(userId, currency)
+        .flatMap(account -> depositToAccount(userId, account.getId(), amount));
+  }
+
+  @Transactional(readOnly = true)
+  public Mono<AccountDTO> getAccount(long userId, long accountId) {
+    return accountRepository
+        .findByUserIdAndId(userId, accountId)
+        .switchIfEmpty(Mono.error(AccountNotFoundException::new))
+        .flatMap(this::toAccountDTO);
+  }
+
+  /** Locks both accounts of a transfer, in id order, and checks they share a currency. */
+  @Transactional
+  public Mono<Void> validateCurrency(
+      long sourceUser, long sourceAccount, long destinationUser, long destinationAccount) {
+    return accountRepository
+        .lockForTransfer(sourceUser, sourceAccount, destinationUser, destinationAccount)
+        .collectMap(Account::getId)
+        .flatMap(
+            accounts -> {
+              Account source = accounts.get(sourceAccount);
+              Account destination = accounts.get(destinationAccount);
+              if (source == null
+                  || destination == null
+                  || source.getUserId() != sourceUser
+                  || destination.getUserId() != destinationUser) {
+                return Mono.error(new AccountNotFoundException());
+              }
+              return source.getAccountCurrency().equals(destination.getAccountCurrency())
+                  ? Mono.empty()
+                  : Mono.error(new WrongCurrencyException());
+            });
+  }
+
+  @Transactional
+  public Mono<AccountDTO> depositToAccount(long userId, long accountId, long amount) {
+    return depositToAccount(userId, accountId, amount, AccountMovementType.DEPOSIT);
+  }
+
+  @Transactional
+  public Mono<AccountDTO> depositToAccount(
+      long userId, long accountId, long amount, AccountMovementType movementType) {
+    if (amount < 0) {
+      return Mono.error(new InvalidAmountException());
+    }
+    return accountRepository
+        .deposit(userId, accountId, amount)
+        .switchIfEmpty(Mono.error(AccountNotFoundException::new))
+        .flatMap(
+            account ->
+                recordMovement(account.getId(), amount, movementType)
+                    .then(toAccountDTO(account)));
+  }
+
+  @Transactional
+  public Mono<AccountDTO> withdrawFromAccount(long userId, long accountId, long amount) {
+    return withdrawFromAccount(userId, accountId, amount, AccountMovementType.WITHDRAWAL);
+  }
+
+  @Transactional
+  public Mono<AccountDTO> withdrawFromAccount(
+      long userId, long accountId, long amount, AccountMovementType movementType) {
+    if (amount < 0) {
+      return Mono.error(new InvalidAmountException());
+    }
+    return accountRepository
+        .withdraw(userId, accountId, amount)
+        .switchIfEmpty(
+            Mono.defer(
+                () ->
+                    accountRepository
+                        .findByUserIdAndIdForUpdate(userId, accountId)
+                        .switchIfEmpty(Mono.error(AccountNotFoundException::new))
+                        .flatMap(account -> sweepStripes(account, amount))))
+        .flatMap(
+            account ->
+                recordMovement(account.getId(), -amount, movementType)
+                    .then(toAccountDTO(account)));
+  }
+
+  @Transactional
+  public Mono<List<AccountDTO>> applyBatch(long userId, List<BalanceOperationRequest> operations) {
+    return Flux.fromIterable(operations)
+        .concatMap(
+            operation -> {
+              switch (operation.getType()) {
+                case DEPOSIT:
+                  return depositToAccount(userId, operation.getAccountId(), operation.getAmount());
+                case WITHDRAW:
+                  return withdrawFromAccount(
+                      userId, operation.getAccountId(), operation.getAmount());
+                default:
+                  return Mono.error(
+                      new IllegalArgumentException("Unknown operation " + operation.getType()));
+              }
+            })
+        .collectList();
+  }
+
+  public Mono<AccountDTO> toAccountDTO(Account account) {
+    if (!account.isStriped()) {
+      return Mono.just(AccountDTO.from(account));
+    }
+    return accountRepository
+        .balanceOf(account.getUserId(), account.getId())
+        .map(balance -> new AccountDTO(account.getId(), balance, account.getAccountCurrency()));
+  }
+
+  private Mono<Void> recordMovement(long accountId, long amount, AccountMovementType type) {
+    return accountMovementRepository.record(accountId, amount, type.name()).then();
+  }
+
+  /** Called with the account row locked, after the row alone could not cover the withdrawal. */
+  private Mono<Account> sweepStripes(Account account, long amount) {
+    InsufficientFundsException insufficientFunds =
+        new InsufficientFundsException(
+            "Cannot withdraw " + amount + " " + account.getAccountCurrency().getCode());
+    if (!account.isStriped()) {
+      return Mono.error(insufficientFunds);
+    }
+    return accountRepository
+        .lockStripeAmounts(account.getId())
+        .reduce(account.getAmount(), Long::sum)
+        .flatMap(
+            total -> {
+              if (total < amount) {
+                return Mono.error(insufficientFunds);
+              }
+              account.setAmount(total - amount);
+              return accountRepository
+                  .drainStripes(account.getId())
+                  .then(
+                      accountRepository.setAmount(
+                          account.getUserId(), account.getId(), total - amount))
+                  .thenReturn(account);
+            });
+  }
+}
@@ -0,0 +1,113 @@
+package com.skypro.simplebanking.reactive.service;
+
+import com.skypro.simplebanking.reactive.entity.AccountCurrency;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * The registered currencies, read from the table the servlet side keeps. Rows are converted with
+ * the copy in memory, which is read again at startup, every {@code app.currencies.refresh-interval}
+ * and, at most once a second, when a code asked for by a client is not in it.
+ */
+@Service
+public class CurrencyCatalog implements SmartInitializingSingleton, DisposableBean {
+  private static final Pattern CODE = Pattern.compile("[A-Z]{3}");
+  private static final long MISS_RELOAD_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+  private final DatabaseClient databaseClient;
+  private final Duration refreshInterval;
+  private volatile Map<Integer, AccountCurrency> byId = index(AccountCurrency.BUILT_IN);
+  private final AtomicLong lastMissReload = new AtomicLong(System.nanoTime() - MISS_RELOAD_NANOS);
+  private Disposable refresher;
+
+  public CurrencyCatalog(
+      DatabaseClient databaseClient,
+      @Value("${app.currencies.refresh-interval:1m}") Duration refreshInterval) {
+    this.databaseClient = databaseClient;
+    this.refreshInterval = refreshInterval;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    refresher =
+        Flux.interval(Duration.ZERO, refreshInterval)
+            .concatMap(tick -> reload().onErrorResume(e -> Mono.empty()))
+            .subscribe();
+  }
+
+  @Override
+  public void destroy() {
+    if (refresher != null) {
+      refresher.dispose();
+    }
+  }
+
+  /** The currency stored as {@code id}; an id that is not registered is a corrupt row. */
+  public AccountCurrency byId(int id) {
+    AccountCurrency currency = byId.get(id);
+    if (currency == null) {
+      throw new IllegalStateException("Currency " + id + " is not registered");
+    }
+    return currency;
+  }
+
+  /** The currency with the code, ignoring case, or an {@link IllegalArgumentException}. */
+  public Mono<AccountCurrency> byCode(String code) {
+    String normalized = code.trim().toUpperCase(Locale.ROOT);
+    return Mono.justOrEmpty(find(normalized))
+        .switchIfEmpty(
+            CODE.matcher(normalized).matches() && claimMissReload()
+                ? Mono.defer(() -> reload().then(Mono.justOrEmpty(find(normalized))))
+                : Mono.empty())
+        .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Unknown currency " + code)));
+  }
+
+  private AccountCurrency find(String code) {
+    return byId.values().stream()
+        .filter(currency -> currency.getCode().equals(code))
+        .findFirst()
+        .orElse(null);
+  }
+
+  private boolean claimMissReload() {
+    long now = System.nanoTime();
+    long last = lastMissReload.get();
+    return now - last >= MISS_RELOAD_NANOS && lastMissReload.compareAndSet(last, now);
+  }
+
+  private Mono<Void> reload() {
+    return databaseClient
+        .sql("SELECT id, code FROM currencies")
+        .map(
+            row -> new AccountCurrency(row.get("id", Integer.class), row.get("code", String.class)))
+        .all()
+        .collectList()
+        .doOnNext(currencies -> byId = index(currencies))
+        .then();
+  }
+
+  private static Map<Integer, AccountCurrency> index(List<AccountCurrency> currencies) {
+    Map<Integer, AccountCurrency> index = new HashMap<>();
+    for (AccountCurrency currency : AccountCurrency.BUILT_IN) {
+      index.put(currency.getId(), currency);
+    }
+    for (AccountCurrency currency : currencies) {
+      index.putIfAbsent(currency.getId(), currency);
+    }
+    return Map.copyOf(index);
+  }
+}
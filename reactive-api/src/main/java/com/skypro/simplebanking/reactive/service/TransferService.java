@@ -0,0 +1,49 @@
+package com.skypro.simplebanking.reactive.service;
+
+import com.skypro.simplebanking.reactive.dto.TransferRequest;
+import com.skypro.simplebanking.reactive.entity.AccountMovementType;
+import java.util.List;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/** Every transfer, and every batch as a whole, is one reactive R2DBC transaction. */
+@Service
+public class TransferService {
+  private final AccountService accountService;
+
+  public TransferService(AccountService accountService) {
+    this.accountService = accountService;
+  }
+
+  @Transactional
+  public Mono<Void> transfer(long id, TransferRequest transferRequest) {
+    return accountService
+        .validateCurrency(
+            id,
+            transferRequest.getFromAccountId(),
+            transferRequest.getToUserId(),
+            transferRequest.getToAccountId())
+        .then(
+            accountService.withdrawFromAccount(
+                id,
+                transferRequest.getFromAccountId(),
+                transferRequest.getAmount(),
+                AccountMovementType.TRANSFER_OUT))
+        .then(
+            accountService.depositToAccount(
+                transferRequest.getToUserId(),
+                transferRequest.getToAccountId(),
+                transferRequest.getAmount(),
+                AccountMovementType.TRANSFER_IN))
+        .then();
+  }
+
+  @Transactional
+  public Mono<Void> transferBatch(long id, List<TransferRequest> transferRequests) {
+    return Flux.fromIterable(transferRequests)
+        .concatMap(transferRequest -> transfer(id, transferRequest))
+        .then();
+  }
+}
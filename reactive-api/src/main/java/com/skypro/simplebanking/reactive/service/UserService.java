@@ -0,0 +1,109 @@
+package com.skypro.simplebanking.reactive.service;
+
+import com.skypro.simplebanking.reactive.dto.BankingUserDetails;
+import com.skypro.simplebanking.reactive.dto.ListUserDTO;
+import com.skypro.simplebanking.reactive.dto.UserDTO;
+import com.skypro.simplebanking.reactive.entity.Account;
+import com.skypro.simplebanking.reactive.entity.User;
+import com.skypro.simplebanking.reactive.exception.UserAlreadyExistsException;
+import com.skypro.simplebanking.reactive.repository.AccountRepository;
+import com.skypro.simplebanking.reactive.repository.UserRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+@Service
+public class UserService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+  private final UserRepository userRepository;
+  private final AccountRepository accountRepository;
+  private final AccountService accountService;
+  private final PasswordEncoder passwordEncoder;
+  private final TransactionalOperator transactionalOperator;
+
+  public UserService(
+      UserRepository userRepository,
+      AccountRepository accountRepository,
+      AccountService accountService,
+      PasswordEncoder passwordEncoder,
+      TransactionalOperator transactionalOperator) {
+    this.userRepository = userRepository;
+    this.accountRepository = accountRepository;
+    this.accountService = accountService;
+    this.passwordEncoder = passwordEncoder;
+    this.transactionalOperator = transactionalOperator;
+  }
+
+  @Override
+  public Mono<UserDetails> findByUsername(String username) {
+    return userRepository.findByUsername(username).map(BankingUserDetails::from);
+  }
+
+  /** Stores a hash that Spring Security re-encoded after a login with outdated parameters. */
+  @Override
+  public Mono<UserDetails> updatePassword(UserDetails userDetails, String newPassword) {
+    return userRepository
+        .updatePassword(userDetails.getUsername(), newPassword)
+        .then(findByUsername(userDetails.getUsername()));
+  }
+
+  /**
+   * Hashes on the bounded elastic scheduler first and only then opens the transaction, so neither
+   * an event loop thread nor a pooled connection waits for bcrypt.
+   */
+  public Mono<UserDTO> createUser(String username, String password) {
+    return Mono.fromCallable(() -> passwordEncoder.encode(password))
+        .subscribeOn(Schedulers.boundedElastic())
+        .flatMap(
+            encodedPassword ->
+                insertUser(username, encodedPassword).as(transactionalOperator::transactional));
+  }
+
+  @Transactional(readOnly = true)
+  public Mono<UserDTO> getUser(long id) {
+    return userRepository
+        .findById(id)
+        .flatMap(
+            user ->
+                accountRepository
+                    .findAllByUserIdOrderById(id)
+                    .concatMap(accountService::toAccountDTO)
+                    .collectList()
+                    .map(accounts -> new UserDTO(user.getId(), user.getUsername(), accounts)));
+  }
+
+  /** Two queries in all, rather than one per user. */
+  @Transactional(readOnly = true)
+  public Mono<List<ListUserDTO>> listUsers() {
+    return Mono.zip(
+            userRepository.findAllByOrderById().collectList(),
+            accountRepository
+                .findAllByOrderById()
+                .collect(Collectors.groupingBy(Account::getUserId)))
+        .map(
+            usersAndAccounts -> {
+              Map<Long, List<Account>> accounts = usersAndAccounts.getT2();
+              return usersAndAccounts.getT1().stream()
+                  .map(
+                      user ->
+                          ListUserDTO.from(user, accounts.getOrDefault(user.getId(), List.of())))
+                  .collect(Collectors.toList());
+            });
+  }
+
+  private Mono<UserDTO> insertUser(String username, String encodedPassword) {
+    return userRepository
+        .findByUsername(username)
+        .flatMap(existing -> Mono.<User>error(new UserAlreadyExistsException()))
+        .switchIfEmpty(Mono.defer(() -> userRepository.insert(username, encodedPassword)))
+        .map(user -> new UserDTO(user.getId(), user.getUsername(), List.of()));
+  }
+}
@@ -0,0 +1,189 @@
+package com.skypro.simplebanking.reactive.controller;
+
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static com.skypro.simplebanking.reactive.utility.Utilities.*;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockAuthentication;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AccountControllerTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void prepareTestDataWithAuthentication() {
+        webTestClient = WebTestClient.bindToApplicationContext(context)
+                .apply(springSecurity())
+                .configureClient()
+                .build()
+                .mutateWith(mockAuthentication(getAdminAuthentication(false)));
+        createUsersWithAccounts(databaseClient, passwordEncoder);
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenGetUserAccountIsCalled_thenAccountIsFound() {
+
+        webTestClient.get().uri("/account/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.amount").isEqualTo(10_000)
+                .jsonPath("$.currency").isEqualTo("USD");
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenGetUserAccountIsCalledByAnotherUser_thenNotFound() {
+
+        webTestClient.mutateWith(mockAuthentication(getUserTwoAuthentication()))
+                .get().uri("/account/{id}", 1)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenGetUserAccountIsCalledByAdmin_thenForbidden() {
+
+        webTestClient.mutateWith(mockAuthentication(getAdminAuthentication(true)))
+                .get().uri("/account/{id}", 1)
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenDepositToAccount_thenBalanceIsChanged() {
+
+        webTestClient.post().uri("/account/deposit/{id}", 1)
+                .bodyValue(createBalanceChangeRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.amount").isEqualTo(15_000)
+                .jsonPath("$.currency").isEqualTo("USD");
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenDepositWrongAmountToAccount_thenBadRequest() {
+
+        webTestClient.post().uri("/account/deposit/{id}", 1)
+                .bodyValue(Map.of("amount", -5_000L))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Amount should be more than 0");
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenDepositToAccountOfAnotherUser_thenNotFound() {
+
+        webTestClient.post().uri("/account/deposit/{id}", 4)
+                .bodyValue(createBalanceChangeRequest())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenWithdrawFromAccount_thenBalanceIsChanged() {
+
+        webTestClient.post().uri("/account/withdraw/{id}", 1)
+                .bodyValue(createBalanceChangeRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo(5_000);
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenWithdrawBiggerAmountFromAccount_thenBadRequest() {
+
+        webTestClient.post().uri("/account/withdraw/{id}", 1)
+                .bodyValue(Map.of("amount", 15_000L))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Cannot withdraw 15000 USD");
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenApplyBatchWithBiggerWithdrawal_thenNothingIsApplied() {
+        List<Map<String, Object>> operations = List.of(
+                Map.of("accountId", 1, "type", "DEPOSIT", "amount", 5_000L),
+                Map.of("accountId", 1, "type", "WITHDRAW", "amount", 20_000L));
+
+        webTestClient.post().uri("/account/batch")
+                .bodyValue(operations)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/account/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo(10_000);
+    }
+
+    @Test
+    public void givenStripedAccount_whenWithdrawMoreThanAccountRow_thenStripesAreSwept() {
+        databaseClient.sql("UPDATE accounts SET stripe_count = 2 WHERE id = 1").then().block();
+        databaseClient.sql("INSERT INTO account_stripes (id, account_id, stripe, amount) "
+                        + "VALUES (nextval('account_stripe_sequence'), 1, 0, 4000), "
+                        + "(nextval('account_stripe_sequence'), 1, 1, 6000)")
+                .then()
+                .block();
+
+        webTestClient.post().uri("/account/withdraw/{id}", 1)
+                .bodyValue(Map.of("amount", 18_000L))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo(2_000);
+
+        webTestClient.post().uri("/account/withdraw/{id}", 1)
+                .bodyValue(Map.of("amount", 3_000L))
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Cannot withdraw 3000 USD");
+    }
+
+    @Test
+    public void givenAccountInCurrency_whenDepositToCurrency_thenExistingAccountIsUsed() {
+
+        webTestClient.post().uri("/account/deposit/currency/{currency}", "eur")
+                .bodyValue(createBalanceChangeRequest())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(2)
+                .jsonPath("$.amount").isEqualTo(15_000)
+                .jsonPath("$.currency").isEqualTo("EUR");
+    }
+
+    @Test
+    public void givenUnknownCurrency_whenOpenAccount_thenBadRequest() {
+
+        webTestClient.post().uri("/account/open/{currency}", "XYZ")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody(String.class).isEqualTo("Unknown currency XYZ");
+    }
+}
@@ -0,0 +1,108 @@
+package com.skypro.simplebanking.reactive.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static com.skypro.simplebanking.reactive.utility.Utilities.*;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockAuthentication;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class TransferControllerTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void prepareTestDataWithUserAuthentication() {
+        webTestClient = WebTestClient.bindToApplicationContext(context)
+                .apply(springSecurity())
+                .configureClient()
+                .build()
+                .mutateWith(mockAuthentication(getAdminAuthentication(false)));
+        createUsersWithAccounts(databaseClient, passwordEncoder);
+    }
+
+    @Test
+    public void givenUserAccounts_whenTransfer_thenTransferFromOneAccountToAnother() {
+
+        webTestClient.post().uri("/transfer")
+                .bodyValue(createTransferRequest())
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get().uri("/account/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo(5_000)
+                .jsonPath("$.currency").isEqualTo("USD");
+    }
+
+    @Test
+    public void givenUserAccounts_whenTransferByAnotherUser_thenNotFound() {
+
+        webTestClient.mutateWith(mockAuthentication(getUserTwoAuthentication()))
+                .post().uri("/transfer")
+                .bodyValue(createTransferRequest())
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    public void givenUserAccounts_whenTransferByAdmin_thenForbidden() {
+
+        webTestClient.mutateWith(mockAuthentication(getAdminAuthentication(true)))
+                .post().uri("/transfer")
+                .bodyValue(createTransferRequest())
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void givenUserAccounts_whenTransferWrongCurrency_thenBadRequest() {
+        Map<String, Object> transferRequest = new HashMap<>(createTransferRequest());
+        transferRequest.put("toAccountId", 5);
+
+        webTestClient.post().uri("/transfer")
+                .bodyValue(transferRequest)
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void givenUserAccounts_whenTransferBatchWithBiggerTransfer_thenNothingIsApplied() {
+        Map<String, Object> biggerTransfer = new HashMap<>(createTransferRequest());
+        biggerTransfer.put("amount", 20_000L);
+
+        webTestClient.post().uri("/transfer/batch")
+                .bodyValue(List.of(createTransferRequest(), biggerTransfer))
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        webTestClient.get().uri("/account/{id}", 1)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.amount").isEqualTo(10_000);
+    }
+}
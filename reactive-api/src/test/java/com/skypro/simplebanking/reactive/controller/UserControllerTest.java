@@ -0,0 +1,137 @@
+package com.skypro.simplebanking.reactive.controller;
+
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static com.skypro.simplebanking.reactive.utility.Utilities.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockAuthentication;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UserControllerTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    public void prepareClient() {
+        webTestClient = WebTestClient.bindToApplicationContext(context)
+                .apply(springSecurity())
+                .configureClient()
+                .build();
+    }
+
+    @Test
+    public void givenNoUsersInDatabase_whenCreateUserWithAdminKey_thenUserIsSavedInDatabase() {
+
+        webTestClient.post().uri("/user")
+                .header("X-SECURITY-ADMIN-KEY", "SUPER_SECRET_KEY_FROM_ADMIN")
+                .bodyValue(Map.of("username", "username", "password", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1)
+                .jsonPath("$.username").isEqualTo("username")
+                .jsonPath("$.accounts.length()").isEqualTo(0);
+    }
+
+    @Test
+    public void givenNoUsersInDatabase_whenCreateUserByUser_thenForbidden() {
+
+        webTestClient.mutateWith(mockAuthentication(getAdminAuthentication(false)))
+                .post().uri("/user")
+                .bodyValue(Map.of("username", "username", "password", "password"))
+                .exchange()
+                .expectStatus().isForbidden();
+    }
+
+    @Test
+    public void givenListOfUsers_whenCreateUserWithExistingName_thenBadRequest() {
+        createUsersWithAccounts(databaseClient, passwordEncoder);
+
+        webTestClient.mutateWith(mockAuthentication(getAdminAuthentication(true)))
+                .post().uri("/user")
+                .bodyValue(Map.of("username", "user", "password", "password"))
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    public void givenListOfUsers_whenGetAllUsers_thenGetListOfUsers() {
+        createUsersWithAccounts(databaseClient, passwordEncoder);
+
+        webTestClient.mutateWith(mockAuthentication(getAdminAuthentication(false)))
+                .get().uri("/user/list")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].username").isEqualTo("user")
+                .jsonPath("$[1].username").isEqualTo("user_2")
+                .jsonPath("$[0].accounts[2].accountId").isEqualTo(3)
+                .jsonPath("$[1].accounts[0].accountId").isEqualTo(4)
+                .jsonPath("$[1].accounts[2].currency").isEqualTo("RUB");
+    }
+
+    @Test
+    public void givenUserInDatabase_whenGetUserWithBasicAuthentication_thenReceiveUserInfo() {
+        createUsersWithAccounts(databaseClient, passwordEncoder);
+
+        webTestClient.get().uri("/user/me")
+                .headers(headers -> headers.setBasicAuth("user", "password"))
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.username").isEqualTo("user")
+                .jsonPath("$.accounts.length()").isEqualTo(3)
+                .jsonPath("$.accounts[0].amount").isEqualTo(10_000);
+    }
+
+    @Test
+    public void givenLegacyPasswordHash_whenUserLogsIn_thenHashIsUpgraded() {
+        createUsersWithAccounts(databaseClient, passwordEncoder);
+        databaseClient.sql("UPDATE users SET password = :password WHERE id = 1")
+                .bind("password", passwordEncoder.encode("password").substring("{bcrypt}".length()))
+                .then()
+                .block();
+
+        webTestClient.get().uri("/user/me")
+                .headers(headers -> headers.setBasicAuth("user", "password"))
+                .exchange()
+                .expectStatus().isOk();
+
+        String password = databaseClient.sql("SELECT password FROM users WHERE id = 1")
+                .map(row -> row.get("password", String.class))
+                .one()
+                .block();
+        assertThat(password).startsWith("{bcrypt}$2a$10$");
+    }
+
+    @Test
+    public void givenUserInDatabase_whenGetUserWithWrongPassword_thenUnauthorized() {
+        createUsersWithAccounts(databaseClient, passwordEncoder);
+
+        webTestClient.get().uri("/user/me")
+                .headers(headers -> headers.setBasicAuth("user", "wrong"))
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+}
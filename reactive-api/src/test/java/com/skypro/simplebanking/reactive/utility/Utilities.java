@@ -0,0 +1,62 @@
+package com.skypro.simplebanking.reactive.utility;
+
+import com.skypro.simplebanking.reactive.dto.BankingUserDetails;
+import java.util.Map;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class Utilities {
+
+    public static Authentication getAdminAuthentication(boolean isAdmin) {
+        BankingUserDetails bankingUserDetails;
+        if (isAdmin) {
+            bankingUserDetails = new BankingUserDetails(-1L, "admin", "****", true);
+        } else {
+            bankingUserDetails = new BankingUserDetails(1L, "user", "password", false);
+        }
+        return new UsernamePasswordAuthenticationToken(bankingUserDetails, null, bankingUserDetails.getAuthorities());
+    }
+
+    public static Authentication getUserTwoAuthentication() {
+        BankingUserDetails bankingUserDetails = new BankingUserDetails(2L, "user_2", "password_2", false);
+        return new UsernamePasswordAuthenticationToken(bankingUserDetails, null, bankingUserDetails.getAuthorities());
+    }
+
+    /**
+     * Users 1 ("user") and 2 ("user_2") with USD, EUR and RUB accounts of 10 000 each: accounts 1-3
+     * belong to user 1, accounts 4-6 to user 2.
+     */
+    public static void createUsersWithAccounts(DatabaseClient databaseClient, PasswordEncoder passwordEncoder) {
+        insertUser(databaseClient, 1L, "user", passwordEncoder.encode("password"));
+        insertUser(databaseClient, 2L, "user_2", passwordEncoder.encode("password_2"));
+        for (long accountId = 1; accountId <= 6; accountId++) {
+            databaseClient.sql("INSERT INTO accounts (id, account_currency, amount, stripe_count, user_id, version) "
+                            + "VALUES (:id, :currency, 10000, 0, :userId, 0)")
+                    .bind("id", accountId)
+                    .bind("currency", (int) ((accountId - 1) % 3))
+                    .bind("userId", accountId <= 3 ? 1L : 2L)
+                    .then()
+                    .block();
+        }
+        databaseClient.sql("SELECT setval('user_sequence', 2), setval('account_sequence', 6)").then().block();
+    }
+
+    public static Map<String, Object> createBalanceChangeRequest() {
+        return Map.of("amount", 5_000L);
+    }
+
+    public static Map<String, Object> createTransferRequest() {
+        return Map.of("fromAccountId", 1, "toUserId", 2, "toAccountId", 4, "amount", 5_000L);
+    }
+
+    private static void insertUser(DatabaseClient databaseClient, long id, String username, String password) {
+        databaseClient.sql("INSERT INTO users (id, username, password) VALUES (:id, :username, :password)")
+                .bind("id", id)
+                .bind("username", username)
+                .bind("password", password)
+                .then()
+                .block();
+    }
+}
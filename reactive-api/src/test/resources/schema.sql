@@ -0,0 +1,40 @@
+-- The tables the servlet application's Hibernate mapping creates, as far as this module uses them.
+DROP TABLE IF EXISTS account_movements, account_stripes, accounts, users CASCADE;
+DROP SEQUENCE IF EXISTS user_sequence, account_sequence, account_stripe_sequence, account_movement_sequence;
+
+CREATE SEQUENCE user_sequence;
+CREATE SEQUENCE account_sequence;
+CREATE SEQUENCE account_stripe_sequence;
+CREATE SEQUENCE account_movement_sequence;
+
+CREATE TABLE users (
+    id bigint PRIMARY KEY,
+    password varchar(255),
+    username varchar(255)
+);
+
+CREATE TABLE accounts (
+    id bigint PRIMARY KEY,
+    account_currency integer,
+    amount bigint,
+    stripe_count integer,
+    user_id bigint NOT NULL REFERENCES users,
+    version bigint NOT NULL
+);
+
+CREATE TABLE account_stripes (
+    id bigint PRIMARY KEY,
+    account_id bigint NOT NULL,
+    amount bigint NOT NULL,
+    stripe integer NOT NULL,
+    UNIQUE (account_id, stripe)
+);
+
+CREATE TABLE account_movements (
+    id bigint PRIMARY KEY,
+    account_id bigint NOT NULL,
+    amount bigint NOT NULL,
+    created_at timestamp NOT NULL,
+    type varchar(255) NOT NULL
+);
+CREATE INDEX account_movements_account_id_idx ON account_movements (account_id, amount);
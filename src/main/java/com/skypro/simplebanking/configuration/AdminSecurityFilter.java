@@ -1,6 +1,8 @@
 package com.skypro.simplebanking.configuration;
 
+import com.skypro.simplebanking.dto.AuditEvent;
 import com.skypro.simplebanking.dto.BankingUserDetails;
+import com.skypro.simplebanking.service.AuditTrail;
 import java.io.IOException;
 import java.util.Optional;
 import javax.servlet.FilterChain;
@@ -19,9 +21,12 @@ import org.springframework.web.filter.OncePerRequestFilter;
 @Component
 public class AdminSecurityFilter extends OncePerRequestFilter {
   private final String adminToken;
+  private final AuditTrail auditTrail;
 
-  public AdminSecurityFilter(@Value("${app.security.admin-token}") String adminToken) {
+  public AdminSecurityFilter(
+      @Value("${app.security.admin-token}") String adminToken, AuditTrail auditTrail) {
     this.adminToken = adminToken;
+    this.auditTrail = auditTrail;
   }
 
   @Override
@@ -45,7 +50,12 @@ public class AdminSecurityFilter extends OncePerRequestFilter {
       HttpServletRequest request) {
     return Optional.ofNullable(request.getHeader("X-SECURITY-ADMIN-KEY"))
         .filter(StringUtils::hasText)
-        .filter(token -> token.contentEquals(adminToken))
+        .filter(
+            token -> {
+              boolean granted = token.contentEquals(adminToken);
+              auditTrail.record(AuditEvent.adminAccess(granted));
+              return granted;
+            })
         .map(
             stringKey -> {
               BankingUserDetails userDetails = new BankingUserDetails(-1, "admin", "****", true);
@@ -0,0 +1,41 @@
+package com.skypro.simplebanking.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.archive")
+public class ArchiveProperties {
+  /** Users none of whose accounts moved for this long are archived. */
+  private Duration dormantAfter = Duration.ofDays(730);
+  /** Users moved per transaction. */
+  private int batchSize = 1000;
+  /**
+   * Rebuilds the indexes of {@code users} and {@code accounts} after a run that archived anyone;
+   * deleting rows alone leaves the indexes as large and as deep as before.
+   */
+  private boolean reindex = true;
+
+  public Duration getDormantAfter() {
+    return dormantAfter;
+  }
+
+  public void setDormantAfter(Duration dormantAfter) {
+    this.dormantAfter = dormantAfter;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  public boolean isReindex() {
+    return reindex;
+  }
+
+  public void setReindex(boolean reindex) {
+    this.reindex = reindex;
+  }
+}
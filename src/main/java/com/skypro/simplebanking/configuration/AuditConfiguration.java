@@ -0,0 +1,23 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.AuditTrail;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(AuditProperties.class)
+public class AuditConfiguration {
+
+  @Bean(destroyMethod = "close")
+  public AuditTrail auditTrail(AuditProperties auditProperties) {
+    if (!auditProperties.isEnabled()) {
+      return AuditTrail.disabled();
+    }
+    return AuditTrail.start(
+        auditProperties.getDirectory(),
+        auditProperties.getSegmentSize().toBytes(),
+        auditProperties.getBufferCapacity(),
+        auditProperties.getFlushInterval());
+  }
+}
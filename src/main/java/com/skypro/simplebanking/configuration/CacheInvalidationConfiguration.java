@@ -0,0 +1,33 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.CacheInvalidationBus;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CacheInvalidationProperties.class)
+public class CacheInvalidationConfiguration {
+
+  @Bean(destroyMethod = "close")
+  public CacheInvalidationBus cacheInvalidationBus(
+      CacheInvalidationProperties properties, DataSourceProperties dataSourceProperties) {
+    if (!properties.isEnabled()) {
+      return CacheInvalidationBus.disabled(properties.getMaxEntries(), properties.getTimeToLive());
+    }
+    return CacheInvalidationBus.start(
+        properties.getUrl() != null ? properties.getUrl() : dataSourceProperties.determineUrl(),
+        properties.getUsername() != null
+            ? properties.getUsername()
+            : dataSourceProperties.determineUsername(),
+        properties.getPassword() != null
+            ? properties.getPassword()
+            : dataSourceProperties.determinePassword(),
+        properties.getChannel(),
+        properties.getMaxEntries(),
+        properties.getTimeToLive(),
+        properties.getPollInterval(),
+        properties.getReconnectDelay());
+  }
+}
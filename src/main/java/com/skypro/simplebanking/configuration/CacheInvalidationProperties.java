@@ -0,0 +1,90 @@
+package com.skypro.simplebanking.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.cache-invalidation")
+public class CacheInvalidationProperties {
+  private boolean enabled;
+  /** Database every node notifies and listens on; defaults to {@code spring.datasource.*}. */
+  private String url;
+  private String username;
+  private String password;
+  private String channel = "banking_cache_invalidation";
+  private int maxEntries = 100_000;
+  private Duration timeToLive = Duration.ofMinutes(1);
+  private Duration pollInterval = Duration.ofMillis(500);
+  private Duration reconnectDelay = Duration.ofSeconds(1);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public void setUrl(String url) {
+    this.url = url;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public void setUsername(String username) {
+    this.username = username;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  public void setPassword(String password) {
+    this.password = password;
+  }
+
+  public String getChannel() {
+    return channel;
+  }
+
+  public void setChannel(String channel) {
+    this.channel = channel;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  public Duration getTimeToLive() {
+    return timeToLive;
+  }
+
+  public void setTimeToLive(Duration timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public Duration getPollInterval() {
+    return pollInterval;
+  }
+
+  public void setPollInterval(Duration pollInterval) {
+    this.pollInterval = pollInterval;
+  }
+
+  public Duration getReconnectDelay() {
+    return reconnectDelay;
+  }
+
+  public void setReconnectDelay(Duration reconnectDelay) {
+    this.reconnectDelay = reconnectDelay;
+  }
+}
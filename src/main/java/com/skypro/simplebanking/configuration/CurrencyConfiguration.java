@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(CurrencyProperties.class)
+public class CurrencyConfiguration {}
@@ -0,0 +1,18 @@
+package com.skypro.simplebanking.configuration;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.currencies")
+public class CurrencyProperties {
+  /** How often the registry is read again, which is how soon other nodes see a new currency. */
+  private Duration refreshInterval = Duration.ofMinutes(1);
+
+  public Duration getRefreshInterval() {
+    return refreshInterval;
+  }
+
+  public void setRefreshInterval(Duration refreshInterval) {
+    this.refreshInterval = refreshInterval;
+  }
+}
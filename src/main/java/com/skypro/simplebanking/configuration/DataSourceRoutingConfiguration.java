@@ -0,0 +1,92 @@
+package com.skypro.simplebanking.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(DataSourceRoutingProperties.class)
+@ConditionalOnProperty(name = "app.datasource.routing.enabled", havingValue = "true")
+public class DataSourceRoutingConfiguration {
+  private final DataSourceRoutingProperties routingProperties;
+  private final Environment environment;
+
+  public DataSourceRoutingConfiguration(
+      DataSourceRoutingProperties routingProperties,
+      ShardingProperties shardingProperties,
+      Environment environment) {
+    if (shardingProperties.isEnabled()) {
+      // Both would replace the primary DataSource, and shards have no replicas of their own.
+      throw new IllegalStateException(
+          "app.datasource.routing.enabled and app.sharding.enabled cannot both be true;"
+              + " read replicas are not supported for sharded deployments");
+    }
+    this.routingProperties = routingProperties;
+    this.environment = environment;
+  }
+
+  @Bean
+  public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+      DataSourceProperties dataSourceProperties) {
+    HikariDataSource primary =
+        withPoolSettings(
+            dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build());
+    primary.setPoolName("primary");
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    List<DataSourceRoutingProperties.Replica> replicaProperties = routingProperties.getReplicas();
+    for (int i = 0; i < replicaProperties.size(); i++) {
+      DataSourceRoutingProperties.Replica replica = replicaProperties.get(i);
+      HikariDataSource dataSource = withPoolSettings(new HikariDataSource());
+      dataSource.setPoolName("replica-" + i);
+      dataSource.setJdbcUrl(replica.getUrl());
+      dataSource.setUsername(replica.getUsername());
+      dataSource.setPassword(replica.getPassword());
+      if (replica.getMaximumPoolSize() != null) {
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+      }
+      dataSource.setReadOnly(true);
+      replicas.put(dataSource.getPoolName(), dataSource);
+    }
+    return new ReadWriteRoutingDataSource(
+        primary, replicas, routingProperties.getMaxReplicaLag(), routingProperties.getStickyWindow());
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+    return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+  }
+
+  @Bean
+  public SchedulingConfigurer replicaLagMonitor(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+    return taskRegistrar ->
+        taskRegistrar.addFixedDelayTask(
+            readWriteRoutingDataSource::refreshReplicaLag,
+            routingProperties.getLagCheckInterval().toMillis());
+  }
+
+  /**
+   * Applies spring.datasource.hikari.*, which Boot binds only onto the pool it creates itself; the
+   * pools here replace that one.
+   */
+  private HikariDataSource withPoolSettings(HikariDataSource dataSource) {
+    return Binder.get(environment)
+        .bind("spring.datasource.hikari", Bindable.ofInstance(dataSource))
+        .orElse(dataSource);
+  }
+}
@@ -0,0 +1,95 @@
+package com.skypro.simplebanking.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.datasource.routing")
+public class DataSourceRoutingProperties {
+  private boolean enabled;
+  private Duration maxReplicaLag = Duration.ofSeconds(5);
+  private Duration stickyWindow = Duration.ofSeconds(10);
+  private Duration lagCheckInterval = Duration.ofSeconds(1);
+  private List<Replica> replicas = new ArrayList<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Duration getMaxReplicaLag() {
+    return maxReplicaLag;
+  }
+
+  public void setMaxReplicaLag(Duration maxReplicaLag) {
+    this.maxReplicaLag = maxReplicaLag;
+  }
+
+  public Duration getStickyWindow() {
+    return stickyWindow;
+  }
+
+  public void setStickyWindow(Duration stickyWindow) {
+    this.stickyWindow = stickyWindow;
+  }
+
+  public Duration getLagCheckInterval() {
+    return lagCheckInterval;
+  }
+
+  public void setLagCheckInterval(Duration lagCheckInterval) {
+    this.lagCheckInterval = lagCheckInterval;
+  }
+
+  public List<Replica> getReplicas() {
+    return replicas;
+  }
+
+  public void setReplicas(List<Replica> replicas) {
+    this.replicas = replicas;
+  }
+
+  public static class Replica {
+    private String url;
+    private String username;
+    private String password;
+    /** Defaults to spring.datasource.hikari.maximum-pool-size, like every other pool setting. */
+    private Integer maximumPoolSize;
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+
+    public Integer getMaximumPoolSize() {
+      return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(Integer maximumPoolSize) {
+      this.maximumPoolSize = maximumPoolSize;
+    }
+  }
+}
@@ -0,0 +1,55 @@
+package com.skypro.simplebanking.configuration;
+
+import org.hibernate.BaseSessionEventListener;
+
+/**
+ * Adds the time Hibernate spends acquiring connections and executing statements to a per-thread
+ * total, so callers can attribute database time to the operation they wrap. Hibernate creates one
+ * listener per session.
+ */
+public class DbTimeListener extends BaseSessionEventListener {
+  private static final ThreadLocal<long[]> TOTAL_NANOS = ThreadLocal.withInitial(() -> new long[1]);
+
+  private long connectionStart;
+  private long statementStart;
+  private long batchStart;
+
+  /** Database time spent so far on the current thread; only differences are meaningful. */
+  public static long currentThreadNanos() {
+    return TOTAL_NANOS.get()[0];
+  }
+
+  @Override
+  public void jdbcConnectionAcquisitionStart() {
+    connectionStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcConnectionAcquisitionEnd() {
+    add(connectionStart);
+  }
+
+  @Override
+  public void jdbcExecuteStatementStart() {
+    statementStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteStatementEnd() {
+    add(statementStart);
+  }
+
+  @Override
+  public void jdbcExecuteBatchStart() {
+    batchStart = System.nanoTime();
+  }
+
+  @Override
+  public void jdbcExecuteBatchEnd() {
+    add(batchStart);
+  }
+
+  private static void add(long start) {
+    TOTAL_NANOS.get()[0] += System.nanoTime() - start;
+  }
+}
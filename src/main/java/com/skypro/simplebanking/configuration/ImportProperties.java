@@ -0,0 +1,28 @@
+package com.skypro.simplebanking.configuration;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.import")
+public class ImportProperties {
+  /** The only place imports are read from; rejected rows go next to the file. */
+  private Path directory = Path.of("imports");
+  /** Lines per batch; each shard's share of a batch is one {@code COPY} and one transaction. */
+  private int batchSize = 10_000;
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(Path directory) {
+    this.directory = directory;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+}
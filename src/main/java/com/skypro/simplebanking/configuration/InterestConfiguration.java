@@ -0,0 +1,28 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.InterestAccrualService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(InterestProperties.class)
+public class InterestConfiguration {
+
+  @Configuration
+  @EnableScheduling
+  @ConditionalOnExpression("'${app.interest.cron:-}' != '-'")
+  static class InterestScheduleConfiguration {
+
+    @Bean
+    public SchedulingConfigurer interestAccrualSchedule(
+        InterestAccrualService interestAccrualService, InterestProperties interestProperties) {
+      return taskRegistrar ->
+          taskRegistrar.addCronTask(
+              interestAccrualService::accruePreviousDay, interestProperties.getCron());
+    }
+  }
+}
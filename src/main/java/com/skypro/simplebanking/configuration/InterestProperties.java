@@ -0,0 +1,88 @@
+package com.skypro.simplebanking.configuration;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.interest")
+public class InterestProperties {
+  /**
+   * Annual rates by currency code, e.g. {@code 0.02} for 2%; currencies without a rate earn
+   * nothing, so a rate can be set before its currency is registered.
+   */
+  private Map<String, BigDecimal> annualRates = new HashMap<>();
+  /** When to accrue the previous day's interest; {@code -} turns the schedule off. */
+  private String cron = "-";
+  private int workers = 2;
+  private int ranges = 16;
+  private int chunkSize = 1000;
+  private Duration targetChunkTime = Duration.ofMillis(200);
+  private Duration maxPause = Duration.ofSeconds(5);
+  private long maxRowsPerSecond = 50_000;
+
+  public Map<String, BigDecimal> getAnnualRates() {
+    return annualRates;
+  }
+
+  public void setAnnualRates(Map<String, BigDecimal> annualRates) {
+    this.annualRates = annualRates;
+  }
+
+  public String getCron() {
+    return cron;
+  }
+
+  public void setCron(String cron) {
+    this.cron = cron;
+  }
+
+  public int getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  public int getRanges() {
+    return ranges;
+  }
+
+  public void setRanges(int ranges) {
+    this.ranges = ranges;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public Duration getTargetChunkTime() {
+    return targetChunkTime;
+  }
+
+  public void setTargetChunkTime(Duration targetChunkTime) {
+    this.targetChunkTime = targetChunkTime;
+  }
+
+  public Duration getMaxPause() {
+    return maxPause;
+  }
+
+  public void setMaxPause(Duration maxPause) {
+    this.maxPause = maxPause;
+  }
+
+  public long getMaxRowsPerSecond() {
+    return maxRowsPerSecond;
+  }
+
+  public void setMaxRowsPerSecond(long maxRowsPerSecond) {
+    this.maxRowsPerSecond = maxRowsPerSecond;
+  }
+}
@@ -0,0 +1,29 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.FlightRecordingService;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(JfrProperties.class)
+public class JfrConfiguration {
+
+  @Bean
+  public HibernatePropertiesCustomizer dbTimeListener() {
+    return properties ->
+        properties.put("hibernate.session.events.auto", DbTimeListener.class.getName());
+  }
+
+  @Bean(destroyMethod = "close")
+  public FlightRecordingService flightRecordingService(JfrProperties jfrProperties) {
+    if (!jfrProperties.isEnabled()) {
+      return FlightRecordingService.disabled();
+    }
+    return FlightRecordingService.start(
+        jfrProperties.getSettings(),
+        jfrProperties.getMaxAge(),
+        jfrProperties.getMaxSize().toBytes());
+  }
+}
@@ -0,0 +1,88 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.exception.PasswordHashingBusyException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Runs the hashing of another encoder on a small fixed pool with a bounded queue, so a burst of
+ * logins uses at most that many cores and leaves the rest to requests that are already
+ * authenticated. The calling thread waits for its hash; when the queue is full it gets a {@link
+ * PasswordHashingBusyException} at once instead of queueing without bound.
+ */
+public class OffloadingPasswordEncoder implements PasswordEncoder {
+  private final PasswordEncoder delegate;
+  private final ThreadPoolExecutor executor;
+
+  public OffloadingPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity) {
+    this.delegate = delegate;
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.executor =
+        new ThreadPoolExecutor(
+            threads,
+            threads,
+            0,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread =
+                  new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return offload(() -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return offload(() -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  /** Only parses the stored hash, so it stays on the calling thread. */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  /** Hashes waiting for a pool thread. */
+  public int getQueueLength() {
+    return executor.getQueue().size();
+  }
+
+  public void close() {
+    executor.shutdown();
+  }
+
+  private <T> T offload(Callable<T> task) {
+    Future<T> result;
+    try {
+      result = executor.submit(task);
+    } catch (RejectedExecutionException e) {
+      throw new PasswordHashingBusyException();
+    }
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      result.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for a password hash", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.skypro.simplebanking.configuration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.password-hashing")
+public class PasswordHashingProperties {
+  private int bcryptStrength = 10;
+  private int threads = Math.max(1, Math.min(32, Runtime.getRuntime().availableProcessors() / 2));
+  private int queueCapacity = 16;
+
+  public int getBcryptStrength() {
+    return bcryptStrength;
+  }
+
+  public void setBcryptStrength(int bcryptStrength) {
+    this.bcryptStrength = bcryptStrength;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+}
@@ -0,0 +1,151 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends read-only transactions to a replica whose replay lag is within the configured bound and
+ * everything else to the primary. A user who has just committed a write keeps reading from the
+ * primary for the sticky window, so they always see their own changes.
+ *
+ * <p>A replica is only eligible while it is a standby: one that reports {@code pg_is_in_recovery()}
+ * false has been promoted or misconfigured and no longer follows the primary, so its data may
+ * diverge without any replay lag to show for it.
+ *
+ * <p>The routing decision needs the transaction's read-only flag, so this data source must sit
+ * behind a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+  private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+  private static final String PRIMARY = "primary";
+  private static final String LAG_QUERY =
+      "SELECT pg_is_in_recovery(), CASE WHEN NOT pg_is_in_recovery()"
+          + " OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+          + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)"
+          + " END";
+
+  private final List<Replica> replicas;
+  private final long maxLagMillis;
+  private final long stickyNanos;
+  private final Map<Long, Long> stickyUntil = new ConcurrentHashMap<>();
+  private final AtomicInteger nextReplica = new AtomicInteger();
+
+  public ReadWriteRoutingDataSource(
+      DataSource primary,
+      Map<String, DataSource> replicas,
+      Duration maxReplicaLag,
+      Duration stickyWindow) {
+    Map<Object, Object> targets = new HashMap<>(replicas);
+    targets.put(PRIMARY, primary);
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    this.replicas =
+        replicas.entrySet().stream().map(e -> new Replica(e.getKey(), e.getValue())).toList();
+    this.maxLagMillis = maxReplicaLag.toMillis();
+    this.stickyNanos = stickyWindow.toNanos();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    Optional<Long> userId = currentUserId();
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      userId.ifPresent(this::stickToPrimaryAfterCommit);
+      return PRIMARY;
+    }
+    if (userId.isPresent() && isSticky(userId.get())) {
+      return PRIMARY;
+    }
+    for (int i = 0; i < replicas.size(); i++) {
+      Replica replica =
+          replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+      if (replica.lagMillis >= 0 && replica.lagMillis <= maxLagMillis) {
+        return replica.name;
+      }
+    }
+    return PRIMARY;
+  }
+
+  /**
+   * Measures the replay lag of every replica; a replica that cannot be queried or is not a standby
+   * is skipped.
+   */
+  public void refreshReplicaLag() {
+    for (Replica replica : replicas) {
+      try (Connection connection = replica.dataSource.getConnection();
+          Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery(LAG_QUERY)) {
+        resultSet.next();
+        if (resultSet.getBoolean(1)) {
+          replica.lagMillis = resultSet.getLong(2);
+        } else {
+          if (replica.lagMillis >= 0) {
+            log.warn("Replica {} is not in recovery, reads go to the primary", replica.name);
+          }
+          replica.lagMillis = -1;
+        }
+      } catch (SQLException e) {
+        if (replica.lagMillis >= 0) {
+          log.warn("Replica {} is unavailable, reads go to the primary", replica.name, e);
+        }
+        replica.lagMillis = -1;
+      }
+    }
+    long now = System.nanoTime();
+    stickyUntil.values().removeIf(until -> until - now < 0);
+  }
+
+  private boolean isSticky(long userId) {
+    Long until = stickyUntil.get(userId);
+    return until != null && until - System.nanoTime() > 0;
+  }
+
+  private void stickToPrimaryAfterCommit(long userId) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(
+        new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            stickyUntil.put(userId, System.nanoTime() + stickyNanos);
+          }
+        });
+  }
+
+  private static Optional<Long> currentUserId() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null && authentication.getPrincipal() instanceof BankingUserDetails) {
+      return Optional.of(((BankingUserDetails) authentication.getPrincipal()).getId());
+    }
+    return Optional.empty();
+  }
+
+  private static class Replica {
+    private final String name;
+    private final DataSource dataSource;
+    private volatile long lagMillis = -1;
+
+    private Replica(String name, DataSource dataSource) {
+      this.name = name;
+      this.dataSource = dataSource;
+    }
+  }
+}
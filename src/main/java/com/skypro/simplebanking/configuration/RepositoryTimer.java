@@ -0,0 +1,27 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.dto.TimingPhase;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/** Attributes the time spent in Spring Data repository calls to the sampled request. */
+@Aspect
+@Component
+public class RepositoryTimer {
+
+  @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+  public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+    RequestTimings timings = RequestTimings.current();
+    if (timings == null) {
+      return joinPoint.proceed();
+    }
+    long start = System.nanoTime();
+    try {
+      return joinPoint.proceed();
+    } finally {
+      timings.add(TimingPhase.REPOSITORY, System.nanoTime() - start);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.dto.TimingPhase;
+
+/**
+ * Time spent per {@link TimingPhase} by one sampled request. Bound to the request thread by {@link
+ * ServerTimingFilter}; on unsampled requests {@link #current()} is {@code null} and every probe
+ * reduces to that check.
+ */
+public class RequestTimings {
+  private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+
+  private final long startNanos = System.nanoTime();
+  private final long dbStartNanos = DbTimeListener.currentThreadNanos();
+  private final long[] nanos = new long[TimingPhase.values().length];
+  private final int[] counts = new int[TimingPhase.values().length];
+  private boolean authenticated;
+
+  public static RequestTimings current() {
+    return CURRENT.get();
+  }
+
+  static RequestTimings begin() {
+    RequestTimings timings = new RequestTimings();
+    CURRENT.set(timings);
+    return timings;
+  }
+
+  static void clear() {
+    CURRENT.remove();
+  }
+
+  public void add(TimingPhase phase, long elapsedNanos) {
+    nanos[phase.ordinal()] += elapsedNanos;
+    counts[phase.ordinal()]++;
+  }
+
+  public long getNanos(TimingPhase phase) {
+    return nanos[phase.ordinal()];
+  }
+
+  /** Whether the request went through the phase at all, e.g. made a repository call. */
+  public boolean isMeasured(TimingPhase phase) {
+    return counts[phase.ordinal()] > 0;
+  }
+
+  /** Called once the security filter chain hands the request on. */
+  void endAuthentication() {
+    if (!authenticated) {
+      authenticated = true;
+      add(TimingPhase.AUTH, System.nanoTime() - startNanos);
+    }
+  }
+
+  /**
+   * Closes the phases that are measured from the request start. Requests rejected by the security
+   * chain spend all their time in it. Safe to call more than once; later calls only move the end.
+   */
+  void end() {
+    long now = System.nanoTime();
+    if (!authenticated) {
+      nanos[TimingPhase.AUTH.ordinal()] = now - startNanos;
+      counts[TimingPhase.AUTH.ordinal()] = 1;
+    }
+    nanos[TimingPhase.DB.ordinal()] = DbTimeListener.currentThreadNanos() - dbStartNanos;
+    counts[TimingPhase.DB.ordinal()] = 1;
+    nanos[TimingPhase.TOTAL.ordinal()] = now - startNanos;
+    counts[TimingPhase.TOTAL.ordinal()] = 1;
+  }
+
+  /** Formats the phases as a {@code Server-Timing} header value, durations in milliseconds. */
+  String toHeaderValue() {
+    StringBuilder header = new StringBuilder(128);
+    for (TimingPhase phase : TimingPhase.values()) {
+      if (!isMeasured(phase)) {
+        continue;
+      }
+      if (header.length() > 0) {
+        header.append(", ");
+      }
+      long micros = nanos[phase.ordinal()] / 1_000;
+      header.append(phase.getMetricName()).append(";dur=").append(micros / 1_000).append('.');
+      long fraction = micros % 1_000;
+      if (fraction < 100) {
+        header.append('0');
+      }
+      if (fraction < 10) {
+        header.append('0');
+      }
+      header.append(fraction);
+      if (phase == TimingPhase.REPOSITORY) {
+        header.append(";desc=\"").append(counts[phase.ordinal()]).append(" calls\"");
+      }
+    }
+    return header.toString();
+  }
+}
@@ -1,27 +1,63 @@
 package com.skypro.simplebanking.configuration;
 
+import com.skypro.simplebanking.exception.PasswordHashingBusyException;
+import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.www.BasicAuthenticationEntryPoint;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties(PasswordHashingProperties.class)
 public class SecurityConfiguration {
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * Hashes are stored as {@code {bcrypt}...} with the configured strength. Hashes from before
+     * the prefix was introduced are still bcrypt. On the next successful login, a hash without the
+     * prefix or with a lower strength than configured is re-encoded; BCrypt never re-encodes to a
+     * lower strength, so lowering it only affects new hashes.
+     *
+     * <p>A login waits on its Tomcat thread while its hash is queued or computed, so the pool and
+     * queue together may hold at most half of Tomcat's threads; the rest stay free for requests
+     * that are already authenticated, and logins beyond that are rejected at once.
+     */
+    @Bean(destroyMethod = "close")
+    public OffloadingPasswordEncoder passwordEncoder(
+            PasswordHashingProperties passwordHashingProperties,
+            @Value("${server.tomcat.threads.max:200}") int tomcatThreads) {
+        int waitingLogins = passwordHashingProperties.getThreads() + passwordHashingProperties.getQueueCapacity();
+        if (waitingLogins > tomcatThreads / 2) {
+            throw new IllegalStateException(
+                    "app.password-hashing.threads + queue-capacity is " + waitingLogins
+                            + ", more than half of server.tomcat.threads.max (" + tomcatThreads + ")");
+        }
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(passwordHashingProperties.getBcryptStrength());
+        DelegatingPasswordEncoder delegatingPasswordEncoder =
+                new DelegatingPasswordEncoder("bcrypt", Map.of("bcrypt", bcrypt));
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return new OffloadingPasswordEncoder(
+                delegatingPasswordEncoder,
+                passwordHashingProperties.getThreads(),
+                passwordHashingProperties.getQueueCapacity());
     }
 
     @Bean
     public SecurityFilterChain httpSecurity(
-            HttpSecurity httpSecurity, AdminSecurityFilter adminSecurityFilter) throws Exception {
+            HttpSecurity httpSecurity,
+            AdminSecurityFilter adminSecurityFilter,
+            ShardRoutingFilter shardRoutingFilter) throws Exception {
         return httpSecurity
                 .csrf()
                 .disable()
@@ -34,6 +70,7 @@ public class SecurityConfiguration {
                 .cors()
                 .and()
                 .httpBasic()
+                .authenticationEntryPoint(authenticationEntryPoint())
                 .and()
                 .sessionManagement()
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -41,16 +78,35 @@ public class SecurityConfiguration {
                 .authorizeHttpRequests()
                 .antMatchers(HttpMethod.POST, "/user/")
                 .hasRole("ADMIN")
+                .antMatchers(HttpMethod.GET, "/user/search")
+                .hasRole("ADMIN")
                 .antMatchers("/user/*")
                 .hasRole("USER")
                 .antMatchers("/account/**")
                 .hasRole("USER")
                 .antMatchers("/transfer/**")
                 .hasRole("USER")
+                .antMatchers("/admin/**")
+                .hasRole("ADMIN")
                 .anyRequest()
                 .authenticated()
                 .and()
                 .addFilterBefore(adminSecurityFilter, AnonymousAuthenticationFilter.class)
+                .addFilterAfter(shardRoutingFilter, AnonymousAuthenticationFilter.class)
                 .build();
     }
+
+    /** Tells clients to retry an overloaded login instead of treating it as bad credentials. */
+    private static AuthenticationEntryPoint authenticationEntryPoint() {
+        BasicAuthenticationEntryPoint basicEntryPoint = new BasicAuthenticationEntryPoint();
+        basicEntryPoint.setRealmName("Realm");
+        return (request, response, authException) -> {
+            if (authException instanceof PasswordHashingBusyException) {
+                response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, authException.getMessage());
+                return;
+            }
+            basicEntryPoint.commence(request, response, authException);
+        };
+    }
 }
@@ -0,0 +1,47 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.RequestTimingHistograms;
+import javax.servlet.Filter;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+@Configuration
+@EnableConfigurationProperties(ServerTimingProperties.class)
+@ConditionalOnProperty(name = "app.server-timing.enabled", matchIfMissing = true)
+public class ServerTimingConfiguration {
+
+  @Bean
+  public FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(
+      RequestTimingHistograms histograms, ServerTimingProperties serverTimingProperties) {
+    FilterRegistrationBean<ServerTimingFilter> registration =
+        new FilterRegistrationBean<>(
+            new ServerTimingFilter(histograms, serverTimingProperties.getSampleRate()));
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+    return registration;
+  }
+
+  @Bean
+  public FilterRegistrationBean<Filter> serverTimingAuthenticatedFilter() {
+    FilterRegistrationBean<Filter> registration =
+        new FilterRegistrationBean<>(ServerTimingFilter.AUTHENTICATED);
+    registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+    return registration;
+  }
+
+  /** Replaces Spring Boot's transaction manager with one that times commits. */
+  @Bean
+  public JpaTransactionManager transactionManager(
+      ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+    JpaTransactionManager transactionManager = new TimedJpaTransactionManager();
+    transactionManagerCustomizers.ifAvailable(
+        customizers -> customizers.customize(transactionManager));
+    return transactionManager;
+  }
+}
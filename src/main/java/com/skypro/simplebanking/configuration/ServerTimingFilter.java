@@ -0,0 +1,71 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.RequestTimingHistograms;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Samples requests for timing and, for a sampled request, adds a {@code Server-Timing} header and
+ * feeds the phase histograms. Registered just outside the Spring Security chain, so the time until
+ * {@link #AUTHENTICATED} runs inside it is authentication.
+ *
+ * <p>The header must precede the body: responses with a body get it from the message converter
+ * once serialization is done, all others get it here.
+ */
+public class ServerTimingFilter extends OncePerRequestFilter {
+  public static final String HEADER = "Server-Timing";
+
+  /** Runs just inside the security chain and closes the authentication phase. */
+  public static final javax.servlet.Filter AUTHENTICATED =
+      (request, response, chain) -> {
+        RequestTimings timings = RequestTimings.current();
+        if (timings != null) {
+          timings.endAuthentication();
+        }
+        chain.doFilter(request, response);
+      };
+
+  private final RequestTimingHistograms histograms;
+  private final double sampleRate;
+
+  public ServerTimingFilter(RequestTimingHistograms histograms, double sampleRate) {
+    this.histograms = histograms;
+    this.sampleRate = sampleRate;
+  }
+
+  /** Stamps the header with the phases so far, unless the response is already committed. */
+  static void writeHeader(HttpServletResponse response) {
+    RequestTimings timings = RequestTimings.current();
+    if (timings != null && !response.isCommitted()) {
+      timings.end();
+      response.setHeader(HEADER, timings.toHeaderValue());
+    }
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    RequestTimings timings = RequestTimings.begin();
+    try {
+      filterChain.doFilter(request, response);
+      writeHeader(response);
+    } finally {
+      timings.end();
+      RequestTimings.clear();
+      histograms.record(timings);
+    }
+  }
+}
@@ -0,0 +1,34 @@
+package com.skypro.simplebanking.configuration;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread's next physical connection is taken from. Data access through the
+ * sharded data source is lazy, so the shard must be chosen before the first statement of a
+ * transaction runs, which normally means before the transaction starts.
+ */
+public final class ShardContext {
+  private static final ThreadLocal<Integer> CURRENT = ThreadLocal.withInitial(() -> 0);
+
+  private ShardContext() {}
+
+  public static int current() {
+    return CURRENT.get();
+  }
+
+  /** Switches the thread to {@code shard} and returns the shard to restore afterwards. */
+  public static int use(int shard) {
+    int previous = CURRENT.get();
+    CURRENT.set(shard);
+    return previous;
+  }
+
+  public static <T> T callOn(int shard, Supplier<T> action) {
+    int previous = use(shard);
+    try {
+      return action.get();
+    } finally {
+      use(previous);
+    }
+  }
+}
@@ -0,0 +1,86 @@
+package com.skypro.simplebanking.configuration;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Maps users and accounts to shards. Every shard allocates ids from its own range, starting at
+ * {@code shard << SHARD_ID_BITS}, so the shard of any user or account follows from its id alone.
+ * New users are placed by a hash of their username, which keeps username lookups and the
+ * uniqueness check on a single shard. With sharding disabled there is one shard and every method
+ * is a pass-through.
+ *
+ * <p>The username hash is FNV-1a over the UTF-8 bytes, which does not depend on the JVM, fed to
+ * jump consistent hashing: going from n to n + 1 shards moves only the usernames that now belong
+ * to the new shard, about 1 in n + 1. Those users still have to be moved before the new count is
+ * used, which {@link ShardSchemaInitializer} enforces.
+ */
+public class ShardRouter {
+  public static final int SHARD_ID_BITS = 48;
+
+  private final int shardCount;
+
+  public ShardRouter(int shardCount) {
+    this.shardCount = shardCount;
+  }
+
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  public int shardOfId(long id) {
+    return shardCount == 1 ? 0 : (int) (id >>> SHARD_ID_BITS);
+  }
+
+  public int shardOfUsername(String username) {
+    return jumpConsistentHash(fnv1a(username), shardCount);
+  }
+
+  public boolean isSameShard(long userId, long otherUserId) {
+    return shardOfId(userId) == shardOfId(otherUserId);
+  }
+
+  public <T> T onShard(int shard, Supplier<T> action) {
+    return ShardContext.callOn(shard, action);
+  }
+
+  public void onShard(int shard, Runnable action) {
+    ShardContext.callOn(
+        shard,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  public <T> List<T> onAllShards(Supplier<T> action) {
+    List<T> results = new ArrayList<>(shardCount);
+    for (int shard = 0; shard < shardCount; shard++) {
+      results.add(onShard(shard, action));
+    }
+    return results;
+  }
+
+  private static long fnv1a(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /** Lamping and Veach, "A Fast, Minimal Memory, Consistent Hash Algorithm". */
+  private static int jumpConsistentHash(long key, int buckets) {
+    long bucket = -1;
+    long next = 0;
+    while (next < buckets) {
+      bucket = next;
+      key = key * 2862933555777941757L + 1;
+      next = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+    }
+    return (int) bucket;
+  }
+}
@@ -0,0 +1,50 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Routes the rest of an authenticated user's request to the shard that holds their data. The admin
+ * principal has no user row, so admin endpoints choose shards themselves.
+ */
+@Component
+public class ShardRoutingFilter extends OncePerRequestFilter {
+  private final ShardRouter shardRouter;
+
+  public ShardRoutingFilter(ShardRouter shardRouter) {
+    this.shardRouter = shardRouter;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      @NonNull HttpServletRequest request,
+      @NonNull HttpServletResponse response,
+      @NonNull FilterChain filterChain)
+      throws ServletException, IOException {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !(authentication.getPrincipal() instanceof BankingUserDetails)) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    long userId = ((BankingUserDetails) authentication.getPrincipal()).getId();
+    if (userId < 0) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+    int previous = ShardContext.use(shardRouter.shardOfId(userId));
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ShardContext.use(previous);
+    }
+  }
+}
@@ -0,0 +1,110 @@
+package com.skypro.simplebanking.configuration;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaExport;
+import org.hibernate.tool.schema.TargetType;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Hibernate only manages the schema of the shard it connects to first. When asked to, this
+ * re-creates the same schema on every other shard from the mapping metadata captured at boot, then
+ * moves each shard's sequences to the start of its id range so ids never collide across shards.
+ *
+ * <p>Each shard also records its position and the shard count in {@code shard_layout}. Startup
+ * fails if either no longer matches the configured shard list: ids name their shard by position
+ * and usernames are placed by count, so a reordered or resized list would send reads to the wrong
+ * database. A fresh schema is recorded with the current layout.
+ */
+public class ShardSchemaInitializer implements Integrator, SmartInitializingSingleton {
+  private final ShardRouter shardRouter;
+  private final JdbcTemplate jdbcTemplate;
+  private final boolean createSchema;
+  private volatile Metadata metadata;
+
+  public ShardSchemaInitializer(
+      ShardRouter shardRouter, JdbcTemplate jdbcTemplate, boolean createSchema) {
+    this.shardRouter = shardRouter;
+    this.jdbcTemplate = jdbcTemplate;
+    this.createSchema = createSchema;
+  }
+
+  @Override
+  public void integrate(
+      Metadata metadata,
+      SessionFactoryImplementor sessionFactory,
+      SessionFactoryServiceRegistry serviceRegistry) {
+    this.metadata = metadata;
+  }
+
+  @Override
+  public void disintegrate(
+      SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {}
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      int current = shard;
+      shardRouter.onShard(
+          shard,
+          () -> {
+            if (createSchema && current > 0) {
+              new SchemaExport().create(EnumSet.of(TargetType.DATABASE), metadata);
+              restartSequences(current);
+            }
+            checkLayout(current);
+          });
+    }
+  }
+
+  private void checkLayout(int shard) {
+    int shardCount = shardRouter.getShardCount();
+    jdbcTemplate.execute(
+        "create table if not exists shard_layout"
+            + " (shard integer not null, shard_count integer not null)");
+    if (createSchema) {
+      jdbcTemplate.update("delete from shard_layout");
+    }
+    List<Map<String, Object>> layout =
+        jdbcTemplate.queryForList("select shard, shard_count from shard_layout");
+    if (layout.isEmpty()) {
+      jdbcTemplate.update(
+          "insert into shard_layout (shard, shard_count) values (?, ?)", shard, shardCount);
+      return;
+    }
+    int recordedShard = ((Number) layout.get(0).get("shard")).intValue();
+    int recordedCount = ((Number) layout.get(0).get("shard_count")).intValue();
+    if (recordedShard != shard || recordedCount != shardCount) {
+      throw new IllegalStateException(
+          String.format(
+              "app.sharding.shards[%d] holds shard %d of %d, but %d shards are configured;"
+                  + " move users to their new shards and update shard_layout before changing"
+                  + " the shard list",
+              shard, recordedShard, recordedCount, shardCount));
+    }
+  }
+
+  /**
+   * Hibernate's pooled optimizer treats a fetched sequence value as the top of a block of {@code
+   * increment_by} ids, so the sequence restarts at the last id of the range's first block.
+   */
+  private void restartSequences(int shard) {
+    long firstId = ((long) shard << ShardRouter.SHARD_ID_BITS) + 1;
+    List<Map<String, Object>> sequences =
+        jdbcTemplate.queryForList(
+            "select sequencename, increment_by from pg_sequences"
+                + " where schemaname = current_schema()");
+    for (Map<String, Object> sequence : sequences) {
+      long increment = ((Number) sequence.get("increment_by")).longValue();
+      long restartWith = increment > 1 ? firstId + increment - 1 : firstId;
+      jdbcTemplate.execute(
+          "alter sequence " + sequence.get("sequencename") + " restart with " + restartWith);
+    }
+  }
+}
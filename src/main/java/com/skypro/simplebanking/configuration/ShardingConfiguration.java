@@ -0,0 +1,95 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.service.CrossShardTransferService;
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+  @Bean
+  public ShardRouter shardRouter(ShardingProperties shardingProperties) {
+    if (!shardingProperties.isEnabled()) {
+      return new ShardRouter(1);
+    }
+    if (shardingProperties.getShards().isEmpty()) {
+      throw new IllegalStateException("app.sharding.shards must list at least one shard");
+    }
+    return new ShardRouter(shardingProperties.getShards().size());
+  }
+
+  @Configuration
+  @EnableScheduling
+  @ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+  static class ShardedDataSourceConfiguration {
+    private final ShardingProperties shardingProperties;
+
+    ShardedDataSourceConfiguration(ShardingProperties shardingProperties) {
+      this.shardingProperties = shardingProperties;
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource() {
+      List<DataSource> shards = new ArrayList<>();
+      List<ShardingProperties.Shard> shardProperties = shardingProperties.getShards();
+      for (int i = 0; i < shardProperties.size(); i++) {
+        ShardingProperties.Shard shard = shardProperties.get(i);
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + i);
+        dataSource.setJdbcUrl(shard.getUrl());
+        dataSource.setUsername(shard.getUsername());
+        dataSource.setPassword(shard.getPassword());
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        shards.add(dataSource);
+      }
+      return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+      return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    public ShardSchemaInitializer shardSchemaInitializer(
+        ShardRouter shardRouter, JdbcTemplate jdbcTemplate) {
+      return new ShardSchemaInitializer(
+          shardRouter, jdbcTemplate, shardingProperties.isCreateSchema());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaIntegrator(
+        ShardSchemaInitializer shardSchemaInitializer) {
+      return properties ->
+          properties.put(
+              "hibernate.integrator_provider",
+              (IntegratorProvider) () -> List.of(shardSchemaInitializer));
+    }
+
+    @Bean
+    public SchedulingConfigurer transferSagaRecovery(
+        CrossShardTransferService crossShardTransferService) {
+      return taskRegistrar ->
+          taskRegistrar.addFixedDelayTask(
+              () ->
+                  crossShardTransferService.recoverPendingTransfers(
+                      shardingProperties.getSagaTimeout()),
+              shardingProperties.getSagaRecoveryInterval().toMillis());
+    }
+  }
+}
@@ -0,0 +1,94 @@
+package com.skypro.simplebanking.configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.sharding")
+public class ShardingProperties {
+  private boolean enabled;
+  private boolean createSchema;
+  private Duration sagaTimeout = Duration.ofSeconds(30);
+  private Duration sagaRecoveryInterval = Duration.ofSeconds(10);
+  private List<Shard> shards = new ArrayList<>();
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public boolean isCreateSchema() {
+    return createSchema;
+  }
+
+  public void setCreateSchema(boolean createSchema) {
+    this.createSchema = createSchema;
+  }
+
+  public Duration getSagaTimeout() {
+    return sagaTimeout;
+  }
+
+  public void setSagaTimeout(Duration sagaTimeout) {
+    this.sagaTimeout = sagaTimeout;
+  }
+
+  public Duration getSagaRecoveryInterval() {
+    return sagaRecoveryInterval;
+  }
+
+  public void setSagaRecoveryInterval(Duration sagaRecoveryInterval) {
+    this.sagaRecoveryInterval = sagaRecoveryInterval;
+  }
+
+  public List<Shard> getShards() {
+    return shards;
+  }
+
+  public void setShards(List<Shard> shards) {
+    this.shards = shards;
+  }
+
+  public static class Shard {
+    private String url;
+    private String username;
+    private String password;
+    private int maximumPoolSize = 10;
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+
+    public int getMaximumPoolSize() {
+      return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+      this.maximumPoolSize = maximumPoolSize;
+    }
+  }
+}
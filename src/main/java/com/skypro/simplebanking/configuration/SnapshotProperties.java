@@ -0,0 +1,48 @@
+package com.skypro.simplebanking.configuration;
+
+import java.nio.file.Path;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.snapshot")
+public class SnapshotProperties {
+  /** Where snapshots are written and the only place restores read them from. */
+  private Path directory = Path.of("snapshots");
+  /** Parallel {@code COPY} streams of a restore. */
+  private int workers = 4;
+  /** Records per {@code COPY} statement. */
+  private int chunkSize = 50_000;
+  /** Rows fetched per round trip while exporting. */
+  private int fetchSize = 10_000;
+
+  public Path getDirectory() {
+    return directory;
+  }
+
+  public void setDirectory(Path directory) {
+    this.directory = directory;
+  }
+
+  public int getWorkers() {
+    return workers;
+  }
+
+  public void setWorkers(int workers) {
+    this.workers = workers;
+  }
+
+  public int getChunkSize() {
+    return chunkSize;
+  }
+
+  public void setChunkSize(int chunkSize) {
+    this.chunkSize = chunkSize;
+  }
+
+  public int getFetchSize() {
+    return fetchSize;
+  }
+
+  public void setFetchSize(int fetchSize) {
+    this.fetchSize = fetchSize;
+  }
+}
@@ -0,0 +1,112 @@
+package com.skypro.simplebanking.configuration;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Properties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Measures JVM-start-to-ready time and the latency of the first request through the full filter
+ * chain, writes them to a properties report and, when asked to, exits with a non-zero status if
+ * either exceeds its budget. The first request is an admin user search, authenticated with the
+ * admin key, so it runs security, MVC, a JPA repository and JSON serialization without changing
+ * any data; a response other than 200 fails the probe. The {@code cds} Maven profile uses it both
+ * as the AppCDS training run and as the startup regression check.
+ */
+@Component
+@ConditionalOnProperty(name = "app.startup.probe.enabled", havingValue = "true")
+public class StartupProbe implements ApplicationListener<ApplicationReadyEvent> {
+  private static final Logger log = LoggerFactory.getLogger(StartupProbe.class);
+
+  private final Path reportFile;
+  private final Duration maxStartup;
+  private final Duration maxFirstRequest;
+  private final boolean exitAfterProbe;
+  private final String adminToken;
+
+  public StartupProbe(
+      @Value("${app.startup.probe.report-file}") Path reportFile,
+      @Value("${app.startup.probe.max-startup}") Duration maxStartup,
+      @Value("${app.startup.probe.max-first-request}") Duration maxFirstRequest,
+      @Value("${app.startup.probe.exit-after-probe}") boolean exitAfterProbe,
+      @Value("${app.security.admin-token}") String adminToken) {
+    this.reportFile = reportFile;
+    this.maxStartup = maxStartup;
+    this.maxFirstRequest = maxFirstRequest;
+    this.exitAfterProbe = exitAfterProbe;
+    this.adminToken = adminToken;
+  }
+
+  @Override
+  public void onApplicationEvent(ApplicationReadyEvent event) {
+    long startupMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    long firstRequestMillis =
+        firstRequestMillis((ServletWebServerApplicationContext) event.getApplicationContext());
+    boolean withinBudget =
+        startupMillis <= maxStartup.toMillis() && firstRequestMillis <= maxFirstRequest.toMillis();
+    log.info("Started in {} ms, first request took {} ms", startupMillis, firstRequestMillis);
+    writeReport(startupMillis, firstRequestMillis, withinBudget);
+    if (exitAfterProbe) {
+      int exitCode = withinBudget ? 0 : 1;
+      System.exit(SpringApplication.exit(event.getApplicationContext(), () -> exitCode));
+    }
+  }
+
+  private long firstRequestMillis(ServletWebServerApplicationContext context) {
+    int port = context.getWebServer().getPort();
+    HttpRequest request =
+        HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/user/search?q=a&limit=1"))
+            .header("X-SECURITY-ADMIN-KEY", adminToken)
+            .GET()
+            .build();
+    long start = System.nanoTime();
+    HttpResponse<Void> response;
+    try {
+      response = HttpClient.newHttpClient().send(request, HttpResponse.BodyHandlers.discarding());
+    } catch (IOException e) {
+      throw new IllegalStateException("First request failed", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("First request interrupted", e);
+    }
+    if (response.statusCode() != 200) {
+      throw new IllegalStateException("First request returned " + response.statusCode());
+    }
+    return Duration.ofNanos(System.nanoTime() - start).toMillis();
+  }
+
+  private void writeReport(long startupMillis, long firstRequestMillis, boolean withinBudget) {
+    Properties report = new Properties();
+    report.setProperty("startup.millis", Long.toString(startupMillis));
+    report.setProperty("startup.budget.millis", Long.toString(maxStartup.toMillis()));
+    report.setProperty("first-request.millis", Long.toString(firstRequestMillis));
+    report.setProperty("first-request.budget.millis", Long.toString(maxFirstRequest.toMillis()));
+    report.setProperty("within-budget", Boolean.toString(withinBudget));
+    try {
+      if (reportFile.getParent() != null) {
+        Files.createDirectories(reportFile.getParent());
+      }
+      try (Writer writer = Files.newBufferedWriter(reportFile)) {
+        report.store(writer, "simple-banking startup probe");
+      }
+    } catch (IOException e) {
+      log.warn("Cannot write startup report to {}", reportFile, e);
+    }
+  }
+}
@@ -0,0 +1,24 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.dto.TimingPhase;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+/** Attributes transaction commits, including the flush that precedes them, to the request. */
+public class TimedJpaTransactionManager extends JpaTransactionManager {
+
+  @Override
+  protected void doCommit(DefaultTransactionStatus status) {
+    RequestTimings timings = RequestTimings.current();
+    if (timings == null) {
+      super.doCommit(status);
+      return;
+    }
+    long start = System.nanoTime();
+    try {
+      super.doCommit(status);
+    } finally {
+      timings.add(TimingPhase.COMMIT, System.nanoTime() - start);
+    }
+  }
+}
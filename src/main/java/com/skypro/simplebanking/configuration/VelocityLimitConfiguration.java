@@ -0,0 +1,62 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.entity.AccountMovementType;
+import com.skypro.simplebanking.service.VelocityLimits;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+@Configuration
+@EnableConfigurationProperties(VelocityLimitProperties.class)
+public class VelocityLimitConfiguration {
+  private static final Logger log = LoggerFactory.getLogger(VelocityLimitConfiguration.class);
+  /** Outflows per account and five-minute bucket, which also land in the right hourly bucket. */
+  private static final String RECENT_OUTFLOWS =
+      "select account_id, date_trunc('hour', created_at)"
+          + " + floor(extract(minute from created_at) / 5) * interval '5 minutes',"
+          + " -sum(amount) from account_movements where created_at > ? and type in (?, ?)"
+          + " group by 1, 2";
+
+  @Bean(destroyMethod = "close")
+  public VelocityLimits velocityLimits(VelocityLimitProperties properties) {
+    if (!properties.isEnabled()) {
+      return VelocityLimits.disabled();
+    }
+    return VelocityLimits.start(properties.getHourly(), properties.getDaily());
+  }
+
+  /** Rebuilds the windows from the last 25 hours of the ledger once the context is up. */
+  @Bean
+  public SmartInitializingSingleton velocityLimitHistory(
+      VelocityLimits velocityLimits, JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+    return () -> {
+      if (!velocityLimits.isEnabled()) {
+        return;
+      }
+      Timestamp since = Timestamp.from(Instant.now().minus(Duration.ofHours(25)));
+      RowCallbackHandler recordOutflow =
+          row ->
+              velocityLimits.record(row.getLong(1), row.getLong(3), row.getTimestamp(2).getTime());
+      for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+        shardRouter.onShard(
+            shard,
+            () ->
+                jdbcTemplate.query(
+                    RECENT_OUTFLOWS,
+                    recordOutflow,
+                    since,
+                    AccountMovementType.WITHDRAWAL.name(),
+                    AccountMovementType.TRANSFER_OUT.name()));
+      }
+      log.info("Velocity limits tracking {} accounts", velocityLimits.getTrackedAccounts());
+    };
+  }
+}
@@ -0,0 +1,36 @@
+package com.skypro.simplebanking.configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.velocity-limits")
+public class VelocityLimitProperties {
+  /**
+   * Most an account may send out in any hour, in minor units, by currency code; currencies without
+   * one are free.
+   */
+  private Map<String, Long> hourly = new HashMap<>();
+  /** Most an account may send out in any 24 hours, in minor units. */
+  private Map<String, Long> daily = new HashMap<>();
+
+  public boolean isEnabled() {
+    return !hourly.isEmpty() || !daily.isEmpty();
+  }
+
+  public Map<String, Long> getHourly() {
+    return hourly;
+  }
+
+  public void setHourly(Map<String, Long> hourly) {
+    this.hourly = hourly;
+  }
+
+  public Map<String, Long> getDaily() {
+    return daily;
+  }
+
+  public void setDaily(Map<String, Long> daily) {
+    this.daily = daily;
+  }
+}
@@ -0,0 +1,106 @@
+package com.skypro.simplebanking.configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.skypro.simplebanking.dto.TimingPhase;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+  private final Jackson2ObjectMapperBuilder objectMapperBuilder;
+
+  public WebConfiguration(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    this.objectMapperBuilder = objectMapperBuilder;
+  }
+
+  /**
+   * Adds {@code application/cbor} after the JSON converter, so JSON stays the default and CBOR is
+   * used only when a caller asks for it. Both are timed for Server-Timing.
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    converters.replaceAll(
+        converter ->
+            converter.getClass() == MappingJackson2HttpMessageConverter.class
+                ? new TimedJsonConverter(
+                    ((MappingJackson2HttpMessageConverter) converter).getObjectMapper())
+                : converter);
+    converters.add(new TimedCborConverter(cborObjectMapper(objectMapperBuilder)));
+  }
+
+  /** The mapper behind the CBOR converter: Boot's Jackson settings on a CBOR factory. */
+  static ObjectMapper cborObjectMapper(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+    return objectMapperBuilder.factory(new CBORFactory()).build();
+  }
+
+  /**
+   * Serializes the body of a sampled request into memory first, so the time it took can go into
+   * the {@code Server-Timing} header, which has to be sent before the body.
+   */
+  private static void writeTimed(HttpOutputMessage outputMessage, BodyWriter bodyWriter)
+      throws IOException {
+    RequestTimings timings = RequestTimings.current();
+    if (timings == null) {
+      bodyWriter.write(outputMessage);
+      return;
+    }
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(1024);
+    long start = System.nanoTime();
+    bodyWriter.write(
+        new HttpOutputMessage() {
+          @Override
+          public OutputStream getBody() {
+            return buffer;
+          }
+
+          @Override
+          public HttpHeaders getHeaders() {
+            return outputMessage.getHeaders();
+          }
+        });
+    timings.add(TimingPhase.SERIALIZATION, System.nanoTime() - start);
+    timings.end();
+    outputMessage.getHeaders().set(ServerTimingFilter.HEADER, timings.toHeaderValue());
+    buffer.writeTo(outputMessage.getBody());
+  }
+
+  private interface BodyWriter {
+    void write(HttpOutputMessage outputMessage) throws IOException;
+  }
+
+  private static class TimedJsonConverter extends MappingJackson2HttpMessageConverter {
+    private TimedJsonConverter(ObjectMapper objectMapper) {
+      super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+        throws IOException {
+      writeTimed(outputMessage, target -> super.writeInternal(object, type, target));
+    }
+  }
+
+  private static class TimedCborConverter extends MappingJackson2CborHttpMessageConverter {
+    private TimedCborConverter(ObjectMapper objectMapper) {
+      super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+        throws IOException {
+      writeTimed(outputMessage, target -> super.writeInternal(object, type, target));
+    }
+  }
+}
@@ -1,25 +1,75 @@
 package com.skypro.simplebanking.controller;
 
 import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.AuditEvent;
 import com.skypro.simplebanking.dto.BalanceChangeRequest;
+import com.skypro.simplebanking.dto.BalanceOperationRequest;
 import com.skypro.simplebanking.dto.BankingUserDetails;
+import com.skypro.simplebanking.dto.BalanceOperationType;
+import com.skypro.simplebanking.dto.Tagged;
+import com.skypro.simplebanking.exception.InvalidAmountException;
 import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.AuditTrail;
+import com.skypro.simplebanking.service.CacheInvalidationBus;
+import com.skypro.simplebanking.service.CurrencyRegistry;
+import com.skypro.simplebanking.service.DepositCoalescer;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 @RestController
 @RequestMapping("/account")
 public class AccountController {
   private final AccountService accountService;
+  private final DepositCoalescer depositCoalescer;
+  private final AuditTrail auditTrail;
+  private final CacheInvalidationBus cacheInvalidationBus;
+  private final CurrencyRegistry currencyRegistry;
 
-  public AccountController(AccountService accountService) {
+  public AccountController(
+      AccountService accountService,
+      DepositCoalescer depositCoalescer,
+      AuditTrail auditTrail,
+      CacheInvalidationBus cacheInvalidationBus,
+      CurrencyRegistry currencyRegistry) {
     this.accountService = accountService;
+    this.depositCoalescer = depositCoalescer;
+    this.auditTrail = auditTrail;
+    this.cacheInvalidationBus = cacheInvalidationBus;
+    this.currencyRegistry = currencyRegistry;
   }
 
+  /** The caller's account in the currency, opened at zero if it has none yet. */
+  @PostMapping("/open/{currency}")
+  public AccountDTO openAccount(
+      Authentication authentication, @PathVariable("currency") String currency) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    return accountService.openAccount(
+        bankingUserDetails.getId(), currencyRegistry.byCode(currency));
+  }
+
+  /**
+   * Answers {@code If-None-Match} with a 304 and no body when the tag is current; a tag this node
+   * remembers costs neither a query nor serialization.
+   */
   @GetMapping("/{id}")
-  public AccountDTO getUserAccount(Authentication authentication, @PathVariable("id") Long accountId) {
+  public AccountDTO getUserAccount(
+      Authentication authentication, @PathVariable("id") Long accountId, WebRequest request) {
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    return accountService.getAccount(bankingUserDetails.getId(), accountId);
+    long userId = bankingUserDetails.getId();
+    String etag = cacheInvalidationBus.accountTag(userId, accountId);
+    if (etag != null && request.checkNotModified(etag)) {
+      return null;
+    }
+    Tagged<AccountDTO> account =
+        cacheInvalidationBus.account(
+            userId, accountId, () -> accountService.getTaggedAccount(userId, accountId));
+    if (request.checkNotModified(account.getEtag())) {
+      return null;
+    }
+    return account.getBody();
   }
 
   @PostMapping("/deposit/{id}")
@@ -27,7 +77,29 @@ public class AccountController {
                                      @PathVariable("id") Long accountId,
                                      @RequestBody BalanceChangeRequest balanceChangeRequest){
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    return accountService.depositToAccount(bankingUserDetails.getId(),accountId, balanceChangeRequest.getAmount());
+    long userId = bankingUserDetails.getId();
+    long amount = balanceChangeRequest.getAmount();
+    return auditTrail.audit(
+        AuditEvent.deposit(userId, accountId, amount),
+        () -> depositCoalescer.deposit(userId, accountId, amount));
+  }
+
+  /** Deposits to the caller's account in the currency, which the first deposit opens. */
+  @PostMapping("/deposit/currency/{currency}")
+  public AccountDTO depositToCurrency(Authentication authentication,
+                                      @PathVariable("currency") String currency,
+                                      @RequestBody BalanceChangeRequest balanceChangeRequest){
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    long userId = bankingUserDetails.getId();
+    long amount = balanceChangeRequest.getAmount();
+    if (amount < 0) {
+      throw new InvalidAmountException();
+    }
+    long accountId =
+        accountService.openAccount(userId, currencyRegistry.byCode(currency)).getId();
+    return auditTrail.audit(
+        AuditEvent.deposit(userId, accountId, amount),
+        () -> depositCoalescer.deposit(userId, accountId, amount));
   }
 
   @PostMapping("/withdraw/{id}")
@@ -35,6 +107,26 @@ public class AccountController {
                                      @PathVariable("id") Long accountId,
                                      @RequestBody BalanceChangeRequest balanceChangeRequest){
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    return accountService.withdrawFromAccount(bankingUserDetails.getId(),accountId, balanceChangeRequest.getAmount());
+    long userId = bankingUserDetails.getId();
+    long amount = balanceChangeRequest.getAmount();
+    return auditTrail.audit(
+        AuditEvent.withdraw(userId, accountId, amount),
+        () -> accountService.withdrawFromAccount(userId, accountId, amount));
+  }
+
+  @PostMapping("/batch")
+  public List<AccountDTO> applyBatch(Authentication authentication,
+                                     @RequestBody List<BalanceOperationRequest> operations){
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    long userId = bankingUserDetails.getId();
+    List<AuditEvent> events =
+        operations.stream()
+            .map(
+                operation ->
+                    operation.getType() == BalanceOperationType.WITHDRAW
+                        ? AuditEvent.withdraw(userId, operation.getAccountId(), operation.getAmount())
+                        : AuditEvent.deposit(userId, operation.getAccountId(), operation.getAmount()))
+            .collect(Collectors.toList());
+    return auditTrail.audit(events, () -> accountService.applyBatch(userId, operations));
   }
 }
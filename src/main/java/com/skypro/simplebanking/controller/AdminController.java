@@ -0,0 +1,179 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.ArchiveReport;
+import com.skypro.simplebanking.dto.AuditEvent;
+import com.skypro.simplebanking.dto.ImportReport;
+import com.skypro.simplebanking.dto.InterestAccrualReport;
+import com.skypro.simplebanking.dto.PartitionMigrationReport;
+import com.skypro.simplebanking.dto.PhaseTimings;
+import com.skypro.simplebanking.dto.ReconciliationReport;
+import com.skypro.simplebanking.dto.SnapshotReport;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.AccountPartitioningService;
+import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.ArchiveService;
+import com.skypro.simplebanking.service.AuditTrail;
+import com.skypro.simplebanking.service.CurrencyRegistry;
+import com.skypro.simplebanking.service.FlightRecordingService;
+import com.skypro.simplebanking.service.ImportService;
+import com.skypro.simplebanking.service.InterestAccrualService;
+import com.skypro.simplebanking.service.ReconciliationService;
+import com.skypro.simplebanking.service.RequestTimingHistograms;
+import com.skypro.simplebanking.service.SnapshotService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+@RestController
+@RequestMapping("/admin")
+public class AdminController {
+  private final AccountService accountService;
+  private final AccountPartitioningService accountPartitioningService;
+  private final ReconciliationService reconciliationService;
+  private final AuditTrail auditTrail;
+  private final FlightRecordingService flightRecordingService;
+  private final RequestTimingHistograms requestTimingHistograms;
+  private final InterestAccrualService interestAccrualService;
+  private final SnapshotService snapshotService;
+  private final ImportService importService;
+  private final ArchiveService archiveService;
+  private final CurrencyRegistry currencyRegistry;
+  private final ShardRouter shardRouter;
+
+  public AdminController(
+      AccountService accountService,
+      AccountPartitioningService accountPartitioningService,
+      ReconciliationService reconciliationService,
+      AuditTrail auditTrail,
+      FlightRecordingService flightRecordingService,
+      RequestTimingHistograms requestTimingHistograms,
+      InterestAccrualService interestAccrualService,
+      SnapshotService snapshotService,
+      ImportService importService,
+      ArchiveService archiveService,
+      CurrencyRegistry currencyRegistry,
+      ShardRouter shardRouter) {
+    this.accountService = accountService;
+    this.accountPartitioningService = accountPartitioningService;
+    this.reconciliationService = reconciliationService;
+    this.auditTrail = auditTrail;
+    this.flightRecordingService = flightRecordingService;
+    this.requestTimingHistograms = requestTimingHistograms;
+    this.interestAccrualService = interestAccrualService;
+    this.snapshotService = snapshotService;
+    this.importService = importService;
+    this.archiveService = archiveService;
+    this.currencyRegistry = currencyRegistry;
+    this.shardRouter = shardRouter;
+  }
+
+  @PostMapping("/users/{userId}/accounts/{id}/stripes")
+  public AccountDTO enableStriping(
+      @PathVariable("userId") long userId,
+      @PathVariable("id") Long accountId,
+      @RequestParam("count") int stripes) {
+    return shardRouter.onShard(
+        shardRouter.shardOfId(userId),
+        () -> accountService.enableStriping(userId, accountId, stripes));
+  }
+
+  @PostMapping("/accounts/partition")
+  public List<PartitionMigrationReport> partitionAccounts(
+      @RequestParam("partitions") int partitions,
+      @RequestParam(value = "chunkSize", defaultValue = "10000") int chunkSize) {
+    return shardRouter.onAllShards(() -> accountPartitioningService.partition(partitions, chunkSize));
+  }
+
+  @PostMapping("/reconciliation")
+  public ReconciliationReport reconcile(
+      @RequestParam(value = "parallelism", defaultValue = "4") int parallelism,
+      @RequestParam(value = "chunkSize", defaultValue = "50000") long chunkSize,
+      @RequestParam(value = "maxMismatches", defaultValue = "100") int maxMismatches) {
+    return reconciliationService.reconcile(parallelism, chunkSize, maxMismatches);
+  }
+
+  /** Accrues (or finishes accruing) the interest for the date; a completed date is a no-op. */
+  @PostMapping("/interest")
+  public InterestAccrualReport accrueInterest(
+      @RequestParam("date") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate businessDate) {
+    return interestAccrualService.accrue(businessDate);
+  }
+
+  /** Writes a snapshot of all users and balances to the snapshot directory. */
+  @PostMapping("/snapshot")
+  public SnapshotReport exportSnapshot() {
+    return snapshotService.export();
+  }
+
+  /** Loads a snapshot from the snapshot directory; the tables must be empty. */
+  @PostMapping("/snapshot/restore")
+  public SnapshotReport restoreSnapshot(@RequestParam("file") String file) {
+    return snapshotService.restore(file);
+  }
+
+  /**
+   * Imports legacy users from a {@code .csv} or {@code .ndjson} file in the import directory;
+   * importing a file again resumes it where it stopped.
+   */
+  @PostMapping("/import")
+  public ImportReport importUsers(@RequestParam("file") String file) {
+    return importService.importFile(file);
+  }
+
+  /** Moves dormant users and their accounts out of the hot tables. */
+  @PostMapping("/archive")
+  public ArchiveReport archiveDormantUsers() {
+    return archiveService.archiveDormant();
+  }
+
+  /**
+   * Registers a currency accounts can then be opened in; every node sees it within the registry's
+   * refresh interval, or at its first request for it.
+   */
+  @PostMapping("/currencies")
+  public AccountCurrency addCurrency(@RequestParam("code") String code) {
+    return currencyRegistry.add(code);
+  }
+
+  @GetMapping("/audit")
+  public List<AuditEvent> queryAuditTrail(
+      @RequestParam(value = "userId", required = false) Long userId,
+      @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+      @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+      @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+    return auditTrail.query(userId, from, to, limit);
+  }
+
+  @GetMapping("/jfr")
+  public ResponseEntity<StreamingResponseBody> dumpFlightRecording() {
+    Path file = flightRecordingService.dump();
+    StreamingResponseBody body =
+        outputStream -> {
+          try {
+            Files.copy(file, outputStream);
+          } finally {
+            Files.deleteIfExists(file);
+          }
+        };
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_OCTET_STREAM)
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + file.getFileName() + "\"")
+        .body(body);
+  }
+
+  @GetMapping("/timings")
+  public List<PhaseTimings> getRequestTimings() {
+    return requestTimingHistograms.snapshot();
+  }
+}
@@ -1,6 +1,8 @@
 package com.skypro.simplebanking.controller;
 
 import com.skypro.simplebanking.exception.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,6 +19,11 @@ public class BankingExceptionHandlers {
     return ResponseEntity.badRequest().body(exception.getMessage());
   }
 
+  @ExceptionHandler(value = {VelocityLimitExceededException.class})
+  public ResponseEntity<?> handleVelocityLimitExceeded(VelocityLimitExceededException exception) {
+    return ResponseEntity.unprocessableEntity().body(exception.getMessage());
+  }
+
   @ExceptionHandler(value = {UserAlreadyExistsException.class})
   public ResponseEntity<?> handleUserAlreadyExists() {
     return ResponseEntity.badRequest().build();
@@ -31,4 +38,21 @@ public class BankingExceptionHandlers {
   public ResponseEntity<?> handleWrongCurrency() {
     return ResponseEntity.badRequest().body("Account currencies should be same");
   }
+
+  @ExceptionHandler(value = {InvalidRequestException.class})
+  public ResponseEntity<?> handleInvalidRequest(InvalidRequestException exception) {
+    return ResponseEntity.badRequest().body(exception.getMessage());
+  }
+
+  @ExceptionHandler(value = {DepositTimedOutException.class})
+  public ResponseEntity<?> handleDepositTimedOut(DepositTimedOutException exception) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(exception.getMessage());
+  }
+
+  @ExceptionHandler(value = {PasswordHashingBusyException.class})
+  public ResponseEntity<?> handlePasswordHashingBusy(PasswordHashingBusyException exception) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(exception.getMessage());
+  }
 }
@@ -1,8 +1,12 @@
 package com.skypro.simplebanking.controller;
 
+import com.skypro.simplebanking.dto.AuditEvent;
 import com.skypro.simplebanking.dto.BankingUserDetails;
 import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.service.AuditTrail;
 import com.skypro.simplebanking.service.TransferService;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -13,15 +17,40 @@ import org.springframework.web.bind.annotation.RestController;
 @RequestMapping("/transfer")
 public class TransferController {
   private final TransferService transferService;
+  private final AuditTrail auditTrail;
 
-  public TransferController(TransferService transferService) {
+  public TransferController(TransferService transferService, AuditTrail auditTrail) {
     this.transferService = transferService;
+    this.auditTrail = auditTrail;
   }
 
   @PostMapping
   public void transfer(
       Authentication authentication, @RequestBody TransferRequest transferRequest) {
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    transferService.transfer(bankingUserDetails.getId(), transferRequest);
+    long userId = bankingUserDetails.getId();
+    auditTrail.audit(
+        AuditEvent.transfer(userId, transferRequest),
+        () -> {
+          transferService.transfer(userId, transferRequest);
+          return null;
+        });
+  }
+
+  @PostMapping("/batch")
+  public void transferBatch(
+      Authentication authentication, @RequestBody List<TransferRequest> transferRequests) {
+    BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
+    long userId = bankingUserDetails.getId();
+    List<AuditEvent> events =
+        transferRequests.stream()
+            .map(transferRequest -> AuditEvent.transfer(userId, transferRequest))
+            .collect(Collectors.toList());
+    auditTrail.audit(
+        events,
+        () -> {
+          transferService.transferBatch(userId, transferRequests);
+          return null;
+        });
   }
 }
@@ -1,39 +1,80 @@
 package com.skypro.simplebanking.controller;
 
+import com.skypro.simplebanking.configuration.ShardRouter;
 import com.skypro.simplebanking.dto.BankingUserDetails;
 import com.skypro.simplebanking.dto.CreateUserRequest;
 import com.skypro.simplebanking.dto.ListUserDTO;
+import com.skypro.simplebanking.dto.Tagged;
 import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.dto.UserSearchMode;
+import com.skypro.simplebanking.dto.UserSearchPage;
 import javax.validation.Valid;
 
+import com.skypro.simplebanking.service.CacheInvalidationBus;
+import com.skypro.simplebanking.service.UserSearchService;
 import com.skypro.simplebanking.service.UserService;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/user")
 public class UserController {
   private final UserService userService;
+  private final UserSearchService userSearchService;
+  private final ShardRouter shardRouter;
+  private final CacheInvalidationBus cacheInvalidationBus;
 
-  public UserController(UserService userService) {
+  public UserController(
+      UserService userService,
+      UserSearchService userSearchService,
+      ShardRouter shardRouter,
+      CacheInvalidationBus cacheInvalidationBus) {
     this.userService = userService;
+    this.userSearchService = userSearchService;
+    this.shardRouter = shardRouter;
+    this.cacheInvalidationBus = cacheInvalidationBus;
   }
 
   @PostMapping
   public UserDTO createUser(@RequestBody @Valid CreateUserRequest userRequest) {
-    return userService.createUser(userRequest.getUsername(), userRequest.getPassword());
+    return shardRouter.onShard(
+        shardRouter.shardOfUsername(userRequest.getUsername()),
+        () -> userService.createUser(userRequest.getUsername(), userRequest.getPassword()));
   }
 
   @GetMapping("/list")
   public List<ListUserDTO> getAllUsers(){
-    return userService.listUsers();
+    return shardRouter.onAllShards(userService::listUsers).stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+  }
+
+  @GetMapping("/search")
+  public UserSearchPage searchUsers(
+      @RequestParam("q") String query,
+      @RequestParam(value = "mode", defaultValue = "PREFIX") UserSearchMode mode,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "limit", defaultValue = "20") int limit) {
+    return userSearchService.search(query, mode, cursor, limit);
   }
 
   @GetMapping("/me")
-  public UserDTO getMyProfile(Authentication authentication){
+  public UserDTO getMyProfile(Authentication authentication, WebRequest request){
     BankingUserDetails bankingUserDetails = (BankingUserDetails) authentication.getPrincipal();
-    return userService.getUser(bankingUserDetails.getId());
+    long userId = bankingUserDetails.getId();
+    String etag = cacheInvalidationBus.profileTag(userId);
+    if (etag != null && request.checkNotModified(etag)) {
+      return null;
+    }
+    Tagged<UserDTO> profile =
+        cacheInvalidationBus.profile(userId, () -> userService.getTaggedUser(userId));
+    if (request.checkNotModified(profile.getEtag())) {
+      return null;
+    }
+    return profile.getBody();
   }
 }
@@ -0,0 +1,39 @@
+package com.skypro.simplebanking.dto;
+
+public class ArchiveReport {
+  private final long users;
+  private final long accounts;
+  private final long hotBytesBefore;
+  private final long hotBytesAfter;
+  private final long elapsedMillis;
+
+  public ArchiveReport(
+      long users, long accounts, long hotBytesBefore, long hotBytesAfter, long elapsedMillis) {
+    this.users = users;
+    this.accounts = accounts;
+    this.hotBytesBefore = hotBytesBefore;
+    this.hotBytesAfter = hotBytesAfter;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  public long getUsers() {
+    return users;
+  }
+
+  public long getAccounts() {
+    return accounts;
+  }
+
+  /** Size of {@code users} and {@code accounts} with their indexes on all shards before the run. */
+  public long getHotBytesBefore() {
+    return hotBytesBefore;
+  }
+
+  public long getHotBytesAfter() {
+    return hotBytesAfter;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+}
@@ -0,0 +1,115 @@
+package com.skypro.simplebanking.dto;
+
+import java.time.Instant;
+
+/**
+ * Who did what, when and with which outcome. Account and counterparty ids are {@code 0} when the
+ * operation has none; the admin principal has user id {@code -1}.
+ */
+public class AuditEvent {
+  private final Instant timestamp;
+  private final long userId;
+  private final AuditOperation operation;
+  private final AuditOutcome outcome;
+  private final long accountId;
+  private final long counterpartyUserId;
+  private final long counterpartyAccountId;
+  private final long amount;
+
+  public AuditEvent(
+      Instant timestamp,
+      long userId,
+      AuditOperation operation,
+      AuditOutcome outcome,
+      long accountId,
+      long counterpartyUserId,
+      long counterpartyAccountId,
+      long amount) {
+    this.timestamp = timestamp;
+    this.userId = userId;
+    this.operation = operation;
+    this.outcome = outcome;
+    this.accountId = accountId;
+    this.counterpartyUserId = counterpartyUserId;
+    this.counterpartyAccountId = counterpartyAccountId;
+    this.amount = amount;
+  }
+
+  public Instant getTimestamp() {
+    return timestamp;
+  }
+
+  public long getUserId() {
+    return userId;
+  }
+
+  public AuditOperation getOperation() {
+    return operation;
+  }
+
+  public AuditOutcome getOutcome() {
+    return outcome;
+  }
+
+  public long getAccountId() {
+    return accountId;
+  }
+
+  public long getCounterpartyUserId() {
+    return counterpartyUserId;
+  }
+
+  public long getCounterpartyAccountId() {
+    return counterpartyAccountId;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public AuditEvent withOutcome(AuditOutcome outcome) {
+    return new AuditEvent(
+        timestamp,
+        userId,
+        operation,
+        outcome,
+        accountId,
+        counterpartyUserId,
+        counterpartyAccountId,
+        amount);
+  }
+
+  public static AuditEvent deposit(long userId, long accountId, long amount) {
+    return new AuditEvent(
+        Instant.now(), userId, AuditOperation.DEPOSIT, null, accountId, 0, 0, amount);
+  }
+
+  public static AuditEvent withdraw(long userId, long accountId, long amount) {
+    return new AuditEvent(
+        Instant.now(), userId, AuditOperation.WITHDRAW, null, accountId, 0, 0, amount);
+  }
+
+  public static AuditEvent transfer(long userId, TransferRequest transferRequest) {
+    return new AuditEvent(
+        Instant.now(),
+        userId,
+        AuditOperation.TRANSFER,
+        null,
+        transferRequest.getFromAccountId(),
+        transferRequest.getToUserId(),
+        transferRequest.getToAccountId(),
+        transferRequest.getAmount());
+  }
+
+  public static AuditEvent adminAccess(boolean granted) {
+    return new AuditEvent(
+        Instant.now(),
+        -1,
+        AuditOperation.ADMIN_ACCESS,
+        granted ? AuditOutcome.SUCCEEDED : AuditOutcome.DENIED,
+        0,
+        0,
+        0,
+        0);
+  }
+}
@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.dto;
+
+public enum AuditOperation {
+  DEPOSIT,
+  WITHDRAW,
+  TRANSFER,
+  ADMIN_ACCESS
+}
@@ -0,0 +1,43 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import com.skypro.simplebanking.exception.VelocityLimitExceededException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+
+public enum AuditOutcome {
+  SUCCEEDED,
+  DENIED,
+  NOT_FOUND,
+  INSUFFICIENT_FUNDS,
+  INVALID_AMOUNT,
+  WRONG_CURRENCY,
+  INVALID_REQUEST,
+  FAILED,
+  // Stored by ordinal in audit segments, so new outcomes go last.
+  LIMIT_EXCEEDED;
+
+  public static AuditOutcome of(RuntimeException exception) {
+    if (exception instanceof AccountNotFoundException) {
+      return NOT_FOUND;
+    }
+    if (exception instanceof InsufficientFundsException) {
+      return INSUFFICIENT_FUNDS;
+    }
+    if (exception instanceof InvalidAmountException) {
+      return INVALID_AMOUNT;
+    }
+    if (exception instanceof WrongCurrencyException) {
+      return WRONG_CURRENCY;
+    }
+    if (exception instanceof VelocityLimitExceededException) {
+      return LIMIT_EXCEEDED;
+    }
+    if (exception instanceof InvalidRequestException) {
+      return INVALID_REQUEST;
+    }
+    return FAILED;
+  }
+}
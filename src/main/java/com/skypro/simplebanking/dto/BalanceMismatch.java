@@ -0,0 +1,35 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+
+public class BalanceMismatch {
+  private final long accountId;
+  private final AccountCurrency currency;
+  private final Long balance;
+  private final long movementTotal;
+
+  public BalanceMismatch(
+      long accountId, AccountCurrency currency, Long balance, long movementTotal) {
+    this.accountId = accountId;
+    this.currency = currency;
+    this.balance = balance;
+    this.movementTotal = movementTotal;
+  }
+
+  public long getAccountId() {
+    return accountId;
+  }
+
+  /** {@code null} when movements exist for an account that does not. */
+  public AccountCurrency getCurrency() {
+    return currency;
+  }
+
+  public Long getBalance() {
+    return balance;
+  }
+
+  public long getMovementTotal() {
+    return movementTotal;
+  }
+}
@@ -0,0 +1,31 @@
+package com.skypro.simplebanking.dto;
+
+public class BalanceOperationRequest {
+  private BalanceOperationType type;
+  private long accountId;
+  private long amount;
+
+  public BalanceOperationType getType() {
+    return type;
+  }
+
+  public void setType(BalanceOperationType type) {
+    this.type = type;
+  }
+
+  public long getAccountId() {
+    return accountId;
+  }
+
+  public void setAccountId(long accountId) {
+    this.accountId = accountId;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(long amount) {
+    this.amount = amount;
+  }
+}
@@ -0,0 +1,6 @@
+package com.skypro.simplebanking.dto;
+
+public enum BalanceOperationType {
+  DEPOSIT,
+  WITHDRAW
+}
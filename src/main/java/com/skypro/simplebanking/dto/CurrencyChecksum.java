@@ -0,0 +1,55 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+
+/**
+ * Totals and order-independent checksums over all accounts in one currency. The two checksums are
+ * equal exactly when every account's balance matches its movement history (barring collisions).
+ */
+public class CurrencyChecksum {
+  private final AccountCurrency currency;
+  private final long accounts;
+  private final long balanceTotal;
+  private final long movementTotal;
+  private final long balanceChecksum;
+  private final long movementChecksum;
+
+  public CurrencyChecksum(
+      AccountCurrency currency,
+      long accounts,
+      long balanceTotal,
+      long movementTotal,
+      long balanceChecksum,
+      long movementChecksum) {
+    this.currency = currency;
+    this.accounts = accounts;
+    this.balanceTotal = balanceTotal;
+    this.movementTotal = movementTotal;
+    this.balanceChecksum = balanceChecksum;
+    this.movementChecksum = movementChecksum;
+  }
+
+  public AccountCurrency getCurrency() {
+    return currency;
+  }
+
+  public long getAccounts() {
+    return accounts;
+  }
+
+  public long getBalanceTotal() {
+    return balanceTotal;
+  }
+
+  public long getMovementTotal() {
+    return movementTotal;
+  }
+
+  public long getBalanceChecksum() {
+    return balanceChecksum;
+  }
+
+  public long getMovementChecksum() {
+    return movementChecksum;
+  }
+}
@@ -0,0 +1,57 @@
+package com.skypro.simplebanking.dto;
+
+public class ImportReport {
+  private final String file;
+  private final long resumedAtLine;
+  private final long lines;
+  private final long imported;
+  private final long rejected;
+  private final long elapsedMillis;
+
+  public ImportReport(
+      String file,
+      long resumedAtLine,
+      long lines,
+      long imported,
+      long rejected,
+      long elapsedMillis) {
+    this.file = file;
+    this.resumedAtLine = resumedAtLine;
+    this.lines = lines;
+    this.imported = imported;
+    this.rejected = rejected;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  /** Line the run started after; 0 for a fresh import. */
+  public long getResumedAtLine() {
+    return resumedAtLine;
+  }
+
+  /** Lines read by this run. */
+  public long getLines() {
+    return lines;
+  }
+
+  /** Users imported by this and earlier runs of the file. */
+  public long getImported() {
+    return imported;
+  }
+
+  /** Rows rejected by this and earlier runs; see the file's {@code .rejects} file. */
+  public long getRejected() {
+    return rejected;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  public long getLinesPerSecond() {
+    return elapsedMillis == 0 ? lines : lines * 1000 / elapsedMillis;
+  }
+}
@@ -0,0 +1,63 @@
+package com.skypro.simplebanking.dto;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.time.LocalDate;
+import java.util.Map;
+
+public class InterestAccrualReport {
+  private final LocalDate businessDate;
+  private final int ranges;
+  private final int rangesAlreadyCompleted;
+  private final int chunks;
+  private final long accountsCredited;
+  private final Map<AccountCurrency, Long> interest;
+  private final long elapsedMillis;
+
+  public InterestAccrualReport(
+      LocalDate businessDate,
+      int ranges,
+      int rangesAlreadyCompleted,
+      int chunks,
+      long accountsCredited,
+      Map<AccountCurrency, Long> interest,
+      long elapsedMillis) {
+    this.businessDate = businessDate;
+    this.ranges = ranges;
+    this.rangesAlreadyCompleted = rangesAlreadyCompleted;
+    this.chunks = chunks;
+    this.accountsCredited = accountsCredited;
+    this.interest = interest;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  public LocalDate getBusinessDate() {
+    return businessDate;
+  }
+
+  public int getRanges() {
+    return ranges;
+  }
+
+  /** Ranges finished by an earlier run for the same date, which this run skipped. */
+  public int getRangesAlreadyCompleted() {
+    return rangesAlreadyCompleted;
+  }
+
+  public int getChunks() {
+    return chunks;
+  }
+
+  /** Accounts credited by this run; an earlier, interrupted run may have credited others. */
+  public long getAccountsCredited() {
+    return accountsCredited;
+  }
+
+  /** Interest credited by this run per currency, in minor units. */
+  public Map<AccountCurrency, Long> getInterest() {
+    return interest;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+}
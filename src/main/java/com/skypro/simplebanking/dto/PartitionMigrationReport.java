@@ -0,0 +1,31 @@
+package com.skypro.simplebanking.dto;
+
+public class PartitionMigrationReport {
+  private final int partitions;
+  private final long rowsCopied;
+  private final int chunks;
+  private final long elapsedMillis;
+
+  public PartitionMigrationReport(int partitions, long rowsCopied, int chunks, long elapsedMillis) {
+    this.partitions = partitions;
+    this.rowsCopied = rowsCopied;
+    this.chunks = chunks;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  public int getPartitions() {
+    return partitions;
+  }
+
+  public long getRowsCopied() {
+    return rowsCopied;
+  }
+
+  public int getChunks() {
+    return chunks;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+}
@@ -0,0 +1,45 @@
+package com.skypro.simplebanking.dto;
+
+/** Latency distribution of one phase over the sampled requests, in microseconds. */
+public class PhaseTimings {
+  private final TimingPhase phase;
+  private final long count;
+  private final long p50Micros;
+  private final long p90Micros;
+  private final long p99Micros;
+  private final long maxMicros;
+
+  public PhaseTimings(
+      TimingPhase phase, long count, long p50Micros, long p90Micros, long p99Micros, long maxMicros) {
+    this.phase = phase;
+    this.count = count;
+    this.p50Micros = p50Micros;
+    this.p90Micros = p90Micros;
+    this.p99Micros = p99Micros;
+    this.maxMicros = maxMicros;
+  }
+
+  public TimingPhase getPhase() {
+    return phase;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getP50Micros() {
+    return p50Micros;
+  }
+
+  public long getP90Micros() {
+    return p90Micros;
+  }
+
+  public long getP99Micros() {
+    return p99Micros;
+  }
+
+  public long getMaxMicros() {
+    return maxMicros;
+  }
+}
@@ -0,0 +1,52 @@
+package com.skypro.simplebanking.dto;
+
+import java.util.List;
+
+public class ReconciliationReport {
+  private final long accountsScanned;
+  private final int chunks;
+  private final long elapsedMillis;
+  private final List<CurrencyChecksum> currencies;
+  private final long mismatchCount;
+  private final List<BalanceMismatch> mismatches;
+
+  public ReconciliationReport(
+      long accountsScanned,
+      int chunks,
+      long elapsedMillis,
+      List<CurrencyChecksum> currencies,
+      long mismatchCount,
+      List<BalanceMismatch> mismatches) {
+    this.accountsScanned = accountsScanned;
+    this.chunks = chunks;
+    this.elapsedMillis = elapsedMillis;
+    this.currencies = currencies;
+    this.mismatchCount = mismatchCount;
+    this.mismatches = mismatches;
+  }
+
+  public long getAccountsScanned() {
+    return accountsScanned;
+  }
+
+  public int getChunks() {
+    return chunks;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+
+  public List<CurrencyChecksum> getCurrencies() {
+    return currencies;
+  }
+
+  public long getMismatchCount() {
+    return mismatchCount;
+  }
+
+  /** The first mismatches found, at most as many as requested; see {@link #getMismatchCount}. */
+  public List<BalanceMismatch> getMismatches() {
+    return mismatches;
+  }
+}
@@ -0,0 +1,38 @@
+package com.skypro.simplebanking.dto;
+
+public class SnapshotReport {
+  private final String file;
+  private final long users;
+  private final long accounts;
+  private final long bytes;
+  private final long elapsedMillis;
+
+  public SnapshotReport(String file, long users, long accounts, long bytes, long elapsedMillis) {
+    this.file = file;
+    this.users = users;
+    this.accounts = accounts;
+    this.bytes = bytes;
+    this.elapsedMillis = elapsedMillis;
+  }
+
+  /** File name within the snapshot directory. */
+  public String getFile() {
+    return file;
+  }
+
+  public long getUsers() {
+    return users;
+  }
+
+  public long getAccounts() {
+    return accounts;
+  }
+
+  public long getBytes() {
+    return bytes;
+  }
+
+  public long getElapsedMillis() {
+    return elapsedMillis;
+  }
+}
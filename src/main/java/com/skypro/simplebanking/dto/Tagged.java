@@ -0,0 +1,23 @@
+package com.skypro.simplebanking.dto;
+
+/**
+ * A response body with the entity tag it was read with, so conditional requests can be answered
+ * from the tag alone. The tag is derived from the version columns the body was read from.
+ */
+public class Tagged<T> {
+  private final T body;
+  private final String etag;
+
+  public Tagged(T body, String etag) {
+    this.body = body;
+    this.etag = etag;
+  }
+
+  public T getBody() {
+    return body;
+  }
+
+  public String getEtag() {
+    return etag;
+  }
+}
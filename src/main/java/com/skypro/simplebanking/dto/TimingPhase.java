@@ -0,0 +1,27 @@
+package com.skypro.simplebanking.dto;
+
+/** Parts of a request that the Server-Timing collector attributes time to. */
+public enum TimingPhase {
+  /** The Spring Security filter chain, including password checks. */
+  AUTH("auth"),
+  /** Calls into Spring Data repositories. */
+  REPOSITORY("repo"),
+  /** Connection acquisition and statement execution, whoever issued the statement. */
+  DB("db"),
+  /** Transaction commits. */
+  COMMIT("commit"),
+  /** Writing the response body. */
+  SERIALIZATION("ser"),
+  /** The whole request. */
+  TOTAL("total");
+
+  private final String metricName;
+
+  TimingPhase(String metricName) {
+    this.metricName = metricName;
+  }
+
+  public String getMetricName() {
+    return metricName;
+  }
+}
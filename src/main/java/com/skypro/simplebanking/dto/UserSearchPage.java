@@ -0,0 +1,22 @@
+package com.skypro.simplebanking.dto;
+
+import java.util.List;
+
+public class UserSearchPage {
+  private final List<UserSearchResult> users;
+  private final String nextCursor;
+
+  public UserSearchPage(List<UserSearchResult> users, String nextCursor) {
+    this.users = users;
+    this.nextCursor = nextCursor;
+  }
+
+  public List<UserSearchResult> getUsers() {
+    return users;
+  }
+
+  /** Pass back as {@code cursor} to get the next page; {@code null} on the last page. */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+}
@@ -0,0 +1,13 @@
+package com.skypro.simplebanking.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/** Projection of a username search hit; the trigram distance is only set for fuzzy searches. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public interface UserSearchResult {
+  Long getId();
+
+  String getUsername();
+
+  Float getDistance();
+}
@@ -2,18 +2,46 @@ package com.skypro.simplebanking.entity;
 
 import javax.persistence.*;
 
+/**
+ * A user's balance in one currency. A user has at most one account per currency, opened on first
+ * use rather than at sign-up.
+ */
 @Entity
-@Table(name = "accounts")
+@Table(
+    name = "accounts",
+    uniqueConstraints =
+        @UniqueConstraint(
+            name = "accounts_user_id_account_currency_key",
+            columnNames = {"user_id", "account_currency"}))
 public class Account {
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account-sequence")
-  @SequenceGenerator(name = "account-sequence", sequenceName = "account_sequence")
+  @SequenceGenerator(
+      name = "account-sequence",
+      sequenceName = "account_sequence",
+      allocationSize = 1)
   private Long id;
 
   private AccountCurrency accountCurrency;
+
+  /**
+   * Changed only by AccountRepository statements, which name user_id so a partitioned table
+   * prunes them to one partition. Hibernate's own update would find the row by id alone.
+   */
+  @Column(updatable = false)
   private Long amount;
 
-  @ManyToOne(optional = false)
+  @Column(updatable = false)
+  private Integer stripeCount;
+
+  /**
+   * Entity tag data only: bumped by every AccountRepository statement that changes the row, never
+   * checked on write. Defaults to 0 for rows written with plain SQL, such as restored snapshots.
+   */
+  @Column(nullable = false, updatable = false, columnDefinition = "bigint default 0")
+  private long version;
+
+  @ManyToOne(fetch = FetchType.LAZY, optional = false)
   @JoinColumn(nullable = false, updatable = false, name = "user_id")
   private User user;
 
@@ -41,6 +69,26 @@ public class Account {
     this.amount = amount;
   }
 
+  public Integer getStripeCount() {
+    return stripeCount;
+  }
+
+  public void setStripeCount(Integer stripeCount) {
+    this.stripeCount = stripeCount;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
+  public boolean isStriped() {
+    return stripeCount != null && stripeCount > 0;
+  }
+
   public User getUser() {
     return user;
   }
@@ -1,7 +1,55 @@
 package com.skypro.simplebanking.entity;
 
-public enum AccountCurrency {
-  USD,
-  EUR,
-  RUB
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.List;
+
+/**
+ * A currency accounts can be held in: the id stored in {@code account_currency} columns and the
+ * ISO 4217 code clients see. Which currencies exist is data, kept in {@code currencies} and read
+ * through {@code CurrencyRegistry}. The three below were an enum once and keep its ordinals as
+ * ids, so rows, snapshots and import files written back then still mean the same currency.
+ */
+public final class AccountCurrency implements Comparable<AccountCurrency> {
+  public static final AccountCurrency USD = new AccountCurrency(0, "USD");
+  public static final AccountCurrency EUR = new AccountCurrency(1, "EUR");
+  public static final AccountCurrency RUB = new AccountCurrency(2, "RUB");
+  /** Always registered, also before the registry has been read. */
+  public static final List<AccountCurrency> BUILT_IN = List.of(USD, EUR, RUB);
+
+  private final int id;
+  private final String code;
+
+  public AccountCurrency(int id, String code) {
+    this.id = id;
+    this.code = code;
+  }
+
+  public int getId() {
+    return id;
+  }
+
+  @JsonValue
+  public String getCode() {
+    return code;
+  }
+
+  @Override
+  public int compareTo(AccountCurrency other) {
+    return Integer.compare(id, other.id);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof AccountCurrency && ((AccountCurrency) other).id == id;
+  }
+
+  @Override
+  public int hashCode() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return code;
+  }
 }
@@ -0,0 +1,30 @@
+package com.skypro.simplebanking.entity;
+
+import com.skypro.simplebanking.service.CurrencyRegistry;
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Stores a currency as its id, as the enum it replaced was stored by ordinal. Created by Hibernate
+ * through Spring while the entity manager factory is built, which is before the registry can be,
+ * so the registry is only looked up on the first row read.
+ */
+@Converter(autoApply = true)
+public class AccountCurrencyConverter implements AttributeConverter<AccountCurrency, Integer> {
+  private final ObjectProvider<CurrencyRegistry> currencyRegistry;
+
+  public AccountCurrencyConverter(ObjectProvider<CurrencyRegistry> currencyRegistry) {
+    this.currencyRegistry = currencyRegistry;
+  }
+
+  @Override
+  public Integer convertToDatabaseColumn(AccountCurrency currency) {
+    return currency == null ? null : currency.getId();
+  }
+
+  @Override
+  public AccountCurrency convertToEntityAttribute(Integer id) {
+    return id == null ? null : currencyRegistry.getObject().byId(id);
+  }
+}
@@ -0,0 +1,72 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * One change to an account's balance, written in the same transaction as the change itself. The
+ * signed amounts of an account's movements always add up to its balance.
+ */
+@Entity
+@Table(
+    name = "account_movements",
+    indexes = @Index(name = "account_movements_account_id_idx", columnList = "account_id, amount"))
+public class AccountMovement {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account-movement-sequence")
+  @SequenceGenerator(name = "account-movement-sequence", sequenceName = "account_movement_sequence")
+  private Long id;
+
+  @Column(name = "account_id", nullable = false, updatable = false)
+  private Long accountId;
+
+  @Column(nullable = false, updatable = false)
+  private long amount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, updatable = false)
+  private AccountMovementType type;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public void setAccountId(Long accountId) {
+    this.accountId = accountId;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(long amount) {
+    this.amount = amount;
+  }
+
+  public AccountMovementType getType() {
+    return type;
+  }
+
+  public void setType(AccountMovementType type) {
+    this.type = type;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
@@ -0,0 +1,11 @@
+package com.skypro.simplebanking.entity;
+
+public enum AccountMovementType {
+  OPENING,
+  DEPOSIT,
+  WITHDRAWAL,
+  TRANSFER_IN,
+  TRANSFER_OUT,
+  REVERSAL,
+  INTEREST
+}
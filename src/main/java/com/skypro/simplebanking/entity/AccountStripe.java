@@ -0,0 +1,59 @@
+package com.skypro.simplebanking.entity;
+
+import javax.persistence.*;
+
+/**
+ * One slice of a hot account's balance. Deposits to a striped account update a random stripe
+ * instead of the {@code accounts} row, so concurrent deposits do not queue on a single row lock.
+ */
+@Entity
+@Table(
+    name = "account_stripes",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"account_id", "stripe"}))
+public class AccountStripe {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account-stripe-sequence")
+  @SequenceGenerator(name = "account-stripe-sequence", sequenceName = "account_stripe_sequence")
+  private Long id;
+
+  @Column(name = "account_id", nullable = false, updatable = false)
+  private Long accountId;
+
+  @Column(nullable = false, updatable = false)
+  private int stripe;
+
+  @Column(nullable = false)
+  private long amount;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getAccountId() {
+    return accountId;
+  }
+
+  public void setAccountId(Long accountId) {
+    this.accountId = accountId;
+  }
+
+  public int getStripe() {
+    return stripe;
+  }
+
+  public void setStripe(int stripe) {
+    this.stripe = stripe;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(long amount) {
+    this.amount = amount;
+  }
+}
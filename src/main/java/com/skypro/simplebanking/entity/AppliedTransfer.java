@@ -0,0 +1,35 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * Marks a cross-shard transfer whose deposit has been applied on this shard, so retrying the
+ * deposit leg never credits the target account twice.
+ */
+@Entity
+@Table(name = "applied_transfers")
+public class AppliedTransfer {
+  @Id
+  @Column(name = "transfer_id")
+  private String transferId;
+
+  @Column(name = "applied_at", nullable = false, updatable = false)
+  private Instant appliedAt;
+
+  public String getTransferId() {
+    return transferId;
+  }
+
+  public void setTransferId(String transferId) {
+    this.transferId = transferId;
+  }
+
+  public Instant getAppliedAt() {
+    return appliedAt;
+  }
+
+  public void setAppliedAt(Instant appliedAt) {
+    this.appliedAt = appliedAt;
+  }
+}
@@ -0,0 +1,55 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * An account of an {@link ArchivedUser}. Only unstriped accounts are archived, so the amount is the
+ * whole balance; the account's movements stay in {@code account_movements}.
+ */
+@Entity
+@Table(
+    name = "archived_accounts",
+    indexes = @Index(name = "archived_accounts_user_id_idx", columnList = "user_id"))
+public class ArchivedAccount {
+  @Id private Long id;
+
+  @Column(name = "user_id", nullable = false, updatable = false)
+  private Long userId;
+
+  @Column(nullable = false, updatable = false)
+  private AccountCurrency accountCurrency;
+
+  @Column(nullable = false, updatable = false)
+  private long amount;
+
+  @Column(nullable = false, updatable = false)
+  private long version;
+
+  @Column(name = "archived_at", nullable = false, updatable = false)
+  private Instant archivedAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public AccountCurrency getAccountCurrency() {
+    return accountCurrency;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Instant getArchivedAt() {
+    return archivedAt;
+  }
+}
@@ -0,0 +1,49 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * A dormant user moved out of {@code users}, with the id, hash and version it had there, so moving
+ * it back changes nothing a client can see. Its accounts are in {@code archived_accounts}.
+ */
+@Entity
+@Table(
+    name = "archived_users",
+    uniqueConstraints =
+        @UniqueConstraint(name = "archived_users_username_key", columnNames = "username"))
+public class ArchivedUser {
+  @Id private Long id;
+
+  @Column(nullable = false, updatable = false)
+  private String username;
+
+  @Column(nullable = false, updatable = false)
+  private String password;
+
+  @Column(nullable = false, updatable = false)
+  private long version;
+
+  @Column(name = "archived_at", nullable = false, updatable = false)
+  private Instant archivedAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public String getPassword() {
+    return password;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  public Instant getArchivedAt() {
+    return archivedAt;
+  }
+}
@@ -0,0 +1,75 @@
+package com.skypro.simplebanking.entity;
+
+import javax.persistence.*;
+
+/**
+ * Progress of an import file on one shard: every row of the file up to byte {@code position} that
+ * belongs to the shard has been imported or rejected. Kept on the shard it describes and advanced
+ * in the same transaction as the rows, so a resumed import neither skips nor repeats a user.
+ */
+@Entity
+@Table(
+    name = "import_checkpoints",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"file", "shard"}))
+public class ImportCheckpoint {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "import-checkpoint-sequence")
+  @SequenceGenerator(
+      name = "import-checkpoint-sequence",
+      sequenceName = "import_checkpoint_sequence")
+  private Long id;
+
+  @Column(nullable = false, updatable = false)
+  private String file;
+
+  @Column(nullable = false, updatable = false)
+  private int shard;
+
+  @Column(nullable = false)
+  private long position;
+
+  /** Number of the last line up to {@code position}, counting the header. */
+  @Column(nullable = false)
+  private long line;
+
+  @Column(nullable = false)
+  private long imported;
+
+  @Column(nullable = false)
+  private long rejected;
+
+  @Column(nullable = false)
+  private boolean completed;
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public int getShard() {
+    return shard;
+  }
+
+  public long getPosition() {
+    return position;
+  }
+
+  public long getLine() {
+    return line;
+  }
+
+  public long getImported() {
+    return imported;
+  }
+
+  public long getRejected() {
+    return rejected;
+  }
+
+  public boolean isCompleted() {
+    return completed;
+  }
+}
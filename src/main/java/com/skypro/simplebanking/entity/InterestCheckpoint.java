@@ -0,0 +1,77 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.LocalDate;
+import javax.persistence.*;
+
+/**
+ * Progress of the interest accrual for one business date over one id range of a shard's accounts:
+ * every account with an id up to {@code lastId} has been credited. Kept on the shard it describes
+ * and advanced in the same transaction as the credits, so a resumed run neither skips nor repeats
+ * an account.
+ */
+@Entity
+@Table(
+    name = "interest_checkpoints",
+    uniqueConstraints =
+        @UniqueConstraint(columnNames = {"business_date", "shard", "range_start"}))
+public class InterestCheckpoint {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "interest-checkpoint-sequence")
+  @SequenceGenerator(
+      name = "interest-checkpoint-sequence",
+      sequenceName = "interest_checkpoint_sequence")
+  private Long id;
+
+  @Column(name = "business_date", nullable = false, updatable = false)
+  private LocalDate businessDate;
+
+  @Column(nullable = false, updatable = false)
+  private int shard;
+
+  @Column(name = "range_start", nullable = false, updatable = false)
+  private long rangeStart;
+
+  @Column(name = "range_end", nullable = false, updatable = false)
+  private long rangeEnd;
+
+  @Column(name = "last_id", nullable = false)
+  private long lastId;
+
+  @Column(nullable = false)
+  private long accounts;
+
+  @Column(nullable = false)
+  private boolean completed;
+
+  public Long getId() {
+    return id;
+  }
+
+  public LocalDate getBusinessDate() {
+    return businessDate;
+  }
+
+  public int getShard() {
+    return shard;
+  }
+
+  public long getRangeStart() {
+    return rangeStart;
+  }
+
+  public long getRangeEnd() {
+    return rangeEnd;
+  }
+
+  public long getLastId() {
+    return lastId;
+  }
+
+  public long getAccounts() {
+    return accounts;
+  }
+
+  public boolean isCompleted() {
+    return completed;
+  }
+}
@@ -0,0 +1,26 @@
+package com.skypro.simplebanking.entity;
+
+import javax.persistence.*;
+
+/**
+ * A row of the currency registry. Only the first shard's table is used; ids are handed out in
+ * order and never reused, since accounts on every shard refer to them.
+ */
+@Entity
+@Table(
+    name = "currencies",
+    uniqueConstraints = @UniqueConstraint(name = "currencies_code_key", columnNames = "code"))
+public class RegisteredCurrency {
+  @Id private Integer id;
+
+  @Column(nullable = false, updatable = false, length = 3)
+  private String code;
+
+  public Integer getId() {
+    return id;
+  }
+
+  public String getCode() {
+    return code;
+  }
+}
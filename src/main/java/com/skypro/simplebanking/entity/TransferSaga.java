@@ -0,0 +1,101 @@
+package com.skypro.simplebanking.entity;
+
+import java.time.Instant;
+import javax.persistence.*;
+
+/**
+ * A transfer between users on different shards, kept on the source shard. It is written together
+ * with the withdrawal and stays {@link TransferSagaStatus#PENDING} until the deposit on the target
+ * shard is known to have been applied or the withdrawal has been refunded.
+ */
+@Entity
+@Table(name = "transfer_sagas", indexes = @Index(columnList = "status, created_at"))
+public class TransferSaga {
+  @Id private String id;
+
+  @Column(name = "from_user_id", nullable = false, updatable = false)
+  private long fromUserId;
+
+  @Column(name = "from_account_id", nullable = false, updatable = false)
+  private long fromAccountId;
+
+  @Column(name = "to_user_id", nullable = false, updatable = false)
+  private long toUserId;
+
+  @Column(name = "to_account_id", nullable = false, updatable = false)
+  private long toAccountId;
+
+  @Column(nullable = false, updatable = false)
+  private long amount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private TransferSagaStatus status;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  private Instant createdAt;
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public long getFromUserId() {
+    return fromUserId;
+  }
+
+  public void setFromUserId(long fromUserId) {
+    this.fromUserId = fromUserId;
+  }
+
+  public long getFromAccountId() {
+    return fromAccountId;
+  }
+
+  public void setFromAccountId(long fromAccountId) {
+    this.fromAccountId = fromAccountId;
+  }
+
+  public long getToUserId() {
+    return toUserId;
+  }
+
+  public void setToUserId(long toUserId) {
+    this.toUserId = toUserId;
+  }
+
+  public long getToAccountId() {
+    return toAccountId;
+  }
+
+  public void setToAccountId(long toAccountId) {
+    this.toAccountId = toAccountId;
+  }
+
+  public long getAmount() {
+    return amount;
+  }
+
+  public void setAmount(long amount) {
+    this.amount = amount;
+  }
+
+  public TransferSagaStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(TransferSagaStatus status) {
+    this.status = status;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
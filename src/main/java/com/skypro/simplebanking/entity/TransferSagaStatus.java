@@ -0,0 +1,7 @@
+package com.skypro.simplebanking.entity;
+
+public enum TransferSagaStatus {
+  PENDING,
+  COMPLETED,
+  COMPENSATED
+}
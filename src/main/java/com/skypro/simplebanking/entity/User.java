@@ -6,14 +6,25 @@ import java.util.List;
 import java.util.Set;
 
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    uniqueConstraints = @UniqueConstraint(name = "users_username_key", columnNames = "username"))
 public class User {
   @Id
   @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user-generator")
-  @SequenceGenerator(name = "user-generator", sequenceName = "user_sequence")
+  @SequenceGenerator(name = "user-generator", sequenceName = "user_sequence", allocationSize = 1)
   private Long id;
   private String username;
   private String password;
+
+  /**
+   * Entity tag data only, never checked on write. Nothing in a profile but its accounts changes,
+   * and they carry their own versions, so no statement bumps it yet. Defaults to 0 for users
+   * created with plain SQL.
+   */
+  @Column(nullable = false, updatable = false, columnDefinition = "bigint default 0")
+  private long version;
+
   @OneToMany(cascade = CascadeType.ALL, mappedBy = "user")
   private Collection<Account> accounts;
 
@@ -41,6 +52,14 @@ public class User {
     this.password = password;
   }
 
+  public long getVersion() {
+    return version;
+  }
+
+  public void setVersion(long version) {
+    this.version = version;
+  }
+
   public Collection<Account> getAccounts() {
     return accounts;
   }
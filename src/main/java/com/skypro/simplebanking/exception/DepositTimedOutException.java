@@ -0,0 +1,11 @@
+package com.skypro.simplebanking.exception;
+
+/**
+ * A coalesced deposit whose batch did not finish in time. The batch may still commit, so the
+ * caller has to check the balance before depositing again.
+ */
+public class DepositTimedOutException extends RejectedRequestException {
+  public DepositTimedOutException(String message) {
+    super(message);
+  }
+}
@@ -1,6 +1,6 @@
 package com.skypro.simplebanking.exception;
 
-public class InsufficientFundsException extends RuntimeException {
+public class InsufficientFundsException extends RejectedRequestException {
   public InsufficientFundsException(String message) {
     super(message);
   }
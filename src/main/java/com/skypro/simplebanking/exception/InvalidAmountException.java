@@ -1,3 +1,7 @@
 package com.skypro.simplebanking.exception;
 
-public class InvalidAmountException extends RuntimeException {}
+public class InvalidAmountException extends RejectedRequestException {
+  public InvalidAmountException() {
+    super(null);
+  }
+}
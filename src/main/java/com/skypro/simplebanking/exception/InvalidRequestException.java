@@ -0,0 +1,12 @@
+package com.skypro.simplebanking.exception;
+
+/**
+ * A request the caller has to change before retrying it; the message says what is wrong and is
+ * sent back with 400. Unlike an {@link IllegalArgumentException}, which is a bug and stays a
+ * server error.
+ */
+public class InvalidRequestException extends RejectedRequestException {
+  public InvalidRequestException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,19 @@
+package com.skypro.simplebanking.exception;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * The password hashing queue is full. An authentication failure so that Spring Security hands it
+ * to the entry point instead of letting it escape the filter chain; thrown under overload, so it
+ * skips the stack walk.
+ */
+public class PasswordHashingBusyException extends AuthenticationServiceException {
+  public PasswordHashingBusyException() {
+    super("Password hashing is overloaded, retry later");
+  }
+
+  @Override
+  public synchronized Throwable fillInStackTrace() {
+    return this;
+  }
+}
@@ -0,0 +1,11 @@
+package com.skypro.simplebanking.exception;
+
+/**
+ * A request the bank turns down, as opposed to a failure. These are expected under normal
+ * traffic, so they are created without a stack trace: rejecting a request costs no stack walk.
+ */
+public abstract class RejectedRequestException extends RuntimeException {
+  protected RejectedRequestException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -1,3 +1,7 @@
 package com.skypro.simplebanking.exception;
 
-public class UserAlreadyExistsException extends RuntimeException {}
+public class UserAlreadyExistsException extends RejectedRequestException {
+  public UserAlreadyExistsException() {
+    super(null);
+  }
+}
@@ -0,0 +1,7 @@
+package com.skypro.simplebanking.exception;
+
+public class VelocityLimitExceededException extends RejectedRequestException {
+  public VelocityLimitExceededException(String message) {
+    super(message);
+  }
+}
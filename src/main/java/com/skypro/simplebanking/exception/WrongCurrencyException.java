@@ -1,3 +1,7 @@
 package com.skypro.simplebanking.exception;
 
-public class WrongCurrencyException extends RuntimeException{}
+public class WrongCurrencyException extends RejectedRequestException {
+  public WrongCurrencyException() {
+    super(null);
+  }
+}
@@ -1,11 +1,103 @@
 package com.skypro.simplebanking.repository;
 
 import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface AccountRepository extends JpaRepository<Account, Long> {
   Optional<Account> getAccountByUser_IdAndId(Long userId, Long accountId);
+
+  Optional<Account> findByUser_IdAndAccountCurrency(Long userId, AccountCurrency accountCurrency);
+
+  /**
+   * Opens the account at zero unless the user has one in the currency already; returns whether it
+   * did. Waits for a concurrent insert of the same account and inserts nothing if that commits.
+   */
+  @Modifying
+  @Query(
+      value =
+          "insert into accounts (id, user_id, account_currency, amount, version)"
+              + " values (nextval('account_sequence'), :userId, :currency, 0, 0)"
+              + " on conflict (user_id, account_currency) do nothing",
+      nativeQuery = true)
+  int insertIfAbsent(@Param("userId") long userId, @Param("currency") int currency);
+
+  /**
+   * The accounts of a batch, locked in id order so that two batches touching the same accounts
+   * cannot deadlock. Naming the users prunes the scan to their partitions; an id paired with the
+   * wrong user in the request may be locked too, and is then rejected by the lookup that follows.
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query(
+      "select a from Account a where a.user.id in :userIds and a.id in :accountIds order by a.id")
+  List<Account> lockAll(
+      @Param("userIds") Collection<Long> userIds,
+      @Param("accountIds") Collection<Long> accountIds);
+
+  /** The amount on the account row, locked until the transaction ends. */
+  @Query(
+      value = "select amount from accounts where user_id = :userId and id = :accountId for update",
+      nativeQuery = true)
+  long lockAmount(@Param("userId") Long userId, @Param("accountId") Long accountId);
+
+  /**
+   * Adds to the amount on the account row in one statement, which also takes the row lock, and
+   * returns the new amount; empty if the user has no such account. Naming the table it touches
+   * keeps Hibernate from flushing the pending movement rows first, so they are batched at commit.
+   */
+  @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "accounts"))
+  @Query(
+      value =
+          "update accounts set amount = amount + :amount, version = version + 1"
+              + " where user_id = :userId and id = :accountId returning amount",
+      nativeQuery = true)
+  Optional<Long> deposit(
+      @Param("userId") Long userId,
+      @Param("accountId") Long accountId,
+      @Param("amount") long amount);
+
+  /**
+   * Takes from the amount on the account row if it covers the withdrawal and returns the new
+   * amount; empty if it does not or the user has no such account.
+   */
+  @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "accounts"))
+  @Query(
+      value =
+          "update accounts set amount = amount - :amount, version = version + 1"
+              + " where user_id = :userId and id = :accountId and amount >= :amount"
+              + " returning amount",
+      nativeQuery = true)
+  Optional<Long> withdraw(
+      @Param("userId") Long userId,
+      @Param("accountId") Long accountId,
+      @Param("amount") long amount);
+
+  @Modifying
+  @Query(
+      "update Account a set a.stripeCount = :stripeCount, a.version = a.version + 1"
+          + " where a.user.id = :userId and a.id = :accountId")
+  int setStripeCount(
+      @Param("userId") Long userId,
+      @Param("accountId") Long accountId,
+      @Param("stripeCount") int stripeCount);
+
+  /** Adds to the amount on the account row relative to whatever it is when the update runs. */
+  @Modifying
+  @Query(
+      "update Account a set a.amount = a.amount + :delta, a.version = a.version + 1"
+          + " where a.user.id = :userId and a.id = :accountId")
+  int addAmount(
+      @Param("userId") Long userId, @Param("accountId") Long accountId, @Param("delta") long delta);
 }
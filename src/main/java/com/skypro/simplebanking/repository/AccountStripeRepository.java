@@ -0,0 +1,43 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.AccountStripe;
+import java.util.List;
+import javax.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AccountStripeRepository extends JpaRepository<AccountStripe, Long> {
+  @Modifying
+  @Query(
+      "update AccountStripe s set s.amount = s.amount + :amount"
+          + " where s.accountId = :accountId and s.stripe = :stripe")
+  int deposit(
+      @Param("accountId") Long accountId, @Param("stripe") int stripe, @Param("amount") long amount);
+
+  @Modifying
+  @Query(
+      "update AccountStripe s set s.amount = s.amount - :amount"
+          + " where s.accountId = :accountId and s.stripe = :stripe and s.amount >= :amount")
+  int withdraw(
+      @Param("accountId") Long accountId, @Param("stripe") int stripe, @Param("amount") long amount);
+
+  @Modifying
+  @Query("update AccountStripe s set s.amount = 0 where s.accountId = :accountId")
+  int drain(@Param("accountId") Long accountId);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  List<AccountStripe> findAllByAccountIdOrderByStripe(Long accountId);
+
+  @Query(
+      value =
+          "select a.amount + coalesce((select sum(s.amount) from account_stripes s"
+              + " where s.account_id = a.id), 0) from accounts a"
+              + " where a.user_id = :userId and a.id = :accountId",
+      nativeQuery = true)
+  long balanceOf(@Param("userId") Long userId, @Param("accountId") Long accountId);
+}
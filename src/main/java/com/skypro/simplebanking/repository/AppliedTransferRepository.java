@@ -0,0 +1,20 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.AppliedTransfer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AppliedTransferRepository extends JpaRepository<AppliedTransfer, String> {
+  /** Returns {@code 1} the first time a transfer is marked and {@code 0} on every retry. */
+  @Modifying
+  @Query(
+      value =
+          "insert into applied_transfers (transfer_id, applied_at) values (:transferId, now())"
+              + " on conflict (transfer_id) do nothing",
+      nativeQuery = true)
+  int markApplied(@Param("transferId") String transferId);
+}
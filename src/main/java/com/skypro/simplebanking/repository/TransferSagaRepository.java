@@ -0,0 +1,23 @@
+package com.skypro.simplebanking.repository;
+
+import com.skypro.simplebanking.entity.TransferSaga;
+import com.skypro.simplebanking.entity.TransferSagaStatus;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransferSagaRepository extends JpaRepository<TransferSaga, String> {
+  List<TransferSaga> findAllByStatusAndCreatedAtBefore(TransferSagaStatus status, Instant before);
+
+  @Modifying
+  @Query("update TransferSaga s set s.status = :to where s.id = :id and s.status = :from")
+  int updateStatus(
+      @Param("id") String id,
+      @Param("from") TransferSagaStatus from,
+      @Param("to") TransferSagaStatus to);
+}
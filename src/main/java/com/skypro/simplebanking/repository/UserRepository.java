@@ -1,11 +1,52 @@
 package com.skypro.simplebanking.repository;
 
+import com.skypro.simplebanking.dto.UserSearchResult;
 import com.skypro.simplebanking.entity.User;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
   Optional<User> findByUsername(String username);
+
+  /** The user with its accounts in one query. */
+  @Query("select u from User u left join fetch u.accounts a where u.id = :id order by a.id")
+  Optional<User> findWithAccountsById(@Param("id") long id);
+
+  /**
+   * Usernames starting with {@code prefix} (a LIKE pattern) after {@code after}, in byte order so
+   * that both the match and the keyset predicate are answered by the {@code text_pattern_ops}
+   * index.
+   */
+  @Query(
+      value =
+          "select id, username, cast(null as real) as distance from users"
+              + " where username like :prefix escape '\\' and username ~>~ :after"
+              + " order by username using ~<~ limit :limit",
+      nativeQuery = true)
+  List<UserSearchResult> searchByPrefix(
+      @Param("prefix") String prefix, @Param("after") String after, @Param("limit") int limit);
+
+  /**
+   * Usernames similar to {@code query} by trigrams, nearest first, using the GiST trigram index for
+   * both the similarity filter and the distance ordering. The keyset condition is only a filter on
+   * that scan, so the index still returns every match before the cursor; callers bound the depth.
+   */
+  @Query(
+      value =
+          "select id, username, username <-> :query as distance from users"
+              + " where username % :query"
+              + " and (username <-> :query > cast(:afterDistance as real)"
+              + " or (username <-> :query = cast(:afterDistance as real) and username ~>~ :after))"
+              + " order by username <-> :query, username using ~<~ limit :limit",
+      nativeQuery = true)
+  List<UserSearchResult> searchBySimilarity(
+      @Param("query") String query,
+      @Param("afterDistance") float afterDistance,
+      @Param("after") String after,
+      @Param("limit") int limit);
 }
@@ -0,0 +1,217 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.PartitionMigrationReport;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Converts the {@code accounts} table into a table hash-partitioned on {@code user_id} while the
+ * application keeps serving traffic:
+ *
+ * <ol>
+ *   <li>creates {@code accounts_partitioned} with the same columns and the requested number of
+ *       hash partitions;
+ *   <li>installs a trigger that mirrors every insert, update and delete on {@code accounts} into
+ *       it;
+ *   <li>copies existing rows in keyset-ordered chunks, each in its own short transaction, so rows
+ *       already written by the trigger are never overwritten with older values; each chunk holds
+ *       a share lock on the rows it copies, so a row deleted meanwhile is not copied back;
+ *   <li>checks, without locking, that both tables hold the same rows; one statement sees the
+ *       writes of a transaction in both tables or in neither, as the trigger runs inside it;
+ *   <li>swaps the table names under an exclusive lock held only for a constant-time check that the
+ *       trigger is still in place and the renames. The lock is requested with a timeout, so the
+ *       swap backs off and retries instead of queueing traffic behind a long transaction.
+ * </ol>
+ *
+ * A migration that fails removes the trigger and the half-built table again. The old table is
+ * kept as {@code accounts_unpartitioned} for rollback and can be dropped once the migration is
+ * verified.
+ */
+@Service
+public class AccountPartitioningService {
+  private static final Logger log = LoggerFactory.getLogger(AccountPartitioningService.class);
+  private static final String SWAP_LOCK_TIMEOUT = "2s";
+  private static final int SWAP_ATTEMPTS = 5;
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+
+  public AccountPartitioningService(
+      JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  public boolean isPartitioned() {
+    return jdbcTemplate.queryForObject(
+        "select exists (select 1 from pg_partitioned_table p"
+            + " join pg_class c on c.oid = p.partrelid"
+            + " where c.relname = 'accounts' and c.relnamespace = current_schema()::regnamespace)",
+        Boolean.class);
+  }
+
+  public PartitionMigrationReport partition(int partitions, int chunkSize) {
+    if (partitions < 2) {
+      throw new InvalidRequestException("At least 2 partitions are needed");
+    }
+    if (chunkSize < 1) {
+      throw new InvalidRequestException("Chunk size should be positive");
+    }
+    if (isPartitioned()) {
+      throw new InvalidRequestException("The accounts table is already partitioned");
+    }
+    long start = System.currentTimeMillis();
+    List<String> columns =
+        jdbcTemplate.queryForList(
+            "select column_name from information_schema.columns"
+                + " where table_schema = current_schema() and table_name = 'accounts'"
+                + " order by ordinal_position",
+            String.class);
+    long copied = 0;
+    int chunks = 0;
+    try {
+      createPartitionedTable(partitions);
+      installMirrorTrigger(columns);
+      long lastId = Long.MIN_VALUE;
+      while (true) {
+        Map<String, Object> chunk =
+            jdbcTemplate.queryForMap(
+                "with chunk as"
+                    + " (select * from accounts where id > ? order by id limit ? for share),"
+                    + " copied as (insert into accounts_partitioned select * from chunk"
+                    + " on conflict (id, user_id) do nothing)"
+                    + " select max(id) as last_id, count(*) as rows from chunk",
+                lastId,
+                chunkSize);
+        long rows = ((Number) chunk.get("rows")).longValue();
+        if (rows == 0) {
+          break;
+        }
+        lastId = ((Number) chunk.get("last_id")).longValue();
+        copied += rows;
+        chunks++;
+      }
+      verifyCopy();
+      swapWithRetries();
+    } catch (RuntimeException e) {
+      try {
+        removeMirror();
+      } catch (RuntimeException cleanup) {
+        e.addSuppressed(cleanup);
+      }
+      throw e;
+    }
+    long elapsed = System.currentTimeMillis() - start;
+    log.info("Partitioned accounts into {} partitions, {} rows in {} ms", partitions, copied, elapsed);
+    return new PartitionMigrationReport(partitions, copied, chunks, elapsed);
+  }
+
+  private void createPartitionedTable(int partitions) {
+    removeMirror();
+    jdbcTemplate.execute(
+        "create table accounts_partitioned (like accounts including defaults)"
+            + " partition by hash (user_id)");
+    jdbcTemplate.execute(
+        "alter table accounts_partitioned add primary key (id, user_id),"
+            + " add unique (user_id, account_currency),"
+            + " add foreign key (user_id) references users (id)");
+    for (int i = 0; i < partitions; i++) {
+      jdbcTemplate.execute(
+          "create table accounts_p" + i + " partition of accounts_partitioned"
+              + " for values with (modulus " + partitions + ", remainder " + i + ")");
+    }
+  }
+
+  private void installMirrorTrigger(List<String> columns) {
+    String updates =
+        columns.stream()
+            .filter(column -> !column.equals("id") && !column.equals("user_id"))
+            .map(column -> column + " = excluded." + column)
+            .collect(Collectors.joining(", "));
+    jdbcTemplate.execute(
+        "create or replace function accounts_partition_mirror() returns trigger as $$\n"
+            + "begin\n"
+            + "  if tg_op = 'DELETE' then\n"
+            + "    delete from accounts_partitioned where id = old.id and user_id = old.user_id;\n"
+            + "    return old;\n"
+            + "  end if;\n"
+            + "  insert into accounts_partitioned select (new).*\n"
+            + "    on conflict (id, user_id) do update set " + updates + ";\n"
+            + "  return new;\n"
+            + "end\n"
+            + "$$ language plpgsql");
+    jdbcTemplate.execute("drop trigger if exists accounts_partition_mirror on accounts");
+    jdbcTemplate.execute(
+        "create trigger accounts_partition_mirror after insert or update or delete on accounts"
+            + " for each row execute function accounts_partition_mirror()");
+  }
+
+  /** Compares both tables row by row in one snapshot; no lock is taken. */
+  private void verifyCopy() {
+    long differing =
+        jdbcTemplate.queryForObject(
+            "select count(*) from ((table accounts except all table accounts_partitioned)"
+                + " union all (table accounts_partitioned except all table accounts)) d",
+            Long.class);
+    if (differing != 0) {
+      throw new IllegalStateException(
+          differing + " rows differ between accounts and accounts_partitioned after copy");
+    }
+  }
+
+  private void swapWithRetries() {
+    for (int attempt = 1; ; attempt++) {
+      try {
+        transactionTemplate.executeWithoutResult(status -> swap());
+        return;
+      } catch (PessimisticLockingFailureException e) {
+        if (attempt == SWAP_ATTEMPTS) {
+          throw e;
+        }
+        log.info("Accounts table is busy, retrying the swap ({} of {})", attempt, SWAP_ATTEMPTS);
+      }
+    }
+  }
+
+  /**
+   * Runs with the exclusive lock held, so it only checks that the trigger has been mirroring all
+   * along since {@link #verifyCopy}, which costs the same for any table size.
+   */
+  private void swap() {
+    jdbcTemplate.execute("set local lock_timeout = '" + SWAP_LOCK_TIMEOUT + "'");
+    jdbcTemplate.execute("lock table accounts in access exclusive mode");
+    Boolean mirrored =
+        jdbcTemplate.queryForObject(
+            "select exists (select 1 from pg_trigger where tgname = 'accounts_partition_mirror'"
+                + " and tgrelid = 'accounts'::regclass and tgenabled <> 'D')",
+            Boolean.class);
+    if (!Boolean.TRUE.equals(mirrored)) {
+      throw new IllegalStateException("The mirror trigger was removed during the migration");
+    }
+    jdbcTemplate.execute("drop trigger accounts_partition_mirror on accounts");
+    jdbcTemplate.execute("drop function accounts_partition_mirror()");
+    jdbcTemplate.execute("alter table accounts rename to accounts_unpartitioned");
+    jdbcTemplate.execute("alter table accounts_partitioned rename to accounts");
+  }
+
+  /**
+   * Drops what a migration left behind, trigger first so that writes to {@code accounts} never
+   * reach a missing table. Safe to run when nothing is left.
+   */
+  private void removeMirror() {
+    if (isPartitioned()) {
+      return;
+    }
+    jdbcTemplate.execute("drop trigger if exists accounts_partition_mirror on accounts");
+    jdbcTemplate.execute("drop function if exists accounts_partition_mirror()");
+    jdbcTemplate.execute("drop table if exists accounts_partitioned cascade");
+  }
+}
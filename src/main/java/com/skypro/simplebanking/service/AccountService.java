@@ -1,54 +1,120 @@
 package com.skypro.simplebanking.service;
 
 import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.BalanceOperationRequest;
+import com.skypro.simplebanking.dto.Tagged;
 import com.skypro.simplebanking.entity.Account;
 import com.skypro.simplebanking.entity.AccountCurrency;
-import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.entity.AccountMovement;
+import com.skypro.simplebanking.entity.AccountMovementType;
+import com.skypro.simplebanking.entity.AccountStripe;
 import com.skypro.simplebanking.exception.AccountNotFoundException;
 import com.skypro.simplebanking.exception.InsufficientFundsException;
 import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.InvalidRequestException;
 import com.skypro.simplebanking.exception.WrongCurrencyException;
+import com.skypro.simplebanking.repository.AccountMovementRepository;
 import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.AccountStripeRepository;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import javax.persistence.EntityManager;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.SessionImplementor;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class AccountService {
+  public static final int MAX_BATCH_SIZE = 1000;
+
   private final AccountRepository accountRepository;
+  private final AccountStripeRepository accountStripeRepository;
+  private final AccountMovementRepository accountMovementRepository;
+  private final CacheInvalidationBus cacheInvalidationBus;
+  private final VelocityLimits velocityLimits;
+  private final ArchiveService archiveService;
+  private final EntityManager entityManager;
 
-  public AccountService(AccountRepository accountRepository) {
+  public AccountService(
+      AccountRepository accountRepository,
+      AccountStripeRepository accountStripeRepository,
+      AccountMovementRepository accountMovementRepository,
+      CacheInvalidationBus cacheInvalidationBus,
+      VelocityLimits velocityLimits,
+      ArchiveService archiveService,
+      EntityManager entityManager) {
     this.accountRepository = accountRepository;
+    this.accountStripeRepository = accountStripeRepository;
+    this.accountMovementRepository = accountMovementRepository;
+    this.cacheInvalidationBus = cacheInvalidationBus;
+    this.velocityLimits = velocityLimits;
+    this.archiveService = archiveService;
+    this.entityManager = entityManager;
   }
 
-  @Transactional(propagation = Propagation.MANDATORY)
-  public void createDefaultAccounts(User user) {
-    user.setAccounts(new ArrayList<>());
-    for (AccountCurrency currency : AccountCurrency.values()) {
-      Account account = new Account();
-      account.setUser(user);
-      account.setAccountCurrency(currency);
-      account.setAmount(1L);
-      user.getAccounts().add(account);
-      accountRepository.save(account);
-    }
+  @Transactional(readOnly = true)
+  public AccountDTO getAccount(long userId, Long accountId) {
+    return getTaggedAccount(userId, accountId).getBody();
   }
 
+  /** An account that is not in {@code accounts} is read from the archive. */
   @Transactional(readOnly = true)
-  public AccountDTO getAccount(long userId, Long accountId) {
-    return accountRepository
-        .getAccountByUser_IdAndId(userId, accountId)
-        .map(AccountDTO::from)
-        .orElseThrow(AccountNotFoundException::new);
+  public Tagged<AccountDTO> getTaggedAccount(long userId, Long accountId) {
+    Optional<Account> found = lookUpAccount(userId, accountId);
+    if (found.isEmpty()) {
+      return archiveService
+          .findTaggedAccount(userId, accountId)
+          .orElseThrow(AccountNotFoundException::new);
+    }
+    Account account = found.get();
+    AccountDTO accountDTO = toAccountDTO(account);
+    return new Tagged<>(accountDTO, "a" + account.getId() + "-" + versionOf(account, accountDTO));
+  }
+
+  /**
+   * The user's account in the currency, opened at zero if there is none yet. Opening twice, also
+   * concurrently, leaves one account: every insert but the first is a no-op that reads the first
+   * one's row once it is committed. An archived user is moved back first, like for any write.
+   */
+  @Transactional
+  public AccountDTO openAccount(long userId, AccountCurrency currency) {
+    Optional<Account> account =
+        accountRepository.findByUser_IdAndAccountCurrency(userId, currency);
+    if (account.isEmpty()) {
+      archiveService.rehydrate(userId);
+      boolean opened = accountRepository.insertIfAbsent(userId, currency.getId()) > 0;
+      account = accountRepository.findByUser_IdAndAccountCurrency(userId, currency);
+      if (opened) {
+        account.ifPresent(created -> cacheInvalidationBus.accountChanged(userId, created.getId()));
+      }
+    }
+    return toAccountDTO(account.orElseThrow(AccountNotFoundException::new));
+  }
+
+  /**
+   * Locks the accounts a batch is about to change, all in one query and in id order, so two
+   * batches over the same accounts wait for each other instead of deadlocking. The operations
+   * that follow find the accounts in the session.
+   */
+  @Transactional
+  public void lockAccounts(Set<Long> userIds, Set<Long> accountIds) {
+    if (!accountIds.isEmpty()) {
+      accountRepository.lockAll(userIds, accountIds);
+    }
   }
 
   @Transactional
-  public void validateCurrency(long sourceAccount, long destinationAccount) {
-    Account acc1 =
-        accountRepository.findById(sourceAccount).orElseThrow(AccountNotFoundException::new);
-    Account acc2 =
-        accountRepository.findById(destinationAccount).orElseThrow(AccountNotFoundException::new);
+  public void validateCurrency(
+      long sourceUser, long sourceAccount, long destinationUser, long destinationAccount) {
+    Account acc1 = findAccount(sourceUser, sourceAccount);
+    Account acc2 = findAccount(destinationUser, destinationAccount);
     if (!acc1.getAccountCurrency().equals(acc2.getAccountCurrency())){
       throw new WrongCurrencyException();
     }
@@ -56,31 +122,235 @@ public class AccountService {
 
   @Transactional
   public AccountDTO depositToAccount(long userId, Long accountId, long amount) {
+    return depositToAccount(userId, accountId, amount, AccountMovementType.DEPOSIT);
+  }
+
+  @Transactional
+  public AccountDTO depositToAccount(
+      long userId, Long accountId, long amount, AccountMovementType movementType) {
     if (amount < 0) {
       throw new InvalidAmountException();
     }
-    Account account =
-        accountRepository
-            .getAccountByUser_IdAndId(userId, accountId)
-            .orElseThrow(AccountNotFoundException::new);
-    account.setAmount(account.getAmount() + amount);
+    Account account = findAccount(userId, accountId);
+    recordMovement(account.getId(), amount, movementType);
+    cacheInvalidationBus.accountChanged(account.getUser().getId(), account.getId());
+    if (account.isStriped()) {
+      int stripe = ThreadLocalRandom.current().nextInt(account.getStripeCount());
+      accountStripeRepository.deposit(account.getId(), stripe, amount);
+      return toAccountDTO(account);
+    }
+    account.setAmount(
+        updateUnarchived(userId, () -> accountRepository.deposit(userId, account.getId(), amount))
+            .orElseThrow(AccountNotFoundException::new));
     return AccountDTO.from(account);
   }
 
+  /**
+   * Applies several deposits by one user to one account with a single read and a single update,
+   * returning the balance after each deposit in submission order.
+   */
+  @Transactional
+  public List<AccountDTO> depositAll(long userId, Long accountId, long[] amounts) {
+    Account account = findAccount(userId, accountId);
+    long total = 0;
+    for (long amount : amounts) {
+      recordMovement(account.getId(), amount, AccountMovementType.DEPOSIT);
+      total += amount;
+    }
+    long deposited = total;
+    account.setAmount(
+        updateUnarchived(
+                userId, () -> accountRepository.deposit(userId, account.getId(), deposited))
+            .orElseThrow(AccountNotFoundException::new));
+    cacheInvalidationBus.accountChanged(account.getUser().getId(), account.getId());
+    long balance = toAccountDTO(account).getAmount() - total;
+    List<AccountDTO> results = new ArrayList<>(amounts.length);
+    for (long amount : amounts) {
+      balance += amount;
+      results.add(new AccountDTO(account.getId(), balance, account.getAccountCurrency()));
+    }
+    return results;
+  }
+
   @Transactional
   public AccountDTO withdrawFromAccount(long id, Long accountId, long amount) {
+    return withdrawFromAccount(id, accountId, amount, AccountMovementType.WITHDRAWAL);
+  }
+
+  @Transactional
+  public AccountDTO withdrawFromAccount(
+      long id, Long accountId, long amount, AccountMovementType movementType) {
     if (amount < 0) {
       throw new InvalidAmountException();
     }
-    Account account =
-        accountRepository
-            .getAccountByUser_IdAndId(id, accountId)
-            .orElseThrow(AccountNotFoundException::new);
-    if (account.getAmount() < amount) {
-      throw new InsufficientFundsException(
-          "Cannot withdraw " + amount + " " + account.getAccountCurrency().name());
+    Account account = findAccount(id, accountId);
+    // Released again if the transaction rolls back, e.g. on insufficient funds below.
+    velocityLimits.reserve(account.getId(), account.getAccountCurrency(), amount);
+    recordMovement(account.getId(), -amount, movementType);
+    cacheInvalidationBus.accountChanged(account.getUser().getId(), account.getId());
+    if (account.isStriped()) {
+      int stripe = ThreadLocalRandom.current().nextInt(account.getStripeCount());
+      if (accountStripeRepository.withdraw(account.getId(), stripe, amount) == 0) {
+        sweepStripes(account, amount);
+      }
+      return toAccountDTO(account);
     }
-    account.setAmount(account.getAmount() - amount);
+    account.setAmount(
+        updateUnarchived(id, () -> accountRepository.withdraw(id, account.getId(), amount))
+            .orElseThrow(() -> insufficientFunds(account, amount)));
     return AccountDTO.from(account);
   }
+
+  @Transactional
+  public List<AccountDTO> applyBatch(long userId, List<BalanceOperationRequest> operations) {
+    checkBatchSize(operations.size());
+    Set<Long> accountIds = new HashSet<>();
+    for (BalanceOperationRequest operation : operations) {
+      if (operation.getType() == null) {
+        throw new InvalidRequestException("Every operation needs a type");
+      }
+      accountIds.add(operation.getAccountId());
+    }
+    lockAccounts(Set.of(userId), accountIds);
+    List<AccountDTO> results = new ArrayList<>(operations.size());
+    for (BalanceOperationRequest operation : operations) {
+      switch (operation.getType()) {
+        case DEPOSIT:
+          results.add(depositToAccount(userId, operation.getAccountId(), operation.getAmount()));
+          break;
+        case WITHDRAW:
+          results.add(withdrawFromAccount(userId, operation.getAccountId(), operation.getAmount()));
+          break;
+        default:
+          throw new InvalidRequestException("Unknown operation " + operation.getType());
+      }
+    }
+    return results;
+  }
+
+  /** Rejects a batch too large to hold its accounts' locks for. */
+  public static void checkBatchSize(int size) {
+    if (size > MAX_BATCH_SIZE) {
+      throw new InvalidRequestException("A batch holds at most " + MAX_BATCH_SIZE + " operations");
+    }
+  }
+
+  /**
+   * Spreads further deposits to the account across {@code stripes} sub-rows. The stripe count can
+   * only grow; the amount already on the account row stays there and is still part of the balance.
+   */
+  @Transactional
+  public AccountDTO enableStriping(long userId, Long accountId, int stripes) {
+    if (stripes < 2) {
+      throw new InvalidRequestException("A striped account needs at least 2 stripes");
+    }
+    Account account = findAccount(userId, accountId);
+    int existing = account.isStriped() ? account.getStripeCount() : 0;
+    for (int stripe = existing; stripe < stripes; stripe++) {
+      AccountStripe accountStripe = new AccountStripe();
+      accountStripe.setAccountId(accountId);
+      accountStripe.setStripe(stripe);
+      accountStripeRepository.save(accountStripe);
+    }
+    account.setStripeCount(Math.max(existing, stripes));
+    accountRepository.setStripeCount(userId, account.getId(), account.getStripeCount());
+    cacheInvalidationBus.accountChanged(account.getUser().getId(), account.getId());
+    return toAccountDTO(account);
+  }
+
+  public AccountDTO toAccountDTO(Account account) {
+    if (!account.isStriped()) {
+      return AccountDTO.from(account);
+    }
+    return new AccountDTO(
+        account.getId(),
+        accountStripeRepository.balanceOf(account.getUser().getId(), account.getId()),
+        account.getAccountCurrency());
+  }
+
+  /**
+   * The account's part of an entity tag. Stripe deposits and withdrawals leave the account row and
+   * its version alone, so a striped account's part also carries the balance.
+   */
+  public String versionOf(Account account, AccountDTO accountDTO) {
+    if (!account.isStriped()) {
+      return String.valueOf(account.getVersion());
+    }
+    return account.getVersion() + "." + accountDTO.getAmount();
+  }
+
+  /**
+   * The account about to be written. An archived user is moved back to the hot tables first, so
+   * the write goes where every other reader looks.
+   */
+  private Account findAccount(long userId, Long accountId) {
+    Optional<Account> account = lookUpAccount(userId, accountId);
+    if (account.isEmpty() && archiveService.rehydrate(userId)) {
+      account = lookUpAccount(userId, accountId);
+    }
+    return account.orElseThrow(AccountNotFoundException::new);
+  }
+
+  /**
+   * Runs a balance update, and once more if it changed nothing because archiving moved the user
+   * away after the account was read: the user is moved back first, as for any write.
+   */
+  private Optional<Long> updateUnarchived(long userId, Supplier<Optional<Long>> update) {
+    Optional<Long> amount = update.get();
+    if (amount.isEmpty() && archiveService.rehydrate(userId)) {
+      amount = update.get();
+    }
+    return amount;
+  }
+
+  /**
+   * An account the session already holds is used without a query, its owner checked on the lazy
+   * user reference. Otherwise it is queried by user and id, so only the user's partition is
+   * scanned.
+   */
+  private Optional<Account> lookUpAccount(long userId, Long accountId) {
+    SessionImplementor session = entityManager.unwrap(SessionImplementor.class);
+    EntityKey key =
+        session.generateEntityKey(
+            accountId, session.getFactory().getMetamodel().entityPersister(Account.class));
+    return Optional.ofNullable((Account) session.getPersistenceContextInternal().getEntity(key))
+        .filter(account -> account.getUser().getId() == userId)
+        .or(() -> accountRepository.getAccountByUser_IdAndId(userId, accountId));
+  }
+
+  private void recordMovement(Long accountId, long amount, AccountMovementType type) {
+    AccountMovement movement = new AccountMovement();
+    movement.setAccountId(accountId);
+    movement.setAmount(amount);
+    movement.setType(type);
+    movement.setCreatedAt(Instant.now());
+    accountMovementRepository.save(movement);
+  }
+
+  /**
+   * Fallback when the randomly picked stripe cannot cover a withdrawal: locks the account row and
+   * then every stripe, folds them into the account row and withdraws from the consolidated amount.
+   * The row is changed relative to its current amount, so deposits made to it directly, like the
+   * coalescer's, are never overwritten.
+   */
+  private void sweepStripes(Account account, long amount) {
+    long userId = account.getUser().getId();
+    long total = accountRepository.lockAmount(userId, account.getId());
+    long stripeTotal = 0;
+    for (AccountStripe stripe :
+        accountStripeRepository.findAllByAccountIdOrderByStripe(account.getId())) {
+      stripeTotal += stripe.getAmount();
+    }
+    total += stripeTotal;
+    if (total < amount) {
+      throw insufficientFunds(account, amount);
+    }
+    accountStripeRepository.drain(account.getId());
+    accountRepository.addAmount(userId, account.getId(), stripeTotal - amount);
+  }
+
+  private static InsufficientFundsException insufficientFunds(Account account, long amount) {
+    return new InsufficientFundsException(
+        "Cannot withdraw " + amount + " " + account.getAccountCurrency().getCode());
+  }
 }
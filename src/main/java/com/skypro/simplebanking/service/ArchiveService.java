@@ -0,0 +1,271 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.ArchiveProperties;
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.ArchiveReport;
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import com.skypro.simplebanking.dto.Tagged;
+import com.skypro.simplebanking.dto.UserDTO;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Keeps dormant users out of the hot tables. A user none of whose accounts moved for {@link
+ * ArchiveProperties#getDormantAfter()} is moved with its accounts to {@code archived_users} and
+ * {@code archived_accounts}, so {@code users} and {@code accounts} and their indexes only hold
+ * customers that are in use.
+ *
+ * <p>Lookups that miss the hot tables fall back to the archive: a login, a profile or a balance of
+ * an archived user is answered from there, with the same entity tag as before. Any write moves the
+ * user and all of its accounts back first, in the writer's transaction, so an account is always
+ * written where every other part of the application reads it. Striped accounts are never archived,
+ * nor are users without accounts, whose idleness nothing records.
+ * Archived accounts earn no interest, and search does not find archived users; listing,
+ * reconciliation and snapshots include them.
+ */
+@Service
+public class ArchiveService {
+  private static final Logger log = LoggerFactory.getLogger(ArchiveService.class);
+  /**
+   * Moves the next batch of dormant users after an id. A user is skipped until the next run when a
+   * writer holds a lock on one of its accounts, or a user is being created with its username.
+   * Returns the last id looked at, the users and the accounts moved, and the users looked at.
+   */
+  private static final String ARCHIVE_BATCH =
+      "with candidates as ("
+          + " select u.id, u.username from users u where u.id > ?"
+          + " and exists (select 1 from accounts a where a.user_id = u.id)"
+          + " and not exists (select 1 from accounts a"
+          + " where a.user_id = u.id and a.stripe_count is not null)"
+          + " and not exists (select 1 from accounts a join account_movements m"
+          + " on m.account_id = a.id where a.user_id = u.id and m.created_at >= ?)"
+          + " order by u.id limit ? for update skip locked),"
+          + " locked_accounts as ("
+          + " select a.id from accounts a join candidates c on a.user_id = c.id"
+          + " for update of a skip locked),"
+          + " dormant as ("
+          + " select c.id from candidates c"
+          + " where not exists (select 1 from accounts a"
+          + " where a.user_id = c.id and a.id not in (select id from locked_accounts))"
+          + " and pg_try_advisory_xact_lock(hashtext('username'), hashtext(c.username))),"
+          + " moved_accounts as ("
+          + " delete from accounts a using dormant d where a.user_id = d.id"
+          + " returning a.id, a.user_id, a.account_currency, a.amount, a.version),"
+          + " new_accounts as ("
+          + " insert into archived_accounts"
+          + " (id, user_id, account_currency, amount, version, archived_at)"
+          + " select id, user_id, account_currency, coalesce(amount, 0), version, ?"
+          + " from moved_accounts returning id),"
+          + " moved_users as ("
+          + " delete from users u using dormant d where u.id = d.id"
+          + " returning u.id, u.username, u.password, u.version),"
+          + " new_users as ("
+          + " insert into archived_users (id, username, password, version, archived_at)"
+          + " select id, username, password, version, ? from moved_users)"
+          + " select (select max(id) from candidates), (select count(*) from dormant),"
+          + " (select count(*) from new_accounts), (select count(*) from candidates)";
+  private static final String REHYDRATE_BY_ID = rehydrateWhere("id = ?");
+  private static final String REHYDRATE_BY_USERNAME = rehydrateWhere("username = ?");
+  private static final String HOT_BYTES =
+      "select coalesce(sum(pg_total_relation_size(oid)), 0) from pg_class"
+          + " where oid in ('users'::regclass, 'accounts'::regclass)"
+          + " or oid in (select inhrelid from pg_inherits where inhparent = 'accounts'::regclass)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ShardRouter shardRouter;
+  private final ArchiveProperties archiveProperties;
+  private final CurrencyRegistry currencyRegistry;
+
+  public ArchiveService(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ShardRouter shardRouter,
+      ArchiveProperties archiveProperties,
+      CurrencyRegistry currencyRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.shardRouter = shardRouter;
+    this.archiveProperties = archiveProperties;
+    this.currencyRegistry = currencyRegistry;
+  }
+
+  /** Archives every dormant user on every shard, one batch per transaction. */
+  public ArchiveReport archiveDormant() {
+    long start = System.currentTimeMillis();
+    Timestamp archivedAt = Timestamp.from(Instant.ofEpochMilli(start));
+    Timestamp activeSince =
+        Timestamp.from(Instant.ofEpochMilli(start).minus(archiveProperties.getDormantAfter()));
+    int batchSize = archiveProperties.getBatchSize();
+    long users = 0;
+    long accounts = 0;
+    long hotBytesBefore = 0;
+    long hotBytesAfter = 0;
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      long shardUsers = 0;
+      hotBytesBefore += shardRouter.onShard(shard, this::hotBytes);
+      long lastId = Long.MIN_VALUE;
+      while (true) {
+        long after = lastId;
+        long[] batch =
+            shardRouter.onShard(
+                shard,
+                () ->
+                    transactionTemplate.execute(
+                        status ->
+                            jdbcTemplate.queryForObject(
+                                ARCHIVE_BATCH,
+                                (row, rowNum) ->
+                                    new long[] {
+                                      row.getLong(1), row.getLong(2), row.getLong(3), row.getLong(4)
+                                    },
+                                after,
+                                activeSince,
+                                batchSize,
+                                archivedAt,
+                                archivedAt)));
+        shardUsers += batch[1];
+        accounts += batch[2];
+        if (batch[3] < batchSize) {
+          break;
+        }
+        lastId = batch[0];
+      }
+      if (shardUsers > 0) {
+        shardRouter.onShard(shard, this::compactHotTables);
+      }
+      users += shardUsers;
+      hotBytesAfter += shardRouter.onShard(shard, this::hotBytes);
+    }
+    long elapsed = System.currentTimeMillis() - start;
+    log.info(
+        "Archived {} users with {} accounts in {} ms, hot tables {} -> {} bytes",
+        users,
+        accounts,
+        elapsed,
+        hotBytesBefore,
+        hotBytesAfter);
+    return new ArchiveReport(users, accounts, hotBytesBefore, hotBytesAfter, elapsed);
+  }
+
+  /** Credentials of an archived user, checked at login like those of any other user. */
+  public Optional<BankingUserDetails> findCredentials(String username) {
+    return jdbcTemplate
+        .query(
+            "select id, password from archived_users where username = ?",
+            (row, rowNum) ->
+                new BankingUserDetails(row.getLong(1), username, row.getString(2), false),
+            username)
+        .stream()
+        .findFirst();
+  }
+
+  /** The profile of an archived user, tagged as {@link UserService#getTaggedUser} tags it. */
+  public Optional<Tagged<UserDTO>> findTaggedUser(long id) {
+    List<UserDTO> users = new ArrayList<>(1);
+    List<AccountDTO> accounts = new ArrayList<>();
+    StringBuilder etag = new StringBuilder("u").append(id);
+    RowCallbackHandler addAccount =
+        row -> {
+          if (users.isEmpty()) {
+            users.add(new UserDTO(id, row.getString(1), accounts));
+            etag.append('-').append(row.getLong(2));
+          }
+          long accountId = row.getLong(3);
+          if (!row.wasNull()) {
+            accounts.add(
+                new AccountDTO(accountId, row.getLong(4), currencyRegistry.byId(row.getInt(5))));
+            etag.append('-').append(row.getLong(6));
+          }
+        };
+    jdbcTemplate.query(
+        "select u.username, u.version, a.id, a.amount, a.account_currency, a.version"
+            + " from archived_users u left join archived_accounts a on a.user_id = u.id"
+            + " where u.id = ? order by a.id",
+        addAccount,
+        id);
+    return users.stream().findFirst().map(user -> new Tagged<>(user, etag.toString()));
+  }
+
+  /** An account of an archived user, tagged as {@link AccountService#getTaggedAccount} tags it. */
+  public Optional<Tagged<AccountDTO>> findTaggedAccount(long userId, long accountId) {
+    return jdbcTemplate
+        .query(
+            "select amount, account_currency, version from archived_accounts"
+                + " where id = ? and user_id = ?",
+            (row, rowNum) ->
+                new Tagged<>(
+                    new AccountDTO(
+                        accountId, row.getLong(1), currencyRegistry.byId(row.getInt(2))),
+                    "a" + accountId + "-" + row.getLong(3)),
+            accountId,
+            userId)
+        .stream()
+        .findFirst();
+  }
+
+  /**
+   * Holds off archiving of the username until the caller's transaction ends; taken before a user
+   * is created, so that the insert sees an archived user that took the name first.
+   */
+  public void lockUsername(String username) {
+    jdbcTemplate.query(
+        "select pg_advisory_xact_lock(hashtext('username'), hashtext(?))", row -> {}, username);
+  }
+
+  /**
+   * Moves an archived user and its accounts back to the hot tables in the caller's transaction.
+   * Returns whether the user was archived; a writer that lost the race to another finds the user
+   * back in the hot tables once the statement returns.
+   */
+  public boolean rehydrate(long userId) {
+    return jdbcTemplate.queryForObject(REHYDRATE_BY_ID, Long.class, userId) > 0;
+  }
+
+  public boolean rehydrate(String username) {
+    return jdbcTemplate.queryForObject(REHYDRATE_BY_USERNAME, Long.class, username) > 0;
+  }
+
+  private long hotBytes() {
+    return jdbcTemplate.queryForObject(HOT_BYTES, Long.class);
+  }
+
+  /**
+   * Outside any transaction: frees the archived rows' space for reuse and rebuilds the indexes
+   * without blocking writers, which is what makes them smaller and shallower.
+   */
+  private void compactHotTables() {
+    jdbcTemplate.execute("vacuum (analyze) users, accounts");
+    if (archiveProperties.isReindex()) {
+      jdbcTemplate.execute("reindex table concurrently users");
+      jdbcTemplate.execute("reindex table concurrently accounts");
+    }
+  }
+
+  private static String rehydrateWhere(String condition) {
+    return "with moved_user as ("
+        + " delete from archived_users where "
+        + condition
+        + " returning id, username, password, version),"
+        + " restored_user as ("
+        + " insert into users (id, username, password, version)"
+        + " select id, username, password, version from moved_user),"
+        + " moved_accounts as ("
+        + " delete from archived_accounts a using moved_user u where a.user_id = u.id"
+        + " returning a.id, a.user_id, a.account_currency, a.amount, a.version),"
+        + " restored_accounts as ("
+        + " insert into accounts (id, user_id, account_currency, amount, version)"
+        + " select id, user_id, account_currency, amount, version from moved_accounts)"
+        + " select count(*) from moved_user";
+  }
+}
@@ -0,0 +1,87 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AuditEvent;
+import com.skypro.simplebanking.dto.AuditOperation;
+import com.skypro.simplebanking.dto.AuditOutcome;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.zip.CRC32;
+
+/**
+ * Fixed 64-byte on-disk layout of an audit event:
+ *
+ * <pre>
+ *  0 magic  4 timestamp  12 user id  20 operation  21 outcome  22 reserved
+ * 24 account id  32 counterparty user id  40 counterparty account id  48 amount
+ * 56 reserved  60 CRC32 of bytes 4..59
+ * </pre>
+ *
+ * The magic is written last, so a reader that sees it also sees a complete record; a zero magic
+ * marks the end of the written part of a segment.
+ */
+final class AuditRecord {
+  static final int SIZE = 64;
+  private static final int MAGIC = 0x41554454;
+  private static final int CRC_OFFSET = 60;
+  private static final AuditOperation[] OPERATIONS = AuditOperation.values();
+  private static final AuditOutcome[] OUTCOMES = AuditOutcome.values();
+
+  private AuditRecord() {}
+
+  static void write(ByteBuffer buffer, int offset, AuditEvent event) {
+    buffer.putLong(offset + 4, event.getTimestamp().toEpochMilli());
+    buffer.putLong(offset + 12, event.getUserId());
+    buffer.put(offset + 20, (byte) event.getOperation().ordinal());
+    buffer.put(offset + 21, (byte) event.getOutcome().ordinal());
+    buffer.putShort(offset + 22, (short) 0);
+    buffer.putLong(offset + 24, event.getAccountId());
+    buffer.putLong(offset + 32, event.getCounterpartyUserId());
+    buffer.putLong(offset + 40, event.getCounterpartyAccountId());
+    buffer.putLong(offset + 48, event.getAmount());
+    buffer.putInt(offset + 56, 0);
+    buffer.putInt(offset + CRC_OFFSET, crc(buffer, offset));
+    buffer.putInt(offset, MAGIC);
+  }
+
+  static boolean isWritten(ByteBuffer buffer, int offset) {
+    return buffer.getInt(offset) == MAGIC;
+  }
+
+  /** Returns the event at {@code offset}, or {@code null} when its checksum does not match. */
+  static AuditEvent read(ByteBuffer buffer, int offset) {
+    if (buffer.getInt(offset + CRC_OFFSET) != crc(buffer, offset)) {
+      return null;
+    }
+    int operation = buffer.get(offset + 20);
+    int outcome = buffer.get(offset + 21);
+    if (operation < 0
+        || operation >= OPERATIONS.length
+        || outcome < 0
+        || outcome >= OUTCOMES.length) {
+      return null;
+    }
+    return new AuditEvent(
+        Instant.ofEpochMilli(buffer.getLong(offset + 4)),
+        buffer.getLong(offset + 12),
+        OPERATIONS[operation],
+        OUTCOMES[outcome],
+        buffer.getLong(offset + 24),
+        buffer.getLong(offset + 32),
+        buffer.getLong(offset + 40),
+        buffer.getLong(offset + 48));
+  }
+
+  static long timestampMillis(ByteBuffer buffer, int offset) {
+    return buffer.getLong(offset + 4);
+  }
+
+  static long userId(ByteBuffer buffer, int offset) {
+    return buffer.getLong(offset + 12);
+  }
+
+  private static int crc(ByteBuffer buffer, int offset) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.duplicate().limit(offset + CRC_OFFSET).position(offset + 4));
+    return (int) crc.getValue();
+  }
+}
@@ -0,0 +1,65 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AuditEvent;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer. Each slot carries a sequence
+ * number: a producer claims a position with one CAS and publishes by advancing the slot's sequence,
+ * and the consumer frees the slot by moving its sequence one lap ahead. A full buffer rejects the
+ * event instead of blocking the request thread.
+ */
+final class AuditRingBuffer {
+  private final int mask;
+  private final AtomicReferenceArray<AuditEvent> events;
+  private final AtomicLongArray sequences;
+  private final AtomicLong tail = new AtomicLong();
+  private long head;
+
+  AuditRingBuffer(int capacity) {
+    if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+      throw new IllegalArgumentException("Audit buffer capacity should be a power of two");
+    }
+    this.mask = capacity - 1;
+    this.events = new AtomicReferenceArray<>(capacity);
+    this.sequences = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++) {
+      sequences.set(i, i);
+    }
+  }
+
+  boolean offer(AuditEvent event) {
+    long position = tail.get();
+    while (true) {
+      int index = (int) position & mask;
+      long lag = sequences.get(index) - position;
+      if (lag == 0) {
+        if (tail.compareAndSet(position, position + 1)) {
+          events.lazySet(index, event);
+          sequences.set(index, position + 1);
+          return true;
+        }
+        position = tail.get();
+      } else if (lag < 0) {
+        return false;
+      } else {
+        position = tail.get();
+      }
+    }
+  }
+
+  /** Consumer side only. */
+  AuditEvent poll() {
+    int index = (int) head & mask;
+    if (sequences.get(index) != head + 1) {
+      return null;
+    }
+    AuditEvent event = events.get(index);
+    events.lazySet(index, null);
+    sequences.set(index, head + mask + 1);
+    head++;
+    return event;
+  }
+}
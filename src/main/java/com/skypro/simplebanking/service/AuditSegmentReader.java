@@ -0,0 +1,132 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AuditEvent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Scans audit segments for the events of one user (or all users) in a time range. Matching records
+ * whose checksum does not match are skipped and counted. Can be run standalone against a copy of the
+ * audit directory: {@code AuditSegmentReader <directory> <userId|*> <from> <to>}.
+ */
+public final class AuditSegmentReader {
+  static final String PREFIX = "audit-";
+  static final String SUFFIX = ".seg";
+  /** Events are stamped when the operation starts and written later, so segments overlap a bit. */
+  private static final long MAX_WRITE_DELAY_MILLIS = Duration.ofMinutes(5).toMillis();
+
+  private final Path directory;
+  private long corruptRecords;
+
+  public AuditSegmentReader(Path directory) {
+    this.directory = directory;
+  }
+
+  /** Returns up to {@code limit} matching events; {@code userId} may be {@code null}. */
+  public List<AuditEvent> query(Long userId, Instant from, Instant to, int limit) {
+    List<Path> segments = segments();
+    long fromMillis = from.toEpochMilli();
+    long toMillis = to.toEpochMilli();
+    List<AuditEvent> events = new ArrayList<>();
+    for (int i = 0; i < segments.size() && events.size() < limit; i++) {
+      // A later segment can still hold events stamped up to the write delay before its first one.
+      if (firstTimestamp(segments.get(i)) > toMillis + MAX_WRITE_DELAY_MILLIS) {
+        break;
+      }
+      if (i + 1 < segments.size()
+          && firstTimestamp(segments.get(i + 1)) + MAX_WRITE_DELAY_MILLIS < fromMillis) {
+        continue;
+      }
+      scan(segments.get(i), userId, fromMillis, toMillis, limit, events);
+    }
+    return events;
+  }
+
+  public long getCorruptRecords() {
+    return corruptRecords;
+  }
+
+  private void scan(
+      Path file, Long userId, long fromMillis, long toMillis, int limit, List<AuditEvent> events) {
+    MappedByteBuffer segment;
+    try (FileChannel channel = FileChannel.open(file)) {
+      segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    for (int offset = 0;
+        offset + AuditRecord.SIZE <= segment.capacity() && events.size() < limit;
+        offset += AuditRecord.SIZE) {
+      if (!AuditRecord.isWritten(segment, offset)) {
+        break;
+      }
+      long timestamp = AuditRecord.timestampMillis(segment, offset);
+      if (timestamp < fromMillis
+          || timestamp >= toMillis
+          || (userId != null && AuditRecord.userId(segment, offset) != userId)) {
+        continue;
+      }
+      AuditEvent event = AuditRecord.read(segment, offset);
+      if (event == null) {
+        corruptRecords++;
+      } else {
+        events.add(event);
+      }
+    }
+  }
+
+  private List<Path> segments() {
+    if (!Files.isDirectory(directory)) {
+      return List.of();
+    }
+    try (Stream<Path> files = Files.list(directory)) {
+      return files
+          .filter(file -> file.getFileName().toString().startsWith(PREFIX))
+          .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+          .sorted()
+          .collect(Collectors.toList());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static long firstTimestamp(Path segment) {
+    String name = segment.getFileName().toString();
+    return Long.parseLong(name.substring(PREFIX.length(), name.indexOf('-', PREFIX.length())));
+  }
+
+  public static void main(String[] args) {
+    if (args.length != 4) {
+      System.err.println("Usage: AuditSegmentReader <directory> <userId|*> <from> <to>");
+      System.exit(2);
+    }
+    AuditSegmentReader reader = new AuditSegmentReader(Path.of(args[0]));
+    Long userId = "*".equals(args[1]) ? null : Long.valueOf(args[1]);
+    for (AuditEvent event :
+        reader.query(userId, Instant.parse(args[2]), Instant.parse(args[3]), Integer.MAX_VALUE)) {
+      System.out.printf(
+          "%s user=%d %s %s account=%d to=%d/%d amount=%d%n",
+          event.getTimestamp(),
+          event.getUserId(),
+          event.getOperation(),
+          event.getOutcome(),
+          event.getAccountId(),
+          event.getCounterpartyUserId(),
+          event.getCounterpartyAccountId(),
+          event.getAmount());
+    }
+    if (reader.getCorruptRecords() > 0) {
+      System.err.println(reader.getCorruptRecords() + " corrupt records skipped");
+    }
+  }
+}
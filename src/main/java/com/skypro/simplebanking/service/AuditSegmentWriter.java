@@ -0,0 +1,80 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AuditEvent;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends records to fixed-size memory-mapped segment files, starting a new segment when the
+ * current one is full. Segments are named after their first event's timestamp so the reader can
+ * skip whole files outside a queried time range. Used by the writer thread only.
+ */
+final class AuditSegmentWriter implements Closeable {
+  private final Path directory;
+  private final int segmentBytes;
+  private MappedByteBuffer segment;
+  private int position;
+  private int segmentsCreated;
+
+  AuditSegmentWriter(Path directory, long segmentBytes) {
+    if (segmentBytes < AuditRecord.SIZE || segmentBytes > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Audit segment size should be between 64 bytes and 2 GB");
+    }
+    this.directory = directory;
+    this.segmentBytes = (int) (segmentBytes - segmentBytes % AuditRecord.SIZE);
+    try {
+      Files.createDirectories(directory);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  void append(AuditEvent event) {
+    if (segment == null || position == segmentBytes) {
+      roll(event.getTimestamp().toEpochMilli());
+    }
+    AuditRecord.write(segment, position, event);
+    position += AuditRecord.SIZE;
+  }
+
+  void flush() {
+    if (segment != null) {
+      segment.force();
+    }
+  }
+
+  @Override
+  public void close() {
+    flush();
+    segment = null;
+  }
+
+  private void roll(long firstTimestamp) {
+    flush();
+    Path file =
+        directory.resolve(
+            String.format(
+                "%s%013d-%06d%s",
+                AuditSegmentReader.PREFIX,
+                firstTimestamp,
+                segmentsCreated++,
+                AuditSegmentReader.SUFFIX));
+    try (FileChannel channel =
+        FileChannel.open(
+            file,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    position = 0;
+  }
+}
@@ -0,0 +1,151 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AuditEvent;
+import com.skypro.simplebanking.dto.AuditOutcome;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Asynchronous audit trail. Request threads only put events into a lock-free ring buffer; a single
+ * writer thread drains it into memory-mapped segment files and forces them to disk at the flush
+ * interval. When the buffer is full, events are dropped and counted rather than slowing down the
+ * operation being audited. When disabled, operations run without any auditing.
+ */
+public class AuditTrail {
+  private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+  private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+  private final Path directory;
+  private final AuditRingBuffer ringBuffer;
+  private final AuditSegmentWriter segmentWriter;
+  private final long flushIntervalNanos;
+  private final Thread writerThread;
+  private final AtomicLong droppedEvents = new AtomicLong();
+  private volatile boolean running;
+
+  private AuditTrail(
+      Path directory, long segmentBytes, int bufferCapacity, Duration flushInterval) {
+    this.directory = directory;
+    this.ringBuffer = new AuditRingBuffer(bufferCapacity);
+    this.segmentWriter = new AuditSegmentWriter(directory, segmentBytes);
+    this.flushIntervalNanos = flushInterval.toNanos();
+    this.writerThread = new Thread(this::drain, "audit-writer");
+    this.writerThread.setDaemon(true);
+  }
+
+  private AuditTrail() {
+    this.directory = null;
+    this.ringBuffer = null;
+    this.segmentWriter = null;
+    this.flushIntervalNanos = 0;
+    this.writerThread = null;
+  }
+
+  public static AuditTrail start(
+      Path directory, long segmentBytes, int bufferCapacity, Duration flushInterval) {
+    AuditTrail auditTrail = new AuditTrail(directory, segmentBytes, bufferCapacity, flushInterval);
+    auditTrail.running = true;
+    auditTrail.writerThread.start();
+    return auditTrail;
+  }
+
+  public static AuditTrail disabled() {
+    return new AuditTrail();
+  }
+
+  public boolean isEnabled() {
+    return ringBuffer != null;
+  }
+
+  public void record(AuditEvent event) {
+    if (isEnabled() && !ringBuffer.offer(event)) {
+      droppedEvents.incrementAndGet();
+    }
+  }
+
+  public <T> T audit(AuditEvent event, Supplier<T> action) {
+    return audit(List.of(event), action);
+  }
+
+  /** Runs {@code action} and records every event with the outcome of the action as a whole. */
+  public <T> T audit(List<AuditEvent> events, Supplier<T> action) {
+    if (!isEnabled()) {
+      return action.get();
+    }
+    T result;
+    try {
+      result = action.get();
+    } catch (RuntimeException e) {
+      AuditOutcome outcome = AuditOutcome.of(e);
+      events.forEach(event -> record(event.withOutcome(outcome)));
+      throw e;
+    }
+    events.forEach(event -> record(event.withOutcome(AuditOutcome.SUCCEEDED)));
+    return result;
+  }
+
+  public List<AuditEvent> query(Long userId, Instant from, Instant to, int limit) {
+    if (!isEnabled()) {
+      throw new InvalidRequestException("Audit trail is disabled");
+    }
+    return new AuditSegmentReader(directory).query(userId, from, to, limit);
+  }
+
+  public long getDroppedEvents() {
+    return droppedEvents.get();
+  }
+
+  /** Stops accepting work after writing and forcing everything already buffered. */
+  public void close() {
+    if (!isEnabled() || !running) {
+      return;
+    }
+    running = false;
+    LockSupport.unpark(writerThread);
+    try {
+      writerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void drain() {
+    long lastFlush = System.nanoTime();
+    boolean dirty = false;
+    while (true) {
+      AuditEvent event = ringBuffer.poll();
+      if (event != null) {
+        try {
+          segmentWriter.append(event);
+          dirty = true;
+        } catch (RuntimeException e) {
+          droppedEvents.incrementAndGet();
+          log.error("Cannot write audit event", e);
+        }
+      }
+      // Checked while draining too, so a ring that never runs empty is still flushed on time.
+      if (dirty && System.nanoTime() - lastFlush >= flushIntervalNanos) {
+        segmentWriter.flush();
+        lastFlush = System.nanoTime();
+        dirty = false;
+      }
+      if (event != null) {
+        continue;
+      }
+      if (!running) {
+        break;
+      }
+      LockSupport.parkNanos(IDLE_PARK_NANOS);
+    }
+    segmentWriter.close();
+  }
+}
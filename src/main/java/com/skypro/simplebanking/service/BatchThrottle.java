@@ -0,0 +1,46 @@
+package com.skypro.simplebanking.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Paces a batch job that shares the database with OLTP traffic. A chunk that takes longer than the
+ * target means the database is busy (request load, lock waits on hot accounts), so the pause
+ * between chunks doubles, up to the maximum; every chunk within the target halves it again. On top
+ * of that, all workers together never go faster than the row rate limit.
+ */
+class BatchThrottle {
+  private static final long MIN_PAUSE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final long targetChunkNanos;
+  private final long maxPauseNanos;
+  private final long nanosPerRow;
+  private long pauseNanos;
+  private long nextFreeAt = Long.MIN_VALUE;
+
+  BatchThrottle(long targetChunkNanos, long maxPauseNanos, long maxRowsPerSecond) {
+    this.targetChunkNanos = targetChunkNanos;
+    this.maxPauseNanos = maxPauseNanos;
+    this.nanosPerRow = maxRowsPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / maxRowsPerSecond : 0;
+  }
+
+  /** Returns how long the worker should wait before its next chunk. */
+  synchronized long pauseAfter(long chunkNanos, int rows, long now) {
+    if (chunkNanos > targetChunkNanos) {
+      pauseNanos = Math.min(maxPauseNanos, Math.max(MIN_PAUSE_NANOS, pauseNanos * 2));
+    } else {
+      pauseNanos = pauseNanos / 2 < MIN_PAUSE_NANOS ? 0 : pauseNanos / 2;
+    }
+    if (nanosPerRow == 0) {
+      return pauseNanos;
+    }
+    nextFreeAt = Math.max(nextFreeAt, now - chunkNanos) + rows * nanosPerRow;
+    return Math.max(pauseNanos, nextFreeAt - now);
+  }
+
+  void pause(long chunkNanos, int rows) throws InterruptedException {
+    long pause = pauseAfter(chunkNanos, rows, System.nanoTime());
+    if (pause > 0) {
+      TimeUnit.NANOSECONDS.sleep(pause);
+    }
+  }
+}
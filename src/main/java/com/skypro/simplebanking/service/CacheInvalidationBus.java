@@ -0,0 +1,466 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import com.skypro.simplebanking.dto.Tagged;
+import com.skypro.simplebanking.dto.UserDTO;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the node-local account and credential caches coherent across replicas. Changes are
+ * collected per transaction and, after commit, evicted locally and queued for a publisher thread
+ * that sends them in batches with Postgres {@code NOTIFY}. A listener thread holds a dedicated
+ * connection that {@code LISTEN}s on the channel and evicts whatever arrived in one go.
+ *
+ * <p>Every node numbers its messages; a receiver that sees a jump in a sender's sequence (a
+ * failed {@code NOTIFY}, say) flushes all caches. While the listener is not connected the caches
+ * are bypassed, and every (re)connect starts with a flush, since messages sent in the meantime are
+ * lost. Entries also expire after a time to live, which bounds staleness if a sender fails and
+ * then stays quiet. When disabled, every read goes straight to the loader.
+ *
+ * <p>Accounts and profiles are cached with their entity tags, so a conditional read whose tag is
+ * still current is answered from memory. A change to an account evicts its owner's profile too.
+ * The tags are also kept on their own, evicted after this node's commits even when the bus is
+ * disabled, so a current tag is answered without loading the entity either way. A disabled bus
+ * hears of no other node's commits, so its tags are only right for a single node.
+ */
+public class CacheInvalidationBus {
+  private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+  /** Postgres rejects payloads of 8000 bytes and more. */
+  private static final int MAX_PAYLOAD_LENGTH = 7900;
+  private static final int OUTBOX_CAPACITY = 65536;
+
+  private final String node = Long.toHexString(ThreadLocalRandom.current().nextLong());
+  private final String url;
+  private final String username;
+  private final String password;
+  private final String channel;
+  private final int pollMillis;
+  private final long reconnectDelayMillis;
+  private final LocalCache<Long, CachedAccount> accounts;
+  private final LocalCache<Long, Tagged<UserDTO>> profiles;
+  private final LocalCache<String, BankingUserDetails> credentials;
+  /** By invalidation key, so evicting a key evicts its tag. */
+  private final LocalCache<String, OwnedTag> tags;
+  private final BlockingQueue<String> outbox = new LinkedBlockingQueue<>(OUTBOX_CAPACITY);
+  private final AtomicLong sequence = new AtomicLong();
+  private final AtomicLong fullFlushes = new AtomicLong();
+  private final Map<String, Long> lastSequences = new HashMap<>();
+  private final Thread listenerThread;
+  private final Thread publisherThread;
+  private Connection notifyConnection;
+  private volatile boolean listening;
+  private volatile boolean running;
+
+  private CacheInvalidationBus(
+      String url,
+      String username,
+      String password,
+      String channel,
+      int maxEntries,
+      Duration timeToLive,
+      Duration pollInterval,
+      Duration reconnectDelay) {
+    this.url = url;
+    this.username = username;
+    this.password = password;
+    this.channel = channel;
+    this.pollMillis = (int) pollInterval.toMillis();
+    this.reconnectDelayMillis = reconnectDelay.toMillis();
+    this.accounts = new LocalCache<>(maxEntries, timeToLive.toNanos());
+    this.profiles = new LocalCache<>(maxEntries, timeToLive.toNanos());
+    this.credentials = new LocalCache<>(maxEntries, timeToLive.toNanos());
+    this.tags = new LocalCache<>(maxEntries, timeToLive.toNanos());
+    this.listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+    this.listenerThread.setDaemon(true);
+    this.publisherThread = new Thread(this::publish, "cache-invalidation-publisher");
+    this.publisherThread.setDaemon(true);
+  }
+
+  private CacheInvalidationBus(int maxEntries, Duration timeToLive) {
+    this.url = null;
+    this.username = null;
+    this.password = null;
+    this.channel = null;
+    this.pollMillis = 0;
+    this.reconnectDelayMillis = 0;
+    this.accounts = null;
+    this.profiles = null;
+    this.credentials = null;
+    this.tags = new LocalCache<>(maxEntries, timeToLive.toNanos());
+    this.listenerThread = null;
+    this.publisherThread = null;
+  }
+
+  public static CacheInvalidationBus start(
+      String url,
+      String username,
+      String password,
+      String channel,
+      int maxEntries,
+      Duration timeToLive,
+      Duration pollInterval,
+      Duration reconnectDelay) {
+    CacheInvalidationBus bus =
+        new CacheInvalidationBus(
+            url, username, password, channel, maxEntries, timeToLive, pollInterval, reconnectDelay);
+    bus.running = true;
+    bus.listenerThread.start();
+    bus.publisherThread.start();
+    return bus;
+  }
+
+  /** Keeps only the entity tags, for a single node. */
+  public static CacheInvalidationBus disabled(int maxEntries, Duration timeToLive) {
+    return new CacheInvalidationBus(maxEntries, timeToLive);
+  }
+
+  public boolean isEnabled() {
+    return accounts != null;
+  }
+
+  /** Whether the caches are in use, i.e. the listener is connected. */
+  public boolean isListening() {
+    return listening;
+  }
+
+  public Tagged<AccountDTO> account(
+      long userId, long accountId, Supplier<Tagged<AccountDTO>> loader) {
+    String key = InvalidationMessage.accountKey(accountId);
+    if (!listening) {
+      return loadTagged(key, userId, loader);
+    }
+    CachedAccount cached =
+        accounts.get(accountId, () -> new CachedAccount(userId, loadTagged(key, userId, loader)));
+    if (cached.userId() != userId) {
+      // Another user's account: let the loader turn it down.
+      return loader.get();
+    }
+    return cached.account();
+  }
+
+  public Tagged<UserDTO> profile(long userId, Supplier<Tagged<UserDTO>> loader) {
+    String key = InvalidationMessage.profileKey(userId);
+    if (!listening) {
+      return loadTagged(key, userId, loader);
+    }
+    return profiles.get(userId, () -> loadTagged(key, userId, loader));
+  }
+
+  /** The tag the user's account was last read with, or {@code null} if it is not known current. */
+  public String accountTag(long userId, long accountId) {
+    return tag(InvalidationMessage.accountKey(accountId), userId);
+  }
+
+  /** The tag the user's profile was last read with, or {@code null} if it is not known current. */
+  public String profileTag(long userId) {
+    return tag(InvalidationMessage.profileKey(userId), userId);
+  }
+
+  public BankingUserDetails credentials(String username, Supplier<BankingUserDetails> loader) {
+    if (!listening) {
+      return loader.get();
+    }
+    return credentials.get(username, loader);
+  }
+
+  /**
+   * Evicts the account, and its owner's profile that lists it, everywhere once the current
+   * transaction commits.
+   */
+  public void accountChanged(long userId, long accountId) {
+    changed(InvalidationMessage.accountKey(accountId));
+    changed(InvalidationMessage.profileKey(userId));
+  }
+
+  /** Evicts the user's credentials everywhere once the current transaction commits. */
+  public void userChanged(String username) {
+    changed(InvalidationMessage.userKey(username));
+  }
+
+  public long getFullFlushes() {
+    return fullFlushes.get();
+  }
+
+  public void close() {
+    if (!isEnabled() || !running) {
+      return;
+    }
+    running = false;
+    try {
+      publisherThread.join();
+      listenerThread.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void changed(String key) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      committed(List.of(key));
+      return;
+    }
+    pendingInvalidations().keys.add(key);
+  }
+
+  /** The keys collected by the current transaction; looked up among its synchronizations. */
+  private PendingInvalidations pendingInvalidations() {
+    for (TransactionSynchronization synchronization :
+        TransactionSynchronizationManager.getSynchronizations()) {
+      if (synchronization instanceof PendingInvalidations pending && pending.bus() == this) {
+        return pending;
+      }
+    }
+    PendingInvalidations pending = new PendingInvalidations();
+    TransactionSynchronizationManager.registerSynchronization(pending);
+    return pending;
+  }
+
+  private void committed(Iterable<String> keys) {
+    evict(keys);
+    if (!isEnabled()) {
+      return;
+    }
+    for (String key : keys) {
+      if (!outbox.offer(key)) {
+        // Peers are told to flush rather than miss this key; the flush covers the rest as well.
+        outbox.clear();
+        outbox.offer(InvalidationMessage.FLUSH_ALL);
+        return;
+      }
+    }
+  }
+
+  private void evict(Iterable<String> keys) {
+    for (String key : keys) {
+      if (InvalidationMessage.FLUSH_ALL.equals(key)) {
+        flushAll();
+        return;
+      }
+      tags.evict(key);
+      if (!isEnabled()) {
+        continue;
+      }
+      if (InvalidationMessage.isAccountKey(key)) {
+        accounts.evict(InvalidationMessage.accountId(key));
+      } else if (InvalidationMessage.isProfileKey(key)) {
+        profiles.evict(InvalidationMessage.userId(key));
+      } else if (InvalidationMessage.isUserKey(key)) {
+        credentials.evict(InvalidationMessage.username(key));
+      }
+    }
+  }
+
+  private void flushAll() {
+    tags.evictAll();
+    accounts.evictAll();
+    profiles.evictAll();
+    credentials.evictAll();
+    fullFlushes.incrementAndGet();
+  }
+
+  private void publish() {
+    List<String> keys = new ArrayList<>();
+    while (running || !outbox.isEmpty()) {
+      try {
+        String key = outbox.poll(pollMillis, TimeUnit.MILLISECONDS);
+        if (key == null) {
+          continue;
+        }
+        keys.add(key);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        break;
+      }
+      outbox.drainTo(keys);
+      for (String payload : payloads(new LinkedHashSet<>(keys))) {
+        sendNotification(payload);
+      }
+      keys.clear();
+    }
+    closeQuietly(notifyConnection);
+  }
+
+  /** Splits the keys into messages below the payload limit, each with its own sequence number. */
+  private List<String> payloads(Set<String> keys) {
+    List<String> payloads = new ArrayList<>();
+    if (keys.contains(InvalidationMessage.FLUSH_ALL)) {
+      keys = Set.of(InvalidationMessage.FLUSH_ALL);
+    }
+    List<String> batch = new ArrayList<>();
+    int length = 0;
+    for (String key : keys) {
+      if (!batch.isEmpty() && length + key.length() + 1 > MAX_PAYLOAD_LENGTH) {
+        payloads.add(message(batch));
+        batch = new ArrayList<>();
+        length = 0;
+      }
+      batch.add(key);
+      length += key.length() + 1;
+    }
+    if (!batch.isEmpty()) {
+      payloads.add(message(batch));
+    }
+    return payloads;
+  }
+
+  private String message(List<String> keys) {
+    return new InvalidationMessage(node, sequence.incrementAndGet(), keys).encode();
+  }
+
+  /**
+   * A message that cannot be sent keeps its sequence number, so receivers notice the gap with the
+   * next one and flush.
+   */
+  private void sendNotification(String payload) {
+    try {
+      if (notifyConnection == null) {
+        notifyConnection = DriverManager.getConnection(url, username, password);
+      }
+      try (PreparedStatement statement =
+          notifyConnection.prepareStatement("select pg_notify(?, ?)")) {
+        statement.setString(1, channel);
+        statement.setString(2, payload);
+        statement.execute();
+      }
+    } catch (SQLException e) {
+      log.warn("Cannot publish cache invalidation", e);
+      closeQuietly(notifyConnection);
+      notifyConnection = null;
+    }
+  }
+
+  private void listen() {
+    while (running) {
+      try (Connection connection = DriverManager.getConnection(url, username, password)) {
+        try (Statement statement = connection.createStatement()) {
+          statement.execute("listen \"" + channel + "\"");
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        flushAll();
+        lastSequences.clear();
+        listening = true;
+        while (running) {
+          PGNotification[] notifications = pgConnection.getNotifications(pollMillis);
+          if (notifications != null && notifications.length > 0) {
+            receive(notifications);
+          }
+        }
+      } catch (SQLException e) {
+        log.warn("Cache invalidation listener disconnected, caches are bypassed until it is back", e);
+      } finally {
+        listening = false;
+        flushAll();
+      }
+      sleepBeforeReconnect();
+    }
+  }
+
+  private void receive(PGNotification[] notifications) {
+    Set<String> keys = new LinkedHashSet<>();
+    boolean gap = false;
+    for (PGNotification notification : notifications) {
+      InvalidationMessage message = InvalidationMessage.parse(notification.getParameter());
+      if (message == null) {
+        gap = true;
+        continue;
+      }
+      if (message.node().equals(node)) {
+        continue;
+      }
+      Long last = lastSequences.put(message.node(), message.sequence());
+      if (last != null && message.sequence() != last + 1) {
+        gap = true;
+      }
+      keys.addAll(message.keys());
+    }
+    if (gap) {
+      log.info("Missed cache invalidations, flushing local caches");
+      flushAll();
+    } else {
+      evict(keys);
+    }
+  }
+
+  private void sleepBeforeReconnect() {
+    if (!running) {
+      return;
+    }
+    try {
+      Thread.sleep(reconnectDelayMillis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  private static void closeQuietly(Connection connection) {
+    if (connection == null) {
+      return;
+    }
+    try {
+      connection.close();
+    } catch (SQLException e) {
+      log.debug("Cannot close connection", e);
+    }
+  }
+
+  /** Loads and remembers the tag, unless the entity changed while it was loaded. */
+  private <T> Tagged<T> loadTagged(String key, long userId, Supplier<Tagged<T>> loader) {
+    long generation = tags.generation(key);
+    Tagged<T> loaded = loader.get();
+    tags.putIfCurrent(key, new OwnedTag(userId, loaded.getEtag()), generation);
+    return loaded;
+  }
+
+  /** Tags are trusted while every commit that can change them is heard of. */
+  private String tag(String key, long userId) {
+    if (isEnabled() && !listening) {
+      return null;
+    }
+    OwnedTag tag = tags.peek(key);
+    return tag != null && tag.userId() == userId ? tag.etag() : null;
+  }
+
+  private record CachedAccount(long userId, Tagged<AccountDTO> account) {}
+
+  private record OwnedTag(long userId, String etag) {}
+
+  private class PendingInvalidations implements TransactionSynchronization {
+    private final Set<String> keys = new LinkedHashSet<>();
+
+    private CacheInvalidationBus bus() {
+      return CacheInvalidationBus.this;
+    }
+
+    @Override
+    public void afterCompletion(int status) {
+      if (status == STATUS_COMMITTED) {
+        committed(keys);
+      }
+    }
+  }
+}
@@ -0,0 +1,171 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.AccountMovementType;
+import com.skypro.simplebanking.entity.TransferSaga;
+import com.skypro.simplebanking.entity.TransferSagaStatus;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import com.skypro.simplebanking.exception.WrongCurrencyException;
+import com.skypro.simplebanking.repository.AppliedTransferRepository;
+import com.skypro.simplebanking.repository.TransferSagaRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transfers between users on different shards as a saga of local transactions:
+ *
+ * <ol>
+ *   <li>on the source shard, withdraw and record a {@link TransferSagaStatus#PENDING} saga;
+ *   <li>on the target shard, deposit and mark the transfer applied, once per transfer id;
+ *   <li>on the source shard, mark the saga {@link TransferSagaStatus#COMPLETED}.
+ * </ol>
+ *
+ * If the deposit is rejected the withdrawal is refunded and the saga marked {@link
+ * TransferSagaStatus#COMPENSATED}. If the coordinator dies or a shard is unreachable after step 1,
+ * {@link #recoverPendingTransfers} later finishes the saga; both the deposit and the status changes
+ * are idempotent, so a saga can be driven by the caller and the recovery job at the same time.
+ */
+@Service
+public class CrossShardTransferService {
+  private static final Logger log = LoggerFactory.getLogger(CrossShardTransferService.class);
+
+  private final ShardRouter shardRouter;
+  private final AccountService accountService;
+  private final TransferSagaRepository transferSagaRepository;
+  private final AppliedTransferRepository appliedTransferRepository;
+  private final TransactionTemplate transactionTemplate;
+
+  public CrossShardTransferService(
+      ShardRouter shardRouter,
+      AccountService accountService,
+      TransferSagaRepository transferSagaRepository,
+      AppliedTransferRepository appliedTransferRepository,
+      TransactionTemplate transactionTemplate) {
+    this.shardRouter = shardRouter;
+    this.accountService = accountService;
+    this.transferSagaRepository = transferSagaRepository;
+    this.appliedTransferRepository = appliedTransferRepository;
+    this.transactionTemplate = transactionTemplate;
+  }
+
+  public void transfer(long id, TransferRequest transferRequest) {
+    if (transferRequest.getAmount() < 0) {
+      throw new InvalidAmountException();
+    }
+    AccountCurrency targetCurrency =
+        shardRouter.onShard(
+            shardRouter.shardOfId(transferRequest.getToUserId()),
+            () ->
+                accountService
+                    .getAccount(transferRequest.getToUserId(), transferRequest.getToAccountId())
+                    .getCurrency());
+    TransferSaga saga =
+        shardRouter.onShard(
+            shardRouter.shardOfId(id),
+            () ->
+                transactionTemplate.execute(
+                    status -> {
+                      AccountCurrency sourceCurrency =
+                          accountService
+                              .getAccount(id, transferRequest.getFromAccountId())
+                              .getCurrency();
+                      if (!sourceCurrency.equals(targetCurrency)) {
+                        throw new WrongCurrencyException();
+                      }
+                      accountService.withdrawFromAccount(
+                          id,
+                          transferRequest.getFromAccountId(),
+                          transferRequest.getAmount(),
+                          AccountMovementType.TRANSFER_OUT);
+                      return transferSagaRepository.save(newSaga(id, transferRequest));
+                    }));
+    complete(saga);
+  }
+
+  /** Drives every saga that has been pending for longer than {@code olderThan} to completion. */
+  public void recoverPendingTransfers(Duration olderThan) {
+    Instant before = Instant.now().minus(olderThan);
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      List<TransferSaga> pending =
+          shardRouter.onShard(
+              shard,
+              () ->
+                  transferSagaRepository.findAllByStatusAndCreatedAtBefore(
+                      TransferSagaStatus.PENDING, before));
+      for (TransferSaga saga : pending) {
+        try {
+          complete(saga);
+        } catch (AccountNotFoundException | InvalidAmountException e) {
+          log.info("Transfer {} was refunded", saga.getId());
+        } catch (RuntimeException e) {
+          log.warn("Transfer {} is still pending", saga.getId(), e);
+        }
+      }
+    }
+  }
+
+  private void complete(TransferSaga saga) {
+    int sourceShard = shardRouter.shardOfId(saga.getFromUserId());
+    try {
+      shardRouter.onShard(
+          shardRouter.shardOfId(saga.getToUserId()),
+          () ->
+              transactionTemplate.executeWithoutResult(
+                  status -> {
+                    if (appliedTransferRepository.markApplied(saga.getId()) == 1) {
+                      accountService.depositToAccount(
+                          saga.getToUserId(),
+                          saga.getToAccountId(),
+                          saga.getAmount(),
+                          AccountMovementType.TRANSFER_IN);
+                    }
+                  }));
+    } catch (AccountNotFoundException | InvalidAmountException e) {
+      shardRouter.onShard(
+          sourceShard,
+          () ->
+              transactionTemplate.executeWithoutResult(
+                  status -> {
+                    if (transferSagaRepository.updateStatus(
+                            saga.getId(), TransferSagaStatus.PENDING, TransferSagaStatus.COMPENSATED)
+                        == 1) {
+                      accountService.depositToAccount(
+                          saga.getFromUserId(),
+                          saga.getFromAccountId(),
+                          saga.getAmount(),
+                          AccountMovementType.REVERSAL);
+                    }
+                  }));
+      throw e;
+    }
+    shardRouter.onShard(
+        sourceShard,
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status ->
+                    transferSagaRepository.updateStatus(
+                        saga.getId(), TransferSagaStatus.PENDING, TransferSagaStatus.COMPLETED)));
+  }
+
+  private static TransferSaga newSaga(long id, TransferRequest transferRequest) {
+    TransferSaga saga = new TransferSaga();
+    saga.setId(UUID.randomUUID().toString());
+    saga.setFromUserId(id);
+    saga.setFromAccountId(transferRequest.getFromAccountId());
+    saga.setToUserId(transferRequest.getToUserId());
+    saga.setToAccountId(transferRequest.getToAccountId());
+    saga.setAmount(transferRequest.getAmount());
+    saga.setStatus(TransferSagaStatus.PENDING);
+    saga.setCreatedAt(Instant.now());
+    return saga;
+  }
+}
@@ -0,0 +1,219 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.CurrencyProperties;
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The currencies accounts can be opened in, kept in {@code currencies} on the first shard, so a
+ * currency is added with {@link #add} rather than with a deploy.
+ *
+ * <p>Every lookup is answered from an immutable snapshot in memory, with no lock and no query. The
+ * snapshot is replaced as a whole when the table is read again: at startup, every {@link
+ * CurrencyProperties#getRefreshInterval()}, after an {@link #add} and when a lookup misses. A
+ * lookup that misses reads the table at most once a second, outside the caller's transaction and
+ * on the first shard whatever shard the caller is on. The built-in currencies are in every
+ * snapshot, so rows can be read before the table has been.
+ */
+@Service
+public class CurrencyRegistry implements SmartInitializingSingleton {
+  private static final Logger log = LoggerFactory.getLogger(CurrencyRegistry.class);
+  private static final int REGISTRY_SHARD = 0;
+  private static final long MISS_RELOAD_NANOS = TimeUnit.SECONDS.toNanos(1);
+  private static final Pattern CODE = Pattern.compile("[A-Z]{3}");
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ShardRouter shardRouter;
+  private final CurrencyProperties currencyProperties;
+  private final TransactionTemplate transactionTemplate;
+  /** Reads the table on its own connection, leaving the caller's transaction as it is. */
+  private final TransactionTemplate outsideTransaction;
+  private final ScheduledExecutorService refresher;
+  private volatile Snapshot snapshot = new Snapshot(AccountCurrency.BUILT_IN);
+  private volatile long lastMissReload = System.nanoTime() - MISS_RELOAD_NANOS;
+
+  public CurrencyRegistry(
+      JdbcTemplate jdbcTemplate,
+      ShardRouter shardRouter,
+      CurrencyProperties currencyProperties,
+      PlatformTransactionManager transactionManager) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.shardRouter = shardRouter;
+    this.currencyProperties = currencyProperties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.outsideTransaction = new TransactionTemplate(transactionManager);
+    this.outsideTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+    this.refresher =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "currency-registry-refresher");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** Registers the built-in currencies if the table lacks them, then reads it. */
+  @Override
+  public void afterSingletonsInstantiated() {
+    StringBuilder values = new StringBuilder();
+    List<Object> args = new ArrayList<>();
+    for (AccountCurrency currency : AccountCurrency.BUILT_IN) {
+      values.append(values.length() == 0 ? "(?, ?)" : ", (?, ?)");
+      args.add(currency.getId());
+      args.add(currency.getCode());
+    }
+    shardRouter.onShard(
+        REGISTRY_SHARD,
+        () ->
+            jdbcTemplate.update(
+                "insert into currencies (id, code) values " + values + " on conflict do nothing",
+                args.toArray()));
+    reload();
+    long interval = currencyProperties.getRefreshInterval().toMillis();
+    refresher.scheduleWithFixedDelay(this::refresh, interval, interval, TimeUnit.MILLISECONDS);
+    log.info("Currency registry holds {}", snapshot.all);
+  }
+
+  @PreDestroy
+  public void close() {
+    refresher.shutdownNow();
+  }
+
+  /** Every registered currency, by id. */
+  public List<AccountCurrency> getCurrencies() {
+    return snapshot.all;
+  }
+
+  /** The currency stored as {@code id}; an id that is not registered is a corrupt row. */
+  public AccountCurrency byId(int id) {
+    AccountCurrency currency = snapshot.byId.get(id);
+    if (currency == null && reloadOnMiss()) {
+      currency = snapshot.byId.get(id);
+    }
+    if (currency == null) {
+      throw new IllegalStateException("Currency " + id + " is not registered");
+    }
+    return currency;
+  }
+
+  /** The currency with the code, ignoring case, or an {@link InvalidRequestException}. */
+  public AccountCurrency byCode(String code) {
+    return findByCode(code)
+        .orElseThrow(() -> new InvalidRequestException("Unknown currency " + code));
+  }
+
+  public Optional<AccountCurrency> findByCode(String code) {
+    String normalized = code.trim().toUpperCase(Locale.ROOT);
+    AccountCurrency currency = snapshot.byCode.get(normalized);
+    if (currency == null && CODE.matcher(normalized).matches() && reloadOnMiss()) {
+      currency = snapshot.byCode.get(normalized);
+    }
+    return Optional.ofNullable(currency);
+  }
+
+  /**
+   * Registers a currency under the next free id, or returns it if it is registered already. The
+   * table is locked for the insert, so concurrent additions get different ids.
+   */
+  public AccountCurrency add(String code) {
+    String normalized = code.trim().toUpperCase(Locale.ROOT);
+    if (!CODE.matcher(normalized).matches()) {
+      throw new InvalidRequestException("A currency code is three letters: " + code);
+    }
+    shardRouter.onShard(
+        REGISTRY_SHARD,
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  jdbcTemplate.execute("lock table currencies in share row exclusive mode");
+                  jdbcTemplate.update(
+                      "insert into currencies (id, code)"
+                          + " select coalesce(max(id), -1) + 1, ? from currencies"
+                          + " on conflict (code) do nothing",
+                      normalized);
+                }));
+    reload();
+    log.info("Currency {} registered", normalized);
+    return snapshot.byCode.get(normalized);
+  }
+
+  private void refresh() {
+    try {
+      reload();
+    } catch (RuntimeException e) {
+      log.warn("Could not refresh the currency registry", e);
+    }
+  }
+
+  private boolean reloadOnMiss() {
+    long now = System.nanoTime();
+    synchronized (this) {
+      if (now - lastMissReload < MISS_RELOAD_NANOS) {
+        return false;
+      }
+      lastMissReload = now;
+    }
+    reload();
+    return true;
+  }
+
+  private void reload() {
+    List<AccountCurrency> currencies = new ArrayList<>(AccountCurrency.BUILT_IN);
+    RowCallbackHandler addCurrency =
+        row -> {
+          AccountCurrency currency = new AccountCurrency(row.getInt(1), row.getString(2));
+          if (!currencies.contains(currency)) {
+            currencies.add(currency);
+          }
+        };
+    shardRouter.onShard(
+        REGISTRY_SHARD,
+        () ->
+            outsideTransaction.executeWithoutResult(
+                status ->
+                    jdbcTemplate.query("select id, code from currencies", addCurrency)));
+    snapshot = new Snapshot(currencies);
+  }
+
+  private static final class Snapshot {
+    private final List<AccountCurrency> all;
+    private final Map<Integer, AccountCurrency> byId;
+    private final Map<String, AccountCurrency> byCode;
+
+    private Snapshot(List<AccountCurrency> currencies) {
+      List<AccountCurrency> sorted = new ArrayList<>(currencies);
+      Collections.sort(sorted);
+      Map<Integer, AccountCurrency> byId = new HashMap<>();
+      Map<String, AccountCurrency> byCode = new HashMap<>();
+      for (AccountCurrency currency : sorted) {
+        byId.put(currency.getId(), currency);
+        byCode.put(currency.getCode(), currency);
+      }
+      this.all = List.copyOf(sorted);
+      this.byId = Map.copyOf(byId);
+      this.byCode = Map.copyOf(byCode);
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.exception.DepositTimedOutException;
+import com.skypro.simplebanking.exception.InvalidAmountException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import javax.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+/**
+ * Group commit for deposits: concurrent deposits by a user to the same account are gathered for
+ * at most the configured window (or until the batch is full) and applied by {@link
+ * AccountService#depositAll} in one transaction, after which every caller receives the balance
+ * that followed its own deposit. Disabled by default, in which case deposits go straight to
+ * {@link AccountService#depositToAccount}. A caller whose batch has not finished within the
+ * timeout gets a {@link DepositTimedOutException} instead of holding its request thread.
+ */
+@Service
+public class DepositCoalescer {
+  private final AccountService accountService;
+  private final ShardRouter shardRouter;
+  private final boolean enabled;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final long timeoutNanos;
+  private final Map<BatchKey, Batch> pending = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService timer;
+  private final ExecutorService workers;
+
+  public DepositCoalescer(
+      AccountService accountService,
+      ShardRouter shardRouter,
+      @Value("${app.deposit-coalescer.enabled}") boolean enabled,
+      @Value("${app.deposit-coalescer.window}") Duration window,
+      @Value("${app.deposit-coalescer.max-batch-size}") int maxBatchSize,
+      @Value("${app.deposit-coalescer.workers}") int workers,
+      @Value("${app.deposit-coalescer.timeout}") Duration timeout) {
+    this.accountService = accountService;
+    this.shardRouter = shardRouter;
+    this.enabled = enabled;
+    this.windowNanos = window.toNanos();
+    this.maxBatchSize = maxBatchSize;
+    this.timeoutNanos = timeout.toNanos();
+    this.timer = enabled ? Executors.newSingleThreadScheduledExecutor() : null;
+    this.workers = enabled ? Executors.newFixedThreadPool(workers) : null;
+  }
+
+  public AccountDTO deposit(long userId, Long accountId, long amount) {
+    if (!enabled) {
+      return accountService.depositToAccount(userId, accountId, amount);
+    }
+    if (amount < 0) {
+      throw new InvalidAmountException();
+    }
+    CompletableFuture<AccountDTO> result = new CompletableFuture<>();
+    Batch[] joined = new Batch[1];
+    int[] size = new int[1];
+    // A batch is open exactly while it is in the map; a full one leaves it in the same step.
+    pending.compute(
+        new BatchKey(userId, accountId),
+        (key, open) -> {
+          joined[0] = open == null ? new Batch(key, SecurityContextHolder.getContext()) : open;
+          size[0] = joined[0].add(amount, result);
+          return size[0] < maxBatchSize ? joined[0] : null;
+        });
+    Batch batch = joined[0];
+    if (size[0] == maxBatchSize) {
+      execute(batch);
+    } else if (size[0] == 1) {
+      timer.schedule(() -> dispatch(batch), windowNanos, TimeUnit.NANOSECONDS);
+    }
+    try {
+      return result.get(timeoutNanos, TimeUnit.NANOSECONDS);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException(e.getCause());
+    } catch (TimeoutException e) {
+      throw new DepositTimedOutException(
+          "The deposit did not finish in time and may still be applied, check the balance");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DepositTimedOutException(
+          "The deposit was interrupted and may still be applied, check the balance");
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    if (enabled) {
+      timer.shutdown();
+      workers.shutdown();
+    }
+  }
+
+  /** Ends the batch's window, unless it filled up and was sent off before. */
+  private void dispatch(Batch batch) {
+    if (pending.remove(batch.key, batch)) {
+      execute(batch);
+    }
+  }
+
+  /** Flushes on a worker as the user whose deposit opened the batch; all are by that user. */
+  private void execute(Batch batch) {
+    workers.execute(
+        new DelegatingSecurityContextRunnable(() -> flush(batch), batch.securityContext));
+  }
+
+  private void flush(Batch batch) {
+    List<AccountDTO> results;
+    try {
+      results =
+          shardRouter.onShard(
+              shardRouter.shardOfId(batch.key.userId()),
+              () ->
+                  accountService.depositAll(
+                      batch.key.userId(), batch.key.accountId(), batch.amounts()));
+    } catch (RuntimeException e) {
+      batch.callers.forEach(caller -> caller.completeExceptionally(e));
+      return;
+    }
+    for (int i = 0; i < results.size(); i++) {
+      batch.callers.get(i).complete(results.get(i));
+    }
+  }
+
+  private record BatchKey(long userId, Long accountId) {}
+
+  /** Only changed inside {@code pending.compute}, which also publishes it to the flush. */
+  private static class Batch {
+    private final BatchKey key;
+    private final SecurityContext securityContext;
+    private final List<Long> amounts = new ArrayList<>();
+    private final List<CompletableFuture<AccountDTO>> callers = new ArrayList<>();
+
+    private Batch(BatchKey key, SecurityContext securityContext) {
+      this.key = key;
+      this.securityContext = securityContext;
+    }
+
+    /** Returns the batch size after adding. */
+    private int add(long amount, CompletableFuture<AccountDTO> caller) {
+      amounts.add(amount);
+      callers.add(caller);
+      return callers.size();
+    }
+
+    private long[] amounts() {
+      return amounts.stream().mapToLong(Long::longValue).toArray();
+    }
+  }
+}
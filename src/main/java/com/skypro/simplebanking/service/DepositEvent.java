@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.service;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.skypro.simplebanking.Deposit")
+@Label("Deposit")
+public class DepositEvent extends MoneyOperationEvent {}
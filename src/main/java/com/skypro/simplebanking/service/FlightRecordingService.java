@@ -0,0 +1,65 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Keeps a rolling flight recording of the last {@code maxAge} (at most {@code maxSize} bytes) with
+ * the JDK's standard settings plus the money path events, and dumps it to a file on demand.
+ */
+public class FlightRecordingService {
+  private final Recording recording;
+
+  private FlightRecordingService(Recording recording) {
+    this.recording = recording;
+  }
+
+  public static FlightRecordingService start(String settings, Duration maxAge, long maxSize) {
+    Recording recording;
+    try {
+      recording = new Recording(Configuration.getConfiguration(settings));
+    } catch (IOException | ParseException e) {
+      throw new IllegalStateException("Cannot load JFR settings " + settings, e);
+    }
+    recording.setName("simple-banking");
+    recording.setToDisk(true);
+    recording.setMaxAge(maxAge);
+    recording.setMaxSize(maxSize);
+    recording.enable(DepositEvent.class);
+    recording.enable(WithdrawalEvent.class);
+    recording.enable(TransferEvent.class);
+    recording.start();
+    return new FlightRecordingService(recording);
+  }
+
+  public static FlightRecordingService disabled() {
+    return new FlightRecordingService(null);
+  }
+
+  /** Writes the recording so far to a new temporary file, which the caller should delete. */
+  public Path dump() {
+    if (recording == null) {
+      throw new InvalidRequestException("Flight recording is disabled");
+    }
+    try {
+      Path file = Files.createTempFile("simple-banking-", ".jfr");
+      recording.dump(file);
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  public void close() {
+    if (recording != null) {
+      recording.close();
+    }
+  }
+}
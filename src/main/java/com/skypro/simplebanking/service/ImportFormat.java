@@ -0,0 +1,250 @@
+package com.skypro.simplebanking.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Rows of a legacy import file, one user per line, in one of two formats:
+ *
+ * <pre>
+ * .csv     header: username,password,USD,EUR,RUB   (currency columns optional, in any order)
+ *          row:    alice,{bcrypt}$2a$10$...,1500,,250
+ * .ndjson  {"username":"alice","password":"{bcrypt}$2a$10$...","balances":{"USD":1500,"RUB":250}}
+ * </pre>
+ *
+ * Passwords must already be bcrypt hashes, with or without the {@code {bcrypt}} prefix; hashes
+ * without it are upgraded on the user's first login. Balances are in minor units, in registered
+ * currencies; a user gets an account only in the currencies its row has a balance for, so an empty
+ * or left-out balance opens no account. A row that does not parse or validate is rejected with the
+ * reason as the exception message.
+ */
+final class ImportFormat {
+  /** Keeps the user within a snapshot record next to a prefixed bcrypt hash. */
+  static final int MAX_USERNAME_BYTES = 160;
+  private static final Pattern BCRYPT_HASH =
+      Pattern.compile("(\\{bcrypt})?\\$2[aby]?\\$\\d\\d\\$[./A-Za-z0-9]{53}");
+  private static final ObjectMapper JSON = new ObjectMapper();
+
+  private final boolean csv;
+  /** Column of the username and the password. */
+  private final int usernameColumn;
+  private final int passwordColumn;
+  /** Currency of each column that holds balances. */
+  private final Map<Integer, AccountCurrency> balanceColumns;
+  /** Registered currencies by code. */
+  private final Map<String, AccountCurrency> currencies;
+
+  private ImportFormat(
+      boolean csv,
+      int usernameColumn,
+      int passwordColumn,
+      Map<Integer, AccountCurrency> balanceColumns,
+      List<AccountCurrency> currencies) {
+    this.csv = csv;
+    this.usernameColumn = usernameColumn;
+    this.passwordColumn = passwordColumn;
+    this.balanceColumns = balanceColumns;
+    this.currencies = new HashMap<>();
+    for (AccountCurrency currency : currencies) {
+      this.currencies.put(currency.getCode(), currency);
+    }
+  }
+
+  /**
+   * Column names are matched ignoring case and surrounding blanks; columns named after none of the
+   * currencies are ignored.
+   */
+  static ImportFormat csv(String header, List<AccountCurrency> currencies) {
+    List<String> columns = new ArrayList<>();
+    for (String column : splitCsv(header.replace("\uFEFF", ""))) {
+      columns.add(column.trim().toLowerCase(Locale.ROOT));
+    }
+    int usernameColumn = columns.indexOf("username");
+    int passwordColumn = columns.indexOf("password");
+    if (usernameColumn < 0 || passwordColumn < 0) {
+      throw new InvalidRequestException("The header needs username and password columns");
+    }
+    Map<Integer, AccountCurrency> balanceColumns = new HashMap<>();
+    for (AccountCurrency currency : currencies) {
+      int column = columns.indexOf(currency.getCode().toLowerCase(Locale.ROOT));
+      if (column >= 0) {
+        balanceColumns.put(column, currency);
+      }
+    }
+    return new ImportFormat(true, usernameColumn, passwordColumn, balanceColumns, currencies);
+  }
+
+  static ImportFormat ndjson(List<AccountCurrency> currencies) {
+    return new ImportFormat(false, -1, -1, Map.of(), currencies);
+  }
+
+  /** Whether the file starts with a header line. */
+  boolean hasHeader() {
+    return csv;
+  }
+
+  Row parse(String line) {
+    return csv ? parseCsv(line) : parseJson(line);
+  }
+
+  private Row parseCsv(String line) {
+    List<String> fields = splitCsv(line);
+    if (fields.size() <= Math.max(usernameColumn, passwordColumn)) {
+      throw new InvalidRequestException("Missing columns");
+    }
+    Map<AccountCurrency, Long> balances = new TreeMap<>();
+    balanceColumns.forEach(
+        (column, currency) -> {
+          if (column < fields.size() && !fields.get(column).isEmpty()) {
+            balances.put(currency, balance(fields.get(column)));
+          }
+        });
+    return row(fields.get(usernameColumn), fields.get(passwordColumn), balances);
+  }
+
+  private Row parseJson(String line) {
+    JsonNode node;
+    try {
+      node = JSON.readTree(line);
+    } catch (IOException e) {
+      throw new InvalidRequestException("Not valid JSON");
+    }
+    if (node == null || !node.isObject()) {
+      throw new InvalidRequestException("Not a JSON object");
+    }
+    Map<AccountCurrency, Long> balances = new TreeMap<>();
+    JsonNode balanceNode = node.path("balances");
+    if (!balanceNode.isMissingNode() && !balanceNode.isObject()) {
+      throw new InvalidRequestException("balances should be an object");
+    }
+    for (Iterator<Map.Entry<String, JsonNode>> it = balanceNode.fields(); it.hasNext(); ) {
+      Map.Entry<String, JsonNode> balance = it.next();
+      if (!balance.getValue().canConvertToExactIntegral()) {
+        throw new InvalidRequestException(
+            "Balance " + balance.getKey() + " is not a whole number");
+      }
+      balances.put(currency(balance.getKey()), balance(balance.getValue().asText()));
+    }
+    return row(node.path("username").asText(null), node.path("password").asText(null), balances);
+  }
+
+  private static Row row(String username, String password, Map<AccountCurrency, Long> balances) {
+    if (username == null || username.isBlank()) {
+      throw new InvalidRequestException("Username is blank");
+    }
+    if (username.getBytes(StandardCharsets.UTF_8).length > MAX_USERNAME_BYTES) {
+      throw new InvalidRequestException(
+          "Username is longer than " + MAX_USERNAME_BYTES + " bytes");
+    }
+    if (username.chars().anyMatch(Character::isISOControl)) {
+      throw new InvalidRequestException("Username contains control characters");
+    }
+    if (password == null || !BCRYPT_HASH.matcher(password).matches()) {
+      throw new InvalidRequestException("Password is not a bcrypt hash");
+    }
+    return new Row(username, password, balances);
+  }
+
+  private static long balance(String value) {
+    long balance;
+    try {
+      balance = Long.parseLong(value.trim());
+    } catch (NumberFormatException e) {
+      throw new InvalidRequestException("Balance " + value + " is not a whole number");
+    }
+    if (balance < 0) {
+      throw new InvalidRequestException("Balance " + value + " is negative");
+    }
+    return balance;
+  }
+
+  private AccountCurrency currency(String code) {
+    AccountCurrency currency = currencies.get(code.trim().toUpperCase(Locale.ROOT));
+    if (currency == null) {
+      throw new InvalidRequestException("Unknown currency " + code);
+    }
+    return currency;
+  }
+
+  /** RFC 4180 fields of one line: quoted fields may hold commas and doubled quotes. */
+  static List<String> splitCsv(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"' && field.length() == 0) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new InvalidRequestException("Unterminated quote");
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  /** Appends the value as a quoted CSV field, as {@code COPY ... (FORMAT csv)} reads it. */
+  static void appendCsv(StringBuilder out, String value) {
+    out.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == '"') {
+        out.append('"');
+      }
+      out.append(c);
+    }
+    out.append('"');
+  }
+
+  static final class Row {
+    private final String username;
+    private final String password;
+    private final Map<AccountCurrency, Long> balances;
+
+    private Row(String username, String password, Map<AccountCurrency, Long> balances) {
+      this.username = username;
+      this.password = password;
+      this.balances = balances;
+    }
+
+    String username() {
+      return username;
+    }
+
+    String password() {
+      return password;
+    }
+
+    /** Balance per currency the row has one for, by currency id. */
+    Map<AccountCurrency, Long> balances() {
+      return balances;
+    }
+  }
+}
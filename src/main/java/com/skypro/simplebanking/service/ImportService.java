@@ -0,0 +1,527 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.ImportProperties;
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.ImportReport;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.AccountMovementType;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Imports users and opening balances from a legacy export ({@link ImportFormat}) in the import
+ * directory, without hashing a password or inserting a row at a time.
+ *
+ * <p>The file is read in batches of lines. Each row is validated and routed to its username's
+ * shard; a shard's share of a batch is streamed with {@code COPY} into a temporary staging table,
+ * from which one statement inserts the users, their accounts and the accounts' opening movements,
+ * drawing the ids from the shard's sequences. Usernames that are taken come back from that
+ * statement and are rejected with the rows that failed validation: each goes to {@code
+ * <file>.rejects} as line number, reason and the original line.
+ *
+ * <p>Every shard keeps a checkpoint for the file that is advanced in the transaction that writes
+ * the shard's rows. A run that was interrupted is resumed by importing the same file again: it
+ * starts at the earliest checkpoint and skips the rows a shard has already taken. A rejected row of
+ * the batch that was interrupted can appear twice in the rejects file.
+ */
+@Service
+public class ImportService {
+  private static final Logger log = LoggerFactory.getLogger(ImportService.class);
+  private static final String CSV_SUFFIX = ".csv";
+  private static final String NDJSON_SUFFIX = ".ndjson";
+  private static final String REJECTS_SUFFIX = ".rejects";
+  private static final int MAX_LINE_BYTES = 65_536;
+  private static final String CREATE_STAGE =
+      "create temp table import_stage"
+          + " (line bigint, username text, password text, balances bigint[]) on commit drop";
+  /**
+   * Users whose name is taken, also by an archived user, are skipped; the stage rows without a new
+   * user are returned. A user gets an account per non-null element of its balances, which are
+   * indexed by currency id. Volatile functions are evaluated after the sort, so ids follow the
+   * order of the file.
+   */
+  private static final String IMPORT_STAGED =
+      "with new_users as ("
+          + " insert into users (id, username, password)"
+          + " select nextval('user_sequence'), s.username, s.password"
+          + " from import_stage s"
+          + " where not exists (select 1 from archived_users a where a.username = s.username)"
+          + " order by s.line"
+          + " on conflict (username) do nothing returning id, username),"
+          + " new_accounts as ("
+          + " insert into accounts (id, user_id, account_currency, amount)"
+          + " select nextval('account_sequence'), u.id, b.position - 1, b.amount"
+          + " from new_users u join import_stage s on s.username = u.username"
+          + " cross join lateral unnest(s.balances) with ordinality b(amount, position)"
+          + " where b.amount is not null order by u.id, b.position"
+          + " returning id, amount),"
+          + " opening as ("
+          + " insert into account_movements (id, account_id, amount, type, created_at)"
+          + " select nextval('account_movement_sequence'), a.id, a.amount, ?, ?"
+          + " from new_accounts a)"
+          + " select s.line from import_stage s"
+          + " where not exists (select 1 from new_users u where u.username = s.username)";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ShardRouter shardRouter;
+  private final ImportProperties importProperties;
+  private final CurrencyRegistry currencyRegistry;
+
+  public ImportService(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ShardRouter shardRouter,
+      ImportProperties importProperties,
+      CurrencyRegistry currencyRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.shardRouter = shardRouter;
+    this.importProperties = importProperties;
+    this.currencyRegistry = currencyRegistry;
+  }
+
+  /** Imports (or finishes importing) a file from the import directory. */
+  public ImportReport importFile(String name) {
+    boolean csv = name.endsWith(CSV_SUFFIX);
+    if (!(csv || name.endsWith(NDJSON_SUFFIX)) || name.contains("/") || name.contains("\\")) {
+      throw new InvalidRequestException("Not an import file name: " + name);
+    }
+    long start = System.currentTimeMillis();
+    Path file = importProperties.getDirectory().resolve(name);
+    if (!Files.isRegularFile(file)) {
+      throw new InvalidRequestException("No import file " + name);
+    }
+    int shardCount = shardRouter.getShardCount();
+    Checkpoint[] checkpoints = new Checkpoint[shardCount];
+    for (int shard = 0; shard < shardCount; shard++) {
+      int current = shard;
+      checkpoints[shard] = shardRouter.onShard(shard, () -> checkpoint(name, current));
+    }
+    Checkpoint earliest = checkpoints[0];
+    for (Checkpoint checkpoint : checkpoints) {
+      if (checkpoint.position < earliest.position) {
+        earliest = checkpoint;
+      }
+    }
+    long resumedAtLine = earliest.line;
+    long lines = 0;
+    if (!allCompleted(checkpoints)) {
+      try (FileChannel channel = FileChannel.open(file);
+          BufferedWriter rejects =
+              Files.newBufferedWriter(
+                  file.resolveSibling(name + REJECTS_SUFFIX),
+                  StandardCharsets.UTF_8,
+                  StandardOpenOption.CREATE,
+                  StandardOpenOption.APPEND)) {
+        LineReader reader = new LineReader(channel);
+        List<AccountCurrency> currencies = currencyRegistry.getCurrencies();
+        ImportFormat format =
+            csv ? ImportFormat.csv(header(reader), currencies) : ImportFormat.ndjson(currencies);
+        if (earliest.position > reader.position) {
+          reader.seek(earliest.position, earliest.line);
+        }
+        lines = importLines(name, reader, format, checkpoints, rejects);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    long imported = 0;
+    long rejected = 0;
+    for (Checkpoint checkpoint : checkpoints) {
+      imported += checkpoint.imported;
+      rejected += checkpoint.rejected;
+    }
+    long elapsed = System.currentTimeMillis() - start;
+    log.info(
+        "Imported {}: {} lines in {} ms, {} users in total, {} rejected",
+        name,
+        lines,
+        elapsed,
+        imported,
+        rejected);
+    return new ImportReport(name, resumedAtLine, lines, imported, rejected, elapsed);
+  }
+
+  private long importLines(
+      String name,
+      LineReader reader,
+      ImportFormat format,
+      Checkpoint[] checkpoints,
+      BufferedWriter rejects)
+      throws IOException {
+    int batchSize = importProperties.getBatchSize();
+    long lines = 0;
+    boolean end = false;
+    while (!end) {
+      List<List<Staged>> staged = new ArrayList<>();
+      List<List<Reject>> invalid = new ArrayList<>();
+      for (int shard = 0; shard < checkpoints.length; shard++) {
+        staged.add(new ArrayList<>());
+        invalid.add(new ArrayList<>());
+      }
+      Set<String> usernames = new HashSet<>();
+      int read = 0;
+      while (read < batchSize) {
+        Line line = reader.next();
+        if (line == null) {
+          end = true;
+          break;
+        }
+        read++;
+        if (line.text != null && line.text.isBlank()) {
+          continue;
+        }
+        ImportFormat.Row row = null;
+        String reason;
+        try {
+          if (line.text == null) {
+            throw new InvalidRequestException(line.reason);
+          }
+          row = format.parse(line.text);
+          reason = usernames.add(row.username()) ? null : "Username is taken";
+        } catch (InvalidRequestException | IllegalArgumentException e) {
+          reason = e.getMessage();
+        }
+        int shard = row == null ? 0 : shardRouter.shardOfUsername(row.username());
+        if (line.end <= checkpoints[shard].position) {
+          // Taken care of by an earlier run.
+          continue;
+        }
+        if (reason != null) {
+          invalid.get(shard).add(new Reject(line.number, reason, line.text));
+        } else {
+          staged.get(shard).add(new Staged(line.number, row, line.text));
+        }
+      }
+      lines += read;
+      for (int shard = 0; shard < checkpoints.length; shard++) {
+        Checkpoint checkpoint = checkpoints[shard];
+        if (checkpoint.completed || (reader.position <= checkpoint.position && !end)) {
+          continue;
+        }
+        int current = shard;
+        boolean completed = end;
+        shardRouter.onShard(
+            shard,
+            () ->
+                transactionTemplate.executeWithoutResult(
+                    status ->
+                        load(
+                            name,
+                            checkpoint,
+                            staged.get(current),
+                            invalid.get(current),
+                            reader,
+                            completed,
+                            rejects)));
+      }
+    }
+    return lines;
+  }
+
+  /**
+   * Writes one shard's rows of a batch, then its rejects, and advances its checkpoint. The
+   * checkpoint only moves from where this run found it, so two runs of one file cannot both write.
+   */
+  private void load(
+      String name,
+      Checkpoint checkpoint,
+      List<Staged> rows,
+      List<Reject> invalid,
+      LineReader reader,
+      boolean completed,
+      BufferedWriter rejectsFile) {
+    List<Reject> rejects = new ArrayList<>(invalid);
+    if (!rows.isEmpty()) {
+      Map<Long, Staged> byLine = new HashMap<>();
+      StringBuilder copy = new StringBuilder(rows.size() * 128);
+      for (Staged row : rows) {
+        byLine.put(row.line, row);
+        appendStaged(copy, row);
+      }
+      jdbcTemplate.execute(CREATE_STAGE);
+      copyIn(
+          "copy import_stage (line, username, password, balances) from stdin (format csv)",
+          copy.toString().getBytes(StandardCharsets.UTF_8));
+      jdbcTemplate.query(
+          IMPORT_STAGED,
+          row -> {
+            Staged taken = byLine.get(row.getLong(1));
+            rejects.add(new Reject(taken.line, "Username is taken", taken.text));
+          },
+          AccountMovementType.OPENING.name(),
+          Timestamp.from(Instant.now()));
+    }
+    int imported = rows.size() - (rejects.size() - invalid.size());
+    rejects.sort(Comparator.comparingLong(reject -> reject.line));
+    try {
+      for (Reject reject : rejects) {
+        rejectsFile.write(reject.line + "\t" + reject.reason + "\t" + reject.text);
+        rejectsFile.newLine();
+      }
+      rejectsFile.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    int updated =
+        jdbcTemplate.update(
+            "update import_checkpoints set position = ?, line = ?, imported = imported + ?,"
+                + " rejected = rejected + ?, completed = ? where file = ? and shard = ?"
+                + " and position = ?",
+            reader.position,
+            reader.number,
+            imported,
+            rejects.size(),
+            completed,
+            name,
+            checkpoint.shard,
+            checkpoint.position);
+    if (updated != 1) {
+      throw new IllegalStateException("The import of " + name + " is running elsewhere");
+    }
+    if (completed) {
+      jdbcTemplate.execute("analyze users");
+      jdbcTemplate.execute("analyze accounts");
+    }
+    checkpoint.position = reader.position;
+    checkpoint.line = reader.number;
+    checkpoint.imported += imported;
+    checkpoint.rejected += rejects.size();
+    checkpoint.completed = completed;
+  }
+
+  private Checkpoint checkpoint(String name, int shard) {
+    jdbcTemplate.update(
+        "insert into import_checkpoints"
+            + " (id, file, shard, position, line, imported, rejected, completed)"
+            + " values (nextval('import_checkpoint_sequence'), ?, ?, 0, 0, 0, 0, false)"
+            + " on conflict (file, shard) do nothing",
+        name,
+        shard);
+    return jdbcTemplate.queryForObject(
+        "select position, line, imported, rejected, completed from import_checkpoints"
+            + " where file = ? and shard = ?",
+        (row, rowNum) ->
+            new Checkpoint(
+                shard,
+                row.getLong(1),
+                row.getLong(2),
+                row.getLong(3),
+                row.getLong(4),
+                row.getBoolean(5)),
+        name,
+        shard);
+  }
+
+  private void copyIn(String sql, byte[] rows) {
+    jdbcTemplate.execute(
+        (ConnectionCallback<Long>)
+            connection -> {
+              try {
+                return connection
+                    .unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn(sql, new ByteArrayInputStream(rows));
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+  }
+
+  private static String header(LineReader reader) throws IOException {
+    Line header = reader.next();
+    if (header == null || header.text == null) {
+      throw new InvalidRequestException("The import file has no header");
+    }
+    return header.text;
+  }
+
+  private static void appendStaged(StringBuilder copy, Staged row) {
+    copy.append(row.line).append(',');
+    ImportFormat.appendCsv(copy, row.row.username());
+    copy.append(',');
+    ImportFormat.appendCsv(copy, row.row.password());
+    copy.append(",\"{");
+    // Indexed by currency id, with NULL for the currencies the row has no balance in.
+    int next = 0;
+    for (Map.Entry<AccountCurrency, Long> balance : row.row.balances().entrySet()) {
+      for (; next <= balance.getKey().getId(); next++) {
+        if (next > 0) {
+          copy.append(',');
+        }
+        copy.append(next < balance.getKey().getId() ? "NULL" : balance.getValue());
+      }
+    }
+    copy.append("}\"\n");
+  }
+
+  private static boolean allCompleted(Checkpoint[] checkpoints) {
+    for (Checkpoint checkpoint : checkpoints) {
+      if (!checkpoint.completed) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static class Checkpoint {
+    private final int shard;
+    private long position;
+    private long line;
+    private long imported;
+    private long rejected;
+    private boolean completed;
+
+    private Checkpoint(
+        int shard, long position, long line, long imported, long rejected, boolean completed) {
+      this.shard = shard;
+      this.position = position;
+      this.line = line;
+      this.imported = imported;
+      this.rejected = rejected;
+      this.completed = completed;
+    }
+  }
+
+  private static class Staged {
+    private final long line;
+    private final ImportFormat.Row row;
+    private final String text;
+
+    private Staged(long line, ImportFormat.Row row, String text) {
+      this.line = line;
+      this.row = row;
+      this.text = text;
+    }
+  }
+
+  private static class Reject {
+    private final long line;
+    private final String reason;
+    private final String text;
+
+    private Reject(long line, String reason, String text) {
+      this.line = line;
+      this.reason = reason;
+      this.text = text == null ? "" : text;
+    }
+  }
+
+  private static class Line {
+    private final long number;
+    /** Byte offset just after the line. */
+    private final long end;
+    /** {@code null} when the line cannot be read, see {@link #reason}. */
+    private final String text;
+    private final String reason;
+
+    private Line(long number, long end, String text, String reason) {
+      this.number = number;
+      this.end = end;
+      this.text = text;
+      this.reason = reason;
+    }
+  }
+
+  /** Reads UTF-8 lines and keeps track of the byte offset after the last one. */
+  private static class LineReader {
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+    private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder();
+    private long position;
+    private long number;
+
+    private LineReader(FileChannel channel) {
+      this.channel = channel;
+      buffer.limit(0);
+    }
+
+    private void seek(long position, long number) throws IOException {
+      channel.position(position);
+      buffer.clear().limit(0);
+      this.position = position;
+      this.number = number;
+    }
+
+    /** The next line without its line break, or {@code null} at the end of the file. */
+    private Line next() throws IOException {
+      line.reset();
+      boolean tooLong = false;
+      while (true) {
+        if (!buffer.hasRemaining()) {
+          buffer.clear();
+          int read = channel.read(buffer);
+          buffer.flip();
+          if (read <= 0) {
+            if (line.size() == 0 && !tooLong) {
+              return null;
+            }
+            break;
+          }
+        }
+        int start = buffer.position();
+        int newline = start;
+        while (newline < buffer.limit() && buffer.get(newline) != '\n') {
+          newline++;
+        }
+        if (line.size() + newline - start > MAX_LINE_BYTES) {
+          tooLong = true;
+        } else {
+          line.write(buffer.array(), start, newline - start);
+        }
+        boolean found = newline < buffer.limit();
+        buffer.position(found ? newline + 1 : newline);
+        position += buffer.position() - start;
+        if (found) {
+          break;
+        }
+      }
+      number++;
+      if (tooLong) {
+        return new Line(
+            number, position, null, "Line is longer than " + MAX_LINE_BYTES + " bytes");
+      }
+      byte[] bytes = line.toByteArray();
+      int length = bytes.length;
+      if (length > 0 && bytes[length - 1] == '\r') {
+        length--;
+      }
+      try {
+        String text = decoder.decode(ByteBuffer.wrap(bytes, 0, length)).toString();
+        return new Line(number, position, text, null);
+      } catch (CharacterCodingException e) {
+        return new Line(number, position, null, "Line is not valid UTF-8");
+      }
+    }
+  }
+}
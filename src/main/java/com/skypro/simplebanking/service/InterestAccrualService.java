@@ -0,0 +1,349 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.InterestProperties;
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.InterestAccrualReport;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.AccountMovementType;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * End-of-day interest: credits every account with a day's interest at its currency's rate and
+ * records an {@link AccountMovementType#INTEREST} movement for it.
+ *
+ * <p>On its first run for a business date the job splits each shard's account ids into ranges and
+ * stores a checkpoint per range on that shard. Workers take ranges and walk them in keyset-ordered
+ * chunks; each chunk is one short transaction that locks the range's checkpoint, locks and reads
+ * the chunk's balances, credits them all with one {@code UPDATE ... FROM (VALUES ...)} that also
+ * writes the movements, and advances the checkpoint. A run for a date that was interrupted (or is
+ * running on another node) therefore continues where the checkpoints stand and never credits an
+ * account twice. Accounts opened after the ranges were laid out earn nothing that day. Between
+ * chunks the workers are paced by a {@link BatchThrottle}.
+ */
+@Service
+public class InterestAccrualService {
+  private static final Logger log = LoggerFactory.getLogger(InterestAccrualService.class);
+  private static final BigDecimal DAYS_PER_YEAR = BigDecimal.valueOf(365);
+  private static final String CHUNK_QUERY =
+      "select a.id, a.user_id, a.account_currency, coalesce(a.amount, 0)"
+          + " + coalesce((select sum(s.amount) from account_stripes s where s.account_id = a.id), 0)"
+          + " as balance from accounts a where a.id > ? and a.id < ? order by a.id limit ?"
+          + " for update of a";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final ShardRouter shardRouter;
+  private final CacheInvalidationBus cacheInvalidationBus;
+  private final InterestProperties interestProperties;
+  private final CurrencyRegistry currencyRegistry;
+  /** By currency code. */
+  private final Map<String, BigDecimal> dailyRates = new HashMap<>();
+
+  public InterestAccrualService(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ShardRouter shardRouter,
+      CacheInvalidationBus cacheInvalidationBus,
+      InterestProperties interestProperties,
+      CurrencyRegistry currencyRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.shardRouter = shardRouter;
+    this.cacheInvalidationBus = cacheInvalidationBus;
+    this.interestProperties = interestProperties;
+    this.currencyRegistry = currencyRegistry;
+    interestProperties
+        .getAnnualRates()
+        .forEach(
+            (currency, rate) ->
+                dailyRates.put(
+                    currency.toUpperCase(Locale.ROOT),
+                    rate.divide(DAYS_PER_YEAR, MathContext.DECIMAL64)));
+  }
+
+  /** Run by the {@code app.interest.cron} schedule, shortly after midnight. */
+  public void accruePreviousDay() {
+    InterestAccrualReport report = accrue(LocalDate.now().minusDays(1));
+    log.info(
+        "Accrued interest for {}: {} accounts in {} ms",
+        report.getBusinessDate(),
+        report.getAccountsCredited(),
+        report.getElapsedMillis());
+  }
+
+  public InterestAccrualReport accrue(LocalDate businessDate) {
+    if (dailyRates.isEmpty()) {
+      throw new InvalidRequestException("No interest rates configured");
+    }
+    long start = System.currentTimeMillis();
+    List<Range> pending = new ArrayList<>();
+    int ranges = 0;
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      List<Range> shardRanges = checkpoints(shard, businessDate);
+      ranges += shardRanges.size();
+      shardRanges.stream().filter(range -> !range.completed).forEach(pending::add);
+    }
+    // Ranges of different shards interleaved, so the workers spread over the shards.
+    Collections.shuffle(pending);
+
+    Progress progress = new Progress();
+    BatchThrottle throttle =
+        new BatchThrottle(
+            interestProperties.getTargetChunkTime().toNanos(),
+            interestProperties.getMaxPause().toNanos(),
+            interestProperties.getMaxRowsPerSecond());
+    ExecutorService workers = Executors.newFixedThreadPool(interestProperties.getWorkers());
+    try {
+      List<Future<Void>> results = new ArrayList<>();
+      for (Range range : pending) {
+        Callable<Void> task =
+            () -> {
+              accrue(range, businessDate, throttle, progress);
+              return null;
+            };
+        results.add(workers.submit(task));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interest accrual interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Interest accrual failed", e.getCause());
+    } finally {
+      workers.shutdownNow();
+    }
+    return new InterestAccrualReport(
+        businessDate,
+        ranges,
+        ranges - pending.size(),
+        progress.chunks.get(),
+        progress.accounts.get(),
+        progress.interest(),
+        System.currentTimeMillis() - start);
+  }
+
+  /** Lays out the ranges of the shard on the first run for the date, then returns them. */
+  private List<Range> checkpoints(int shard, LocalDate businessDate) {
+    return shardRouter.onShard(
+        shard,
+        () ->
+            transactionTemplate.execute(
+                status -> {
+                  jdbcTemplate.execute(
+                      "select pg_advisory_xact_lock(hashtext('interest_checkpoints'))");
+                  List<Range> existing = ranges(shard, businessDate);
+                  if (!existing.isEmpty()) {
+                    return existing;
+                  }
+                  long[] bounds =
+                      jdbcTemplate.queryForObject(
+                          "select min(id), max(id) from accounts",
+                          (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)});
+                  if (bounds[0] == 0 && bounds[1] == 0) {
+                    return existing;
+                  }
+                  long from = bounds[0];
+                  long to = bounds[1] + 1;
+                  int count = (int) Math.min(interestProperties.getRanges(), to - from);
+                  for (int i = 0; i < count; i++) {
+                    long rangeStart = from + (to - from) * i / count;
+                    long rangeEnd = from + (to - from) * (i + 1) / count;
+                    jdbcTemplate.update(
+                        "insert into interest_checkpoints"
+                            + " (id, business_date, shard, range_start, range_end, last_id,"
+                            + " accounts, completed)"
+                            + " values (nextval('interest_checkpoint_sequence'), ?, ?, ?, ?, ?, 0,"
+                            + " false)",
+                        businessDate,
+                        shard,
+                        rangeStart,
+                        rangeEnd,
+                        rangeStart - 1);
+                  }
+                  return ranges(shard, businessDate);
+                }));
+  }
+
+  private List<Range> ranges(int shard, LocalDate businessDate) {
+    return jdbcTemplate.query(
+        "select id, range_end, completed from interest_checkpoints"
+            + " where business_date = ? and shard = ? order by range_start",
+        (rs, rowNum) ->
+            new Range(shard, rs.getLong("id"), rs.getLong("range_end"), rs.getBoolean("completed")),
+        businessDate,
+        shard);
+  }
+
+  private void accrue(Range range, LocalDate businessDate, BatchThrottle throttle, Progress progress)
+      throws InterruptedException {
+    while (true) {
+      long chunkStart = System.nanoTime();
+      Chunk chunk =
+          shardRouter.onShard(
+              range.shard, () -> transactionTemplate.execute(status -> accrueChunk(range)));
+      if (chunk == null) {
+        return;
+      }
+      progress.add(chunk);
+      throttle.pause(System.nanoTime() - chunkStart, chunk.rows);
+    }
+  }
+
+  /** Returns {@code null} once the range is complete. */
+  private Chunk accrueChunk(Range range) {
+    List<Long> lastId =
+        jdbcTemplate.queryForList(
+            "select last_id from interest_checkpoints where id = ? and not completed for update",
+            Long.class,
+            range.checkpointId);
+    if (lastId.isEmpty()) {
+      return null;
+    }
+    int chunkSize = interestProperties.getChunkSize();
+    List<Long> ids = new ArrayList<>(chunkSize);
+    List<Object> credits = new ArrayList<>();
+    List<Long> owners = new ArrayList<>();
+    Map<AccountCurrency, Long> interest = new TreeMap<>();
+    jdbcTemplate.query(
+        CHUNK_QUERY,
+        rs -> {
+          long id = rs.getLong("id");
+          AccountCurrency currency = currencyRegistry.byId(rs.getInt("account_currency"));
+          long credit = interest(currency, rs.getLong("balance"));
+          ids.add(id);
+          if (credit > 0) {
+            credits.add(id);
+            credits.add(credit);
+            owners.add(rs.getLong("user_id"));
+            interest.merge(currency, credit, Long::sum);
+          }
+        },
+        lastId.get(0),
+        range.end,
+        chunkSize);
+    if (!credits.isEmpty()) {
+      credit(credits, owners);
+    }
+    int credited = credits.size() / 2;
+    boolean completed = ids.size() < chunkSize;
+    jdbcTemplate.update(
+        "update interest_checkpoints set last_id = ?, accounts = accounts + ?, completed = ?"
+            + " where id = ?",
+        ids.isEmpty() ? lastId.get(0) : ids.get(ids.size() - 1),
+        credited,
+        completed,
+        range.checkpointId);
+    return new Chunk(ids.size(), credited, interest);
+  }
+
+  /** One statement for the whole chunk: the balance updates and their movements. */
+  private void credit(List<Object> credits, List<Long> owners) {
+    int rows = credits.size() / 2;
+    StringBuilder values = new StringBuilder("(?::bigint, ?::bigint)");
+    for (int i = 1; i < rows; i++) {
+      values.append(", (?, ?)");
+    }
+    Object[] args = credits.toArray(new Object[credits.size() + 2]);
+    args[credits.size()] = AccountMovementType.INTEREST.name();
+    args[credits.size() + 1] = Timestamp.from(Instant.now());
+    jdbcTemplate.update(
+        "with credits(id, interest) as (values " + values + "),"
+            + " credited as (update accounts a"
+            + " set amount = a.amount + c.interest, version = a.version + 1"
+            + " from credits c where a.id = c.id)"
+            + " insert into account_movements (id, account_id, amount, type, created_at)"
+            + " select nextval('account_movement_sequence'), c.id, c.interest, ?, ? from credits c",
+        args);
+    for (int i = 0; i < owners.size(); i++) {
+      cacheInvalidationBus.accountChanged(owners.get(i), (Long) credits.get(2 * i));
+    }
+  }
+
+  /** A day's interest in minor units, rounded down; negative balances earn nothing. */
+  private long interest(AccountCurrency currency, long balance) {
+    BigDecimal dailyRate = dailyRates.get(currency.getCode());
+    if (dailyRate == null || balance <= 0) {
+      return 0;
+    }
+    return BigDecimal.valueOf(balance)
+        .multiply(dailyRate)
+        .setScale(0, RoundingMode.DOWN)
+        .longValueExact();
+  }
+
+  private static class Range {
+    private final int shard;
+    private final long checkpointId;
+    private final long end;
+    private final boolean completed;
+
+    private Range(int shard, long checkpointId, long end, boolean completed) {
+      this.shard = shard;
+      this.checkpointId = checkpointId;
+      this.end = end;
+      this.completed = completed;
+    }
+  }
+
+  private static class Chunk {
+    private final int rows;
+    private final int credited;
+    private final Map<AccountCurrency, Long> interest;
+
+    private Chunk(int rows, int credited, Map<AccountCurrency, Long> interest) {
+      this.rows = rows;
+      this.credited = credited;
+      this.interest = interest;
+    }
+  }
+
+  private static class Progress {
+    private final AtomicInteger chunks = new AtomicInteger();
+    private final AtomicLong accounts = new AtomicLong();
+    private final Map<AccountCurrency, Long> interest = new TreeMap<>();
+
+    private void add(Chunk chunk) {
+      chunks.incrementAndGet();
+      accounts.addAndGet(chunk.credited);
+      synchronized (interest) {
+        chunk.interest.forEach((currency, amount) -> interest.merge(currency, amount, Long::sum));
+      }
+    }
+
+    private Map<AccountCurrency, Long> interest() {
+      synchronized (interest) {
+        return new TreeMap<>(interest);
+      }
+    }
+  }
+}
@@ -0,0 +1,71 @@
+package com.skypro.simplebanking.service;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Payload of one invalidation notification: {@code node:sequence:key,key,...}. Keys are {@code
+ * a<accountId>}, {@code p<userId>} (a profile), {@code u<url-encoded username>} or {@code *} for
+ * "flush everything"; receivers skip keys they do not know. Sequence
+ * numbers count up by one per node, so a receiver that sees a jump knows it missed messages.
+ */
+record InvalidationMessage(String node, long sequence, List<String> keys) {
+  static final String FLUSH_ALL = "*";
+
+  static String accountKey(long accountId) {
+    return "a" + accountId;
+  }
+
+  static String profileKey(long userId) {
+    return "p" + userId;
+  }
+
+  static String userKey(String username) {
+    return "u" + URLEncoder.encode(username, StandardCharsets.UTF_8);
+  }
+
+  static boolean isAccountKey(String key) {
+    return key.startsWith("a");
+  }
+
+  static long accountId(String key) {
+    return Long.parseLong(key.substring(1));
+  }
+
+  static boolean isProfileKey(String key) {
+    return key.startsWith("p");
+  }
+
+  static long userId(String key) {
+    return Long.parseLong(key.substring(1));
+  }
+
+  static boolean isUserKey(String key) {
+    return key.startsWith("u");
+  }
+
+  static String username(String key) {
+    return URLDecoder.decode(key.substring(1), StandardCharsets.UTF_8);
+  }
+
+  /** Returns {@code null} for a payload this version cannot read. */
+  static InvalidationMessage parse(String payload) {
+    String[] parts = payload.split(":", 3);
+    if (parts.length != 3 || parts[0].isEmpty()) {
+      return null;
+    }
+    try {
+      List<String> keys = parts[2].isEmpty() ? List.of() : Arrays.asList(parts[2].split(","));
+      return new InvalidationMessage(parts[0], Long.parseLong(parts[1]), keys);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  String encode() {
+    return node + ":" + sequence + ":" + String.join(",", keys);
+  }
+}
@@ -0,0 +1,123 @@
+package com.skypro.simplebanking.service;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache that never keeps a value loaded before an eviction it raced with. Every
+ * eviction leaves a tombstone stamped from a global clock, and a load only keeps its value if the
+ * key's stamp did not move while it ran, so evicting one key leaves loads of other keys alone. A key
+ * without an entry is stamped with the floor, the newest stamp ever dropped from the map, so a
+ * tombstone can be dropped without letting a stale load in. Bounded by dropping a few entries per
+ * insert when full.
+ */
+class LocalCache<K, V> {
+  private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+  private final AtomicLong clock = new AtomicLong();
+  private final AtomicLong floor = new AtomicLong();
+  private final int maxEntries;
+  private final long timeToLiveNanos;
+
+  LocalCache(int maxEntries, long timeToLiveNanos) {
+    this.maxEntries = maxEntries;
+    this.timeToLiveNanos = timeToLiveNanos;
+  }
+
+  V get(K key, Supplier<V> loader) {
+    long now = System.nanoTime();
+    V cached = peek(key, now);
+    if (cached != null) {
+      return cached;
+    }
+    long loadedGeneration = generation(key);
+    V value = loader.get();
+    if (value != null) {
+      keep(key, value, loadedGeneration, now);
+    }
+    return value;
+  }
+
+  /** The cached value, or {@code null} if there is none; never loads. */
+  V peek(K key) {
+    return peek(key, System.nanoTime());
+  }
+
+  /** Taken before loading a value for the key that is then passed to {@link #putIfCurrent}. */
+  long generation(K key) {
+    return stamp(entries.get(key));
+  }
+
+  /** Keeps a value loaded since {@code loadedGeneration} unless an eviction of the key raced it. */
+  void putIfCurrent(K key, V value, long loadedGeneration) {
+    keep(key, value, loadedGeneration, System.nanoTime());
+  }
+
+  private V peek(K key, long now) {
+    Entry<V> cached = entries.get(key);
+    if (cached != null && cached.value != null && now - cached.loadedAt < timeToLiveNanos) {
+      return cached.value;
+    }
+    return null;
+  }
+
+  private long stamp(Entry<V> entry) {
+    return entry != null ? entry.stamp : floor.get();
+  }
+
+  private void keep(K key, V value, long loadedGeneration, long loadedAt) {
+    if (!entries.containsKey(key)) {
+      makeRoom();
+    }
+    entries.compute(
+        key,
+        (k, current) ->
+            stamp(current) == loadedGeneration
+                ? new Entry<>(value, loadedAt, loadedGeneration)
+                : current);
+  }
+
+  /** Drops entries in map order until one more fits, raising the floor to what they were. */
+  private void makeRoom() {
+    int excess = entries.size() - maxEntries + 1;
+    Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+    while (excess > 0 && iterator.hasNext()) {
+      Map.Entry<K, Entry<V>> victim = iterator.next();
+      if (entries.remove(victim.getKey(), victim.getValue())) {
+        floor.accumulateAndGet(victim.getValue().stamp, Math::max);
+        excess--;
+      }
+    }
+  }
+
+  void evict(K key) {
+    Entry<V> tombstone = new Entry<>(null, System.nanoTime(), clock.incrementAndGet());
+    if (entries.put(key, tombstone) == null && entries.size() > maxEntries) {
+      makeRoom();
+    }
+  }
+
+  void evictAll() {
+    floor.accumulateAndGet(clock.incrementAndGet(), Math::max);
+    entries.clear();
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  /** A cached value, or a tombstone when {@code value} is {@code null}. */
+  private static final class Entry<V> {
+    private final V value;
+    private final long loadedAt;
+    private final long stamp;
+
+    private Entry(V value, long loadedAt, long stamp) {
+      this.value = value;
+      this.loadedAt = loadedAt;
+      this.stamp = stamp;
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package com.skypro.simplebanking.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/** Common fields of the money path flight recorder events. Account ids are 0 when unknown. */
+@Category({"Simple Banking", "Money"})
+@StackTrace(false)
+public abstract class MoneyOperationEvent extends Event {
+  @Label("User Id")
+  long userId;
+
+  @Label("Account Id")
+  long accountId;
+
+  @Label("Amount")
+  long amount;
+
+  @Label("Outcome")
+  @Description("SUCCEEDED, or the kind of rejection or failure")
+  String outcome;
+
+  @Label("Database Time")
+  @Description("Time spent acquiring connections and executing statements")
+  @Timespan(Timespan.NANOSECONDS)
+  long dbTime;
+}
@@ -0,0 +1,90 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.DbTimeListener;
+import com.skypro.simplebanking.dto.AuditOutcome;
+import com.skypro.simplebanking.dto.TransferRequest;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Emits a flight recorder event for every deposit, withdrawal and transfer request; the legs of a
+ * transfer are not recorded separately. Runs outside the transaction, so the recorded duration and
+ * database time include the commit (and, for deposits, any group-commit wait). When the events are
+ * not enabled in any recording the only cost is one {@code isEnabled} check.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MoneyPathRecorder {
+
+  @Around("execution(* com.skypro.simplebanking.service.DepositCoalescer.deposit(long, Long, long))")
+  public Object recordDeposit(ProceedingJoinPoint joinPoint) throws Throwable {
+    DepositEvent event = new DepositEvent();
+    if (!event.isEnabled()) {
+      return joinPoint.proceed();
+    }
+    Object[] args = joinPoint.getArgs();
+    event.userId = (long) args[0];
+    event.accountId = accountId(args[1]);
+    event.amount = (long) args[2];
+    return record(event, joinPoint);
+  }
+
+  @Around(
+      "execution(* com.skypro.simplebanking.service.AccountService.withdrawFromAccount(long, Long, long))")
+  public Object recordWithdrawal(ProceedingJoinPoint joinPoint) throws Throwable {
+    WithdrawalEvent event = new WithdrawalEvent();
+    if (!event.isEnabled()) {
+      return joinPoint.proceed();
+    }
+    Object[] args = joinPoint.getArgs();
+    event.userId = (long) args[0];
+    event.accountId = accountId(args[1]);
+    event.amount = (long) args[2];
+    return record(event, joinPoint);
+  }
+
+  @Around("execution(* com.skypro.simplebanking.service.TransferService.transfer(long, ..))")
+  public Object recordTransfer(ProceedingJoinPoint joinPoint) throws Throwable {
+    TransferEvent event = new TransferEvent();
+    if (!event.isEnabled()) {
+      return joinPoint.proceed();
+    }
+    Object[] args = joinPoint.getArgs();
+    TransferRequest transferRequest = (TransferRequest) args[1];
+    event.userId = (long) args[0];
+    event.accountId = transferRequest.getFromAccountId();
+    event.amount = transferRequest.getAmount();
+    event.toUserId = transferRequest.getToUserId();
+    event.toAccountId = transferRequest.getToAccountId();
+    return record(event, joinPoint);
+  }
+
+  private static Object record(MoneyOperationEvent event, ProceedingJoinPoint joinPoint)
+      throws Throwable {
+    long dbTimeBefore = DbTimeListener.currentThreadNanos();
+    event.begin();
+    try {
+      Object result = joinPoint.proceed();
+      event.outcome = AuditOutcome.SUCCEEDED.name();
+      return result;
+    } catch (RuntimeException e) {
+      event.outcome = AuditOutcome.of(e).name();
+      throw e;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.dbTime = DbTimeListener.currentThreadNanos() - dbTimeBefore;
+        event.commit();
+      }
+    }
+  }
+
+  private static long accountId(Object accountId) {
+    return accountId == null ? 0 : (Long) accountId;
+  }
+}
@@ -0,0 +1,220 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.BalanceMismatch;
+import com.skypro.simplebanking.dto.CurrencyChecksum;
+import com.skypro.simplebanking.dto.ReconciliationReport;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+/**
+ * Checks every account balance (including its stripes) against the sum of its movements. The id
+ * space of each shard is split into keyset ranges on a fork-join pool; each range is checked by a
+ * single statement, so balances and movements are read from one snapshot and concurrent transfers
+ * never show up as mismatches. Plain MVCC reads take no locks that OLTP traffic could wait on, and
+ * memory stays bounded by the range size and the mismatch limit regardless of table size. Accounts
+ * of archived users are checked like the others.
+ */
+@Service
+public class ReconciliationService {
+  private static final String RANGE_QUERY =
+      "select least((select min(id) from accounts), (select min(id) from archived_accounts),"
+          + " (select min(account_id) from account_movements)),"
+          + " greatest((select max(id) from accounts), (select max(id) from archived_accounts),"
+          + " (select max(account_id) from account_movements))";
+  private static final String CHUNK_QUERY =
+      "select coalesce(a.id, m.account_id) as id, a.account_currency,"
+          + " a.amount + coalesce(s.total, 0) as balance, coalesce(m.total, 0) as movements"
+          + " from (select id, account_currency, coalesce(amount, 0) as amount from accounts"
+          + " where id >= ? and id < ?"
+          + " union all select id, account_currency, amount from archived_accounts"
+          + " where id >= ? and id < ?) a"
+          + " left join (select account_id, sum(amount) as total from account_stripes"
+          + " where account_id >= ? and account_id < ? group by account_id) s"
+          + " on s.account_id = a.id"
+          + " full join (select account_id, sum(amount) as total from account_movements"
+          + " where account_id >= ? and account_id < ? group by account_id) m"
+          + " on m.account_id = a.id";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ShardRouter shardRouter;
+  private final CurrencyRegistry currencyRegistry;
+
+  public ReconciliationService(
+      JdbcTemplate jdbcTemplate, ShardRouter shardRouter, CurrencyRegistry currencyRegistry) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.shardRouter = shardRouter;
+    this.currencyRegistry = currencyRegistry;
+  }
+
+  public ReconciliationReport reconcile(int parallelism, long chunkSize, int maxMismatches) {
+    if (parallelism < 1 || chunkSize < 1 || maxMismatches < 0) {
+      throw new InvalidRequestException(
+          "Parallelism and chunk size should be positive, mismatch limit non-negative");
+    }
+    long start = System.currentTimeMillis();
+    Mismatches mismatches = new Mismatches(maxMismatches);
+    Tally total = new Tally();
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    try {
+      for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+        int current = shard;
+        long[] range =
+            shardRouter.onShard(
+                shard,
+                () ->
+                    jdbcTemplate.queryForObject(
+                        RANGE_QUERY, (rs, rowNum) -> new long[] {rs.getLong(1), rs.getLong(2)}));
+        if (range[0] == 0 && range[1] == 0) {
+          continue;
+        }
+        total.merge(
+            pool.invoke(new RangeTask(current, range[0], range[1] + 1, chunkSize, mismatches)));
+      }
+    } finally {
+      pool.shutdown();
+    }
+    return new ReconciliationReport(
+        total.accounts,
+        total.chunks,
+        System.currentTimeMillis() - start,
+        total.checksums(),
+        mismatches.count.get(),
+        mismatches.list());
+  }
+
+  private Tally scan(int shard, long from, long to, Mismatches mismatches) {
+    Tally tally = new Tally();
+    tally.chunks = 1;
+    RowCallbackHandler handler = rs -> tally.add(rs, mismatches, currencyRegistry);
+    shardRouter.onShard(
+        shard,
+        () -> jdbcTemplate.query(CHUNK_QUERY, handler, from, to, from, to, from, to, from, to));
+    return tally;
+  }
+
+  private class RangeTask extends RecursiveTask<Tally> {
+    private final int shard;
+    private final long from;
+    private final long to;
+    private final long chunkSize;
+    private final Mismatches mismatches;
+
+    private RangeTask(int shard, long from, long to, long chunkSize, Mismatches mismatches) {
+      this.shard = shard;
+      this.from = from;
+      this.to = to;
+      this.chunkSize = chunkSize;
+      this.mismatches = mismatches;
+    }
+
+    @Override
+    protected Tally compute() {
+      if (to - from <= chunkSize) {
+        return scan(shard, from, to, mismatches);
+      }
+      long middle = from + (to - from) / 2;
+      RangeTask lower = new RangeTask(shard, from, middle, chunkSize, mismatches);
+      lower.fork();
+      Tally tally = new RangeTask(shard, middle, to, chunkSize, mismatches).compute();
+      tally.merge(lower.join());
+      return tally;
+    }
+  }
+
+  private static class Tally {
+    private final Map<AccountCurrency, long[]> currencies = new TreeMap<>();
+    private long accounts;
+    private int chunks;
+
+    private void add(ResultSet rs, Mismatches mismatches, CurrencyRegistry currencyRegistry)
+        throws SQLException {
+      long id = rs.getLong("id");
+      int currencyId = rs.getInt("account_currency");
+      AccountCurrency currency = rs.wasNull() ? null : currencyRegistry.byId(currencyId);
+      long balance = rs.getLong("balance");
+      boolean accountExists = !rs.wasNull();
+      long movements = rs.getLong("movements");
+      if (!accountExists || balance != movements) {
+        mismatches.add(
+            new BalanceMismatch(id, currency, accountExists ? balance : null, movements));
+      }
+      if (currency == null) {
+        return;
+      }
+      accounts++;
+      long[] sums = currencies.computeIfAbsent(currency, c -> new long[5]);
+      sums[0]++;
+      sums[1] += balance;
+      sums[2] += movements;
+      sums[3] += checksum(id, balance);
+      sums[4] += checksum(id, movements);
+    }
+
+    private void merge(Tally other) {
+      accounts += other.accounts;
+      chunks += other.chunks;
+      other.currencies.forEach(
+          (currency, sums) -> {
+            long[] target = currencies.computeIfAbsent(currency, c -> new long[5]);
+            for (int i = 0; i < target.length; i++) {
+              target[i] += sums[i];
+            }
+          });
+    }
+
+    private List<CurrencyChecksum> checksums() {
+      List<CurrencyChecksum> checksums = new ArrayList<>();
+      currencies.forEach(
+          (currency, sums) ->
+              checksums.add(
+                  new CurrencyChecksum(currency, sums[0], sums[1], sums[2], sums[3], sums[4])));
+      return checksums;
+    }
+
+    /** A well-mixed hash of the pair, summed so that the result does not depend on scan order. */
+    private static long checksum(long id, long amount) {
+      long h = id * 0x9E3779B97F4A7C15L + amount;
+      h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+      h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+      return h ^ (h >>> 31);
+    }
+  }
+
+  private static class Mismatches {
+    private final int limit;
+    private final List<BalanceMismatch> found = new ArrayList<>();
+    private final AtomicLong count = new AtomicLong();
+
+    private Mismatches(int limit) {
+      this.limit = limit;
+    }
+
+    private void add(BalanceMismatch mismatch) {
+      count.incrementAndGet();
+      synchronized (found) {
+        if (found.size() < limit) {
+          found.add(mismatch);
+        }
+      }
+    }
+
+    private List<BalanceMismatch> list() {
+      synchronized (found) {
+        return List.copyOf(found);
+      }
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.RequestTimings;
+import com.skypro.simplebanking.dto.PhaseTimings;
+import com.skypro.simplebanking.dto.TimingPhase;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.stereotype.Service;
+
+/**
+ * Per-phase latency histograms of the sampled requests since startup. Buckets are log-linear over
+ * microseconds (eight buckets per power of two, so percentiles are within 12.5%), recording is
+ * lock-free and a histogram is a fixed 4 KB, so it can stay on indefinitely.
+ */
+@Service
+public class RequestTimingHistograms {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final Histogram[] histograms = new Histogram[TimingPhase.values().length];
+
+  public RequestTimingHistograms() {
+    for (int i = 0; i < histograms.length; i++) {
+      histograms[i] = new Histogram();
+    }
+  }
+
+  public void record(RequestTimings timings) {
+    for (TimingPhase phase : TimingPhase.values()) {
+      if (timings.isMeasured(phase)) {
+        histograms[phase.ordinal()].record(timings.getNanos(phase) / 1_000);
+      }
+    }
+  }
+
+  public List<PhaseTimings> snapshot() {
+    List<PhaseTimings> snapshot = new ArrayList<>(histograms.length);
+    for (TimingPhase phase : TimingPhase.values()) {
+      snapshot.add(histograms[phase.ordinal()].snapshot(phase));
+    }
+    return snapshot;
+  }
+
+  static int bucketOf(long micros) {
+    if (micros < SUB_BUCKETS) {
+      return (int) micros;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+  }
+
+  /** The largest value that falls into the bucket. */
+  static long upperBoundOf(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+  private static class Histogram {
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong max = new AtomicLong();
+
+    private void record(long micros) {
+      counts.incrementAndGet(bucketOf(micros));
+      max.accumulateAndGet(micros, Math::max);
+    }
+
+    private PhaseTimings snapshot(TimingPhase phase) {
+      long[] copy = new long[BUCKETS];
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        copy[i] = counts.get(i);
+        total += copy[i];
+      }
+      long maxMicros = max.get();
+      return new PhaseTimings(
+          phase,
+          total,
+          Math.min(percentile(copy, total, 0.50), maxMicros),
+          Math.min(percentile(copy, total, 0.90), maxMicros),
+          Math.min(percentile(copy, total, 0.99), maxMicros),
+          maxMicros);
+    }
+
+    private static long percentile(long[] counts, long total, double quantile) {
+      long rank = (long) Math.ceil(total * quantile);
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank && seen > 0) {
+          return upperBoundOf(i);
+        }
+      }
+      return 0;
+    }
+  }
+}
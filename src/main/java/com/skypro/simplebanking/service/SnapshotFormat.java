@@ -0,0 +1,169 @@
+package com.skypro.simplebanking.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * On-disk layout of a balance snapshot: a header, then per shard the shard's users followed by its
+ * accounts, each in ascending id order. All numbers are big-endian.
+ *
+ * <pre>
+ * header   0 magic  4 version  8 shard count  12 reserved  16 created at (epoch millis)
+ *         24 users  32 accounts  40 reserved  60 CRC32C of the rest of the header
+ *         64 per shard: users, accounts (16 bytes each)
+ * user     0 id  8 username length  10 password length  12 username, then password (240 bytes)
+ *        252 CRC32C of bytes 0..251
+ * account  0 id  8 user id  16 balance  24 currency id  28 CRC32C of bytes 0..27
+ * </pre>
+ *
+ * Records have a fixed width, so any range of them can be located, mapped and checked on its own.
+ * Account balances include their stripes.
+ */
+final class SnapshotFormat {
+  static final int USER_SIZE = 256;
+  static final int ACCOUNT_SIZE = 32;
+  private static final int MAGIC = 0x42534E50;
+  private static final int VERSION = 1;
+  private static final int HEADER_CRC_OFFSET = 60;
+  private static final int SHARD_TABLE_OFFSET = 64;
+  private static final int SHARD_ENTRY_SIZE = 16;
+  private static final int USER_TEXT_OFFSET = 12;
+  private static final int USER_TEXT_SIZE = 240;
+  private static final int USER_CRC_OFFSET = 252;
+  private static final int ACCOUNT_CRC_OFFSET = 28;
+
+  private SnapshotFormat() {}
+
+  static int headerSize(int shardCount) {
+    return SHARD_TABLE_OFFSET + shardCount * SHARD_ENTRY_SIZE;
+  }
+
+  static void writeHeader(ByteBuffer buffer, long createdAt, long[] users, long[] accounts) {
+    buffer.putInt(0, MAGIC);
+    buffer.putInt(4, VERSION);
+    buffer.putInt(8, users.length);
+    buffer.putInt(12, 0);
+    buffer.putLong(16, createdAt);
+    long totalUsers = 0;
+    long totalAccounts = 0;
+    for (int shard = 0; shard < users.length; shard++) {
+      buffer.putLong(SHARD_TABLE_OFFSET + shard * SHARD_ENTRY_SIZE, users[shard]);
+      buffer.putLong(SHARD_TABLE_OFFSET + shard * SHARD_ENTRY_SIZE + 8, accounts[shard]);
+      totalUsers += users[shard];
+      totalAccounts += accounts[shard];
+    }
+    buffer.putLong(24, totalUsers);
+    buffer.putLong(32, totalAccounts);
+    for (int offset = 40; offset < HEADER_CRC_OFFSET; offset += 4) {
+      buffer.putInt(offset, 0);
+    }
+    buffer.putInt(HEADER_CRC_OFFSET, headerCrc(buffer, users.length));
+  }
+
+  /** Returns the shard count stored in a valid header; fails on anything else. */
+  static int readShardCount(ByteBuffer buffer) {
+    if (buffer.capacity() < SHARD_TABLE_OFFSET || buffer.getInt(0) != MAGIC) {
+      throw new IllegalStateException("Not a balance snapshot");
+    }
+    if (buffer.getInt(4) != VERSION) {
+      throw new IllegalStateException("Unsupported snapshot version " + buffer.getInt(4));
+    }
+    return buffer.getInt(8);
+  }
+
+  /** Checks the header checksum; {@code buffer} must hold the whole header. */
+  static void verifyHeader(ByteBuffer buffer, int shardCount) {
+    if (buffer.getInt(HEADER_CRC_OFFSET) != headerCrc(buffer, shardCount)) {
+      throw new IllegalStateException("Snapshot header is corrupt");
+    }
+  }
+
+  static long users(ByteBuffer buffer, int shard) {
+    return buffer.getLong(SHARD_TABLE_OFFSET + shard * SHARD_ENTRY_SIZE);
+  }
+
+  static long accounts(ByteBuffer buffer, int shard) {
+    return buffer.getLong(SHARD_TABLE_OFFSET + shard * SHARD_ENTRY_SIZE + 8);
+  }
+
+  static void writeUser(ByteBuffer buffer, int offset, long id, String username, String password) {
+    byte[] name = username.getBytes(StandardCharsets.UTF_8);
+    byte[] hash = password.getBytes(StandardCharsets.UTF_8);
+    if (name.length + hash.length > USER_TEXT_SIZE) {
+      throw new IllegalStateException("User " + id + " does not fit in a snapshot record");
+    }
+    buffer.putLong(offset, id);
+    buffer.putShort(offset + 8, (short) name.length);
+    buffer.putShort(offset + 10, (short) hash.length);
+    buffer.put(offset + USER_TEXT_OFFSET, name);
+    buffer.put(offset + USER_TEXT_OFFSET + name.length, hash);
+    for (int i = offset + USER_TEXT_OFFSET + name.length + hash.length;
+        i < offset + USER_CRC_OFFSET;
+        i++) {
+      buffer.put(i, (byte) 0);
+    }
+    buffer.putInt(offset + USER_CRC_OFFSET, crc(buffer, offset, USER_CRC_OFFSET));
+  }
+
+  static void writeAccount(
+      ByteBuffer buffer, int offset, long id, long userId, long balance, int currency) {
+    buffer.putLong(offset, id);
+    buffer.putLong(offset + 8, userId);
+    buffer.putLong(offset + 16, balance);
+    buffer.putInt(offset + 24, currency);
+    buffer.putInt(offset + ACCOUNT_CRC_OFFSET, crc(buffer, offset, ACCOUNT_CRC_OFFSET));
+  }
+
+  static boolean isValidUser(ByteBuffer buffer, int offset) {
+    int textLength = usernameLength(buffer, offset) + passwordLength(buffer, offset);
+    return textLength <= USER_TEXT_SIZE
+        && buffer.getInt(offset + USER_CRC_OFFSET) == crc(buffer, offset, USER_CRC_OFFSET);
+  }
+
+  static boolean isValidAccount(ByteBuffer buffer, int offset) {
+    return buffer.getInt(offset + ACCOUNT_CRC_OFFSET) == crc(buffer, offset, ACCOUNT_CRC_OFFSET);
+  }
+
+  static long id(ByteBuffer buffer, int offset) {
+    return buffer.getLong(offset);
+  }
+
+  static int usernameLength(ByteBuffer buffer, int offset) {
+    return Short.toUnsignedInt(buffer.getShort(offset + 8));
+  }
+
+  static int passwordLength(ByteBuffer buffer, int offset) {
+    return Short.toUnsignedInt(buffer.getShort(offset + 10));
+  }
+
+  /** Offset of the UTF-8 username; the password follows it directly. */
+  static int usernameOffset(int offset) {
+    return offset + USER_TEXT_OFFSET;
+  }
+
+  static long userId(ByteBuffer buffer, int offset) {
+    return buffer.getLong(offset + 8);
+  }
+
+  static long balance(ByteBuffer buffer, int offset) {
+    return buffer.getLong(offset + 16);
+  }
+
+  static int currency(ByteBuffer buffer, int offset) {
+    return buffer.getInt(offset + 24);
+  }
+
+  private static int headerCrc(ByteBuffer buffer, int shardCount) {
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(0, HEADER_CRC_OFFSET));
+    crc.update(buffer.slice(SHARD_TABLE_OFFSET, shardCount * SHARD_ENTRY_SIZE));
+    return (int) crc.getValue();
+  }
+
+  private static int crc(ByteBuffer buffer, int offset, int length) {
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(offset, length));
+    return (int) crc.getValue();
+  }
+}
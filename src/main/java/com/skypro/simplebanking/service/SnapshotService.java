@@ -0,0 +1,459 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.configuration.SnapshotProperties;
+import com.skypro.simplebanking.dto.SnapshotReport;
+import com.skypro.simplebanking.entity.AccountMovementType;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Exports all users and accounts into a checksummed file of fixed-width records ({@link
+ * SnapshotFormat}) and restores such a file into empty tables, e.g. to rebuild a staging
+ * environment from production.
+ *
+ * <p>The export reads each shard in one repeatable-read, read-only transaction, so users and
+ * balances come from one snapshot, and streams the rows with a cursor. The restore maps the file
+ * chunk by chunk, verifies every record and loads the chunks with {@code COPY ... (FORMAT binary)}
+ * on a pool of workers, users first because accounts refer to them. Every restored account gets an
+ * opening movement for its balance, which keeps the ledger reconcilable, and the id sequences are
+ * moved past the restored ids. Archived users are exported with the others and restored into the
+ * hot tables. A failed restore leaves the chunks it loaded in place; empty the tables before
+ * retrying.
+ */
+@Service
+public class SnapshotService {
+  private static final String PREFIX = "snapshot-";
+  private static final String SUFFIX = ".bin";
+  private static final byte[] COPY_SIGNATURE = {
+    'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xFF, '\r', '\n', 0
+  };
+  /** Signature, flags and header extension length. */
+  private static final int COPY_HEADER_SIZE = COPY_SIGNATURE.length + 8;
+  /** Field count, then length and value of id, username (at most 240 bytes) and password. */
+  private static final int COPY_USER_SIZE = 2 + 12 + 4 + 4 + 240;
+  /** Field count, then length and value of id, user id, currency and amount. */
+  private static final int COPY_ACCOUNT_SIZE = 2 + 12 + 12 + 8 + 12;
+  private static final int WRITE_BUFFER_RECORDS = 4096;
+  private static final String USERS_QUERY =
+      "select id, username, password from users"
+          + " union all select id, username, password from archived_users order by id";
+  private static final String ACCOUNTS_QUERY =
+      "select a.id, a.user_id, a.account_currency, coalesce(a.amount, 0) + coalesce(s.total, 0)"
+          + " from accounts a left join (select account_id, sum(amount) as total"
+          + " from account_stripes group by account_id) s on s.account_id = a.id"
+          + " union all select id, user_id, account_currency, amount from archived_accounts"
+          + " order by 1";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final JdbcTemplate cursorJdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final TransactionTemplate snapshotTransactionTemplate;
+  private final ShardRouter shardRouter;
+  private final SnapshotProperties snapshotProperties;
+
+  public SnapshotService(
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      ShardRouter shardRouter,
+      SnapshotProperties snapshotProperties) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.cursorJdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+    this.cursorJdbcTemplate.setFetchSize(snapshotProperties.getFetchSize());
+    this.transactionTemplate = transactionTemplate;
+    this.snapshotTransactionTemplate =
+        new TransactionTemplate(transactionTemplate.getTransactionManager());
+    this.snapshotTransactionTemplate.setIsolationLevel(
+        TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    this.snapshotTransactionTemplate.setReadOnly(true);
+    this.shardRouter = shardRouter;
+    this.snapshotProperties = snapshotProperties;
+  }
+
+  public SnapshotReport export() {
+    long start = System.currentTimeMillis();
+    int shardCount = shardRouter.getShardCount();
+    long[] users = new long[shardCount];
+    long[] accounts = new long[shardCount];
+    Path directory = snapshotProperties.getDirectory();
+    String name = PREFIX + start + SUFFIX;
+    Path temporary = directory.resolve(name + ".tmp");
+    try {
+      Files.createDirectories(directory);
+      try (FileChannel channel =
+          FileChannel.open(
+              temporary, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+        channel.position(SnapshotFormat.headerSize(shardCount));
+        RecordWriter writer = new RecordWriter(channel);
+        for (int shard = 0; shard < shardCount; shard++) {
+          int current = shard;
+          shardRouter.onShard(
+              shard,
+              () ->
+                  snapshotTransactionTemplate.executeWithoutResult(
+                      status -> {
+                        users[current] = exportUsers(writer);
+                        accounts[current] = exportAccounts(writer);
+                      }));
+        }
+        writer.flush();
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.headerSize(shardCount));
+        SnapshotFormat.writeHeader(header, start, users, accounts);
+        channel.write(header, 0);
+        channel.force(true);
+      }
+      Files.move(temporary, directory.resolve(name), StandardCopyOption.ATOMIC_MOVE);
+      return new SnapshotReport(
+          name,
+          sum(users),
+          sum(accounts),
+          Files.size(directory.resolve(name)),
+          System.currentTimeMillis() - start);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      try {
+        Files.deleteIfExists(temporary);
+      } catch (IOException e) {
+        // Only left behind after a failed export.
+      }
+    }
+  }
+
+  /** Restores a snapshot from the snapshot directory into empty {@code users} and accounts. */
+  public SnapshotReport restore(String name) {
+    if (!name.startsWith(PREFIX)
+        || !name.endsWith(SUFFIX)
+        || name.contains("/")
+        || name.contains("\\")) {
+      throw new InvalidRequestException("Not a snapshot file name: " + name);
+    }
+    long start = System.currentTimeMillis();
+    Path file = snapshotProperties.getDirectory().resolve(name);
+    try (FileChannel channel = FileChannel.open(file)) {
+      int shardCount =
+          SnapshotFormat.readShardCount(
+              channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(64, channel.size())));
+      long headerSize = SnapshotFormat.headerSize(shardCount);
+      if (channel.size() < headerSize) {
+        throw new IllegalStateException("Snapshot header is truncated");
+      }
+      MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerSize);
+      SnapshotFormat.verifyHeader(header, shardCount);
+
+      List<Chunk> userChunks = new ArrayList<>();
+      List<Chunk> accountChunks = new ArrayList<>();
+      List<Integer> targetShards = new ArrayList<>();
+      long offset = headerSize;
+      long users = 0;
+      long accounts = 0;
+      for (int shard = 0; shard < shardCount; shard++) {
+        long shardUsers = SnapshotFormat.users(header, shard);
+        long shardAccounts = SnapshotFormat.accounts(header, shard);
+        if (shardUsers + shardAccounts > 0) {
+          int target = targetShard(shard);
+          targetShards.add(target);
+          offset = split(target, offset, shardUsers, SnapshotFormat.USER_SIZE, userChunks);
+          offset =
+              split(target, offset, shardAccounts, SnapshotFormat.ACCOUNT_SIZE, accountChunks);
+        }
+        users += shardUsers;
+        accounts += shardAccounts;
+      }
+      if (channel.size() != offset) {
+        throw new IllegalStateException(
+            "Snapshot should be " + offset + " bytes but is " + channel.size());
+      }
+      for (int shard : targetShards) {
+        shardRouter.onShard(shard, this::checkEmpty);
+      }
+      runAll(userChunks, chunk -> loadUsers(channel, chunk));
+      runAll(accountChunks, chunk -> loadAccounts(channel, chunk));
+      for (int shard : targetShards) {
+        shardRouter.onShard(shard, this::finishRestore);
+      }
+      return new SnapshotReport(
+          name, users, accounts, channel.size(), System.currentTimeMillis() - start);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private long exportUsers(RecordWriter writer) {
+    long[] count = {0};
+    cursorJdbcTemplate.query(
+        USERS_QUERY,
+        row -> {
+          ByteBuffer buffer = writer.next(SnapshotFormat.USER_SIZE);
+          SnapshotFormat.writeUser(
+              buffer,
+              buffer.position(),
+              row.getLong(1),
+              row.getString(2),
+              row.getString(3));
+          writer.advance(SnapshotFormat.USER_SIZE);
+          count[0]++;
+        });
+    return count[0];
+  }
+
+  private long exportAccounts(RecordWriter writer) {
+    long[] count = {0};
+    cursorJdbcTemplate.query(
+        ACCOUNTS_QUERY,
+        row -> {
+          ByteBuffer buffer = writer.next(SnapshotFormat.ACCOUNT_SIZE);
+          SnapshotFormat.writeAccount(
+              buffer,
+              buffer.position(),
+              row.getLong(1),
+              row.getLong(2),
+              row.getLong(4),
+              row.getInt(3));
+          writer.advance(SnapshotFormat.ACCOUNT_SIZE);
+          count[0]++;
+        });
+    return count[0];
+  }
+
+  /** The shard of this cluster that holds the ids of the snapshot's shard. */
+  private int targetShard(int sourceShard) {
+    int target = shardRouter.shardOfId((long) sourceShard << ShardRouter.SHARD_ID_BITS);
+    if (target >= shardRouter.getShardCount()) {
+      throw new IllegalStateException(
+          "Snapshot has data for shard " + sourceShard + " that this cluster does not have");
+    }
+    return target;
+  }
+
+  private long split(int shard, long offset, long records, int recordSize, List<Chunk> chunks) {
+    int chunkSize = snapshotProperties.getChunkSize();
+    for (long first = 0; first < records; first += chunkSize) {
+      int count = (int) Math.min(chunkSize, records - first);
+      chunks.add(new Chunk(shard, offset + first * recordSize, count));
+    }
+    return offset + records * recordSize;
+  }
+
+  private void checkEmpty() {
+    Boolean empty =
+        jdbcTemplate.queryForObject(
+            "select not exists (select 1 from users) and not exists (select 1 from accounts)"
+                + " and not exists (select 1 from archived_users)",
+            Boolean.class);
+    if (!Boolean.TRUE.equals(empty)) {
+      throw new IllegalStateException("A snapshot can only be restored into empty tables");
+    }
+  }
+
+  private void loadUsers(FileChannel channel, Chunk chunk) {
+    MappedByteBuffer records = map(channel, chunk, SnapshotFormat.USER_SIZE);
+    ByteBuffer copy = copyBuffer(chunk.count * COPY_USER_SIZE);
+    for (int offset = 0; offset < records.capacity(); offset += SnapshotFormat.USER_SIZE) {
+      if (!SnapshotFormat.isValidUser(records, offset)) {
+        throw corrupt(chunk, offset);
+      }
+      int usernameLength = SnapshotFormat.usernameLength(records, offset);
+      int passwordLength = SnapshotFormat.passwordLength(records, offset);
+      int text = SnapshotFormat.usernameOffset(offset);
+      copy.putShort((short) 3);
+      copy.putInt(8).putLong(SnapshotFormat.id(records, offset));
+      copy.putInt(usernameLength).put(records.slice(text, usernameLength));
+      copy.putInt(passwordLength).put(records.slice(text + usernameLength, passwordLength));
+    }
+    shardRouter.onShard(
+        chunk.shard,
+        () -> copyIn("copy users (id, username, password) from stdin (format binary)", copy));
+  }
+
+  /** The chunk's accounts and their opening movements go in one transaction. */
+  private void loadAccounts(FileChannel channel, Chunk chunk) {
+    MappedByteBuffer records = map(channel, chunk, SnapshotFormat.ACCOUNT_SIZE);
+    ByteBuffer copy = copyBuffer(chunk.count * COPY_ACCOUNT_SIZE);
+    for (int offset = 0; offset < records.capacity(); offset += SnapshotFormat.ACCOUNT_SIZE) {
+      if (!SnapshotFormat.isValidAccount(records, offset)) {
+        throw corrupt(chunk, offset);
+      }
+      copy.putShort((short) 4);
+      copy.putInt(8).putLong(SnapshotFormat.id(records, offset));
+      copy.putInt(8).putLong(SnapshotFormat.userId(records, offset));
+      copy.putInt(4).putInt(SnapshotFormat.currency(records, offset));
+      copy.putInt(8).putLong(SnapshotFormat.balance(records, offset));
+    }
+    long firstId = SnapshotFormat.id(records, 0);
+    long lastId = SnapshotFormat.id(records, records.capacity() - SnapshotFormat.ACCOUNT_SIZE);
+    shardRouter.onShard(
+        chunk.shard,
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  copyIn(
+                      "copy accounts (id, user_id, account_currency, amount)"
+                          + " from stdin (format binary)",
+                      copy);
+                  jdbcTemplate.update(
+                      "insert into account_movements (id, account_id, amount, type, created_at)"
+                          + " select nextval('account_movement_sequence'), id, amount, ?, ?"
+                          + " from accounts where id between ? and ?",
+                      AccountMovementType.OPENING.name(),
+                      Timestamp.from(Instant.now()),
+                      firstId,
+                      lastId);
+                }));
+  }
+
+  /** Moves the sequences past the restored ids and refreshes the planner statistics. */
+  private void finishRestore() {
+    jdbcTemplate.execute(
+        "select setval('user_sequence', max(id)) from users having max(id) is not null");
+    jdbcTemplate.execute(
+        "select setval('account_sequence', max(id)) from accounts having max(id) is not null");
+    jdbcTemplate.execute("analyze users");
+    jdbcTemplate.execute("analyze accounts");
+    jdbcTemplate.execute("analyze account_movements");
+  }
+
+  private void copyIn(String sql, ByteBuffer copy) {
+    copy.putShort((short) -1);
+    jdbcTemplate.execute(
+        (ConnectionCallback<Long>)
+            connection -> {
+              try {
+                return connection
+                    .unwrap(PGConnection.class)
+                    .getCopyAPI()
+                    .copyIn(sql, new ByteArrayInputStream(copy.array(), 0, copy.position()));
+              } catch (IOException e) {
+                throw new UncheckedIOException(e);
+              }
+            });
+  }
+
+  private void runAll(List<Chunk> chunks, Consumer<Chunk> loader) {
+    ExecutorService workers = Executors.newFixedThreadPool(snapshotProperties.getWorkers());
+    try {
+      List<Future<Void>> results = new ArrayList<>();
+      for (Chunk chunk : chunks) {
+        Callable<Void> task =
+            () -> {
+              loader.accept(chunk);
+              return null;
+            };
+        results.add(workers.submit(task));
+      }
+      for (Future<Void> result : results) {
+        result.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Snapshot restore interrupted", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Snapshot restore failed", e.getCause());
+    } finally {
+      workers.shutdownNow();
+    }
+  }
+
+  private static MappedByteBuffer map(FileChannel channel, Chunk chunk, int recordSize) {
+    try {
+      return channel.map(
+          FileChannel.MapMode.READ_ONLY, chunk.offset, (long) chunk.count * recordSize);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private static ByteBuffer copyBuffer(int tuplesSize) {
+    ByteBuffer copy = ByteBuffer.allocate(COPY_HEADER_SIZE + tuplesSize + 2);
+    copy.put(COPY_SIGNATURE).putInt(0).putInt(0);
+    return copy;
+  }
+
+  private static IllegalStateException corrupt(Chunk chunk, int offset) {
+    return new IllegalStateException(
+        "Snapshot record at byte " + (chunk.offset + offset) + " is corrupt");
+  }
+
+  private static long sum(long[] values) {
+    long sum = 0;
+    for (long value : values) {
+      sum += value;
+    }
+    return sum;
+  }
+
+  private static class Chunk {
+    private final int shard;
+    private final long offset;
+    private final int count;
+
+    private Chunk(int shard, long offset, int count) {
+      this.shard = shard;
+      this.offset = offset;
+      this.count = count;
+    }
+  }
+
+  /** Fills a buffer with whole records and writes it out when the next one does not fit. */
+  private static class RecordWriter {
+    private final FileChannel channel;
+    private final ByteBuffer buffer =
+        ByteBuffer.allocate(WRITE_BUFFER_RECORDS * SnapshotFormat.USER_SIZE);
+
+    private RecordWriter(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    /** The buffer, positioned where the next record of {@code size} bytes goes. */
+    private ByteBuffer next(int size) {
+      if (buffer.remaining() < size) {
+        flush();
+      }
+      return buffer;
+    }
+
+    private void advance(int size) {
+      buffer.position(buffer.position() + size);
+    }
+
+    private void flush() {
+      buffer.flip();
+      try {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      buffer.clear();
+    }
+  }
+}
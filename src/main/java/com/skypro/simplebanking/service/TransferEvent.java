@@ -0,0 +1,14 @@
+package com.skypro.simplebanking.service;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.skypro.simplebanking.Transfer")
+@Label("Transfer")
+public class TransferEvent extends MoneyOperationEvent {
+  @Label("Recipient User Id")
+  long toUserId;
+
+  @Label("Recipient Account Id")
+  long toAccountId;
+}
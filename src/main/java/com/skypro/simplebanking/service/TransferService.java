@@ -1,27 +1,90 @@
 package com.skypro.simplebanking.service;
 
+import com.skypro.simplebanking.configuration.ShardRouter;
 import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.entity.AccountMovementType;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.transaction.support.TransactionTemplate;
 
+/**
+ * Transfers between accounts on one shard run in a single local transaction on that shard;
+ * transfers to a user on another shard are handed to {@link CrossShardTransferService}.
+ */
 @Service
 public class TransferService {
   private final AccountService accountService;
+  private final CrossShardTransferService crossShardTransferService;
+  private final ShardRouter shardRouter;
+  private final TransactionTemplate transactionTemplate;
 
-  public TransferService(AccountService accountService) {
+  public TransferService(
+      AccountService accountService,
+      CrossShardTransferService crossShardTransferService,
+      ShardRouter shardRouter,
+      TransactionTemplate transactionTemplate) {
     this.accountService = accountService;
+    this.crossShardTransferService = crossShardTransferService;
+    this.shardRouter = shardRouter;
+    this.transactionTemplate = transactionTemplate;
   }
 
-  @Transactional
-  public void transfer(long id, @RequestBody TransferRequest transferRequest) {
+  public void transfer(long id, TransferRequest transferRequest) {
+    if (!shardRouter.isSameShard(id, transferRequest.getToUserId())) {
+      crossShardTransferService.transfer(id, transferRequest);
+      return;
+    }
+    transferBatch(id, List.of(transferRequest));
+  }
+
+  /**
+   * Applies all transfers atomically, so every recipient must be on the sender's shard. All
+   * accounts involved are locked up front, in id order, before any balance changes.
+   */
+  public void transferBatch(long id, List<TransferRequest> transferRequests) {
+    AccountService.checkBatchSize(transferRequests.size());
+    Set<Long> userIds = new HashSet<>();
+    Set<Long> accountIds = new HashSet<>();
+    userIds.add(id);
+    for (TransferRequest transferRequest : transferRequests) {
+      userIds.add(transferRequest.getToUserId());
+      accountIds.add(transferRequest.getFromAccountId());
+      accountIds.add(transferRequest.getToAccountId());
+      if (!shardRouter.isSameShard(id, transferRequest.getToUserId())) {
+        throw new InvalidRequestException(
+            "User "
+                + transferRequest.getToUserId()
+                + " is on another shard and cannot be part of a batch");
+      }
+    }
+    shardRouter.onShard(
+        shardRouter.shardOfId(id),
+        () ->
+            transactionTemplate.executeWithoutResult(
+                status -> {
+                  accountService.lockAccounts(userIds, accountIds);
+                  transferRequests.forEach(request -> transferLocally(id, request));
+                }));
+  }
+
+  private void transferLocally(long id, TransferRequest transferRequest) {
     accountService.validateCurrency(
-        transferRequest.getFromAccountId(), transferRequest.getToAccountId());
+        id,
+        transferRequest.getFromAccountId(),
+        transferRequest.getToUserId(),
+        transferRequest.getToAccountId());
     accountService.withdrawFromAccount(
-        id, transferRequest.getFromAccountId(), transferRequest.getAmount());
+        id,
+        transferRequest.getFromAccountId(),
+        transferRequest.getAmount(),
+        AccountMovementType.TRANSFER_OUT);
     accountService.depositToAccount(
         transferRequest.getToUserId(),
         transferRequest.getToAccountId(),
-        transferRequest.getAmount());
+        transferRequest.getAmount(),
+        AccountMovementType.TRANSFER_IN);
   }
 }
@@ -0,0 +1,165 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.UserSearchMode;
+import com.skypro.simplebanking.dto.UserSearchPage;
+import com.skypro.simplebanking.dto.UserSearchResult;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import com.skypro.simplebanking.repository.UserRepository;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * Username search for admins. Prefix search walks a {@code text_pattern_ops} B-tree index in index
+ * order with keyset pagination, so a page costs the same however deep it is. Fuzzy search walks a
+ * GiST trigram index nearest first, but its keyset condition on the distance cannot be answered by
+ * the index: a page re-reads every match before it, so fuzzy results stop after {@link
+ * #MAX_FUZZY_RESULTS}. With sharding, every shard returns one page and the pages are merged.
+ */
+@Service
+public class UserSearchService {
+  public static final int MAX_LIMIT = 100;
+  public static final int MAX_FUZZY_RESULTS = 1000;
+  private static final Logger log = LoggerFactory.getLogger(UserSearchService.class);
+  /** The order of {@code ~<~}, so pages from several shards merge consistently. */
+  private static final Comparator<String> BYTE_ORDER =
+      Comparator.comparing(
+          username -> username.getBytes(StandardCharsets.UTF_8), Arrays::compareUnsigned);
+
+  private final UserRepository userRepository;
+  private final ShardRouter shardRouter;
+  private final JdbcTemplate jdbcTemplate;
+
+  public UserSearchService(
+      UserRepository userRepository, ShardRouter shardRouter, JdbcTemplate jdbcTemplate) {
+    this.userRepository = userRepository;
+    this.shardRouter = shardRouter;
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  /** Builds the search indexes without blocking writes; a no-op once they exist. */
+  @EventListener(ContextRefreshedEvent.class)
+  public void createSearchIndexes() {
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      shardRouter.onShard(
+          shard,
+          () -> {
+            try {
+              jdbcTemplate.execute("create extension if not exists pg_trgm");
+              jdbcTemplate.execute(
+                  "create index concurrently if not exists users_username_prefix_idx"
+                      + " on users (username text_pattern_ops)");
+              jdbcTemplate.execute(
+                  "create index concurrently if not exists users_username_trgm_idx"
+                      + " on users using gist (username gist_trgm_ops)");
+            } catch (DataAccessException e) {
+              log.warn("Cannot create username search indexes, search will be slow or fail", e);
+            }
+          });
+    }
+  }
+
+  public UserSearchPage search(String query, UserSearchMode mode, String cursor, int limit) {
+    if (query == null || query.isBlank()) {
+      throw new InvalidRequestException("Search query should not be empty");
+    }
+    if (limit < 1 || limit > MAX_LIMIT) {
+      throw new InvalidRequestException("Limit should be between 1 and " + MAX_LIMIT);
+    }
+    Cursor after = Cursor.decode(cursor);
+    int pageLimit =
+        mode == UserSearchMode.FUZZY ? Math.min(limit, MAX_FUZZY_RESULTS - after.returned) : limit;
+    if (pageLimit <= 0) {
+      return new UserSearchPage(List.of(), null);
+    }
+    List<UserSearchResult> users = new ArrayList<>();
+    for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+      users.addAll(
+          shardRouter.onShard(
+              shard,
+              () ->
+                  mode == UserSearchMode.PREFIX
+                      ? userRepository.searchByPrefix(likePrefix(query), after.username, pageLimit)
+                      : userRepository.searchBySimilarity(
+                          query, after.distance, after.username, pageLimit)));
+    }
+    Comparator<UserSearchResult> order =
+        Comparator.comparing(UserSearchResult::getUsername, BYTE_ORDER);
+    if (mode == UserSearchMode.FUZZY) {
+      order = Comparator.comparing(UserSearchResult::getDistance).thenComparing(order);
+    }
+    users.sort(order);
+    if (users.size() > pageLimit) {
+      users = users.subList(0, pageLimit);
+    }
+    int returned = after.returned + users.size();
+    String nextCursor =
+        users.size() < pageLimit || (mode == UserSearchMode.FUZZY && returned >= MAX_FUZZY_RESULTS)
+            ? null
+            : Cursor.encode(users.get(users.size() - 1), returned);
+    return new UserSearchPage(users, nextCursor);
+  }
+
+  private static String likePrefix(String query) {
+    return query.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+  }
+
+  /**
+   * Position after the last returned user: its trigram distance (fuzzy only) and username, and how
+   * many results the earlier pages returned.
+   */
+  private static class Cursor {
+    private static final Cursor START = new Cursor(-1, 0, "");
+
+    private final float distance;
+    private final int returned;
+    private final String username;
+
+    private Cursor(float distance, int returned, String username) {
+      this.distance = distance;
+      this.returned = returned;
+      this.username = username;
+    }
+
+    private static Cursor decode(String cursor) {
+      if (cursor == null || cursor.isEmpty()) {
+        return START;
+      }
+      try {
+        String decoded =
+            new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int first = decoded.indexOf(':');
+        int second = decoded.indexOf(':', first + 1);
+        int returned = Integer.parseInt(decoded.substring(first + 1, second));
+        if (returned < 0) {
+          throw new InvalidRequestException("Invalid cursor");
+        }
+        return new Cursor(
+            Float.parseFloat(decoded.substring(0, first)),
+            returned,
+            decoded.substring(second + 1));
+      } catch (RuntimeException e) {
+        throw new InvalidRequestException("Invalid cursor");
+      }
+    }
+
+    private static String encode(UserSearchResult last, int returned) {
+      float distance = last.getDistance() == null ? -1 : last.getDistance();
+      String cursor = distance + ":" + returned + ":" + last.getUsername();
+      return Base64.getUrlEncoder()
+          .withoutPadding()
+          .encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+  }
+}
@@ -1,66 +1,182 @@
 package com.skypro.simplebanking.service;
 
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.AccountDTO;
 import com.skypro.simplebanking.dto.BankingUserDetails;
+import com.skypro.simplebanking.dto.ListAccountDTO;
 import com.skypro.simplebanking.dto.ListUserDTO;
+import com.skypro.simplebanking.dto.Tagged;
 import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.Account;
 import com.skypro.simplebanking.entity.User;
 import com.skypro.simplebanking.exception.UserAlreadyExistsException;
 import com.skypro.simplebanking.repository.UserRepository;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
+  /**
+   * Inserts the user unless the username is taken, also by an archived user; nothing comes back on
+   * a conflict. Accounts are opened later, one currency at a time, on first use.
+   */
+  private static final String CREATE_USER =
+      "insert into users (id, username, password)"
+          + " select nextval('user_sequence'), ?, ?"
+          + " where not exists (select 1 from archived_users where username = ?)"
+          + " on conflict (username) do nothing returning id";
+  /** Hot and archived users in one statement, each followed by its accounts. */
+  private static final String LIST_USERS =
+      "select u.id, u.username, a.id, a.account_currency"
+          + " from users u left join accounts a on a.user_id = u.id"
+          + " union all select u.id, u.username, a.id, a.account_currency"
+          + " from archived_users u left join archived_accounts a on a.user_id = u.id"
+          + " order by 1, 3";
+
   private final UserRepository userRepository;
   private final AccountService accountService;
   private final PasswordEncoder passwordEncoder;
+  private final ShardRouter shardRouter;
+  private final CacheInvalidationBus cacheInvalidationBus;
+  private final JdbcTemplate jdbcTemplate;
+  private final ArchiveService archiveService;
+  private final CurrencyRegistry currencyRegistry;
 
   public UserService(
       UserRepository userRepository,
       AccountService accountService,
-      PasswordEncoder passwordEncoder) {
+      PasswordEncoder passwordEncoder,
+      ShardRouter shardRouter,
+      CacheInvalidationBus cacheInvalidationBus,
+      JdbcTemplate jdbcTemplate,
+      ArchiveService archiveService,
+      CurrencyRegistry currencyRegistry) {
     this.userRepository = userRepository;
     this.accountService = accountService;
     this.passwordEncoder = passwordEncoder;
+    this.shardRouter = shardRouter;
+    this.cacheInvalidationBus = cacheInvalidationBus;
+    this.jdbcTemplate = jdbcTemplate;
+    this.archiveService = archiveService;
+    this.currencyRegistry = currencyRegistry;
   }
 
+  /**
+   * Called by Spring Security before the user's shard is known. No transaction of its own, so a
+   * cache hit costs no connection; on a miss the repository's read-only transaction starts inside
+   * {@link ShardRouter#onShard}, once the shard is picked. Archived users log in from the archive.
+   */
   @Override
-  @Transactional(readOnly = true)
   public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-    return userRepository
-        .findByUsername(username)
-        .map(BankingUserDetails::from)
-        .orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    return cacheInvalidationBus.credentials(
+        username,
+        () ->
+            shardRouter
+                .onShard(
+                    shardRouter.shardOfUsername(username),
+                    () ->
+                        userRepository
+                            .findByUsername(username)
+                            .map(BankingUserDetails::from)
+                            .or(() -> archiveService.findCredentials(username)))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found")));
+  }
+
+  /**
+   * Stores a hash re-encoded by Spring Security after a successful login, because the stored one
+   * was made with other parameters than the current ones.
+   */
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    return shardRouter.onShard(
+        shardRouter.shardOfUsername(userDetails.getUsername()),
+        () -> {
+          String username = userDetails.getUsername();
+          Optional<User> found = userRepository.findByUsername(username);
+          if (found.isEmpty() && archiveService.rehydrate(username)) {
+            found = userRepository.findByUsername(username);
+          }
+          User user = found.orElseThrow(() -> new UsernameNotFoundException("User not found"));
+          user.setPassword(newPassword);
+          cacheInvalidationBus.userChanged(user.getUsername());
+          return BankingUserDetails.from(user);
+        });
   }
 
+  /**
+   * Hashes before the statement, so no connection is held while the password hashing pool works or
+   * queues. The user is then written by {@link #CREATE_USER}, with no accounts yet. A taken username inserts nothing instead of failing, also when a concurrent request took
+   * it a moment earlier, or an archived user has it. The username is locked against archiving
+   * first, as a user being archived meanwhile would be in neither table the insert checks.
+   */
   @Transactional
   public UserDTO createUser(String username, String password) {
-    Optional<User> existingUser = userRepository.findByUsername(username);
-    if (existingUser.isPresent()) {
+    String encodedPassword = passwordEncoder.encode(password);
+    archiveService.lockUsername(username);
+    List<Long> created =
+        jdbcTemplate.queryForList(CREATE_USER, Long.class, username, encodedPassword, username);
+    if (created.isEmpty()) {
       throw new UserAlreadyExistsException();
     }
-    User user = new User();
-    user.setUsername(username);
-    user.setPassword(passwordEncoder.encode(password));
-    userRepository.save(user);
-    accountService.createDefaultAccounts(user);
-    return UserDTO.from(user);
+    return new UserDTO(created.get(0), username, List.of());
   }
 
   @Transactional(readOnly = true)
   public UserDTO getUser(long id) {
-    return userRepository.findById(id).map(UserDTO::from).orElseThrow();
+    return getTaggedUser(id).getBody();
+  }
+
+  /**
+   * The profile with a tag made of the user's version and the versions of its accounts; read from
+   * the archive when the user is not in {@code users}.
+   */
+  @Transactional(readOnly = true)
+  public Tagged<UserDTO> getTaggedUser(long id) {
+    Optional<User> found = userRepository.findWithAccountsById(id);
+    if (found.isEmpty()) {
+      return archiveService.findTaggedUser(id).orElseThrow();
+    }
+    User user = found.get();
+    List<AccountDTO> accounts = new ArrayList<>(user.getAccounts().size());
+    StringBuilder etag =
+        new StringBuilder("u").append(user.getId()).append('-').append(user.getVersion());
+    for (Account account : user.getAccounts()) {
+      AccountDTO accountDTO = accountService.toAccountDTO(account);
+      accounts.add(accountDTO);
+      etag.append('-').append(accountService.versionOf(account, accountDTO));
+    }
+    return new Tagged<>(new UserDTO(user.getId(), user.getUsername(), accounts), etag.toString());
   }
 
   @Transactional(readOnly = true)
   public List<ListUserDTO> listUsers() {
-    return userRepository.findAll().stream().map(ListUserDTO::from).collect(Collectors.toList());
+    List<ListUserDTO> users = new ArrayList<>();
+    RowCallbackHandler addAccount =
+        row -> {
+          long id = row.getLong(1);
+          if (users.isEmpty() || users.get(users.size() - 1).getId() != id) {
+            users.add(new ListUserDTO(id, row.getString(2), new ArrayList<>()));
+          }
+          long accountId = row.getLong(3);
+          if (!row.wasNull()) {
+            users
+                .get(users.size() - 1)
+                .getAccounts()
+                .add(new ListAccountDTO(accountId, currencyRegistry.byId(row.getInt(4))));
+          }
+        };
+    jdbcTemplate.query(LIST_USERS, addAccount);
+    return users;
   }
 }
@@ -0,0 +1,219 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.VelocityLimitExceededException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Hourly and daily limits on the money leaving an account (withdrawals and outgoing transfers),
+ * checked in memory. Each account with recent outflows has a window of {@code long}s: the amounts
+ * of its last 13 five-minute buckets and last 25 one-hour buckets, each with its bucket number. A
+ * limit is checked against whole buckets, so it covers between 60 and 65 minutes (24 and 25 hours)
+ * of history and never less than the nominal window.
+ *
+ * <p>The ledger is the only persistent state: the windows are rebuilt from recent movements at
+ * startup and otherwise follow the movements this node writes, so a check costs no query. An
+ * amount reserved in a transaction that rolls back is released again. Limits are enforced per
+ * node; the windows do not see outflows written by other nodes after startup. When no limits are
+ * configured every check passes.
+ */
+public class VelocityLimits {
+  static final long MINUTE_BUCKET_MILLIS = TimeUnit.MINUTES.toMillis(5);
+  static final long HOUR_BUCKET_MILLIS = TimeUnit.HOURS.toMillis(1);
+  private static final int MINUTE_BUCKETS = 13;
+  private static final int HOUR_BUCKETS = 25;
+  private static final int HOUR_RING = 2 * MINUTE_BUCKETS;
+  /** Bucket number and amount of every bucket, the five-minute ring first. */
+  private static final int WINDOW_LENGTH = 2 * (MINUTE_BUCKETS + HOUR_BUCKETS);
+
+  /** By currency code. */
+  private final Map<String, Long> hourlyLimits;
+  private final Map<String, Long> dailyLimits;
+  private final Map<Long, long[]> windows = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService sweeper;
+
+  private VelocityLimits(Map<String, Long> hourlyLimits, Map<String, Long> dailyLimits) {
+    this.hourlyLimits = hourlyLimits;
+    this.dailyLimits = dailyLimits;
+    this.sweeper =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "velocity-limit-sweeper");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  private VelocityLimits() {
+    this.hourlyLimits = null;
+    this.dailyLimits = null;
+    this.sweeper = null;
+  }
+
+  /**
+   * Limits in minor units by currency code; a currency without a limit is not limited, so a limit
+   * can be set before its currency is registered.
+   */
+  public static VelocityLimits start(
+      Map<String, Long> hourlyLimits, Map<String, Long> dailyLimits) {
+    VelocityLimits limits = new VelocityLimits(limitsOf(hourlyLimits), limitsOf(dailyLimits));
+    limits.sweeper.scheduleWithFixedDelay(
+        () -> limits.sweep(System.currentTimeMillis()),
+        MINUTE_BUCKET_MILLIS,
+        MINUTE_BUCKET_MILLIS,
+        TimeUnit.MILLISECONDS);
+    return limits;
+  }
+
+  public static VelocityLimits disabled() {
+    return new VelocityLimits();
+  }
+
+  public boolean isEnabled() {
+    return hourlyLimits != null;
+  }
+
+  /**
+   * Counts {@code amount} against the account's limits, or throws {@link
+   * VelocityLimitExceededException} and counts nothing when that would exceed one of them.
+   */
+  public void reserve(long accountId, AccountCurrency currency, long amount) {
+    reserve(accountId, currency, amount, System.currentTimeMillis());
+  }
+
+  void reserve(long accountId, AccountCurrency currency, long amount, long nowMillis) {
+    if (!isEnabled()) {
+      return;
+    }
+    long hourlyLimit = hourlyLimits.getOrDefault(currency.getCode(), Long.MAX_VALUE);
+    long dailyLimit = dailyLimits.getOrDefault(currency.getCode(), Long.MAX_VALUE);
+    windows.compute(
+        accountId,
+        (id, window) -> {
+          if (window == null) {
+            window = new long[WINDOW_LENGTH];
+          }
+          if (total(window, 0, MINUTE_BUCKETS, MINUTE_BUCKET_MILLIS, nowMillis) + amount
+              > hourlyLimit) {
+            throw new VelocityLimitExceededException(
+                "Hourly limit of " + hourlyLimit + " " + currency.getCode() + " exceeded");
+          }
+          if (total(window, HOUR_RING, HOUR_BUCKETS, HOUR_BUCKET_MILLIS, nowMillis) + amount
+              > dailyLimit) {
+            throw new VelocityLimitExceededException(
+                "Daily limit of " + dailyLimit + " " + currency.getCode() + " exceeded");
+          }
+          add(window, nowMillis, amount);
+          return window;
+        });
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              if (status != STATUS_COMMITTED) {
+                release(accountId, amount, nowMillis);
+              }
+            }
+          });
+    }
+  }
+
+  /** Counts an outflow from the ledger, e.g. while rebuilding the windows at startup. */
+  public void record(long accountId, long amount, long atMillis) {
+    if (!isEnabled()) {
+      return;
+    }
+    windows.compute(
+        accountId,
+        (id, window) -> {
+          if (window == null) {
+            window = new long[WINDOW_LENGTH];
+          }
+          add(window, atMillis, amount);
+          return window;
+        });
+  }
+
+  public int getTrackedAccounts() {
+    return windows.size();
+  }
+
+  public void close() {
+    if (isEnabled()) {
+      sweeper.shutdownNow();
+    }
+  }
+
+  /** Drops the windows of accounts without outflows in the last 25 hours. */
+  void sweep(long nowMillis) {
+    for (Long accountId : windows.keySet()) {
+      windows.computeIfPresent(
+          accountId,
+          (id, window) ->
+              total(window, HOUR_RING, HOUR_BUCKETS, HOUR_BUCKET_MILLIS, nowMillis) == 0
+                  ? null
+                  : window);
+    }
+  }
+
+  private void release(long accountId, long amount, long atMillis) {
+    windows.computeIfPresent(
+        accountId,
+        (id, window) -> {
+          add(window, atMillis, -amount);
+          return window;
+        });
+  }
+
+  private static void add(long[] window, long atMillis, long amount) {
+    addToBucket(window, 0, MINUTE_BUCKETS, MINUTE_BUCKET_MILLIS, atMillis, amount);
+    addToBucket(window, HOUR_RING, HOUR_BUCKETS, HOUR_BUCKET_MILLIS, atMillis, amount);
+  }
+
+  /**
+   * Bucket numbers start at 1, so a zeroed slot is empty. A slot holding a newer bucket means the
+   * amount is older than the ring, and it is dropped.
+   */
+  private static void addToBucket(
+      long[] window, int ring, int buckets, long bucketMillis, long atMillis, long amount) {
+    long bucket = atMillis / bucketMillis + 1;
+    int slot = ring + 2 * (int) (bucket % buckets);
+    if (window[slot] > bucket) {
+      return;
+    }
+    if (window[slot] < bucket) {
+      window[slot] = bucket;
+      window[slot + 1] = 0;
+    }
+    window[slot + 1] += amount;
+  }
+
+  /** Sums the current bucket and the {@code buckets - 1} before it. */
+  private static long total(
+      long[] window, int ring, int buckets, long bucketMillis, long nowMillis) {
+    long oldest = nowMillis / bucketMillis + 1 - (buckets - 1);
+    long total = 0;
+    for (int slot = ring; slot < ring + 2 * buckets; slot += 2) {
+      if (window[slot] >= oldest) {
+        total += window[slot + 1];
+      }
+    }
+    return total;
+  }
+
+  private static Map<String, Long> limitsOf(Map<String, Long> limits) {
+    Map<String, Long> byCode = new HashMap<>();
+    limits.forEach((code, limit) -> byCode.put(code.toUpperCase(Locale.ROOT), limit));
+    return Map.copyOf(byCode);
+  }
+
+}
@@ -0,0 +1,8 @@
+package com.skypro.simplebanking.service;
+
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("com.skypro.simplebanking.Withdrawal")
+@Label("Withdrawal")
+public class WithdrawalEvent extends MoneyOperationEvent {}
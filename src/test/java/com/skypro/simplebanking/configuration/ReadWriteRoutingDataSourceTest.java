@@ -0,0 +1,128 @@
+package com.skypro.simplebanking.configuration;
+
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ReadWriteRoutingDataSourceTest {
+    private static final Duration MAX_LAG = Duration.ofSeconds(5);
+    private static final Duration STICKY_WINDOW = Duration.ofMinutes(1);
+
+    @AfterEach
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void givenStandbyWithinLag_whenReadOnly_thenRoutedToReplica() {
+        ReadWriteRoutingDataSource routing = routing(standby(100));
+
+        assertThat(route(routing, 1, true)).isEqualTo("replica-0");
+    }
+
+    @Test
+    public void givenStandbyWithinLag_whenReadWrite_thenRoutedToPrimary() {
+        ReadWriteRoutingDataSource routing = routing(standby(0));
+
+        assertThat(route(routing, 1, false)).isEqualTo("primary");
+    }
+
+    @Test
+    public void givenCommittedWrite_whenSameUserReads_thenStickToPrimaryOnlyForThatUser() {
+        ReadWriteRoutingDataSource routing = routing(standby(0));
+        TransactionSynchronizationManager.initSynchronization();
+        route(routing, 1, false);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(route(routing, 1, true)).isEqualTo("primary");
+        assertThat(route(routing, 2, true)).isEqualTo("replica-0");
+    }
+
+    @Test
+    public void givenStandbyBeyondMaxLag_whenReadOnly_thenRoutedToPrimary() {
+        ReadWriteRoutingDataSource routing = routing(standby(MAX_LAG.toMillis() + 1));
+
+        assertThat(route(routing, 1, true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void givenReplicaNotInRecovery_whenReadOnly_thenRoutedToPrimary() {
+        ReadWriteRoutingDataSource routing = routing(replica(false, 0));
+
+        assertThat(route(routing, 1, true)).isEqualTo("primary");
+    }
+
+    @Test
+    public void givenUnreachableReplica_whenReadOnly_thenRoutedToPrimary() {
+        DataSource unreachable = fake(DataSource.class, method -> {
+            throw new SQLException("connection refused");
+        });
+        ReadWriteRoutingDataSource routing = routing(unreachable);
+
+        assertThat(route(routing, 1, true)).isEqualTo("primary");
+    }
+
+    private static ReadWriteRoutingDataSource routing(DataSource replica) {
+        DataSource primary = fake(DataSource.class, method -> null);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(
+                primary, Map.of("replica-0", replica), MAX_LAG, STICKY_WINDOW);
+        routing.refreshReplicaLag();
+        return routing;
+    }
+
+    private static Object route(ReadWriteRoutingDataSource routing, long userId, boolean readOnly) {
+        BankingUserDetails user = new BankingUserDetails(userId, "user" + userId, "password", false);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+        return routing.determineCurrentLookupKey();
+    }
+
+    private static DataSource standby(long lagMillis) {
+        return replica(true, lagMillis);
+    }
+
+    private static DataSource replica(boolean inRecovery, long lagMillis) {
+        ResultSet resultSet = fake(ResultSet.class, method -> switch (method) {
+            case "next" -> true;
+            case "getBoolean" -> inRecovery;
+            case "getLong" -> lagMillis;
+            default -> null;
+        });
+        Statement statement = fake(Statement.class,
+                method -> method.equals("executeQuery") ? resultSet : null);
+        Connection connection = fake(Connection.class,
+                method -> method.equals("createStatement") ? statement : null);
+        return fake(DataSource.class,
+                method -> method.equals("getConnection") ? connection : null);
+    }
+
+    private static <T> T fake(Class<T> type, Answer answer) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> answer.answer(method.getName())));
+    }
+
+    private interface Answer {
+        Object answer(String method) throws Exception;
+    }
+}
@@ -0,0 +1,45 @@
+package com.skypro.simplebanking.configuration;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ShardRouterTest {
+    private static final int USERS = 10_000;
+
+    @Test
+    public void givenUsernames_whenPlaced_thenEveryShardGetsAFairShare() {
+        ShardRouter router = new ShardRouter(4);
+        int[] users = new int[4];
+        IntStream.range(0, USERS).forEach(i -> users[router.shardOfUsername("user_" + i)]++);
+
+        for (int count : users) {
+            assertThat(count).isBetween(2_000, 3_000);
+        }
+    }
+
+    @Test
+    public void givenOneMoreShard_whenPlaced_thenUsersOnlyMoveToTheNewShard() {
+        ShardRouter before = new ShardRouter(3);
+        ShardRouter after = new ShardRouter(4);
+        int moved = 0;
+        for (int i = 0; i < USERS; i++) {
+            String username = "user_" + i;
+            int shard = after.shardOfUsername(username);
+            if (shard != before.shardOfUsername(username)) {
+                assertThat(shard).isEqualTo(3);
+                moved++;
+            }
+        }
+
+        assertThat(moved).isBetween(2_000, 3_000);
+    }
+
+    @Test
+    public void givenSameUsername_whenPlaced_thenSameShardEveryTime() {
+        assertThat(new ShardRouter(8).shardOfUsername("ünïcode"))
+                .isEqualTo(new ShardRouter(8).shardOfUsername("ünïcode"));
+        assertThat(new ShardRouter(1).shardOfUsername("anyone")).isZero();
+    }
+}
@@ -0,0 +1,142 @@
+package com.skypro.simplebanking.configuration;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.BalanceChangeRequest;
+import com.skypro.simplebanking.dto.BalanceOperationRequest;
+import com.skypro.simplebanking.dto.BalanceOperationType;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * Compares JSON and CBOR for the DTOs of the account and transfer endpoints: encoded size and CPU
+ * time to write and read one payload on a single thread. Both mappers are built the way the
+ * message converters get theirs, from Boot's Jackson configuration and application.properties,
+ * and read into the DTO classes the controllers bind. Responses are only written.
+ *
+ * <pre>
+ * mvn test-compile exec:java -DdockerCompose.skip=true -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.skypro.simplebanking.configuration.WireFormatBenchmark
+ * </pre>
+ */
+public class WireFormatBenchmark {
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+    private static final int BATCH_SIZE = 100;
+
+    private static volatile long blackhole;
+
+    public static void main(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context =
+                     new SpringApplicationBuilder(JacksonAutoConfiguration.class)
+                             .web(WebApplicationType.NONE)
+                             .logStartupInfo(false)
+                             .run(args)) {
+            ObjectMapper json = context.getBean(ObjectMapper.class);
+            ObjectMapper cbor =
+                    WebConfiguration.cborObjectMapper(context.getBean(Jackson2ObjectMapperBuilder.class));
+            new WireFormatBenchmark(json, cbor).run();
+        }
+    }
+
+    private final ObjectMapper json;
+    private final ObjectMapper cbor;
+
+    private WireFormatBenchmark(ObjectMapper json, ObjectMapper cbor) {
+        this.json = json;
+        this.cbor = cbor;
+    }
+
+    private void run() throws Exception {
+        BalanceChangeRequest balanceChange = new BalanceChangeRequest();
+        balanceChange.setAmount(5_000L);
+        List<BalanceOperationRequest> operations = new ArrayList<>(BATCH_SIZE);
+        List<AccountDTO> accounts = new ArrayList<>(BATCH_SIZE);
+        List<TransferRequest> transfers = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            BalanceOperationRequest operation = new BalanceOperationRequest();
+            operation.setType(i % 2 == 0 ? BalanceOperationType.DEPOSIT : BalanceOperationType.WITHDRAW);
+            operation.setAccountId(123_456L + i);
+            operation.setAmount(100L + i);
+            operations.add(operation);
+            accounts.add(new AccountDTO(123_456L + i, 98_765_432L + i, AccountCurrency.USD));
+            transfers.add(transfer(i));
+        }
+
+        System.out.printf(
+                "%-20s %-6s %10s %14s %14s%n", "payload", "format", "bytes", "write ns/op", "read ns/op");
+        measure("AccountDTO", accounts.get(0), null, 1);
+        measure("BalanceChangeRequest", balanceChange, type(BalanceChangeRequest.class), 1);
+        measure("TransferRequest", transfers.get(0), type(TransferRequest.class), 1);
+        measure("operations x" + BATCH_SIZE, operations, listOf(BalanceOperationRequest.class), BATCH_SIZE);
+        measure("accounts x" + BATCH_SIZE, accounts, null, BATCH_SIZE);
+        measure("transfers x" + BATCH_SIZE, transfers, listOf(TransferRequest.class), BATCH_SIZE);
+    }
+
+    private static TransferRequest transfer(int i) {
+        TransferRequest transfer = new TransferRequest();
+        transfer.setFromAccountId(123_456L + i);
+        transfer.setToUserId(4_242L);
+        transfer.setToAccountId(654_321L + i);
+        transfer.setAmount(5_000L + i);
+        return transfer;
+    }
+
+    private JavaType type(Class<?> type) {
+        return json.getTypeFactory().constructType(type);
+    }
+
+    private JavaType listOf(Class<?> elementType) {
+        return json.getTypeFactory().constructCollectionType(List.class, elementType);
+    }
+
+    /** A {@code null} request type marks a response, which the server never reads. */
+    private void measure(String name, Object payload, JavaType requestType, int scale)
+            throws Exception {
+        measure(name, "json", payload, requestType, json, scale);
+        measure(name, "cbor", payload, requestType, cbor, scale);
+    }
+
+    private static void measure(
+            String name, String format, Object payload, JavaType requestType, ObjectMapper mapper, int scale)
+            throws Exception {
+        int iterations = MEASURED_ITERATIONS / scale;
+        ObjectWriter writer = mapper.writer();
+        ObjectReader reader = requestType == null ? null : mapper.readerFor(requestType);
+        byte[] encoded = writer.writeValueAsBytes(payload);
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS / scale; i++) {
+            sink += writer.writeValueAsBytes(payload).length;
+            if (reader != null) {
+                sink += reader.readValue(encoded).hashCode();
+            }
+        }
+        long writeStart = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += writer.writeValueAsBytes(payload).length;
+        }
+        long writeNanos = System.nanoTime() - writeStart;
+        String read = "-";
+        if (reader != null) {
+            long readStart = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += reader.readValue(encoded).hashCode();
+            }
+            read = String.format("%.1f", (double) (System.nanoTime() - readStart) / iterations);
+        }
+        System.out.printf(
+                "%-20s %-6s %10d %14.1f %14s%n",
+                name, format, encoded.length, (double) writeNanos / iterations, read);
+        blackhole = sink;
+    }
+}
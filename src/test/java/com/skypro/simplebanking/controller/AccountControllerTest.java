@@ -1,24 +1,36 @@
 package com.skypro.simplebanking.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import com.skypro.simplebanking.entity.Account;
 import com.skypro.simplebanking.entity.AccountCurrency;
 import com.skypro.simplebanking.entity.User;
 import com.skypro.simplebanking.repository.AccountRepository;
 import com.skypro.simplebanking.repository.UserRepository;
+import com.skypro.simplebanking.service.AccountService;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.Map;
+
+import static com.skypro.simplebanking.utility.QueryCounter.*;
 import static com.skypro.simplebanking.utility.Utilities.*;
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -56,6 +68,46 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.currency").value("USD"));
     }
 
+    @Test
+    public void givenUserAccountInDatabase_whenGetUserAccountIsCalled_thenOneQuery() throws Exception {
+
+        mockMvc.perform(get("/account/{id}", 1).with(countingQueries()))
+                .andExpect(status().isOk())
+                .andExpect(queries(1));
+    }
+
+    @Test
+    public void givenAccountRead_whenGetWithItsETag_thenNotModifiedWithoutBodyOrQuery() throws Exception {
+        String etag = mockMvc.perform(get("/account/{id}", 1))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/account/{id}", 1)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(countingQueries()))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""))
+                .andExpect(queries(0));
+    }
+
+    @Test
+    public void givenAccountRead_whenDepositThenGetWithOldETag_thenNewBalanceAndETag() throws Exception {
+        String etag = mockMvc.perform(get("/account/{id}", 1))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(post("/account/deposit/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createBalanceChangeRequest().toString()))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get("/account/{id}", 1).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(15_000))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag);
+    }
+
     @Test
     public void givenUserAccountInDatabase_whenGetUserAccountIsCalledByAnotherUser_thenNotFound() throws Exception {
         getUserTwoAuthentication();
@@ -92,6 +144,18 @@ public class AccountControllerTest {
                 .andExpect(jsonPath("$.currency").value("USD"));
     }
 
+    @Test
+    public void givenUserAccountInDatabase_whenDepositToAccount_thenReadInsertAndUpdateOnly() throws Exception {
+        JSONObject jsonObject = createBalanceChangeRequest();
+
+        mockMvc.perform(post("/account/deposit/{id}", 1)
+                        .with(countingQueries())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isOk())
+                .andExpect(queries(3));
+    }
+
     @Test
     public void givenUserAccountInDatabase_whenDepositToAccountByAnotherUser_thenNotFound() throws Exception {
         getUserTwoAuthentication();
@@ -205,7 +269,169 @@ public class AccountControllerTest {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    public void givenUserAccountInDatabase_whenDepositToAccountWithCbor_thenCborAccountIsReturned() throws Exception {
+        ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+        MediaType cbor = MediaType.parseMediaType("application/cbor");
+
+        byte[] response = mockMvc.perform(post("/account/deposit/{id}", 1)
+                        .contentType(cbor)
+                        .accept(cbor)
+                        .content(cborMapper.writeValueAsBytes(Map.of("amount", 5_000L))))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(cbor))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode account = cborMapper.readTree(response);
+        assertThat(account.get("id").asLong()).isEqualTo(1);
+        assertThat(account.get("amount").asLong()).isEqualTo(15_000);
+        assertThat(account.get("currency").asText()).isEqualTo("USD");
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenApplyBatch_thenAllOperationsAreApplied() throws Exception {
+        JSONArray operations = new JSONArray();
+        operations.put(createBalanceOperation("DEPOSIT", 5_000L));
+        operations.put(createBalanceOperation("WITHDRAW", 2_000L));
+
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(operations.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].amount").value(15_000))
+                .andExpect(jsonPath("$[1].amount").value(13_000));
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenApplyBatchWithoutType_thenBadRequest() throws Exception {
+        JSONArray operations = new JSONArray();
+        operations.put(createBalanceOperation("DEPOSIT", 5_000L));
+        operations.put(createBalanceOperation("DEPOSIT", 5_000L).put("type", JSONObject.NULL));
+
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(operations.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenApplyBatchAboveMaxSize_thenBadRequest() throws Exception {
+        JSONArray operations = new JSONArray();
+        for (int i = 0; i <= AccountService.MAX_BATCH_SIZE; i++) {
+            operations.put(createBalanceOperation("DEPOSIT", 1L));
+        }
+
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(operations.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenApplyBatchWithBiggerWithdrawal_thenNothingIsApplied() throws Exception {
+        JSONArray operations = new JSONArray();
+        operations.put(createBalanceOperation("DEPOSIT", 5_000L));
+        operations.put(createBalanceOperation("WITHDRAW", 20_000L));
+
+        mockMvc.perform(post("/account/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(operations.toString()))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/account/{id}", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(10_000));
+    }
+
+    @Test
+    public void givenStripedAccount_whenDepositAndWithdrawAcrossStripes_thenBalanceIsConsistent() throws Exception {
+        getAdminAuthentication(true);
+        mockMvc.perform(post("/admin/users/{userId}/accounts/{id}/stripes", 1, 1).param("count", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(10_000));
+
+        getAdminAuthentication(false);
+        for (int i = 0; i < 4; i++) {
+            mockMvc.perform(post("/account/deposit/{id}", 1)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(createBalanceChangeRequest().toString()))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.amount").value(15_000 + i * 5_000));
+        }
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("amount", 28_000L);
+        mockMvc.perform(post("/account/withdraw/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(2_000));
+
+        jsonObject.put("amount", 3_000L);
+        mockMvc.perform(post("/account/withdraw/{id}", 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$").value("Cannot withdraw 3000 USD"));
+    }
+
+    @Test
+    public void givenNoAccountInCurrency_whenOpenedTwice_thenOneAccountAtZero() throws Exception {
+        mockMvc.perform(post("/account/open/{currency}", "eur"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(2))
+                .andExpect(jsonPath("$.amount").value(0))
+                .andExpect(jsonPath("$.currency").value("EUR"));
+
+        mockMvc.perform(post("/account/open/{currency}", "EUR"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(2));
+        assertThat(accountRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenNoAccountInCurrency_whenDepositToCurrency_thenAccountIsOpenedWithTheDeposit() throws Exception {
+        JSONObject jsonObject = createBalanceChangeRequest();
+
+        mockMvc.perform(post("/account/deposit/currency/{currency}", "RUB")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(2))
+                .andExpect(jsonPath("$.amount").value(5_000))
+                .andExpect(jsonPath("$.currency").value("RUB"));
+
+        mockMvc.perform(post("/account/deposit/currency/{currency}", "USD")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.amount").value(15_000));
+    }
+
+    @Test
+    public void givenUnknownCurrency_whenOpenAccount_thenBadRequest() throws Exception {
+        mockMvc.perform(post("/account/open/{currency}", "XYZ"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$").value("Unknown currency XYZ"));
+    }
+
+    @Test
+    public void givenUserAccountInDatabase_whenStripingIsEnabledByUser_thenForbidden() throws Exception {
+        mockMvc.perform(post("/admin/users/{userId}/accounts/{id}/stripes", 1, 1).param("count", "4"))
+                .andExpect(status().isForbidden());
+    }
+
     //Test Data Preparation
+    public JSONObject createBalanceOperation(String type, long amount) throws Exception {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("type", type);
+        jsonObject.put("accountId", 1);
+        jsonObject.put("amount", amount);
+        return jsonObject;
+    }
+
     public void createUserWithAccount() {
         User user = new User();
         user.setUsername("test_username_1");
@@ -0,0 +1,98 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.CacheInvalidationBus;
+import com.skypro.simplebanking.service.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.skypro.simplebanking.utility.QueryCounter.*;
+import static com.skypro.simplebanking.utility.Utilities.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.cache-invalidation.enabled=true",
+        "app.cache-invalidation.poll-interval=20ms"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ConditionalGetControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private long userId;
+
+    private long accountId;
+
+    @BeforeEach
+    public void prepareTestDataWithUserAuthentication() throws InterruptedException {
+        UserDTO user = userService.createUser("user", "password");
+        userId = user.getId();
+        accountId = accountService.openAccount(userId, AccountCurrency.USD).getId();
+        getAdminAuthentication(false);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!cacheInvalidationBus.isListening()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    @Test
+    public void givenCurrentAccountETag_whenGetAccount_thenNotModifiedWithoutQuery() throws Exception {
+        String etag = etagOf("/account/" + accountId);
+
+        mockMvc.perform(get("/account/{id}", accountId)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(countingQueries()))
+                .andExpect(status().isNotModified())
+                .andExpect(queries(0));
+    }
+
+    @Test
+    public void givenCurrentProfileETag_whenGetProfile_thenNotModifiedWithoutQuery() throws Exception {
+        String etag = etagOf("/user/me");
+
+        mockMvc.perform(get("/user/me")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(countingQueries()))
+                .andExpect(status().isNotModified())
+                .andExpect(queries(0));
+    }
+
+    @Test
+    public void givenProfileETag_whenOneOfItsAccountsChanges_thenProfileIsReloaded() throws Exception {
+        String etag = etagOf("/user/me");
+
+        accountService.depositToAccount(userId, accountId, 5_000L);
+
+        mockMvc.perform(get("/user/me").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts[0].amount").value(5_000L));
+    }
+
+    private String etagOf(String path) throws Exception {
+        return mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+}
@@ -0,0 +1,92 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.UserService;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static com.skypro.simplebanking.utility.Utilities.*;
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "app.server-timing.sample-rate=1")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ServerTimingControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @BeforeEach
+    public void prepareTestDataWithUserAuthentication() {
+        UserDTO user = userService.createUser("user", "password");
+        UserDTO userTwo = userService.createUser("user_2", "password_2");
+        for (UserDTO each : List.of(user, userTwo)) {
+            for (AccountCurrency currency : AccountCurrency.BUILT_IN) {
+                accountService.openAccount(each.getId(), currency);
+            }
+        }
+        accountService.depositToAccount(user.getId(), 1L, 10_000L);
+        getAdminAuthentication(false);
+    }
+
+    @Test
+    public void givenSampledRequest_whenTransfer_thenServerTimingHasAllPhases() throws Exception {
+        JSONObject jsonObject = createTransferRequest();
+
+        mockMvc.perform(post("/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Server-Timing", allOf(
+                        containsString("auth;dur="),
+                        containsString("repo;dur="),
+                        containsString("db;dur="),
+                        containsString("commit;dur="),
+                        containsString("total;dur="))));
+    }
+
+    @Test
+    public void givenSampledRequest_whenResponseHasBody_thenServerTimingIncludesSerialization() throws Exception {
+        mockMvc.perform(get("/account/{id}", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(10_000))
+                .andExpect(header().string("Server-Timing", containsString("ser;dur=")));
+    }
+
+    @Test
+    public void givenSampledRequests_whenAdminReadsTimings_thenHistogramsCountThem() throws Exception {
+        mockMvc.perform(get("/account/{id}", 1))
+                .andExpect(status().isOk());
+
+        getAdminAuthentication(true);
+        mockMvc.perform(get("/admin/timings"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[5].phase").value("TOTAL"))
+                .andExpect(jsonPath("$[5].count").value(1))
+                .andExpect(jsonPath("$[4].phase").value("SERIALIZATION"))
+                .andExpect(jsonPath("$[4].count").value(1));
+    }
+}
@@ -0,0 +1,145 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.configuration.ShardRouter;
+import com.skypro.simplebanking.dto.BankingUserDetails;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static com.skypro.simplebanking.utility.Utilities.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.sharding.enabled=true",
+        "app.sharding.create-schema=true",
+        "app.sharding.shards[0].url=jdbc:postgresql://localhost:6543/postgres",
+        "app.sharding.shards[0].username=postgres",
+        "app.sharding.shards[0].password=postgres",
+        "app.sharding.shards[1].url=jdbc:postgresql://localhost:6545/postgres",
+        "app.sharding.shards[1].username=postgres",
+        "app.sharding.shards[1].password=postgres"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ShardedTransferControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    private ShardUser sender;
+    private ShardUser recipient;
+
+    @BeforeEach
+    public void createUsersOnBothShards() throws Exception {
+        sender = createUserOnShard(0);
+        recipient = createUserOnShard(1);
+        assertEquals(0, shardRouter.shardOfId(sender.id));
+        assertEquals(1, shardRouter.shardOfId(recipient.id));
+
+        authenticate(sender);
+        mockMvc.perform(post("/account/deposit/{id}", sender.usdAccountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(createBalanceChangeRequest().toString()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void givenUsersOnDifferentShards_whenTransfer_thenAmountMovesAcrossShards() throws Exception {
+        mockMvc.perform(post("/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(transferRequest(recipient.usdAccountId).toString()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/account/{id}", sender.usdAccountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(2_000));
+
+        authenticate(recipient);
+        mockMvc.perform(get("/account/{id}", recipient.usdAccountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(3_000));
+    }
+
+    @Test
+    public void givenUsersOnDifferentShards_whenTransferToMissingAccount_thenNotFoundAndNothingWithdrawn() throws Exception {
+        mockMvc.perform(post("/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(transferRequest(recipient.usdAccountId + 100).toString()))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/account/{id}", sender.usdAccountId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(5_000));
+    }
+
+    @Test
+    public void givenUsersOnDifferentShards_whenTransferBatch_thenBadRequest() throws Exception {
+        JSONArray batch = new JSONArray();
+        batch.put(transferRequest(recipient.usdAccountId));
+
+        mockMvc.perform(post("/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(batch.toString()))
+                .andExpect(status().isBadRequest());
+    }
+
+    private ShardUser createUserOnShard(int shard) throws Exception {
+        String username = "user_0";
+        for (int i = 1; shardRouter.shardOfUsername(username) != shard; i++) {
+            username = "user_" + i;
+        }
+        JSONObject request = new JSONObject();
+        request.put("username", username);
+        request.put("password", "password");
+
+        getAdminAuthentication(true);
+        String response = mockMvc.perform(post("/user/")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(request.toString()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        long id = new JSONObject(response).getLong("id");
+
+        authenticate(new ShardUser(id, username, 0));
+        String account = mockMvc.perform(post("/account/open/{currency}", "USD"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        return new ShardUser(id, username, new JSONObject(account).getLong("id"));
+    }
+
+    private JSONObject transferRequest(long toAccountId) throws Exception {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("fromAccountId", sender.usdAccountId);
+        jsonObject.put("toUserId", recipient.id);
+        jsonObject.put("toAccountId", toAccountId);
+        jsonObject.put("amount", 3_000L);
+        return jsonObject;
+    }
+
+    private static void authenticate(ShardUser user) {
+        BankingUserDetails bankingUserDetails = new BankingUserDetails(user.id, user.username, "password", false);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(bankingUserDetails, null, bankingUserDetails.getAuthorities()));
+    }
+
+    private record ShardUser(long id, String username, long usdAccountId) {}
+}
@@ -5,6 +5,7 @@ import com.skypro.simplebanking.entity.AccountCurrency;
 import com.skypro.simplebanking.entity.User;
 import com.skypro.simplebanking.repository.AccountRepository;
 import com.skypro.simplebanking.repository.UserRepository;
+import org.json.JSONArray;
 import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -16,6 +17,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static com.skypro.simplebanking.utility.QueryCounter.*;
 import static com.skypro.simplebanking.utility.Utilities.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -63,6 +65,18 @@ public class TransferControllerTest {
                 .andExpect(jsonPath("$.currency").value("USD"));
     }
 
+    @Test
+    public void givenUserAccounts_whenTransfer_thenQueriesWithinBudget() throws Exception {
+        JSONObject jsonObject = createTransferRequest();
+
+        mockMvc.perform(post("/transfer")
+                        .with(countingQueries())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isOk())
+                .andExpect(atMostQueries(4));
+    }
+
     @Test
     public void givenUserAccounts_whenTransferByAnotherUser_thenNotFound() throws Exception {
         getUserTwoAuthentication();
@@ -104,6 +118,22 @@ public class TransferControllerTest {
         whenTransfer_thenNotFound(jsonObject2);
     }
 
+    @Test
+    public void givenUserAccounts_whenTransferBatch_thenAllTransfersAreApplied() throws Exception {
+        JSONArray transfers = new JSONArray();
+        transfers.put(createTransferRequest().put("amount", 1_000L));
+        transfers.put(createTransferRequest().put("amount", 2_000L));
+
+        mockMvc.perform(post("/transfer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(transfers.toString()))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/account/{id}", 1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(7_000));
+    }
+
     public void whenTransfer_thenNotFound(JSONObject jsonObject) throws Exception {
         mockMvc.perform(post("/transfer")
                         .contentType(MediaType.APPLICATION_JSON)
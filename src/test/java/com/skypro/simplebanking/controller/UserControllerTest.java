@@ -10,14 +10,21 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static com.skypro.simplebanking.utility.QueryCounter.*;
 import static com.skypro.simplebanking.utility.Utilities.*;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -52,17 +59,40 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.username").isNotEmpty())
                 .andExpect(jsonPath("$.username").value("username"))
-                .andExpect(jsonPath("$.accounts").isNotEmpty())
-                .andExpect(jsonPath("$.accounts.length()").value(3))
-                .andExpect(jsonPath("$.accounts[0].id").value(1))
-                .andExpect(jsonPath("$.accounts[1].id").value(2))
-                .andExpect(jsonPath("$.accounts[2].id").value(3))
-                .andExpect(jsonPath("$.accounts[0].currency").value("USD"))
-                .andExpect(jsonPath("$.accounts[1].currency").value("EUR"))
-                .andExpect(jsonPath("$.accounts[2].currency").value("RUB"))
-                .andExpect(jsonPath("$.accounts[0].amount").value(1))
-                .andExpect(jsonPath("$.accounts[1].amount").value(1))
-                .andExpect(jsonPath("$.accounts[2].amount").value(1));
+                .andExpect(jsonPath("$.accounts").isEmpty());
+        assertThat(accountRepository.count()).isZero();
+    }
+
+    @Test
+    public void givenLegacyPasswordHash_whenUserLogsIn_thenHashIsUpgraded() throws Exception {
+        SecurityContextHolder.clearContext();
+        User user = new User();
+        user.setUsername("user");
+        user.setPassword(new BCryptPasswordEncoder(4).encode("password"));
+        userRepository.save(user);
+
+        mockMvc.perform(get("/user/me")
+                        .with(httpBasic("user", "password")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value("user"));
+
+        String upgradedHash = userRepository.findByUsername("user").orElseThrow().getPassword();
+        assertThat(upgradedHash).startsWith("{bcrypt}$2a$10$");
+        assertThat(passwordEncoder.matches("password", upgradedHash)).isTrue();
+    }
+
+    @Test
+    public void givenNoUsersInDatabase_whenCreateUser_thenUsernameLockAndInsertOnly() throws Exception {
+        getAdminAuthentication(true);
+        JSONObject jsonObject = createUserWithDefaultAccounts();
+
+        mockMvc.perform(post("/user/")
+                        .with(countingQueries())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(jsonObject.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts.length()").value(0))
+                .andExpect(queries(2));
     }
 
     @Test
@@ -122,6 +152,18 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$[1].accounts[2].currency").value("RUB"));
     }
 
+    @Test
+    public void givenListOfUsers_whenGetAllUsers_thenAccountsAreFetchedInSameQuery() throws Exception {
+        createUserOneWithDefaultAccounts();
+        createUserTwoWithDefaultAccounts();
+        getAdminAuthentication(false);
+
+        mockMvc.perform(get("/user/list").with(countingQueries()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(queries(1));
+    }
+
     @Test
     public void givenListOfUsers_whenGetAllUsersByAdmin_thenForbidden() throws Exception {
         createUserOneWithDefaultAccounts();
@@ -148,6 +190,33 @@ public class UserControllerTest {
                 .andExpect(jsonPath("$.accounts[2].currency").value("RUB"));
     }
 
+    @Test
+    public void givenUserInDatabase_whenGetUser_thenOneQuery() throws Exception {
+        createUserOneWithDefaultAccounts();
+        getAdminAuthentication(false);
+
+        mockMvc.perform(get("/user/me").with(countingQueries()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accounts.length()").value(3))
+                .andExpect(queries(1));
+    }
+
+    @Test
+    public void givenProfileRead_whenGetWithItsETag_thenNotModifiedWithoutBodyOrQuery() throws Exception {
+        createUserOneWithDefaultAccounts();
+        getAdminAuthentication(false);
+        String etag = mockMvc.perform(get("/user/me"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/user/me")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .with(countingQueries()))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""))
+                .andExpect(queries(0));
+    }
+
     @Test
     public void givenUserInDatabase_whenGetUserByAdmin_thenForbidden() throws Exception {
         createUserOneWithDefaultAccounts();
@@ -157,7 +226,73 @@ public class UserControllerTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    public void givenUsers_whenSearchByPrefixByAdmin_thenPagesFollowUsernameOrder() throws Exception {
+        createUsers("alice", "alina", "albert", "bob");
+        getAdminAuthentication(true);
+
+        String cursor = mockMvc.perform(get("/user/search").param("q", "ali").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].username").value("alice"))
+                .andExpect(jsonPath("$.users[0].distance").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").isNotEmpty())
+                .andReturn().getResponse().getContentAsString();
+        cursor = new JSONObject(cursor).getString("nextCursor");
+
+        cursor = mockMvc.perform(get("/user/search").param("q", "ali").param("limit", "1").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("alina"))
+                .andReturn().getResponse().getContentAsString();
+        cursor = new JSONObject(cursor).getString("nextCursor");
+
+        mockMvc.perform(get("/user/search").param("q", "ali").param("limit", "1").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(0))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    public void givenUsers_whenSearchByPrefixWithWildcard_thenWildcardIsMatchedLiterally() throws Exception {
+        createUsers("al_x", "alba");
+        getAdminAuthentication(true);
+
+        mockMvc.perform(get("/user/search").param("q", "al_"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users.length()").value(1))
+                .andExpect(jsonPath("$.users[0].username").value("al_x"));
+    }
+
+    @Test
+    public void givenUsers_whenFuzzySearchByAdmin_thenClosestUsernameComesFirst() throws Exception {
+        createUsers("alice", "alina", "bob");
+        getAdminAuthentication(true);
+
+        mockMvc.perform(get("/user/search").param("q", "alise").param("mode", "FUZZY"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value("alice"))
+                .andExpect(jsonPath("$.users[0].distance").isNumber());
+    }
+
+    @Test
+    public void givenUsers_whenSearchByUser_thenForbidden() throws Exception {
+        createUsers("alice");
+        getAdminAuthentication(false);
+
+        mockMvc.perform(get("/user/search").param("q", "ali"))
+                .andExpect(status().isForbidden());
+    }
+
     //Test Data Preparation
+    public void createUsers(String... usernames) {
+        for (String username : usernames) {
+            User user = new User();
+            user.setUsername(username);
+            user.setPassword("password");
+            userRepository.save(user);
+        }
+    }
+
     public void createUserOneWithDefaultAccounts() {
         User user = new User();
         user.setUsername("user");
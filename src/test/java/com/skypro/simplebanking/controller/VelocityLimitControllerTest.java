@@ -0,0 +1,102 @@
+package com.skypro.simplebanking.controller;
+
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.service.AccountService;
+import com.skypro.simplebanking.service.UserService;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.List;
+
+import static com.skypro.simplebanking.utility.Utilities.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "app.velocity-limits.hourly.USD=6000",
+        "app.velocity-limits.daily.USD=8000"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class VelocityLimitControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @BeforeEach
+    public void prepareTestDataWithUserAuthentication() {
+        UserDTO user = userService.createUser("user", "password");
+        UserDTO userTwo = userService.createUser("user_2", "password_2");
+        for (UserDTO each : List.of(user, userTwo)) {
+            for (AccountCurrency currency : AccountCurrency.BUILT_IN) {
+                accountService.openAccount(each.getId(), currency);
+            }
+        }
+        accountService.depositToAccount(user.getId(), 1L, 10_000L);
+        getAdminAuthentication(false);
+    }
+
+    @Test
+    public void givenHourlyLimitUsed_whenWithdrawMore_thenUnprocessableEntityAndBalanceKept() throws Exception {
+        withdraw(5_000L)
+                .andExpect(status().isOk());
+
+        withdraw(2_000L)
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$").value("Hourly limit of 6000 USD exceeded"));
+
+        mockMvc.perform(get("/account/{id}", 1))
+                .andExpect(jsonPath("$.amount").value(5_000));
+    }
+
+    @Test
+    public void givenTransferUsedHourlyLimit_whenTransferAgain_thenUnprocessableEntity() throws Exception {
+        JSONObject jsonObject = createTransferRequest();
+
+        transfer(jsonObject)
+                .andExpect(status().isOk());
+        transfer(jsonObject)
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$").value("Hourly limit of 6000 USD exceeded"));
+    }
+
+    @Test
+    public void givenWithdrawalRejectedForFunds_whenWithdrawUpToLimit_thenRejectedAmountNotCounted() throws Exception {
+        withdraw(15_000L)
+                .andExpect(status().isBadRequest());
+
+        withdraw(6_000L)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.amount").value(4_000));
+    }
+
+    private ResultActions withdraw(long amount) throws Exception {
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put("amount", amount);
+        return mockMvc.perform(post("/account/withdraw/{id}", 1)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonObject.toString()));
+    }
+
+    private ResultActions transfer(JSONObject jsonObject) throws Exception {
+        return mockMvc.perform(post("/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(jsonObject.toString()));
+    }
+}
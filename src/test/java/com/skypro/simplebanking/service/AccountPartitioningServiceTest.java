@@ -0,0 +1,206 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.PartitionMigrationReport;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.UserRepository;
+import com.skypro.simplebanking.utility.QueryCounter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AccountPartitioningServiceTest {
+    private static final Pattern PARTITION = Pattern.compile("accounts_p\\d+");
+    private static final Pattern ACCOUNTS_TABLE = Pattern.compile("\\baccounts\\b");
+
+    @Autowired
+    private AccountPartitioningService accountPartitioningService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    private Account account;
+
+    @BeforeEach
+    public void createUsersWithAccounts() {
+        for (int i = 0; i < 5; i++) {
+            user = new User();
+            user.setUsername("user_" + i);
+            user.setPassword("password");
+            userRepository.save(user);
+            for (AccountCurrency currency : AccountCurrency.BUILT_IN) {
+                account = new Account();
+                account.setAccountCurrency(currency);
+                account.setAmount(1_000L * i);
+                account.setUser(user);
+                accountRepository.save(account);
+            }
+        }
+    }
+
+    @AfterEach
+    public void dropUnpartitionedTable() {
+        jdbcTemplate.execute("drop table if exists accounts_unpartitioned cascade");
+    }
+
+    @Test
+    public void givenAccounts_whenPartitioned_thenAllRowsAreMovedAndQueriesStillWork() {
+        PartitionMigrationReport report = accountPartitioningService.partition(4, 4);
+
+        assertThat(accountPartitioningService.isPartitioned()).isTrue();
+        assertThat(report.getRowsCopied()).isEqualTo(15);
+        assertThat(report.getChunks()).isEqualTo(4);
+        assertThat(accountRepository.count()).isEqualTo(15);
+        assertThat(accountRepository.getAccountByUser_IdAndId(user.getId(), account.getId()))
+                .get()
+                .extracting(Account::getAmount)
+                .isEqualTo(4_000L);
+    }
+
+    @Test
+    public void givenMirrorLeftByFailedMigration_whenPartitioned_thenItIsReplacedAndRowsAreMoved() {
+        jdbcTemplate.execute("create table accounts_partitioned (like accounts)");
+        jdbcTemplate.execute("create function accounts_partition_mirror() returns trigger as $$"
+                + " begin insert into accounts_partitioned select (new).*; return new; end $$"
+                + " language plpgsql");
+        jdbcTemplate.execute("create trigger accounts_partition_mirror after insert or update"
+                + " on accounts for each row execute function accounts_partition_mirror()");
+
+        PartitionMigrationReport report = accountPartitioningService.partition(4, 100);
+
+        assertThat(accountPartitioningService.isPartitioned()).isTrue();
+        assertThat(report.getRowsCopied()).isEqualTo(15);
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from pg_trigger where tgname = 'accounts_partition_mirror'", Long.class))
+                .isZero();
+    }
+
+    @Test
+    public void givenPartitionedAccounts_whenQueriedByUserAndId_thenOnlyOnePartitionIsScanned() {
+        accountPartitioningService.partition(8, 100);
+        long userId = user.getId();
+        long accountId = account.getId();
+
+        assertThat(partitionsScanned(
+                "select * from accounts where user_id = " + userId + " and id = " + accountId))
+                .hasSize(1);
+        assertThat(partitionsScanned(
+                "select * from accounts where user_id = " + userId + " and id = " + accountId + " for update"))
+                .hasSize(1);
+        assertThat(partitionsScanned(
+                "update accounts set amount = 0 where user_id = " + userId + " and id = " + accountId))
+                .hasSize(1);
+        assertThat(partitionsScanned("select * from accounts where user_id = " + userId))
+                .hasSize(1);
+        assertThat(partitionsScanned("select * from accounts where id = " + accountId))
+                .hasSize(8);
+    }
+
+    @Test
+    public void givenPartitionedAccounts_whenBalanceAndStripesChange_thenEveryStatementScansOnePartition() {
+        accountPartitioningService.partition(8, 100);
+        long userId = user.getId();
+        long accountId = account.getId();
+        long otherUserId = userRepository.findByUsername("user_3").orElseThrow().getId();
+        long otherAccountId = accountRepository
+                .findByUser_IdAndAccountCurrency(otherUserId, account.getAccountCurrency())
+                .orElseThrow()
+                .getId();
+
+        List<String> statements = QueryCounter.statementsOf(() -> {
+            accountService.depositToAccount(userId, accountId, 100L);
+            accountService.withdrawFromAccount(userId, accountId, 100L);
+            accountService.lockAccounts(Set.of(userId, otherUserId), Set.of(accountId, otherAccountId));
+            accountService.validateCurrency(userId, accountId, otherUserId, otherAccountId);
+            accountService.enableStriping(userId, accountId, 2);
+            // Both stripes are empty, so this sweeps them into the account row.
+            accountService.withdrawFromAccount(userId, accountId, 4_000L);
+        }).stream().filter(sql -> ACCOUNTS_TABLE.matcher(sql).find()).toList();
+
+        assertThat(statements)
+                .filteredOn(sql -> sql.toLowerCase(Locale.ROOT).startsWith("update accounts"))
+                .hasSize(4);
+        for (String statement : statements) {
+            assertThat(partitionsScannedByStatement(statement, userId)).as(statement).hasSize(1);
+        }
+    }
+
+    private Set<String> partitionsScanned(String sql) {
+        return partitions(jdbcTemplate.queryForList("explain (costs off) " + sql, String.class));
+    }
+
+    /**
+     * Plans a statement as the application sent it, with every parameter set to the same value:
+     * which partitions are left depends only on whether the statement binds user_id.
+     */
+    private Set<String> partitionsScannedByStatement(String sql, long value) {
+        StringBuilder numbered = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameters);
+            } else {
+                numbered.append(c);
+            }
+        }
+        String arguments = String.join(", ", Collections.nCopies(parameters, Long.toString(value)));
+        return jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("prepare captured as " + numbered);
+                List<String> plan = new ArrayList<>();
+                try (ResultSet resultSet =
+                             statement.executeQuery("explain (costs off) execute captured(" + arguments + ")")) {
+                    while (resultSet.next()) {
+                        plan.add(resultSet.getString(1));
+                    }
+                }
+                statement.execute("deallocate captured");
+                return partitions(plan);
+            }
+        });
+    }
+
+    private static Set<String> partitions(List<String> plan) {
+        Set<String> partitions = new TreeSet<>();
+        for (String line : plan) {
+            Matcher matcher = PARTITION.matcher(line);
+            while (matcher.find()) {
+                partitions.add(matcher.group());
+            }
+        }
+        return partitions;
+    }
+}
@@ -0,0 +1,179 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.ArchiveReport;
+import com.skypro.simplebanking.dto.ListAccountDTO;
+import com.skypro.simplebanking.dto.ListUserDTO;
+import com.skypro.simplebanking.dto.ReconciliationReport;
+import com.skypro.simplebanking.dto.Tagged;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.UserAlreadyExistsException;
+import com.skypro.simplebanking.repository.UserRepository;
+import com.skypro.simplebanking.utility.QueryCounter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ArchiveServiceTest {
+
+    @Autowired
+    private ArchiveService archiveService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UserDTO dormant;
+
+    private long accountId;
+
+    @BeforeEach
+    public void createUsers() {
+        dormant = userService.createUser("dormant", "password");
+        UserDTO active = userService.createUser("active", "password");
+        accountId = accountService.openAccount(dormant.getId(), AccountCurrency.USD).getId();
+        accountService.depositToAccount(dormant.getId(), accountId, 500L);
+        long activeAccountId = accountService.openAccount(active.getId(), AccountCurrency.EUR).getId();
+        accountService.depositToAccount(active.getId(), activeAccountId, 1L);
+        jdbcTemplate.update(
+                "update account_movements set created_at = created_at - interval '3 years'"
+                        + " where account_id in (select id from accounts where user_id = ?)",
+                dormant.getId());
+    }
+
+    @Test
+    public void givenDormantUser_whenArchived_thenReadsAreAnsweredFromTheArchive() {
+        Tagged<UserDTO> before = userService.getTaggedUser(dormant.getId());
+        String accountTag = accountService.getTaggedAccount(dormant.getId(), accountId).getEtag();
+
+        ArchiveReport report = archiveService.archiveDormant();
+
+        assertThat(report.getUsers()).isEqualTo(1);
+        assertThat(report.getAccounts()).isEqualTo(1);
+        assertThat(userRepository.findByUsername("dormant")).isEmpty();
+        assertThat(userRepository.findByUsername("active")).isPresent();
+        Tagged<UserDTO> after = userService.getTaggedUser(dormant.getId());
+        assertThat(after.getEtag()).isEqualTo(before.getEtag());
+        assertThat(after.getBody().getAccounts().get(0).getAmount()).isEqualTo(500L);
+        assertThat(accountService.getTaggedAccount(dormant.getId(), accountId).getEtag()).isEqualTo(accountTag);
+        UserDetails credentials = userService.loadUserByUsername("dormant");
+        assertThat(credentials.getPassword()).isEqualTo(jdbcTemplate.queryForObject(
+                "select password from archived_users where username = 'dormant'", String.class));
+        List<String> listed = userService.listUsers().stream()
+                .map(ListUserDTO::getUsername)
+                .collect(Collectors.toList());
+        assertThat(listed).containsExactly("dormant", "active");
+        assertThat(reconciliationService.reconcile(1, 100, 10).getMismatchCount()).isZero();
+    }
+
+    @Test
+    public void givenArchivedAccountWithoutMovements_whenReconciled_thenItsBalanceIsReported() {
+        jdbcTemplate.update("delete from account_movements where account_id = ?", accountId);
+        archiveService.archiveDormant();
+
+        ReconciliationReport report = reconciliationService.reconcile(1, 100, 10);
+
+        assertThat(report.getMismatchCount()).isEqualTo(1);
+        assertThat(report.getMismatches().get(0).getAccountId()).isEqualTo(accountId);
+    }
+
+    @Test
+    public void givenAccountLockedByWriter_whenArchived_thenUserIsLeftInPlace() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch archived = new CountDownLatch(1);
+        Thread writer = new Thread(() -> transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForList("select id from accounts where id = ? for update", accountId);
+            locked.countDown();
+            try {
+                archived.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        writer.start();
+        locked.await();
+
+        ArchiveReport report;
+        try {
+            report = archiveService.archiveDormant();
+        } finally {
+            archived.countDown();
+            writer.join();
+        }
+
+        assertThat(report.getUsers()).isZero();
+        assertThat(userRepository.findByUsername("dormant")).isPresent();
+    }
+
+    @Test
+    public void givenArchivedUser_whenUsersAreListed_thenHotAndArchivedUsersComeFromOneStatement() {
+        archiveService.archiveDormant();
+        List<ListUserDTO> users = new ArrayList<>();
+
+        List<String> statements = QueryCounter.statementsOf(() -> users.addAll(userService.listUsers()));
+
+        assertThat(statements).hasSize(1);
+        assertThat(users).extracting(ListUserDTO::getUsername).containsExactly("dormant", "active");
+        assertThat(users.get(0).getAccounts()).extracting(ListAccountDTO::getAccountId).containsExactly(accountId);
+    }
+
+    @Test
+    public void givenArchivedUser_whenDeposited_thenUserIsBackInTheHotTables() {
+        archiveService.archiveDormant();
+
+        accountService.depositToAccount(dormant.getId(), accountId, 99L);
+
+        assertThat(userRepository.findByUsername("dormant")).isPresent();
+        assertThat(jdbcTemplate.queryForObject("select count(*) from archived_accounts", Long.class)).isZero();
+        assertThat(accountService.getAccount(dormant.getId(), accountId).getAmount()).isEqualTo(599L);
+        assertThat(userService.getUser(dormant.getId()).getAccounts()).hasSize(1);
+        assertThat(reconciliationService.reconcile(1, 100, 10).getMismatchCount()).isZero();
+    }
+
+    @Test
+    public void givenArchivedUser_whenItsUsernameIsTakenAgain_thenRejected() {
+        archiveService.archiveDormant();
+
+        assertThatThrownBy(() -> userService.createUser("dormant", "password"))
+                .isInstanceOf(UserAlreadyExistsException.class);
+    }
+
+    @Test
+    public void givenDormantUserWithStripedAccount_whenArchived_thenLeftInPlace() {
+        accountService.enableStriping(dormant.getId(), accountId, 2);
+
+        ArchiveReport report = archiveService.archiveDormant();
+
+        assertThat(report.getUsers()).isZero();
+        assertThat(userRepository.findByUsername("dormant")).isPresent();
+    }
+}
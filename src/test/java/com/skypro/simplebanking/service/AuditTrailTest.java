@@ -0,0 +1,140 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AuditEvent;
+import com.skypro.simplebanking.dto.AuditOperation;
+import com.skypro.simplebanking.dto.AuditOutcome;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class AuditTrailTest {
+    private static final Instant START = Instant.parse("2024-01-01T00:00:00Z");
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void givenConcurrentProducers_whenQueriedByUser_thenAllTheirEventsAreReadBackAcrossSegments() throws Exception {
+        AuditTrail auditTrail = AuditTrail.start(directory, 64 * 500, 8192, Duration.ofMillis(10));
+        List<Thread> producers = new ArrayList<>();
+        for (int user = 1; user <= 4; user++) {
+            long userId = user;
+            Thread producer = new Thread(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    long amount = i;
+                    auditTrail.audit(AuditEvent.deposit(userId, userId * 10, amount), () -> amount);
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        auditTrail.close();
+
+        List<AuditEvent> events = new AuditSegmentReader(directory)
+                .query(2L, Instant.EPOCH, Instant.now().plusSeconds(1), Integer.MAX_VALUE);
+
+        assertThat(auditTrail.getDroppedEvents()).isZero();
+        assertThat(segments()).hasSizeGreaterThan(1);
+        assertThat(events).hasSize(1_000);
+        assertThat(events).extracting(AuditEvent::getAmount).doesNotHaveDuplicates();
+        assertThat(events).allSatisfy(event -> {
+            assertThat(event.getUserId()).isEqualTo(2);
+            assertThat(event.getAccountId()).isEqualTo(20);
+            assertThat(event.getOperation()).isEqualTo(AuditOperation.DEPOSIT);
+            assertThat(event.getOutcome()).isEqualTo(AuditOutcome.SUCCEEDED);
+        });
+    }
+
+    @Test
+    public void givenFailedOperation_whenAudited_thenOutcomeIsRecordedAndExceptionRethrown() {
+        AuditTrail auditTrail = AuditTrail.start(directory, 64 * 500, 16, Duration.ofMillis(10));
+
+        assertThatThrownBy(() -> auditTrail.audit(AuditEvent.withdraw(1, 2, 3), () -> {
+            throw new InsufficientFundsException("Cannot withdraw 3 USD");
+        })).isInstanceOf(InsufficientFundsException.class);
+        auditTrail.close();
+
+        assertThat(new AuditSegmentReader(directory).query(1L, Instant.EPOCH, Instant.now().plusSeconds(1), 10))
+                .singleElement()
+                .extracting(AuditEvent::getOutcome)
+                .isEqualTo(AuditOutcome.INSUFFICIENT_FUNDS);
+    }
+
+    @Test
+    public void givenTimeRange_whenQueried_thenOnlyEventsInsideItAreReturned() {
+        AuditTrail auditTrail = AuditTrail.start(directory, 64 * 4, 16, Duration.ofMillis(10));
+        for (int minute = 0; minute < 10; minute++) {
+            auditTrail.record(eventAt(START.plus(Duration.ofMinutes(minute)), 1));
+        }
+        auditTrail.close();
+
+        List<AuditEvent> events = new AuditSegmentReader(directory)
+                .query(1L, START.plus(Duration.ofMinutes(3)), START.plus(Duration.ofMinutes(7)), 100);
+
+        assertThat(events).extracting(AuditEvent::getAmount).containsExactly(3L, 4L, 5L, 6L);
+    }
+
+    @Test
+    public void givenEventWrittenLateIntoNextSegment_whenQueried_thenItIsFound() {
+        AuditTrail auditTrail = AuditTrail.start(directory, 64 * 4, 16, Duration.ofMillis(10));
+        for (int minute = 0; minute < 4; minute++) {
+            auditTrail.record(eventAt(START.plus(Duration.ofMinutes(minute)), 1));
+        }
+        auditTrail.record(eventAt(START.plus(Duration.ofMinutes(8)), 1));
+        auditTrail.record(eventAt(START.plus(Duration.ofMinutes(4)), 1));
+        auditTrail.close();
+
+        List<AuditEvent> events = new AuditSegmentReader(directory)
+                .query(1L, START.plus(Duration.ofMinutes(4)), START.plus(Duration.ofMinutes(5)), 100);
+
+        assertThat(events).extracting(AuditEvent::getAmount).containsExactly(4L);
+    }
+
+    @Test
+    public void givenCorruptedRecord_whenQueried_thenItIsSkippedAndCounted() throws Exception {
+        AuditTrail auditTrail = AuditTrail.start(directory, 64 * 500, 16, Duration.ofMillis(10));
+        for (int minute = 0; minute < 3; minute++) {
+            auditTrail.record(eventAt(START.plus(Duration.ofMinutes(minute)), 1));
+        }
+        auditTrail.close();
+        try (FileChannel channel = FileChannel.open(segments().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {(byte) 0xFF}), AuditRecord.SIZE + 50);
+        }
+
+        AuditSegmentReader reader = new AuditSegmentReader(directory);
+        List<AuditEvent> events = reader.query(1L, START, START.plus(Duration.ofHours(1)), 100);
+
+        assertThat(events).extracting(AuditEvent::getAmount).containsExactly(0L, 2L);
+        assertThat(reader.getCorruptRecords()).isEqualTo(1);
+    }
+
+    private static AuditEvent eventAt(Instant timestamp, long userId) {
+        long minute = Duration.between(START, timestamp).toMinutes();
+        return new AuditEvent(timestamp, userId, AuditOperation.DEPOSIT, AuditOutcome.SUCCEEDED, 1, 0, 0, minute);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
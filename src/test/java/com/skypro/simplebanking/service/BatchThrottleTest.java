@@ -0,0 +1,56 @@
+package com.skypro.simplebanking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BatchThrottleTest {
+    private static final long TARGET = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_PAUSE = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void givenSlowChunks_whenPaced_thenPauseDoublesUpToMaximum() {
+        BatchThrottle throttle = new BatchThrottle(TARGET, MAX_PAUSE, 0);
+
+        long first = throttle.pauseAfter(2 * TARGET, 10, 0);
+        long second = throttle.pauseAfter(2 * TARGET, 10, 0);
+        long pause = second;
+        for (int i = 0; i < 20; i++) {
+            pause = throttle.pauseAfter(2 * TARGET, 10, 0);
+        }
+
+        assertThat(first).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(second).isEqualTo(2 * first);
+        assertThat(pause).isEqualTo(MAX_PAUSE);
+    }
+
+    @Test
+    public void givenFastChunksAfterSlowOnes_whenPaced_thenPauseFallsBackToZero() {
+        BatchThrottle throttle = new BatchThrottle(TARGET, MAX_PAUSE, 0);
+        for (int i = 0; i < 5; i++) {
+            throttle.pauseAfter(2 * TARGET, 10, 0);
+        }
+
+        long pause = MAX_PAUSE;
+        for (int i = 0; i < 10; i++) {
+            pause = throttle.pauseAfter(TARGET / 2, 10, 0);
+        }
+
+        assertThat(pause).isZero();
+    }
+
+    @Test
+    public void givenRowRateLimit_whenWorkersShareThrottle_thenTheyWaitForEachOther() {
+        BatchThrottle throttle = new BatchThrottle(TARGET, MAX_PAUSE, 1_000);
+        long now = TimeUnit.SECONDS.toNanos(10);
+        long chunk = TimeUnit.MILLISECONDS.toNanos(10);
+
+        long first = throttle.pauseAfter(chunk, 100, now);
+        long second = throttle.pauseAfter(chunk, 100, now);
+
+        assertThat(first).isEqualTo(TimeUnit.MILLISECONDS.toNanos(90));
+        assertThat(second).isEqualTo(TimeUnit.MILLISECONDS.toNanos(190));
+    }
+}
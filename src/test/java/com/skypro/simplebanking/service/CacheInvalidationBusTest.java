@@ -0,0 +1,122 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.Tagged;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.cache-invalidation.enabled=true",
+        "app.cache-invalidation.poll-interval=20ms"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class CacheInvalidationBusTest {
+    private static final String CHANNEL = "banking_cache_invalidation";
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long userId;
+
+    private long accountId;
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    public void createUserAndWaitForListener() throws InterruptedException {
+        UserDTO user = userService.createUser("cached", "password");
+        userId = user.getId();
+        accountId = accountService.openAccount(userId, AccountCurrency.USD).getId();
+        await(cacheInvalidationBus::isListening);
+    }
+
+    @Test
+    public void givenCachedAccount_whenReadAgain_thenLoaderIsNotCalled() {
+        readAccount();
+        readAccount();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCachedAccount_whenDepositCommits_thenNextReadSeesNewBalance() {
+        readAccount();
+
+        accountService.depositToAccount(userId, accountId, 5_000L);
+
+        assertThat(readAccount().getAmount()).isEqualTo(5_000L);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenCachedAccount_whenAnotherNodeNotifiesChange_thenAccountIsReloaded() throws InterruptedException {
+        readAccount();
+
+        notify("peer:1:a" + accountId);
+
+        await(() -> {
+            readAccount();
+            return loads.get() == 2;
+        });
+    }
+
+    @Test
+    public void givenCachedAccount_whenReadByAnotherUser_thenLoaderDecides() {
+        readAccount();
+
+        Tagged<AccountDTO> account = cacheInvalidationBus.account(userId + 1, accountId, () -> null);
+
+        assertThat(account).isNull();
+    }
+
+    @Test
+    public void givenMessagesFromAnotherNode_whenSequenceHasGap_thenCachesAreFlushed() throws InterruptedException {
+        notify("peer:1:");
+        readAccount();
+        long flushes = cacheInvalidationBus.getFullFlushes();
+
+        notify("peer:3:");
+
+        await(() -> cacheInvalidationBus.getFullFlushes() > flushes);
+        readAccount();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private AccountDTO readAccount() {
+        return cacheInvalidationBus.account(userId, accountId, () -> {
+            loads.incrementAndGet();
+            return accountService.getTaggedAccount(userId, accountId);
+        }).getBody();
+    }
+
+    private void notify(String payload) {
+        jdbcTemplate.queryForList("select pg_notify(?, ?)", CHANNEL, payload);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class CurrencyRegistryTest {
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @Autowired
+    private CurrencyRegistry currencyRegistry;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void givenNewCode_whenAdded_thenNextIdIsRegisteredOnceAndAccountsCanBeOpened() {
+        AccountCurrency gbp = currencyRegistry.add("gbp");
+
+        assertThat(gbp.getId()).isEqualTo(3);
+        assertThat(gbp.getCode()).isEqualTo("GBP");
+        assertThat(currencyRegistry.add("GBP")).isEqualTo(gbp);
+        assertThat(currencyRegistry.getCurrencies()).containsExactly(
+                AccountCurrency.USD, AccountCurrency.EUR, AccountCurrency.RUB, gbp);
+        UserDTO user = userService.createUser("user", "password");
+        AccountDTO account = accountService.openAccount(user.getId(), currencyRegistry.byCode("GBP"));
+        accountService.depositToAccount(user.getId(), account.getId(), 100L);
+        assertThat(accountService.getAccount(user.getId(), account.getId()).getCurrency()).isEqualTo(gbp);
+    }
+
+    @Test
+    public void givenInvalidCode_whenAdded_thenRejected() {
+        assertThatThrownBy(() -> currencyRegistry.add("US$"))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    public void givenConcurrentRequestsForOneCurrency_whenOpenAccount_thenOneAccountIsOpened() throws Exception {
+        long userId = userService.createUser("user", "password").getId();
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<AccountDTO>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return accountService.openAccount(userId, AccountCurrency.EUR);
+            }));
+        }
+        start.countDown();
+
+        List<Long> ids = new ArrayList<>();
+        for (Future<AccountDTO> result : results) {
+            ids.add(result.get().getId());
+        }
+        executor.shutdown();
+
+        assertThat(ids).containsOnly(ids.get(0));
+        assertThat(accountRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCurrencyRegisteredElsewhere_whenLookedUp_thenRegistryIsReloaded() {
+        jdbcTemplate.update("insert into currencies (id, code) values (7, 'CHF')");
+        UserDTO user = userService.createUser("user", "password");
+        jdbcTemplate.update(
+                "insert into accounts (id, user_id, account_currency, amount) values (100, ?, 7, 0)",
+                user.getId());
+
+        assertThat(userService.getUser(user.getId()).getAccounts().get(0).getCurrency().getCode())
+                .isEqualTo("CHF");
+        assertThat(currencyRegistry.byCode("chf").getId()).isEqualTo(7);
+    }
+}
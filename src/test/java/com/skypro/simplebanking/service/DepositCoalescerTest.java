@@ -0,0 +1,86 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.entity.Account;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.exception.AccountNotFoundException;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "app.deposit-coalescer.enabled=true",
+        "app.deposit-coalescer.window=5ms",
+        "app.deposit-coalescer.max-batch-size=16"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class DepositCoalescerTest {
+
+    @Autowired
+    private DepositCoalescer depositCoalescer;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    private long userId;
+
+    private long accountId;
+
+    @BeforeEach
+    public void createUserWithAccount() {
+        User user = new User();
+        user.setUsername("coalesced");
+        user.setPassword("password");
+        userRepository.save(user);
+        Account account = new Account();
+        account.setAccountCurrency(AccountCurrency.USD);
+        account.setAmount(1_000L);
+        account.setUser(user);
+        accountRepository.save(account);
+        userId = user.getId();
+        accountId = account.getId();
+    }
+
+    @Test
+    public void givenConcurrentDeposits_whenCoalesced_thenEveryCallerSeesItsOwnBalance() {
+        ExecutorService callers = Executors.newFixedThreadPool(32);
+        List<CompletableFuture<AccountDTO>> deposits = IntStream.range(0, 100)
+                .mapToObj(i -> CompletableFuture.supplyAsync(
+                        () -> depositCoalescer.deposit(userId, accountId, 10L), callers))
+                .collect(Collectors.toList());
+
+        List<Long> balances = deposits.stream()
+                .map(CompletableFuture::join)
+                .map(AccountDTO::getAmount)
+                .sorted()
+                .collect(Collectors.toList());
+        callers.shutdown();
+
+        assertThat(balances).doesNotHaveDuplicates();
+        assertThat(balances.get(balances.size() - 1)).isEqualTo(2_000L);
+        assertThat(accountRepository.findById(accountId).orElseThrow().getAmount()).isEqualTo(2_000L);
+    }
+
+    @Test
+    public void givenAnotherUsersAccount_whenCoalescedDeposit_thenAccountIsNotFound() {
+        assertThatThrownBy(() -> depositCoalescer.deposit(userId + 1, accountId, 10L))
+                .isInstanceOf(AccountNotFoundException.class);
+    }
+}
@@ -0,0 +1,74 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+
+public class ImportFormatTest {
+
+    private static final String HASH = "$2a$10$N9qo8uLOickgx2ZMRZoMyeIjZAgcfl7p92ldGxad68LJZdL17lhWy";
+
+    @Test
+    public void givenCsvHeaderInAnyOrder_whenRowParsed_thenColumnsAreMapped() {
+        ImportFormat format = ImportFormat.csv("﻿RUB, Password ,username", AccountCurrency.BUILT_IN);
+
+        ImportFormat.Row row = format.parse("250,{bcrypt}" + HASH + ",\"smith, \"\"jr\"\"\"");
+
+        assertThat(format.hasHeader()).isTrue();
+        assertThat(row.username()).isEqualTo("smith, \"jr\"");
+        assertThat(row.password()).isEqualTo("{bcrypt}" + HASH);
+        assertThat(row.balances()).containsExactly(entry(AccountCurrency.RUB, 250L));
+    }
+
+    @Test
+    public void givenNdjsonLine_whenParsed_thenBalancesArePerCurrency() {
+        ImportFormat format = ImportFormat.ndjson(AccountCurrency.BUILT_IN);
+
+        ImportFormat.Row row = format.parse(
+                "{\"username\":\"alice\",\"password\":\"" + HASH + "\",\"balances\":{\"usd\":1500,\"EUR\":7}}");
+
+        assertThat(format.hasHeader()).isFalse();
+        assertThat(row.username()).isEqualTo("alice");
+        assertThat(row.balances()).containsExactly(
+                entry(AccountCurrency.USD, 1500L), entry(AccountCurrency.EUR, 7L));
+    }
+
+    @Test
+    public void givenHeaderWithoutPassword_whenCreated_thenRejected() {
+        assertThatThrownBy(() -> ImportFormat.csv("username,USD", AccountCurrency.BUILT_IN))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    public void givenInvalidRows_whenParsed_thenReasonIsTheMessage() {
+        ImportFormat csv = ImportFormat.csv("username,password,USD", AccountCurrency.BUILT_IN);
+        ImportFormat ndjson = ImportFormat.ndjson(AccountCurrency.BUILT_IN);
+
+        assertThatThrownBy(() -> csv.parse("alice,secret,10")).hasMessage("Password is not a bcrypt hash");
+        assertThatThrownBy(() -> csv.parse(" ," + HASH + ",10")).hasMessage("Username is blank");
+        assertThatThrownBy(() -> csv.parse("alice," + HASH + ",-1")).hasMessage("Balance -1 is negative");
+        assertThatThrownBy(() -> csv.parse("alice," + HASH + ",1.5"))
+                .hasMessage("Balance 1.5 is not a whole number");
+        assertThatThrownBy(() -> csv.parse("\"alice," + HASH)).hasMessage("Unterminated quote");
+        assertThatThrownBy(() -> csv.parse("a".repeat(ImportFormat.MAX_USERNAME_BYTES + 1) + "," + HASH))
+                .hasMessageContaining("longer than");
+        assertThatThrownBy(() -> ndjson.parse("[1]")).hasMessage("Not a JSON object");
+        assertThatThrownBy(() -> ndjson.parse("{\"username\":\"a\",\"password\":\"" + HASH
+                + "\",\"balances\":{\"GBP\":1}}")).hasMessage("Unknown currency GBP");
+    }
+
+    @Test
+    public void givenValueWithQuotes_whenAppended_thenSplitBackToTheSameValue() {
+        StringBuilder line = new StringBuilder();
+        ImportFormat.appendCsv(line, "a,\"b\"");
+        line.append(',');
+        ImportFormat.appendCsv(line, "");
+
+        assertThat(line.toString()).isEqualTo("\"a,\"\"b\"\"\",\"\"");
+        assertThat(ImportFormat.splitCsv(line.toString())).containsExactly("a,\"b\"", "");
+    }
+}
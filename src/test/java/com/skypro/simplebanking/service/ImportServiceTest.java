@@ -0,0 +1,120 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.ImportReport;
+import com.skypro.simplebanking.dto.ReconciliationReport;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.User;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import com.skypro.simplebanking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"app.import.directory=target/test-imports", "app.import.batch-size=2"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ImportServiceTest {
+
+    private static final Path DIRECTORY = Path.of("target/test-imports");
+
+    @Autowired
+    private ImportService importService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    private String hash;
+
+    @BeforeEach
+    public void prepareDirectory() throws IOException {
+        Files.createDirectories(DIRECTORY);
+        Files.deleteIfExists(DIRECTORY.resolve("legacy.csv.rejects"));
+        Files.deleteIfExists(DIRECTORY.resolve("legacy.ndjson.rejects"));
+        hash = passwordEncoder.encode("password");
+    }
+
+    @Test
+    public void givenCsvWithBadRows_whenImported_thenGoodRowsAreUsersAndBadRowsAreRejected() throws IOException {
+        userService.createUser("taken", "password");
+        write("legacy.csv",
+                "username,password,USD,RUB",
+                "alice," + hash + ",1500,20",
+                "bob,not-a-hash,10,0",
+                "",
+                "taken," + hash + ",5,5",
+                "\"carol, jr\"," + hash + ",,7",
+                "alice," + hash + ",1,1");
+
+        ImportReport report = importService.importFile("legacy.csv");
+
+        assertThat(report.getLines()).isEqualTo(6);
+        assertThat(report.getImported()).isEqualTo(2);
+        assertThat(report.getRejected()).isEqualTo(3);
+        User alice = userRepository.findByUsername("alice").orElseThrow();
+        assertThat(passwordEncoder.matches("password", alice.getPassword())).isTrue();
+        UserDTO imported = userService.getUser(alice.getId());
+        assertThat(imported.getAccounts()).hasSize(2);
+        assertThat(imported.getAccounts().get(0).getAmount()).isEqualTo(1500L);
+        assertThat(imported.getAccounts().get(1).getAmount()).isEqualTo(20L);
+        UserDTO carol = userService.getUser(userRepository.findByUsername("carol, jr").orElseThrow().getId());
+        assertThat(carol.getAccounts()).hasSize(1);
+        assertThat(carol.getAccounts().get(0).getAmount()).isEqualTo(7L);
+        List<String> rejects = Files.readAllLines(DIRECTORY.resolve("legacy.csv.rejects"));
+        assertThat(rejects).containsExactly(
+                "3\tPassword is not a bcrypt hash\tbob,not-a-hash,10,0",
+                "5\tUsername is taken\ttaken," + hash + ",5,5",
+                "7\tUsername is taken\talice," + hash + ",1,1");
+        ReconciliationReport reconciliation = reconciliationService.reconcile(2, 100, 10);
+        assertThat(reconciliation.getMismatchCount()).isZero();
+    }
+
+    @Test
+    public void givenCompletedImport_whenImportedAgain_thenNothingIsRead() throws IOException {
+        write("legacy.ndjson",
+                "{\"username\":\"alice\",\"password\":\"" + hash + "\",\"balances\":{\"USD\":1500}}",
+                "{\"username\":\"bob\",\"password\":\"" + hash + "\"}",
+                "{\"username\":\"carol\",\"password\":\"" + hash + "\",\"balances\":{\"EUR\":3}}");
+        importService.importFile("legacy.ndjson");
+
+        ImportReport again = importService.importFile("legacy.ndjson");
+
+        assertThat(again.getLines()).isZero();
+        assertThat(again.getResumedAtLine()).isEqualTo(3);
+        assertThat(again.getImported()).isEqualTo(3);
+        assertThat(again.getRejected()).isZero();
+        assertThat(userRepository.findByUsername("carol")).isPresent();
+        assertThat(Files.readAllLines(DIRECTORY.resolve("legacy.ndjson.rejects"))).isEmpty();
+    }
+
+    @Test
+    public void givenPathInName_whenImported_thenRejected() {
+        assertThatThrownBy(() -> importService.importFile("../legacy.csv"))
+                .isInstanceOf(InvalidRequestException.class);
+        assertThatThrownBy(() -> importService.importFile("legacy.txt"))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private static void write(String name, String... lines) throws IOException {
+        Files.write(DIRECTORY.resolve(name), List.of(lines), StandardCharsets.UTF_8);
+    }
+}
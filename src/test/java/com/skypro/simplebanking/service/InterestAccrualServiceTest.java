@@ -0,0 +1,116 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.InterestAccrualReport;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.interest.annual-rates.USD=0.365",
+        "app.interest.annual-rates.EUR=0.73",
+        "app.interest.ranges=4",
+        "app.interest.chunk-size=2"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class InterestAccrualServiceTest {
+    private static final LocalDate BUSINESS_DATE = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private InterestAccrualService interestAccrualService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<AccountDTO> accounts = new ArrayList<>();
+
+    @BeforeEach
+    public void createAccountsWithBalances() {
+        for (int i = 1; i <= 3; i++) {
+            UserDTO user = userService.createUser("user_" + i, "password");
+            for (AccountCurrency currency : AccountCurrency.BUILT_IN) {
+                long accountId = accountService.openAccount(user.getId(), currency).getId();
+                accounts.add(accountService.depositToAccount(user.getId(), accountId, 10_000L));
+            }
+        }
+    }
+
+    @Test
+    public void givenAccounts_whenInterestIsAccrued_thenEveryAccountIsCreditedWithLedgerEntry() {
+        InterestAccrualReport report = interestAccrualService.accrue(BUSINESS_DATE);
+
+        assertThat(report.getAccountsCredited()).isEqualTo(6);
+        assertThat(report.getInterest()).isEqualTo(Map.of(AccountCurrency.USD, 30L, AccountCurrency.EUR, 60L));
+        assertThat(report.getChunks()).isGreaterThan(1);
+        for (AccountDTO account : accounts) {
+            long expected = account.getCurrency() == AccountCurrency.USD ? 10_010
+                    : account.getCurrency() == AccountCurrency.EUR ? 10_020 : 10_000;
+            assertThat(amount(account.getId())).isEqualTo(expected);
+        }
+        assertThat(jdbcTemplate.queryForObject(
+                "select count(*) from account_movements where type = 'INTEREST'", Long.class)).isEqualTo(6);
+        assertThat(reconciliationService.reconcile(2, 100, 10).getMismatchCount()).isZero();
+    }
+
+    @Test
+    public void givenCompletedDate_whenAccruedAgain_thenNothingIsCredited() {
+        InterestAccrualReport first = interestAccrualService.accrue(BUSINESS_DATE);
+
+        InterestAccrualReport second = interestAccrualService.accrue(BUSINESS_DATE);
+
+        assertThat(second.getRanges()).isEqualTo(first.getRanges());
+        assertThat(second.getRangesAlreadyCompleted()).isEqualTo(first.getRanges());
+        assertThat(second.getAccountsCredited()).isZero();
+        assertThat(amount(accounts.get(0).getId())).isEqualTo(10_010);
+    }
+
+    @Test
+    public void givenInterruptedRun_whenAccruedAgain_thenItContinuesFromCheckpoint() {
+        interestAccrualService.accrue(BUSINESS_DATE);
+        AccountDTO lastUsd = accounts.get(6);
+        // As if the run had stopped right before the last USD account's chunk was committed.
+        jdbcTemplate.update("update interest_checkpoints set completed = false, last_id = ?"
+                + " where business_date = ? and range_start <= ? and range_end > ?",
+                lastUsd.getId() - 1, BUSINESS_DATE, lastUsd.getId(), lastUsd.getId());
+
+        InterestAccrualReport report = interestAccrualService.accrue(BUSINESS_DATE);
+
+        assertThat(report.getRangesAlreadyCompleted()).isEqualTo(report.getRanges() - 1);
+        assertThat(report.getInterest()).containsKey(AccountCurrency.USD);
+        assertThat(amount(lastUsd.getId())).isEqualTo(10_020);
+        assertThat(amount(accounts.get(3).getId())).isEqualTo(10_010);
+    }
+
+    @Test
+    public void givenAnotherDate_whenAccrued_thenInterestCompounds() {
+        interestAccrualService.accrue(BUSINESS_DATE);
+
+        interestAccrualService.accrue(BUSINESS_DATE.plusDays(1));
+
+        assertThat(amount(accounts.get(0).getId())).isEqualTo(10_020);
+    }
+
+    private long amount(long accountId) {
+        return jdbcTemplate.queryForObject("select amount from accounts where id = ?", Long.class, accountId);
+    }
+}
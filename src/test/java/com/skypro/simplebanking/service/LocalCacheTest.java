@@ -0,0 +1,97 @@
+package com.skypro.simplebanking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LocalCacheTest {
+
+    @Test
+    public void givenEvictionDuringLoad_whenLoadFinishes_thenValueIsNotKept() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, TimeUnit.MINUTES.toNanos(1));
+
+        String loaded = cache.get(1L, () -> {
+            cache.evict(1L);
+            return "stale";
+        });
+
+        assertThat(loaded).isEqualTo("stale");
+        assertThat(cache.get(1L, () -> "fresh")).isEqualTo("fresh");
+        assertThat(cache.get(1L, () -> "reloaded")).isEqualTo("fresh");
+    }
+
+    @Test
+    public void givenEvictionAfterGenerationWasTaken_whenPut_thenValueIsNotKept() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, TimeUnit.MINUTES.toNanos(1));
+        long generation = cache.generation(1L);
+        cache.evict(1L);
+
+        cache.putIfCurrent(1L, "stale", generation);
+        assertThat(cache.peek(1L)).isNull();
+
+        cache.putIfCurrent(1L, "fresh", cache.generation(1L));
+        assertThat(cache.peek(1L)).isEqualTo("fresh");
+    }
+
+    @Test
+    public void givenEvictionOfAnotherKeyDuringLoad_whenLoadFinishes_thenValueIsKept() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, TimeUnit.MINUTES.toNanos(1));
+
+        cache.get(1L, () -> {
+            cache.evict(2L);
+            return "kept";
+        });
+
+        assertThat(cache.peek(1L)).isEqualTo("kept");
+    }
+
+    @Test
+    public void givenEvictionFollowedByChurn_whenStaleValueIsPut_thenItIsNotKept() {
+        LocalCache<Long, String> cache = new LocalCache<>(2, TimeUnit.MINUTES.toNanos(1));
+        long generation = cache.generation(1L);
+        cache.evict(1L);
+        cache.get(2L, () -> "two");
+        cache.get(3L, () -> "three");
+        cache.get(4L, () -> "four");
+
+        cache.putIfCurrent(1L, "stale", generation);
+
+        assertThat(cache.peek(1L)).isNull();
+    }
+
+    @Test
+    public void givenExpiredEntry_whenRead_thenValueIsReloaded() {
+        LocalCache<Long, String> cache = new LocalCache<>(10, 0);
+
+        cache.get(1L, () -> "first");
+
+        assertThat(cache.get(1L, () -> "second")).isEqualTo("second");
+    }
+
+    @Test
+    public void givenFullCache_whenNewKeyIsLoaded_thenOneOldEntryIsDropped() {
+        LocalCache<Long, String> cache = new LocalCache<>(2, TimeUnit.MINUTES.toNanos(1));
+        cache.get(1L, () -> "one");
+        cache.get(2L, () -> "two");
+
+        cache.get(3L, () -> "three");
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.peek(3L)).isEqualTo("three");
+    }
+
+    @Test
+    public void givenUsernameWithSeparators_whenMessageIsEncoded_thenItParsesBack() {
+        String userKey = InvalidationMessage.userKey("a,b:c");
+        InvalidationMessage message = new InvalidationMessage("node", 7, List.of("a1", userKey));
+
+        InvalidationMessage parsed = InvalidationMessage.parse(message.encode());
+
+        assertThat(parsed).isEqualTo(message);
+        assertThat(InvalidationMessage.username(parsed.keys().get(1))).isEqualTo("a,b:c");
+        assertThat(InvalidationMessage.parse("garbage")).isNull();
+    }
+}
@@ -0,0 +1,157 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InsufficientFundsException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Supplier;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Guards the allocation budget of the money path: bytes allocated by the calling thread per
+ * operation, measured after warm-up with SQL logging off. The budgets are deliberately generous, so
+ * a failure means a real regression (an exception stack walk, an accidental entity graph load, SQL
+ * logging left on) rather than noise; tighten them as the path gets leaner.
+ */
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "spring.jpa.properties.hibernate.format_sql=false"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class MoneyPathAllocationTest {
+    private static final int WARM_UP = 200;
+    private static final int MEASURED = 500;
+    private static final long DEPOSIT_BUDGET = 256 * 1024;
+    private static final long REJECTED_WITHDRAWAL_BUDGET = 256 * 1024;
+    private static final long TRANSFER_BUDGET = 768 * 1024;
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private DepositCoalescer depositCoalescer;
+
+    @Autowired
+    private TransferService transferService;
+
+    private UserDTO sender;
+    private UserDTO recipient;
+    private long senderAccountId;
+    private long recipientAccountId;
+
+    @BeforeEach
+    public void createUsers() {
+        sender = userService.createUser("user_1", "password");
+        recipient = userService.createUser("user_2", "password");
+        senderAccountId = accountService.openAccount(sender.getId(), AccountCurrency.USD).getId();
+        recipientAccountId = accountService.openAccount(recipient.getId(), AccountCurrency.USD).getId();
+        accountService.depositToAccount(sender.getId(), senderAccountId, 1_000_000_000L);
+    }
+
+    @Test
+    public void givenWarmPath_whenDeposit_thenAllocationWithinBudget() {
+        long bytes = bytesPerOperation(() -> depositCoalescer.deposit(sender.getId(), senderAccountId, 1L));
+
+        assertThat(bytes).isLessThan(DEPOSIT_BUDGET);
+    }
+
+    @Test
+    public void givenWarmPath_whenWithdrawalRejected_thenAllocationWithinBudget() {
+        long bytes = bytesPerOperation(() -> {
+            assertThatThrownBy(() -> accountService.withdrawFromAccount(
+                    recipient.getId(), recipientAccountId, 1L))
+                    .isInstanceOf(InsufficientFundsException.class);
+            return null;
+        });
+
+        assertThat(bytes).isLessThan(REJECTED_WITHDRAWAL_BUDGET);
+    }
+
+    @Test
+    public void givenWarmPath_whenTransfer_thenAllocationWithinBudget() {
+        TransferRequest transferRequest = transferRequest();
+
+        long bytes = bytesPerOperation(() -> {
+            transferService.transfer(sender.getId(), transferRequest);
+            return null;
+        });
+
+        assertThat(bytes).isLessThan(TRANSFER_BUDGET);
+    }
+
+    @Test
+    public void givenBusinessRejection_whenThrown_thenNoStackTrace() {
+        assertThatThrownBy(() -> accountService.withdrawFromAccount(
+                recipient.getId(), recipientAccountId, 1L))
+                .isInstanceOf(InsufficientFundsException.class)
+                .satisfies(e -> assertThat(e.getStackTrace()).isEmpty());
+    }
+
+    @Test
+    public void givenRecording_whenMoneyMoves_thenEventsCarryOutcome(@TempDir Path directory) throws Exception {
+        Path file = directory.resolve("money.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(DepositEvent.class);
+            recording.enable(WithdrawalEvent.class);
+            recording.enable(TransferEvent.class);
+            recording.start();
+
+            depositCoalescer.deposit(sender.getId(), senderAccountId, 5L);
+            assertThatThrownBy(() -> accountService.withdrawFromAccount(
+                    recipient.getId(), recipientAccountId, 1L))
+                    .isInstanceOf(InsufficientFundsException.class);
+            transferService.transfer(sender.getId(), transferRequest());
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events)
+                .extracting(event -> event.getEventType().getName(), event -> event.getString("outcome"))
+                .containsExactly(
+                        tuple("com.skypro.simplebanking.Deposit", "SUCCEEDED"),
+                        tuple("com.skypro.simplebanking.Withdrawal", "INSUFFICIENT_FUNDS"),
+                        tuple("com.skypro.simplebanking.Transfer", "SUCCEEDED"));
+        assertThat(events.get(2).getLong("toUserId")).isEqualTo(recipient.getId());
+        assertThat(events).allSatisfy(event -> assertThat(event.getDuration("dbTime")).isPositive());
+    }
+
+    private long bytesPerOperation(Supplier<?> operation) {
+        for (int i = 0; i < WARM_UP; i++) {
+            operation.get();
+        }
+        long before = THREAD_MX_BEAN.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < MEASURED; i++) {
+            operation.get();
+        }
+        return (THREAD_MX_BEAN.getCurrentThreadAllocatedBytes() - before) / MEASURED;
+    }
+
+    private TransferRequest transferRequest() {
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setFromAccountId(senderAccountId);
+        transferRequest.setToUserId(recipient.getId());
+        transferRequest.setToAccountId(recipientAccountId);
+        transferRequest.setAmount(1L);
+        return transferRequest;
+    }
+}
@@ -0,0 +1,103 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.AccountDTO;
+import com.skypro.simplebanking.dto.BalanceMismatch;
+import com.skypro.simplebanking.dto.CurrencyChecksum;
+import com.skypro.simplebanking.dto.ReconciliationReport;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ReconciliationServiceTest {
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private AccountDTO usdAccount;
+
+    @BeforeEach
+    public void moveMoneyAround() {
+        UserDTO sender = userService.createUser("user_1", "password");
+        UserDTO recipient = userService.createUser("user_2", "password");
+        for (AccountCurrency currency : AccountCurrency.BUILT_IN) {
+            accountService.openAccount(sender.getId(), currency);
+            accountService.openAccount(recipient.getId(), currency);
+        }
+        usdAccount = accountService.openAccount(sender.getId(), AccountCurrency.USD);
+        accountService.depositToAccount(sender.getId(), usdAccount.getId(), 5_000L);
+        accountService.withdrawFromAccount(sender.getId(), usdAccount.getId(), 1_000L);
+        accountService.enableStriping(sender.getId(), usdAccount.getId(), 4);
+        accountService.depositToAccount(sender.getId(), usdAccount.getId(), 300L);
+
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setFromAccountId(usdAccount.getId());
+        transferRequest.setToUserId(recipient.getId());
+        transferRequest.setToAccountId(
+                accountService.openAccount(recipient.getId(), AccountCurrency.USD).getId());
+        transferRequest.setAmount(2_000L);
+        transferService.transfer(sender.getId(), transferRequest);
+    }
+
+    @Test
+    public void givenConsistentLedger_whenReconciled_thenNoMismatchesAndChecksumsAgree() {
+        ReconciliationReport report = reconciliationService.reconcile(2, 2, 10);
+
+        assertThat(report.getAccountsScanned()).isEqualTo(6);
+        assertThat(report.getChunks()).isGreaterThan(1);
+        assertThat(report.getMismatchCount()).isZero();
+        assertThat(report.getCurrencies()).hasSize(3);
+        for (CurrencyChecksum checksum : report.getCurrencies()) {
+            assertThat(checksum.getAccounts()).isEqualTo(2);
+            assertThat(checksum.getBalanceTotal()).isEqualTo(checksum.getMovementTotal());
+            assertThat(checksum.getBalanceChecksum()).isEqualTo(checksum.getMovementChecksum());
+        }
+        assertThat(report.getCurrencies().get(0).getCurrency()).isEqualTo(AccountCurrency.USD);
+        assertThat(report.getCurrencies().get(0).getBalanceTotal()).isEqualTo(4_300L);
+    }
+
+    @Test
+    public void givenBalanceChangedOutsideLedger_whenReconciled_thenMismatchIsReported() {
+        jdbcTemplate.update("update accounts set amount = amount + 7 where id = ?", usdAccount.getId());
+
+        ReconciliationReport report = reconciliationService.reconcile(2, 2, 10);
+
+        assertThat(report.getMismatchCount()).isEqualTo(1);
+        BalanceMismatch mismatch = report.getMismatches().get(0);
+        assertThat(mismatch.getAccountId()).isEqualTo(usdAccount.getId());
+        assertThat(mismatch.getBalance() - mismatch.getMovementTotal()).isEqualTo(7);
+        assertThat(report.getCurrencies().get(0).getBalanceChecksum())
+                .isNotEqualTo(report.getCurrencies().get(0).getMovementChecksum());
+    }
+
+    @Test
+    public void givenMismatchLimit_whenReconciled_thenOnlyCountIsReported() {
+        jdbcTemplate.update("update accounts set amount = amount + 7");
+
+        ReconciliationReport report = reconciliationService.reconcile(2, 2, 0);
+
+        assertThat(report.getMismatchCount()).isEqualTo(6);
+        assertThat(report.getMismatches()).isEmpty();
+    }
+}
@@ -0,0 +1,74 @@
+package com.skypro.simplebanking.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SnapshotFormatTest {
+
+    @Test
+    public void givenWrittenRecords_whenRead_thenFieldsRoundTrip() {
+        ByteBuffer buffer = ByteBuffer.allocate(SnapshotFormat.USER_SIZE + SnapshotFormat.ACCOUNT_SIZE);
+
+        SnapshotFormat.writeUser(buffer, 0, 7L, "юзер", "{bcrypt}$2a$10$hash");
+        SnapshotFormat.writeAccount(buffer, SnapshotFormat.USER_SIZE, 9L, 7L, -15L, 2);
+
+        assertThat(SnapshotFormat.isValidUser(buffer, 0)).isTrue();
+        assertThat(SnapshotFormat.id(buffer, 0)).isEqualTo(7L);
+        int usernameLength = SnapshotFormat.usernameLength(buffer, 0);
+        assertThat(StandardCharsets.UTF_8.decode(
+                buffer.slice(SnapshotFormat.usernameOffset(0), usernameLength)).toString())
+                .isEqualTo("юзер");
+        assertThat(StandardCharsets.UTF_8.decode(buffer.slice(
+                SnapshotFormat.usernameOffset(0) + usernameLength,
+                SnapshotFormat.passwordLength(buffer, 0))).toString())
+                .isEqualTo("{bcrypt}$2a$10$hash");
+        int account = SnapshotFormat.USER_SIZE;
+        assertThat(SnapshotFormat.isValidAccount(buffer, account)).isTrue();
+        assertThat(SnapshotFormat.id(buffer, account)).isEqualTo(9L);
+        assertThat(SnapshotFormat.userId(buffer, account)).isEqualTo(7L);
+        assertThat(SnapshotFormat.balance(buffer, account)).isEqualTo(-15L);
+        assertThat(SnapshotFormat.currency(buffer, account)).isEqualTo(2);
+    }
+
+    @Test
+    public void givenFlippedBit_whenVerified_thenRecordIsCorrupt() {
+        ByteBuffer buffer = ByteBuffer.allocate(SnapshotFormat.USER_SIZE + SnapshotFormat.ACCOUNT_SIZE);
+        SnapshotFormat.writeUser(buffer, 0, 7L, "user", "password");
+        SnapshotFormat.writeAccount(buffer, SnapshotFormat.USER_SIZE, 9L, 7L, 100L, 0);
+
+        buffer.put(20, (byte) (buffer.get(20) ^ 1));
+        buffer.put(SnapshotFormat.USER_SIZE + 16, (byte) (buffer.get(SnapshotFormat.USER_SIZE + 16) ^ 1));
+
+        assertThat(SnapshotFormat.isValidUser(buffer, 0)).isFalse();
+        assertThat(SnapshotFormat.isValidAccount(buffer, SnapshotFormat.USER_SIZE)).isFalse();
+    }
+
+    @Test
+    public void givenHeader_whenShardTableIsChanged_thenHeaderIsCorrupt() {
+        ByteBuffer header = ByteBuffer.allocate(SnapshotFormat.headerSize(2));
+        SnapshotFormat.writeHeader(header, 1L, new long[] {3, 4}, new long[] {9, 12});
+
+        assertThat(SnapshotFormat.readShardCount(header)).isEqualTo(2);
+        SnapshotFormat.verifyHeader(header, 2);
+        assertThat(SnapshotFormat.users(header, 1)).isEqualTo(4);
+        assertThat(SnapshotFormat.accounts(header, 1)).isEqualTo(12);
+
+        header.putLong(SnapshotFormat.headerSize(1) + 8, 13);
+
+        assertThatThrownBy(() -> SnapshotFormat.verifyHeader(header, 2))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void givenTooLongUser_whenWritten_thenRejected() {
+        ByteBuffer buffer = ByteBuffer.allocate(SnapshotFormat.USER_SIZE);
+
+        assertThatThrownBy(() -> SnapshotFormat.writeUser(buffer, 0, 1L, "u".repeat(200), "p".repeat(60)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,131 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.dto.ReconciliationReport;
+import com.skypro.simplebanking.dto.SnapshotReport;
+import com.skypro.simplebanking.dto.TransferRequest;
+import com.skypro.simplebanking.dto.UserDTO;
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.InvalidRequestException;
+import com.skypro.simplebanking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {"app.snapshot.directory=target/test-snapshots", "app.snapshot.chunk-size=2"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class SnapshotServiceTest {
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private ReconciliationService reconciliationService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserDTO sender;
+    private UserDTO recipient;
+
+    @BeforeEach
+    public void moveMoneyAround() {
+        sender = userService.createUser("user_1", "password");
+        recipient = userService.createUser("user_2", "password");
+        long usdAccount = accountService.openAccount(sender.getId(), AccountCurrency.USD).getId();
+        long recipientAccount = accountService.openAccount(recipient.getId(), AccountCurrency.USD).getId();
+        accountService.depositToAccount(sender.getId(), usdAccount, 5_000L);
+        accountService.enableStriping(sender.getId(), usdAccount, 4);
+        accountService.depositToAccount(sender.getId(), usdAccount, 300L);
+
+        TransferRequest transferRequest = new TransferRequest();
+        transferRequest.setFromAccountId(usdAccount);
+        transferRequest.setToUserId(recipient.getId());
+        transferRequest.setToAccountId(recipientAccount);
+        transferRequest.setAmount(2_000L);
+        transferService.transfer(sender.getId(), transferRequest);
+    }
+
+    @Test
+    public void givenExportedSnapshot_whenRestoredIntoEmptyTables_thenUsersAndBalancesAreBack() {
+        SnapshotReport exported = snapshotService.export();
+        assertThat(exported.getUsers()).isEqualTo(2);
+        assertThat(exported.getAccounts()).isEqualTo(2);
+        emptyTables();
+
+        SnapshotReport restored = snapshotService.restore(exported.getFile());
+
+        assertThat(restored.getUsers()).isEqualTo(2);
+        assertThat(restored.getAccounts()).isEqualTo(2);
+        assertThat(userService.getUser(sender.getId()).getAccounts().get(0).getAmount()).isEqualTo(3_300L);
+        assertThat(userService.getUser(recipient.getId()).getAccounts().get(0).getAmount()).isEqualTo(2_000L);
+        assertThat(passwordEncoder.matches(
+                "password", userRepository.findByUsername("user_1").orElseThrow().getPassword())).isTrue();
+        ReconciliationReport report = reconciliationService.reconcile(2, 100, 10);
+        assertThat(report.getAccountsScanned()).isEqualTo(2);
+        assertThat(report.getMismatchCount()).isZero();
+        assertThat(userService.createUser("user_3", "password").getId()).isGreaterThan(recipient.getId());
+    }
+
+    @Test
+    public void givenNonEmptyTables_whenRestored_thenRejected() {
+        SnapshotReport exported = snapshotService.export();
+
+        assertThatThrownBy(() -> snapshotService.restore(exported.getFile()))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    public void givenCorruptRecord_whenRestored_thenRejected() throws IOException {
+        SnapshotReport exported = snapshotService.export();
+        emptyTables();
+        try (FileChannel channel = FileChannel.open(
+                Path.of("target/test-snapshots", exported.getFile()), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {42}), exported.getBytes() - 8);
+        }
+
+        assertThatThrownBy(() -> snapshotService.restore(exported.getFile()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("corrupt");
+    }
+
+    @Test
+    public void givenPathInName_whenRestored_thenRejected() {
+        assertThatThrownBy(() -> snapshotService.restore("../snapshot-1.bin"))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    private void emptyTables() {
+        jdbcTemplate.execute("delete from account_movements");
+        jdbcTemplate.execute("delete from account_stripes");
+        jdbcTemplate.execute("delete from accounts");
+        jdbcTemplate.execute("delete from users");
+    }
+}
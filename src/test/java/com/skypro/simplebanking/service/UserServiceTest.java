@@ -0,0 +1,70 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.exception.UserAlreadyExistsException;
+import com.skypro.simplebanking.repository.AccountMovementRepository;
+import com.skypro.simplebanking.repository.AccountRepository;
+import com.skypro.simplebanking.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class UserServiceTest {
+    private static final int CONCURRENT_REQUESTS = 8;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private AccountMovementRepository accountMovementRepository;
+
+    @Test
+    public void givenConcurrentRequestsForOneUsername_whenCreateUser_thenExactlyOneSucceeds() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return userService.createUser("user", "password");
+            }));
+        }
+        start.countDown();
+
+        int created = 0;
+        int rejected = 0;
+        for (Future<?> result : results) {
+            try {
+                result.get();
+                created++;
+            } catch (ExecutionException e) {
+                assertThat(e.getCause()).isInstanceOf(UserAlreadyExistsException.class);
+                rejected++;
+            }
+        }
+        executor.shutdown();
+
+        assertThat(created).isEqualTo(1);
+        assertThat(rejected).isEqualTo(CONCURRENT_REQUESTS - 1);
+        assertThat(userRepository.count()).isEqualTo(1);
+        assertThat(accountRepository.count()).isZero();
+        assertThat(accountMovementRepository.count()).isZero();
+    }
+}
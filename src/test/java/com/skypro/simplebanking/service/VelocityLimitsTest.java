@@ -0,0 +1,133 @@
+package com.skypro.simplebanking.service;
+
+import com.skypro.simplebanking.entity.AccountCurrency;
+import com.skypro.simplebanking.exception.VelocityLimitExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class VelocityLimitsTest {
+    private static final long ACCOUNT = 1L;
+    private static final long NOW = TimeUnit.DAYS.toMillis(20_000);
+    private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+    private static final long HOUR = TimeUnit.HOURS.toMillis(1);
+
+    private final VelocityLimits limits = VelocityLimits.start(
+            Map.of("USD", 1000L), Map.of("USD", 3000L));
+
+    @AfterEach
+    public void closeLimits() {
+        limits.close();
+    }
+
+    @Test
+    public void givenOutflowsUpToHourlyLimit_whenMoreWithinHour_thenRejected() {
+        limits.reserve(ACCOUNT, AccountCurrency.USD, 600, NOW);
+        limits.reserve(ACCOUNT, AccountCurrency.USD, 400, NOW + 30 * MINUTE);
+
+        assertThatThrownBy(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 1, NOW + 40 * MINUTE))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .hasMessageContaining("Hourly");
+    }
+
+    @Test
+    public void givenHourlyLimitReached_whenWindowHasPassed_thenAllowedAgain() {
+        limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW);
+
+        assertThatCode(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW + 66 * MINUTE))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void givenOutflowAtEndOfBucket_whenSpentAgain59MinutesLater_thenRejected() {
+        limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW + 4 * MINUTE);
+
+        assertThatThrownBy(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 1, NOW + 63 * MINUTE))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .hasMessageContaining("Hourly");
+    }
+
+    @Test
+    public void givenOutflowsAtEndOfHour_whenSpentAgainWithin24Hours_thenRejected() {
+        for (int bucket = 0; bucket < 3; bucket++) {
+            limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW + 59 * MINUTE + 2 * bucket * HOUR);
+        }
+
+        assertThatThrownBy(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 1, NOW + 24 * HOUR + 58 * MINUTE))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .hasMessageContaining("Daily");
+    }
+
+    @Test
+    public void givenOutflowsUpToDailyLimit_whenMoreWithinDay_thenRejected() {
+        for (int hour = 0; hour < 3; hour++) {
+            limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW + 2 * hour * HOUR);
+        }
+
+        assertThatThrownBy(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 1, NOW + 20 * HOUR))
+                .isInstanceOf(VelocityLimitExceededException.class)
+                .hasMessageContaining("Daily");
+        assertThatCode(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW + 26 * HOUR))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void givenRejectedOutflow_whenReservingWithinLimit_thenRejectedAmountNotCounted() {
+        limits.reserve(ACCOUNT, AccountCurrency.USD, 900, NOW);
+        assertThatThrownBy(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 200, NOW))
+                .isInstanceOf(VelocityLimitExceededException.class);
+
+        assertThatCode(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 100, NOW))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void givenCurrencyWithoutLimit_whenReserving_thenNeverRejected() {
+        assertThatCode(() -> limits.reserve(ACCOUNT, AccountCurrency.EUR, Long.MAX_VALUE / 2, NOW))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void givenRecordedHistory_whenReserving_thenHistoryCounts() {
+        limits.record(ACCOUNT, 800, NOW - 10 * MINUTE);
+
+        assertThatThrownBy(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 300, NOW))
+                .isInstanceOf(VelocityLimitExceededException.class);
+    }
+
+    @Test
+    public void givenRolledBackTransaction_whenReserving_thenAmountReleased() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThatCode(() -> limits.reserve(ACCOUNT, AccountCurrency.USD, 1000, NOW))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void givenIdleAccount_whenSwept_thenWindowDropped() {
+        limits.reserve(ACCOUNT, AccountCurrency.USD, 100, NOW);
+
+        limits.sweep(NOW + HOUR);
+        int afterHour = limits.getTrackedAccounts();
+        limits.sweep(NOW + 26 * HOUR);
+
+        assertThat(afterHour).isEqualTo(1);
+        assertThat(limits.getTrackedAccounts()).isZero();
+    }
+}
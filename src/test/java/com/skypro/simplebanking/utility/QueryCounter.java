@@ -0,0 +1,158 @@
+package com.skypro.simplebanking.utility;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Records the SQL sent over JDBC on the request thread, so controller tests can hold each endpoint
+ * to a query budget. Wraps the application's {@code dataSource} bean, so statements run by
+ * Hibernate and by {@code JdbcTemplate} are both seen. A batched insert or update counts once, as
+ * it is one round trip; sequence calls are left out, since the pooled optimizer fetches ids in
+ * blocks and they would make budgets depend on test order.
+ */
+@Component
+public class QueryCounter implements BeanPostProcessor {
+    private static final Pattern SEQUENCE_CALL = Pattern.compile("^\\s*select\\s+nextval", Pattern.CASE_INSENSITIVE);
+    private static final Set<Class<?>> WRAPPED = Set.of(
+            Connection.class, Statement.class, PreparedStatement.class, CallableStatement.class);
+    private static final ThreadLocal<List<String>> QUERIES = new ThreadLocal<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && beanName.equals("dataSource")) {
+            return wrap(DataSource.class, dataSource, null);
+        }
+        return bean;
+    }
+
+    /**
+     * Wraps a data source, connection or statement so that every connection and statement it hands
+     * out is wrapped as well; {@code sql} is what a prepared statement was prepared with.
+     */
+    private static <T> T wrap(Class<T> type, T target, String sql) {
+        List<String> batch = new ArrayList<>();
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        if (method.getName().equals("addBatch") && args != null) {
+                            batch.add((String) args[0]);
+                        } else if (method.getName().startsWith("execute")) {
+                            if (args != null && args.length > 0 && args[0] instanceof String executed) {
+                                record(executed);
+                            } else if (sql != null) {
+                                record(sql);
+                            } else if (!batch.isEmpty()) {
+                                record(batch.get(0));
+                            }
+                            batch.clear();
+                        }
+                        yield wrapResult(method, invoke(method, target, args), args);
+                    }
+                }));
+    }
+
+    private static Object wrapResult(Method method, Object result, Object[] args) {
+        Class<?> type = method.getReturnType();
+        if (result == null || !WRAPPED.contains(type)) {
+            return result;
+        }
+        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+        return wrap(cast(type), result, sql);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Class<T> cast(Class<?> type) {
+        return (Class<T>) type;
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static void record(String sql) {
+        List<String> queries = QUERIES.get();
+        if (queries != null && !SEQUENCE_CALL.matcher(sql).find()) {
+            queries.add(sql);
+        }
+    }
+
+    /** Starts counting when the request is dispatched. */
+    public static RequestPostProcessor countingQueries() {
+        return request -> {
+            QUERIES.set(new ArrayList<>());
+            return request;
+        };
+    }
+
+    /** Runs the action on this thread and returns the SQL it ran. */
+    public static List<String> statementsOf(Runnable action) {
+        QUERIES.set(new ArrayList<>());
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            QUERIES.remove();
+            throw e;
+        }
+        return stopCounting();
+    }
+
+    public static ResultMatcher queries(int expected) {
+        return result -> {
+            List<String> queries = stopCounting();
+            if (queries.size() != expected) {
+                fail(report("Expected " + expected, queries));
+            }
+        };
+    }
+
+    public static ResultMatcher atMostQueries(int budget) {
+        return result -> {
+            List<String> queries = stopCounting();
+            if (queries.size() > budget) {
+                fail(report("Expected at most " + budget, queries));
+            }
+        };
+    }
+
+    private static List<String> stopCounting() {
+        List<String> queries = QUERIES.get();
+        QUERIES.remove();
+        if (queries == null) {
+            fail("Queries were not counted, add .with(countingQueries()) to the request");
+        }
+        return queries;
+    }
+
+    private static String report(String expectation, List<String> queries) {
+        StringBuilder report = new StringBuilder(expectation)
+                .append(" queries but the request ran ")
+                .append(queries.size())
+                .append(':');
+        for (int i = 0; i < queries.size(); i++) {
+            report.append(System.lineSeparator()).append(i + 1).append(". ").append(queries.get(i));
+        }
+        return report.toString();
+    }
+}